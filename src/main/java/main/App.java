@@ -1,16 +1,22 @@
 package main;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import main.commands.Command;
 import main.commands.CommandFactory;
+import main.database.Checkpointer;
 import main.database.Database;
+import main.database.WriteAheadLog;
+import main.utils.InputCursor;
 import main.utils.InputData;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -30,6 +36,21 @@ public class App {
     private static final ObjectWriter WRITER =
             new ObjectMapper().writer().withDefaultPrettyPrinter();
 
+    /**
+     * Runs the application from the command line: {@code [--resume] <input> <output>}.
+     *
+     * @param args the arguments; --resume continues a run that died, see {@link #run}
+     */
+    public static void main(final String[] args) throws IOException {
+        boolean resume = args.length > 0 && "--resume".equals(args[0]);
+        int first = resume ? 1 : 0;
+        if (args.length - first != 2) {
+            System.err.println("usage: App [--resume] <input> <output>");
+            return;
+        }
+        run(args[first], args[first + 1], resume);
+    }
+
     /**
      * Runs the application: reads commands from an input file,
      * processes them, generates results, and writes them to an output file
@@ -38,6 +59,23 @@ public class App {
      * @param outputPath path to the file where results should be written
      */
     public static void run(final String inputPath, final String outputPath) throws IOException {
+        run(inputPath, outputPath, false);
+    }
+
+    /**
+     * Runs the application, optionally resuming a run that died.
+     * A resumable run keeps a write-ahead log with checkpoints next to its output,
+     * unless "bugtracker.wal.dir" names another directory. Resuming restores the
+     * latest checkpoint with the outputs it covers, replays the log after it and
+     * carries on from the input offset the last recovered command ends at, so the
+     * output ends up the same as that of an uninterrupted run.
+     *
+     * @param inputPath path to the input file containing commands
+     * @param outputPath path to the file where results should be written
+     * @param resume true to log next to the output and continue what a run left there
+     */
+    public static void run(final String inputPath, final String outputPath,
+                           final boolean resume) throws IOException {
         // feel free to change this if needed
         // however keep 'outputs' variable name to be used for writing
         List<ObjectNode> outputs = new ArrayList<>();
@@ -55,15 +93,58 @@ public class App {
 
         // TODO 2: process commands.
 
-        InputData[] commandsInput = MAPPER.readValue(new File(inputPath), InputData[].class);
+        byte[] commandsJson = Files.readAllBytes(Path.of(inputPath));
+        long fingerprint = WriteAheadLog.fingerprint(commandsJson);
 
-        for (InputData input : commandsInput) {
-            // Folosim Factory pentru a crea comanda corectă
-            Command command = CommandFactory.createCommand(input);
+        // Optional write-ahead log: restore what a crashed run left, then log as we go
+        Path resumeDir = resume ? WriteAheadLog.resumeDirFor(outputPath) : null;
+        WriteAheadLog wal = WriteAheadLog.openFromProperties(fingerprint, resumeDir);
+        Checkpointer checkpointer = null;
+        Position start = new Position(0, 0);
+        if (wal != null) {
+            checkpointer = Checkpointer.fromProperties(fingerprint, wal);
+            start = recover(checkpointer, wal, outputs);
+        }
+        int unlogged = outputs.size(); // The first output no record carries yet
+
+        int i = start.next();
+        try (InputCursor cursor = new InputCursor(MAPPER, commandsJson, start.inputOffset())) {
+            for (JsonNode commandTree = cursor.next(); commandTree != null;
+                    commandTree = cursor.next(), i++) {
+                InputData input = MAPPER.treeToValue(commandTree, InputData.class);
+                // Folosim Factory pentru a crea comanda corectă
+                Command command = CommandFactory.createCommand(input);
 
-            if (command != null) {
-                // Executăm comanda și îi dăm lista de outputs ca să poată scrie în ea
-                command.execute(outputs);
+                if (command != null) {
+                    boolean logged = wal != null && WriteAheadLog.isLogged(input.getCommand());
+                    if (logged) {
+                        wal.append(i, cursor.getOffset(), input.getCommand(), commandTree,
+                                outputs.subList(unlogged, outputs.size()));
+                    }
+                    // Executăm comanda și îi dăm lista de outputs ca să poată scrie în ea
+                    command.execute(outputs);
+                    Database.getInstance().moveColdTickets(input.getTimestamp());
+                    if (logged) {
+                        unlogged = outputs.size();
+                    }
+                    if (checkpointer != null) {
+                        checkpointer.onCommand(Database.getInstance(), i, cursor.getOffset(),
+                                logged, outputs);
+                    }
+                }
+            }
+            if (checkpointer != null) {
+                checkpointer.awaitPending();
+                if (Boolean.getBoolean(Checkpointer.STATS_PROPERTY)) {
+                    System.err.println(checkpointer.describe());
+                }
+            }
+        } finally {
+            if (checkpointer != null) {
+                checkpointer.close();
+            }
+            if (wal != null) {
+                wal.close();
             }
         }
 
@@ -77,5 +158,54 @@ public class App {
         } catch (IOException e) {
             System.out.println("error writing to output file: " + e.getMessage());
         }
+
+        // The output now holds the results, so the log is no longer needed
+        if (wal != null && new File(outputPath).length() > 0) {
+            checkpointer.deleteAll();
+            wal.delete();
+            if (wal.getDir().equals(resumeDir)) {
+                Files.deleteIfExists(resumeDir);
+            }
+        }
+    }
+
+    /**
+     * Where the run goes on in the input.
+     *
+     * @param next        The position of the next command to run.
+     * @param inputOffset The byte offset in the input right before it.
+     */
+    private record Position(int next, long inputOffset) {
+    }
+
+    /**
+     * Restores the state a crashed run left: the latest checkpoint with the outputs
+     * produced up to it, then the logged commands after it, run again from the log
+     * along with the outputs of the reads between them. Nothing is taken from the
+     * input; the run carries on from it right after the last command recovered.
+     *
+     * @param checkpointer The checkpoints taken next to the log.
+     * @param wal          The log, with the records recovered when it was opened.
+     * @param outputs      The outputs list, to receive the recovered outputs.
+     * @return Where the run goes on in the input.
+     */
+    private static Position recover(final Checkpointer checkpointer, final WriteAheadLog wal,
+                                    final List<ObjectNode> outputs) throws IOException {
+        Checkpointer.Restored restored = checkpointer.restore(Database.getInstance());
+        outputs.addAll(restored.outputs());
+        long last = restored.sequence();
+        long inputOffset = restored.inputOffset();
+        for (WriteAheadLog.Record record : wal.getRecovered()) {
+            if (record.sequence() <= last) {
+                continue;
+            }
+            outputs.addAll(record.outputsBefore());
+            InputData input = MAPPER.treeToValue(record.tree(), InputData.class);
+            CommandFactory.createCommand(input).execute(outputs);
+            Database.getInstance().moveColdTickets(input.getTimestamp());
+            last = record.sequence();
+            inputOffset = record.inputOffset();
+        }
+        return new Position((int) (last + 1), inputOffset);
     }
 }
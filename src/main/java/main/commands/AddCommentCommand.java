@@ -3,7 +3,9 @@ package main.commands;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
+import main.database.UndoJournal;
 import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
 import main.model.user.User;
 import main.utils.InputData;
 
@@ -94,8 +96,11 @@ public class AddCommentCommand implements Command {
             }
         }
 
-        // Success: add comment
-        ticket.addComment(username, content, timestamp);
+        // Success: add comment, journaling where it went so an undo need not search
+        ticket = db.getTicketForUpdate(ticketId);
+        long offset = ticket.apply(new TicketEvent.CommentAdded(username, timestamp, content));
+        db.getUndoJournal().record(ticketId, username,
+                new UndoJournal.RemoveComment(offset, ticket.getComments().size() - 1));
     }
 
     /**
@@ -2,16 +2,16 @@ package main.commands;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.CustomerImpactAggregate;
 import main.database.Database;
-import main.model.ticket.Ticket;
+import main.database.TicketRiskAggregate;
+import main.model.Priority;
 import main.utils.InputData;
-import main.visitor.CustomerImpactVisitor;
-import main.visitor.TicketRiskVisitor;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Command to generate an application stability report.
@@ -44,49 +44,33 @@ public class AppStabilityReportCommand implements Command {
         String username = input.getUsername();
         String timestamp = input.getTimestamp();
 
-        // 1. Filter active tickets (OPEN and IN_PROGRESS)
-        List<Ticket> activeTickets = db.getTickets().stream()
-                .filter(t -> "OPEN".equals(t.getStatus())
-                        || "IN_PROGRESS".equals(t.getStatus()))
-                .collect(Collectors.toList());
-
-        // 2. Instantiate Visitors
-        TicketRiskVisitor riskVisitor = new TicketRiskVisitor();
-        CustomerImpactVisitor impactVisitor = new CustomerImpactVisitor();
-
-        // 3. Visit tickets to calculate metrics
-        for (Ticket t : activeTickets) {
-            t.accept(riskVisitor);
-            t.accept(impactVisitor);
+        // 1. Risk and impact totals are kept up to date by ticket events
+        TicketRiskAggregate risk = db.getTicketRisk();
+        CustomerImpactAggregate impact = db.getCustomerImpact();
+        String asOf = input.getAsOf();
+        if (asOf != null) {
+            // Point in time: statuses and priorities come from the ticket history
+            risk = new TicketRiskAggregate();
+            impact = new CustomerImpactAggregate();
+            db.getTicketTimeline().collectActive(db.getTickets(), LocalDate.parse(asOf),
+                    risk, impact);
         }
 
-        // 4. Calculate priority distribution (manually)
-        Map<String, Integer> openTicketsByPriority = new HashMap<>();
-        openTicketsByPriority.put("LOW", 0);
-        openTicketsByPriority.put("MEDIUM", 0);
-        openTicketsByPriority.put("HIGH", 0);
-        openTicketsByPriority.put("CRITICAL", 0);
-
-        for (Ticket t : activeTickets) {
-            String p = t.getPriority().name();
-            openTicketsByPriority.put(p, openTicketsByPriority.getOrDefault(p, 0) + 1);
-        }
-
-        // 5. Collect results from visitors
+        // 2. Collect results from the aggregates
         Map<String, String> riskByType = new HashMap<>();
-        riskByType.put("BUG", riskVisitor.getRiskQualifier("BUG"));
-        riskByType.put("FEATURE_REQUEST", riskVisitor.getRiskQualifier("FEATURE_REQUEST"));
-        riskByType.put("UI_FEEDBACK", riskVisitor.getRiskQualifier("UI_FEEDBACK"));
+        riskByType.put("BUG", risk.getRiskQualifier("BUG"));
+        riskByType.put("FEATURE_REQUEST", risk.getRiskQualifier("FEATURE_REQUEST"));
+        riskByType.put("UI_FEEDBACK", risk.getRiskQualifier("UI_FEEDBACK"));
 
         Map<String, Double> impactByType = new HashMap<>();
-        impactByType.put("BUG", impactVisitor.getAverageImpact("BUG"));
-        impactByType.put("FEATURE_REQUEST", impactVisitor.getAverageImpact("FEATURE_REQUEST"));
-        impactByType.put("UI_FEEDBACK", impactVisitor.getAverageImpact("UI_FEEDBACK"));
+        impactByType.put("BUG", impact.getAverageImpact("BUG"));
+        impactByType.put("FEATURE_REQUEST", impact.getAverageImpact("FEATURE_REQUEST"));
+        impactByType.put("UI_FEEDBACK", impact.getAverageImpact("UI_FEEDBACK"));
 
-        // 6. Determine APP STABILITY
+        // 3. Determine APP STABILITY
         String appStability = "PARTIALLY STABLE"; // Default
 
-        if (activeTickets.isEmpty()) {
+        if (risk.getTotal() == 0) {
             appStability = "STABLE";
         } else {
             // Check UNSTABLE: At least one SIGNIFICANT or MAJOR risk
@@ -109,25 +93,27 @@ public class AppStabilityReportCommand implements Command {
             }
         }
 
-        // 7. Build output JSON
+        // 4. Build output JSON
         ObjectNode root = mapper.createObjectNode();
         root.put("command", "appStabilityReport");
         root.put("username", username);
         root.put("timestamp", timestamp);
+        if (asOf != null) {
+            root.put("asOf", asOf);
+        }
 
         ObjectNode report = root.putObject("report");
-        report.put("totalOpenTickets", activeTickets.size());
+        report.put("totalOpenTickets", risk.getTotal());
 
         ObjectNode typeNode = report.putObject("openTicketsByType");
-        typeNode.put("BUG", riskVisitor.getCount("BUG")); // Reuse count from visitor
-        typeNode.put("FEATURE_REQUEST", riskVisitor.getCount("FEATURE_REQUEST"));
-        typeNode.put("UI_FEEDBACK", riskVisitor.getCount("UI_FEEDBACK"));
+        typeNode.put("BUG", risk.getCount("BUG"));
+        typeNode.put("FEATURE_REQUEST", risk.getCount("FEATURE_REQUEST"));
+        typeNode.put("UI_FEEDBACK", risk.getCount("UI_FEEDBACK"));
 
         ObjectNode prioNode = report.putObject("openTicketsByPriority");
-        prioNode.put("LOW", openTicketsByPriority.get("LOW"));
-        prioNode.put("MEDIUM", openTicketsByPriority.get("MEDIUM"));
-        prioNode.put("HIGH", openTicketsByPriority.get("HIGH"));
-        prioNode.put("CRITICAL", openTicketsByPriority.get("CRITICAL"));
+        for (Priority p : Priority.values()) {
+            prioNode.put(p.name(), risk.getCount(p));
+        }
 
         ObjectNode riskNode = report.putObject("riskByType");
         riskNode.put("BUG", riskByType.get("BUG"));
@@ -143,8 +129,8 @@ public class AppStabilityReportCommand implements Command {
 
         outputs.add(root);
 
-        // 8. Execution stop logic
-        if ("STABLE".equals(appStability)) {
+        // 5. Execution stop logic (a look at the past does not stop the present)
+        if ("STABLE".equals(appStability) && asOf == null) {
             db.stopExec();
         }
     }
@@ -3,8 +3,10 @@ package main.commands;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
+import main.database.UndoJournal;
 import main.model.Milestone;
 import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
 import main.model.user.Developer;
 import main.model.user.User;
 import main.model.Priority;
@@ -158,7 +160,7 @@ public class AssignTicketCommand implements Command {
                 outputs.add(error);
                 return;
             }
-            if (isMilestoneBlocked(milestone)) {
+            if (db.getAssignmentEligibility().isMilestoneBlocked(milestone)) {
                 ObjectNode error = JsonNodeFactory.instance.objectNode();
                 error.put("command", "assignTicket");
                 error.put("username", username);
@@ -182,33 +184,9 @@ public class AssignTicketCommand implements Command {
         }
 
         // Success
-        ticket.setAssignee(username);
-        ticket.setStatus("IN_PROGRESS");
-        ticket.setAssignedAt(timestamp);
-
-        ticket.addHistory(new Ticket.HistoryEntry("ASSIGNED", username, timestamp));
-        ticket.addHistory(new Ticket.HistoryEntry("STATUS_CHANGED", username, timestamp)
-                .setFromTo("OPEN", "IN_PROGRESS"));
-    }
-
-    /**
-     * Checks if a milestone is blocked by other active milestones.
-     */
-    private boolean isMilestoneBlocked(final Milestone m) {
-        for (Milestone other : db.getMilestones()) {
-            if (other == m) {
-                continue;
-            }
-            if (other.getBlockingFor() != null
-                    && other.getBlockingFor().contains(m.getName())) {
-                boolean otherIsActive = other.getTicketIds().stream()
-                        .map(db::getTicket)
-                        .anyMatch(t -> t != null && !"CLOSED".equals(t.getStatus()));
-                if (otherIsActive) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        ticket = db.getTicketForUpdate(ticketId);
+        ticket.apply(new TicketEvent.Assigned(username, timestamp));
+        db.getUndoJournal().record(ticketId, username,
+                new UndoJournal.Unassign(ticket.getAssignedAt()));
     }
 }
@@ -0,0 +1,90 @@
+package main.commands;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.Database;
+import main.database.QueryResultCache;
+import main.utils.InputData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Decorator serving read commands (search, viewTickets, viewMilestones) from the
+ * query result cache. The key holds the Database write version, so a result is
+ * reused only while nothing has been written since it was produced.
+ */
+public final class CachedQueryCommand implements Command {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Database db;
+    private final InputData input;
+    private final Command delegate;
+
+    /**
+     * Constructor for CachedQueryCommand.
+     *
+     * @param db       The database instance.
+     * @param input    The input data of the wrapped command.
+     * @param delegate The command computing the result on a cache miss.
+     */
+    public CachedQueryCommand(final Database db, final InputData input, final Command delegate) {
+        this.db = db;
+        this.input = input;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Serves the result from the cache, or runs the wrapped command and caches it.
+     *
+     * @param outputs The list of outputs to append results to.
+     */
+    @Override
+    public void execute(final List<ObjectNode> outputs) {
+        QueryResultCache cache = db.getQueryCache();
+        String filters = normalizeFilters(input.getFilters());
+        String timestamp = input.getTimestamp();
+        String day = timestamp != null && timestamp.length() >= "yyyy-MM-dd".length()
+                ? timestamp.substring(0, "yyyy-MM-dd".length()) : String.valueOf(timestamp);
+
+        List<ObjectNode> cached = cache.get(QueryResultCache.key(input.getCommand(),
+                input.getUsername(), filters, day, db.getWriteVersion()));
+        if (cached != null) {
+            for (ObjectNode node : cached) {
+                outputs.add(withTimestamp(node, timestamp));
+            }
+            return;
+        }
+
+        List<ObjectNode> produced = new ArrayList<>();
+        delegate.execute(produced);
+        outputs.addAll(produced);
+
+        // Milestone rules may have written during the command: key on the version after it
+        cache.put(QueryResultCache.key(input.getCommand(), input.getUsername(), filters, day,
+                db.getWriteVersion()), produced);
+    }
+
+    private ObjectNode withTimestamp(final ObjectNode node, final String timestamp) {
+        if (node.has("timestamp") && !node.get("timestamp").asText().equals(timestamp)) {
+            ObjectNode copy = node.deepCopy();
+            copy.put("timestamp", timestamp);
+            return copy;
+        }
+        return node;
+    }
+
+    // Filters with sorted keys, so equivalent requests share a key
+    private static String normalizeFilters(final Map<String, Object> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return "";
+        }
+        try {
+            return MAPPER.writeValueAsString(new TreeMap<>(filters));
+        } catch (Exception e) {
+            return String.valueOf(new TreeMap<>(filters));
+        }
+    }
+}
@@ -3,7 +3,9 @@ package main.commands;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
+import main.database.UndoJournal;
 import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
 import main.utils.InputData;
 
 import java.util.List;
@@ -55,29 +57,20 @@ public class ChangeStatusCommand implements Command {
             return; // Ignore
         }
 
-        String oldStatus = ticket.getStatus();
-
         // Transition logic
-        switch (currentStatus) {
-            case "IN_PROGRESS":
-                ticket.setStatus("RESOLVED");
-                break;
-            case "RESOLVED":
-                ticket.setStatus("CLOSED");
-                break;
-            default:
-                break;
-        }
-
-        String newStatus = ticket.getStatus();
-
-        if ("RESOLVED".equals(newStatus) || "CLOSED".equals(newStatus)) {
-            ticket.setSolvedAt(input.getTimestamp());
-        }
-
-        if (!oldStatus.equals(newStatus)) {
-            ticket.addHistory(new Ticket.HistoryEntry("STATUS_CHANGED", username, timestamp)
-                    .setFromTo(oldStatus, newStatus));
+        String newStatus = switch (currentStatus) {
+            case "IN_PROGRESS" -> "RESOLVED";
+            case "RESOLVED" -> "CLOSED";
+            default -> currentStatus;
+        };
+
+        // Resolving or closing also records the solve date and resolution time
+        if (!currentStatus.equals(newStatus)) {
+            ticket = db.getTicketForUpdate(ticketId);
+            ticket.apply(new TicketEvent.StatusChanged(username, timestamp,
+                    currentStatus, newStatus));
+            db.getUndoJournal().record(ticketId, username,
+                    new UndoJournal.RevertStatus(currentStatus, newStatus));
         }
     }
 }
@@ -22,36 +22,56 @@ public final class CommandFactory {
      * @return A concrete Command instance or null if unknown.
      */
     public static Command createCommand(final InputData data) {
+        return createCommand(data, DB);
+    }
+
+    /**
+     * Creates a command that runs against a given database, such as a fork
+     * (see {@link Database#fork}).
+     *
+     * @param data The input data containing the command name and parameters.
+     * @param db   The database.
+     * @return A concrete Command instance or null if unknown.
+     */
+    public static Command createCommand(final InputData data, final Database db) {
         String type = data.getCommand();
 
         return switch (type) {
-            case "reportTicket" -> new ReportTicketCommand(data);
-            case "viewTickets" -> new ViewTicketsCommand(data);
-            case "createMilestone" -> new CreateMilestoneCommand(DB, data);
-            case "viewMilestones" -> new ViewMilestonesCommand(DB, data);
+            case "reportTicket" -> new ReportTicketCommand(db, data);
+            case "viewTickets" -> cached(db, data, new ViewTicketsCommand(db, data));
+            case "createMilestone" -> new CreateMilestoneCommand(db, data);
+            case "viewMilestones" -> cached(db, data, new ViewMilestonesCommand(db, data));
 
-            case "assignTicket" -> new AssignTicketCommand(DB, data);
-            case "undoAssignTicket" -> new UndoAssignTicketCommand(DB, data);
-            case "viewAssignedTickets" -> new ViewAssignedTicketsCommand(DB, data);
+            case "assignTicket" -> new AssignTicketCommand(db, data);
+            case "undoAssignTicket" -> new UndoAssignTicketCommand(db, data);
+            case "viewAssignedTickets" -> new ViewAssignedTicketsCommand(db, data);
 
-            case "addComment" -> new AddCommentCommand(DB, data);
-            case "undoAddComment" -> new UndoAddCommentCommand(DB, data);
+            case "addComment" -> new AddCommentCommand(db, data);
+            case "undoAddComment" -> new UndoAddCommentCommand(db, data);
 
-            case "changeStatus" -> new ChangeStatusCommand(DB, data);
-            case "undoChangeStatus" -> new UndoChangeStatusCommand(DB, data);
-            case "viewTicketHistory" -> new ViewTicketHistoryCommand(DB, data);
+            case "changeStatus" -> new ChangeStatusCommand(db, data);
+            case "undoChangeStatus" -> new UndoChangeStatusCommand(db, data);
+            case "viewTicketHistory" -> new ViewTicketHistoryCommand(db, data);
 
-            case "search" -> new SearchCommand(DB, data);
-            case "viewNotifications" -> new ViewNotificationsCommand(DB, data);
+            case "search" -> cached(db, data, new SearchCommand(db, data));
+            case "viewNotifications" -> new ViewNotificationsCommand(db, data);
 
-            case "generateCustomerImpactReport" -> new GenerateCustomerImpactReportCommand(DB, data);
-            case "generateTicketRiskReport" -> new GenerateTicketRiskReportCommand(DB, data);
+            case "generateCustomerImpactReport" -> new GenerateCustomerImpactReportCommand(db, data);
+            case "generateTicketRiskReport" -> new GenerateTicketRiskReportCommand(db, data);
             case "generateResolutionEfficiencyReport" ->
-                    new GenerateResolutionEfficiencyReportCommand(DB, data);
-            case "generatePerformanceReport" -> new GeneratePerformanceReportCommand(DB, data);
+                    new GenerateResolutionEfficiencyReportCommand(db, data);
+            case "generatePerformanceReport" -> new GeneratePerformanceReportCommand(db, data);
 
-            case "appStabilityReport" -> new AppStabilityReportCommand(DB, data);
+            case "appStabilityReport" -> new AppStabilityReportCommand(db, data);
             default -> null;
         };
     }
+
+    /**
+     * Wraps a read command so repeated requests are served from the query cache.
+     */
+    private static Command cached(final Database db, final InputData data,
+                                  final Command command) {
+        return new CachedQueryCommand(db, data, command);
+    }
 }
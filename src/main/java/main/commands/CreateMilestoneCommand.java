@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
 import main.model.Milestone;
 import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
 import main.model.user.Developer;
 import main.model.user.User;
 import main.utils.InputData;
@@ -99,10 +100,10 @@ public class CreateMilestoneCommand implements Command {
         db.addMilestone(newMilestone);
 
         for (Integer tid : newMilestone.getTicketIds()) {
-            Ticket t = db.getTicket(tid);
+            Ticket t = db.getTicketForUpdate(tid);
             if (t != null) {
-                t.addHistory(new Ticket.HistoryEntry("ADDED_TO_MILESTONE", username, timestamp)
-                        .setMilestone(newMilestone.getName()));
+                t.apply(new TicketEvent.AddedToMilestone(username, timestamp,
+                        newMilestone.getName()));
             }
         }
 
@@ -2,15 +2,13 @@ package main.commands;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.CustomerImpactAggregate;
 import main.database.Database;
-import main.model.ticket.Ticket;
+import main.model.Priority;
 import main.utils.InputData;
-import main.visitor.CustomerImpactVisitor;
 
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Command to generate the Customer Impact Report.
@@ -37,60 +35,43 @@ public class GenerateCustomerImpactReportCommand implements Command {
         String username = input.getUsername();
         String timestamp = input.getTimestamp();
 
-        // 1. Filter tickets
-        List<Ticket> activeTickets = db.getTickets().stream()
-                .filter(t -> "OPEN".equals(t.getStatus())
-                        || "IN_PROGRESS".equals(t.getStatus()))
-                .collect(Collectors.toList());
-
-        // 2. Instantiate the Visitor
-        CustomerImpactVisitor visitor = new CustomerImpactVisitor();
-
-        // 3. Visit each ticket
-        for (Ticket t : activeTickets) {
-            t.accept(visitor);
-        }
-
-        // Calculate manual priority distribution
-        Map<String, Integer> ticketsByPriority = new HashMap<>();
-        ticketsByPriority.put("LOW", 0);
-        ticketsByPriority.put("MEDIUM", 0);
-        ticketsByPriority.put("HIGH", 0);
-        ticketsByPriority.put("CRITICAL", 0);
-
-        for (Ticket t : activeTickets) {
-            String p = t.getPriority().name();
-            ticketsByPriority.put(p, ticketsByPriority.getOrDefault(p, 0) + 1);
+        // Totals are kept up to date by ticket events, no ticket is revisited here
+        CustomerImpactAggregate impact = db.getCustomerImpact();
+        String asOf = input.getAsOf();
+        if (asOf != null) {
+            // Point in time: statuses and priorities come from the ticket history
+            impact = new CustomerImpactAggregate();
+            db.getTicketTimeline().collectActive(db.getTickets(), LocalDate.parse(asOf), impact);
         }
 
         ObjectNode root = mapper.createObjectNode();
         root.put("command", "generateCustomerImpactReport");
         root.put("username", username);
         root.put("timestamp", timestamp);
+        if (asOf != null) {
+            root.put("asOf", asOf);
+        }
 
         ObjectNode report = root.putObject("report");
-        report.put("totalTickets", activeTickets.size());
+        report.put("totalTickets", impact.getTotal());
 
         // Tickets By Type
         ObjectNode typeNode = report.putObject("ticketsByType");
-        // Get counts from Visitor
-        typeNode.put("BUG", visitor.getCount("BUG"));
-        typeNode.put("FEATURE_REQUEST", visitor.getCount("FEATURE_REQUEST"));
-        typeNode.put("UI_FEEDBACK", visitor.getCount("UI_FEEDBACK"));
+        typeNode.put("BUG", impact.getCount("BUG"));
+        typeNode.put("FEATURE_REQUEST", impact.getCount("FEATURE_REQUEST"));
+        typeNode.put("UI_FEEDBACK", impact.getCount("UI_FEEDBACK"));
 
         // Tickets By Priority
         ObjectNode prioNode = report.putObject("ticketsByPriority");
-        prioNode.put("LOW", ticketsByPriority.get("LOW"));
-        prioNode.put("MEDIUM", ticketsByPriority.get("MEDIUM"));
-        prioNode.put("HIGH", ticketsByPriority.get("HIGH"));
-        prioNode.put("CRITICAL", ticketsByPriority.get("CRITICAL"));
+        for (Priority p : Priority.values()) {
+            prioNode.put(p.name(), impact.getCount(p));
+        }
 
         // Customer Impact By Type (Average)
         ObjectNode impactNode = report.putObject("customerImpactByType");
-        // Get averages calculated by Visitor
-        impactNode.put("BUG", visitor.getAverageImpact("BUG"));
-        impactNode.put("FEATURE_REQUEST", visitor.getAverageImpact("FEATURE_REQUEST"));
-        impactNode.put("UI_FEEDBACK", visitor.getAverageImpact("UI_FEEDBACK"));
+        impactNode.put("BUG", impact.getAverageImpact("BUG"));
+        impactNode.put("FEATURE_REQUEST", impact.getAverageImpact("FEATURE_REQUEST"));
+        impactNode.put("UI_FEEDBACK", impact.getAverageImpact("UI_FEEDBACK"));
 
         outputs.add(root);
     }
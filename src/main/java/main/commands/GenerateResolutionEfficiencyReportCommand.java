@@ -3,14 +3,14 @@ package main.commands;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
-import main.model.ticket.Ticket;
+import main.database.TicketColumns;
+import main.model.Priority;
+import main.model.ticket.enums.TicketType;
 import main.utils.InputData;
+import main.visitor.PriorityCounter;
 import main.visitor.ResolutionEfficiencyVisitor;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Command to generate the Resolution Efficiency Report.
@@ -33,39 +33,26 @@ public class GenerateResolutionEfficiencyReportCommand implements Command {
      */
     @Override
     public void execute(final List<ObjectNode> outputs) {
-        // 1. Filter: Only RESOLVED or CLOSED tickets
-        List<Ticket> completedTickets = db.getTickets().stream()
-                .filter(t -> "RESOLVED".equals(t.getStatus()) || "CLOSED".equals(t.getStatus()))
-                .collect(Collectors.toList());
-
-        // 2. Visitor
+        // 1. Tight loops over the columnar snapshot of the RESOLVED or CLOSED tickets
+        TicketColumns columns = db.getTicketColumns();
+        int completed = TicketColumns.statusMask("RESOLVED", "CLOSED");
         ResolutionEfficiencyVisitor visitor = new ResolutionEfficiencyVisitor();
-        for (Ticket t : completedTickets) {
-            t.accept(visitor);
+        visitor.visitColumns(columns, completed);
+        PriorityCounter ticketsByPriority = new PriorityCounter();
+        ticketsByPriority.accumulateColumns(columns, completed);
+        int completedTickets = 0;
+        for (TicketType type : TicketType.all()) {
+            completedTickets += visitor.getCount(type.name());
         }
 
-        // 3. Priority Calculation (manual, not via visitor)
-        Map<String, Integer> ticketsByPriority = new HashMap<>();
-        ticketsByPriority.put("LOW", 0);
-        ticketsByPriority.put("MEDIUM", 0);
-        ticketsByPriority.put("HIGH", 0);
-        ticketsByPriority.put("CRITICAL", 0);
-
-        for (Ticket t : completedTickets) {
-            if (t.getPriority() != null) {
-                String p = t.getPriority().name();
-                ticketsByPriority.put(p, ticketsByPriority.getOrDefault(p, 0) + 1);
-            }
-        }
-
-        // 4. JSON Output
+        // 2. JSON Output
         ObjectNode root = mapper.createObjectNode();
         root.put("command", "generateResolutionEfficiencyReport");
         root.put("username", input.getUsername());
         root.put("timestamp", input.getTimestamp());
 
         ObjectNode report = root.putObject("report");
-        report.put("totalTickets", completedTickets.size());
+        report.put("totalTickets", completedTickets);
 
         ObjectNode typeNode = report.putObject("ticketsByType");
         typeNode.put("BUG", visitor.getCount("BUG"));
@@ -73,10 +60,9 @@ public class GenerateResolutionEfficiencyReportCommand implements Command {
         typeNode.put("UI_FEEDBACK", visitor.getCount("UI_FEEDBACK"));
 
         ObjectNode prioNode = report.putObject("ticketsByPriority");
-        prioNode.put("LOW", ticketsByPriority.get("LOW"));
-        prioNode.put("MEDIUM", ticketsByPriority.get("MEDIUM"));
-        prioNode.put("HIGH", ticketsByPriority.get("HIGH"));
-        prioNode.put("CRITICAL", ticketsByPriority.get("CRITICAL"));
+        for (Priority p : Priority.values()) {
+            prioNode.put(p.name(), ticketsByPriority.getCount(p));
+        }
 
         ObjectNode effNode = report.putObject("efficiencyByType");
         effNode.put("BUG", visitor.getAverageEfficiency("BUG"));
@@ -3,14 +3,12 @@ package main.commands;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
-import main.model.ticket.Ticket;
+import main.database.TicketRiskAggregate;
+import main.model.Priority;
 import main.utils.InputData;
-import main.visitor.TicketRiskVisitor;
 
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Command to generate the Ticket Risk Report.
@@ -32,59 +30,44 @@ public class GenerateTicketRiskReportCommand implements Command {
         String username = input.getUsername();
         String timestamp = input.getTimestamp();
 
-        // 1. Filter tickets: ONLY OPEN and IN_PROGRESS
-        List<Ticket> activeTickets = db.getTickets().stream()
-                .filter(t -> "OPEN".equals(t.getStatus())
-                        || "IN_PROGRESS".equals(t.getStatus()))
-                .collect(Collectors.toList());
-
-        // 2. Instantiate Risk Visitor
-        TicketRiskVisitor visitor = new TicketRiskVisitor();
-
-        // 3. Visit filtered tickets
-        for (Ticket t : activeTickets) {
-            t.accept(visitor);
+        // 1. Per-type risk totals are kept up to date by ticket events
+        TicketRiskAggregate risk = db.getTicketRisk();
+        String asOf = input.getAsOf();
+        if (asOf != null) {
+            // Point in time: statuses and priorities come from the ticket history
+            risk = new TicketRiskAggregate();
+            db.getTicketTimeline().collectActive(db.getTickets(), LocalDate.parse(asOf), risk);
         }
 
-        // 4. Calculate additional statistics
-        Map<String, Integer> ticketsByPriority = new HashMap<>();
-        ticketsByPriority.put("LOW", 0);
-        ticketsByPriority.put("MEDIUM", 0);
-        ticketsByPriority.put("HIGH", 0);
-        ticketsByPriority.put("CRITICAL", 0);
-
-        for (Ticket t : activeTickets) {
-            String p = t.getPriority().name();
-            ticketsByPriority.put(p, ticketsByPriority.getOrDefault(p, 0) + 1);
-        }
-
-        // 5. Build JSON
+        // 2. Build JSON
         ObjectNode root = mapper.createObjectNode();
         root.put("command", "generateTicketRiskReport");
         root.put("username", username);
         root.put("timestamp", timestamp);
+        if (asOf != null) {
+            root.put("asOf", asOf);
+        }
 
         ObjectNode report = root.putObject("report");
-        report.put("totalTickets", activeTickets.size());
+        report.put("totalTickets", risk.getTotal());
 
         // Tickets By Type
         ObjectNode typeNode = report.putObject("ticketsByType");
-        typeNode.put("BUG", visitor.getCount("BUG"));
-        typeNode.put("FEATURE_REQUEST", visitor.getCount("FEATURE_REQUEST"));
-        typeNode.put("UI_FEEDBACK", visitor.getCount("UI_FEEDBACK"));
+        typeNode.put("BUG", risk.getCount("BUG"));
+        typeNode.put("FEATURE_REQUEST", risk.getCount("FEATURE_REQUEST"));
+        typeNode.put("UI_FEEDBACK", risk.getCount("UI_FEEDBACK"));
 
         // Tickets By Priority
         ObjectNode prioNode = report.putObject("ticketsByPriority");
-        prioNode.put("LOW", ticketsByPriority.get("LOW"));
-        prioNode.put("MEDIUM", ticketsByPriority.get("MEDIUM"));
-        prioNode.put("HIGH", ticketsByPriority.get("HIGH"));
-        prioNode.put("CRITICAL", ticketsByPriority.get("CRITICAL"));
+        for (Priority p : Priority.values()) {
+            prioNode.put(p.name(), risk.getCount(p));
+        }
 
         // Risk By Type (Qualificatives)
         ObjectNode riskNode = report.putObject("riskByType");
-        riskNode.put("BUG", visitor.getRiskQualifier("BUG"));
-        riskNode.put("FEATURE_REQUEST", visitor.getRiskQualifier("FEATURE_REQUEST"));
-        riskNode.put("UI_FEEDBACK", visitor.getRiskQualifier("UI_FEEDBACK"));
+        riskNode.put("BUG", risk.getRiskQualifier("BUG"));
+        riskNode.put("FEATURE_REQUEST", risk.getRiskQualifier("FEATURE_REQUEST"));
+        riskNode.put("UI_FEEDBACK", risk.getRiskQualifier("UI_FEEDBACK"));
 
         outputs.add(root);
     }
@@ -18,17 +18,28 @@ import java.util.List;
  * Command to report a new ticket in the system.
  */
 public class ReportTicketCommand implements Command {
+    private final Database db;
     private final InputData data;
 
 
     public ReportTicketCommand(final InputData data) {
+        this(Database.getInstance(), data);
+    }
+
+    /**
+     * Constructor for ReportTicketCommand on a given database, such as a fork.
+     *
+     * @param db   The database.
+     * @param data The input data containing command parameters.
+     */
+    public ReportTicketCommand(final Database db, final InputData data) {
+        this.db = db;
         this.data = data;
     }
 
 
     @Override
     public void execute(final List<ObjectNode> outputs) {
-        Database db = Database.getInstance();
         ObjectMapper mapper = new ObjectMapper();
 
         LocalDate commandDate = LocalDate.parse(data.getTimestamp());
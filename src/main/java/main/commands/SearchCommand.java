@@ -4,27 +4,48 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
+import main.database.DeveloperIndex;
 import main.model.Milestone;
-import main.model.Priority;
 import main.model.ticket.Ticket;
 import main.model.user.Developer;
 import main.model.user.User;
 import main.model.user.Manager;
+import main.model.user.enums.Expertise;
 import main.model.user.enums.Seniority;
 import main.utils.InputData;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Command to search for tickets or developers based on filters.
  */
 public class SearchCommand implements Command {
+    private static final int NO_CURSOR = -1;
+
+    // Below this many candidates a sequential scan is cheaper than forking
+    private static final int PARALLEL_THRESHOLD =
+            Integer.getInteger("bugtracker.search.parallelThreshold", 20_000);
+    // Size of the ranges a fork/join leaf scans sequentially
+    private static final int SCAN_RANGE = 4_096;
+
+    // Top-k order: Priority (DESC), CreatedAt (ASC), ID (ASC)
+    private static final Comparator<Ticket> RANKING = Comparator
+            .comparing(Ticket::getPriority, Comparator.reverseOrder())
+            .thenComparing(Ticket::getCreatedAt)
+            .thenComparingInt(Ticket::getId);
+
     private final Database db;
     private final InputData input;
     private final ObjectMapper mapper = new ObjectMapper();
@@ -60,7 +81,7 @@ public class SearchCommand implements Command {
         ArrayNode resultsArray = result.putArray("results");
 
         if ("TICKET".equals(searchType)) {
-            searchTickets(user, filters, resultsArray);
+            searchTickets(user, filters, result, resultsArray);
         } else if ("DEVELOPER".equals(searchType)) {
             // Only managers can search for developers
             if ("MANAGER".equalsIgnoreCase(user.getRole())) {
@@ -75,45 +96,179 @@ public class SearchCommand implements Command {
     // TICKET SEARCH LOGIC
     // ==========================================
     private void searchTickets(final User user, final Map<String, Object> filters,
-                               final ArrayNode resultsArray) {
-        List<Ticket> matches = new ArrayList<>();
-        List<Ticket> allTickets = db.getTickets();
+                               final ObjectNode result, final ArrayNode resultsArray) {
+        int topK = getIntFilter(filters, "topK", 0);
+        if (topK > 0) {
+            searchTopTickets(user, filters, topK, resultsArray);
+            return;
+        }
 
-        for (Ticket t : allTickets) {
-            // 1. BASIC FILTERING (VISIBILITY)
-            if (!canUserSeeTicket(user, t)) {
+        // Paging: skip "offset" matches after "cursor", then emit at most "limit" of them
+        int limit = getIntFilter(filters, "limit", 0);
+        int offset = getIntFilter(filters, "offset", 0);
+        int cursor = getIntFilter(filters, "cursor", NO_CURSOR);
+
+        int skipped = 0;
+        int emitted = 0;
+        Ticket last = null;
+        List<Ticket> candidates = candidateTickets(user, filters, cursor);
+        boolean parallel = candidates.size() >= PARALLEL_THRESHOLD;
+        // A page needs the matches it skips and shows, plus one to tell if more follow
+        int wanted = limit > 0 ? (int) Math.min(Integer.MAX_VALUE,
+                (long) Math.max(offset, 0) + limit + 1) : Integer.MAX_VALUE;
+        Iterable<Ticket> source = parallel
+                ? parallelScan(user, filters, candidates, wanted) : candidates;
+        for (Ticket t : source) {
+            // 1. VISIBILITY + INPUT FILTERS (already applied by the parallel scan)
+            if (t.getId() <= cursor || (!parallel && !matches(user, filters, t))) {
                 continue;
             }
 
-            // 2. APPLY INPUT FILTERS
-            if (!matchesFilters(t, user, filters)) {
+            if (skipped < offset) {
+                skipped++;
                 continue;
             }
 
-            matches.add(t);
+            if (limit > 0 && emitted == limit) {
+                // One more match exists past the page: hand out a cursor to continue from
+                result.put("nextCursor", last.getId());
+                break;
+            }
+
+            // 3. JSON GENERATION (streamed, only the page is materialized)
+            resultsArray.add(buildTicketNode(t, filters));
+            emitted++;
+            last = t;
+        }
+    }
+
+    // Top-k: keeps only the k best matches in a bounded heap (worst match at the head)
+    private void searchTopTickets(final User user, final Map<String, Object> filters,
+                                  final int k, final ArrayNode resultsArray) {
+        PriorityQueue<Ticket> heap = new PriorityQueue<>(k, RANKING.reversed());
+
+        List<Ticket> candidates = candidateTickets(user, filters, NO_CURSOR);
+        boolean parallel = candidates.size() >= PARALLEL_THRESHOLD;
+        Iterable<Ticket> source = parallel
+                ? parallelScan(user, filters, candidates, Integer.MAX_VALUE) : candidates;
+        for (Ticket t : source) {
+            if (!parallel && !matches(user, filters, t)) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(t);
+            } else if (RANKING.compare(t, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(t);
+            }
         }
 
-        // 4. JSON GENERATION
-        for (Ticket t : matches) {
-            ObjectNode tNode = mapper.createObjectNode();
-            tNode.put("id", t.getId());
-            tNode.put("type", t.getType());
-            tNode.put("title", t.getTitle());
-            tNode.put("businessPriority", t.getPriority().name());
-            tNode.put("status", t.getStatus());
-            tNode.put("createdAt", t.getCreatedAt());
-            tNode.put("solvedAt", t.getSolvedAt() != null ? t.getSolvedAt() : "");
-            tNode.put("reportedBy", t.getReportedBy());
+        List<Ticket> top = new ArrayList<>(heap);
+        top.sort(RANKING);
+        for (Ticket t : top) {
+            resultsArray.add(buildTicketNode(t, filters));
+        }
+    }
 
-            // Add matchingWords if keywords filter was used
-            if (filters.containsKey("keywords")) {
-                List<String> keywords = (List<String>) filters.get("keywords");
-                List<String> found = getMatchingWords(t, keywords);
+    private ObjectNode buildTicketNode(final Ticket t, final Map<String, Object> filters) {
+        ObjectNode tNode = mapper.createObjectNode();
+        tNode.put("id", t.getId());
+        tNode.put("type", t.getType());
+        tNode.put("title", t.getTitle());
+        tNode.put("businessPriority", t.getPriority().name());
+        tNode.put("status", t.getStatus());
+        tNode.put("createdAt", t.getCreatedAt());
+        tNode.put("solvedAt", t.getSolvedAt() != null ? t.getSolvedAt() : "");
+        tNode.put("reportedBy", t.getReportedBy());
+
+        // Add matchingWords if keywords filter was used
+        if (filters.containsKey("keywords")) {
+            List<String> keywords = (List<String>) filters.get("keywords");
+            List<String> found = getMatchingWords(t, keywords);
 
-                ArrayNode matchNode = tNode.putArray("matchingWords");
-                found.forEach(matchNode::add);
+            ArrayNode matchNode = tNode.putArray("matchingWords");
+            found.forEach(matchNode::add);
+        }
+        return tNode;
+    }
+
+    // Reads an optional numeric paging parameter from the filters
+    private int getIntFilter(final Map<String, Object> filters, final String key,
+                             final int defaultValue) {
+        Object val = filters.get(key);
+        if (val instanceof Number) {
+            return ((Number) val).intValue();
+        }
+        return defaultValue;
+    }
+
+    // A ticket is a match if the user can see it and it passes every filter
+    private boolean matches(final User user, final Map<String, Object> filters,
+                            final Ticket t) {
+        return canUserSeeTicket(user, t) && matchesFilters(t, user, filters);
+    }
+
+    // Filters the candidates on the fork/join pool; the result keeps ticket-id order.
+    // The candidates already warmed the eligibility cache, so the workers only read;
+    // cold candidates are rehydrated under the cold store's lock.
+    // With a page to fill, the candidates are scanned one window (a range per worker)
+    // at a time, in id order, until the wanted number of matches is found.
+    private List<Ticket> parallelScan(final User user, final Map<String, Object> filters,
+                                      final List<Ticket> candidates, final int wanted) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int window = wanted == Integer.MAX_VALUE
+                ? candidates.size() : SCAN_RANGE * pool.getParallelism();
+        List<Ticket> found = new ArrayList<>();
+        for (int from = 0; from < candidates.size() && found.size() < wanted; from += window) {
+            int to = (int) Math.min(candidates.size(), (long) from + window);
+            found.addAll(pool.invoke(new ScanTask(user, filters, candidates, from, to)));
+        }
+        return found;
+    }
+
+    /**
+     * Scans a range of the candidate list, splitting it in halves until it is small enough.
+     */
+    private final class ScanTask extends RecursiveTask<List<Ticket>> {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized
+        private final transient User user;
+        private final transient Map<String, Object> filters;
+        private final transient List<Ticket> candidates;
+        private final int from;
+        private final int to;
+
+        ScanTask(final User user, final Map<String, Object> filters,
+                 final List<Ticket> candidates, final int from, final int to) {
+            this.user = user;
+            this.filters = filters;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Ticket> compute() {
+            if (to - from <= SCAN_RANGE) {
+                List<Ticket> found = new ArrayList<>();
+                for (Ticket t : candidates.subList(from, to)) {
+                    if (matches(user, filters, t)) {
+                        found.add(t);
+                    }
+                }
+                return found;
             }
-            resultsArray.add(tNode);
+
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(user, filters, candidates, from, mid);
+            ScanTask right = new ScanTask(user, filters, candidates, mid, to);
+            left.fork();
+            List<Ticket> found = right.compute();
+            // Left range holds the lower ids, so it goes first
+            List<Ticket> merged = left.join();
+            merged.addAll(found);
+            return merged;
         }
     }
 
@@ -206,70 +361,32 @@ public class SearchCommand implements Command {
         return found;
     }
 
-    // Logic for AvailableForAssignment (Repeats logic from AssignTicket)
+    // Logic for AvailableForAssignment: a lookup in the cached eligibility matrix
     private boolean isAvailableForAssignment(final Ticket t, final User u) {
-        Developer dev = null;
-        if ("DEVELOPER".equalsIgnoreCase(db.getUserRole(u.getUsername()))) {
-            dev = (Developer) u;
-        } else {
-            return false;
-        }
-
-        // 1. Status
-        if (!"OPEN".equals(t.getStatus())) {
-            return false;
-        }
-
-        // 2. Milestone Access & Blocked
-        Milestone m = db.findMilestoneByTicketId(t.getId());
-        if (m == null || !m.getAssignedDevs().contains(u.getUsername())) {
-            return false;
-        }
-        if (isMilestoneBlocked(m)) {
-            return false;
-        }
-
-        // 3. Expertise
-        String ticketArea = t.getExpertiseArea();
-        String userExpertise = (dev.getExpertise() != null) ? dev.getExpertise().name() : "";
-
-        boolean expMatch = "FULLSTACK".equals(userExpertise) || userExpertise.equals(ticketArea);
-        if ("DB".equals(ticketArea) && "BACKEND".equals(userExpertise)) {
-            expMatch = true;
-        }
-        if ("BACKEND".equals(ticketArea) && "DB".equals(userExpertise)) {
-            expMatch = true;
-        }
-
-        if (!expMatch) {
-            return false;
-        }
+        Developer dev = u.isDeveloper().orElse(null);
+        return dev != null
+                && db.getAssignmentEligibility().getAssignableTickets(dev).contains(t.getId());
+    }
 
-        // 4. Seniority
-        Priority p = t.getPriority();
-        Seniority s = dev.getSeniority();
-        if ((p == Priority.CRITICAL || p == Priority.HIGH) && s == Seniority.JUNIOR) {
-            return false;
+    // Tickets worth scanning: only the assignable ones when that filter is set
+    private List<Ticket> candidateTickets(final User user, final Map<String, Object> filters,
+                                          final int cursor) {
+        List<Ticket> allTickets = db.getTickets();
+        if (!Boolean.TRUE.equals(filters.get("availableForAssignment"))) {
+            // Ticket ids are their positions in the list, so the cursor is also a start index
+            int start = Math.min(Math.max(cursor + 1, 0), allTickets.size());
+            return allTickets.subList(start, allTickets.size());
         }
 
-        return true;
-    }
-
-    private boolean isMilestoneBlocked(final Milestone m) {
-        for (Milestone other : db.getMilestones()) {
-            if (other == m) {
-                continue;
-            }
-            if (other.getBlockingFor() != null && other.getBlockingFor().contains(m.getName())) {
-                boolean otherIsActive = other.getTicketIds().stream()
-                        .map(db::getTicket)
-                        .anyMatch(ti -> ti != null && !"CLOSED".equals(ti.getStatus()));
-                if (otherIsActive) {
-                    return true;
-                }
+        List<Ticket> candidates = new ArrayList<>();
+        Developer dev = user.isDeveloper().orElse(null);
+        if (dev != null) {
+            for (Integer id : db.getAssignmentEligibility().getAssignableTickets(dev)
+                    .tailSet(cursor, false)) {
+                candidates.add(db.getTicket(id));
             }
         }
-        return false;
+        return candidates;
     }
 
     // ==========================================
@@ -277,25 +394,54 @@ public class SearchCommand implements Command {
     // ==========================================
     private void searchDevelopers(final Manager manager, final Map<String, Object> filters,
                                   final ArrayNode resultsArray) {
-        List<Developer> matches = new ArrayList<>();
-
         // Search only in subordinates
         List<String> subs = manager.getSubordinates();
         if (subs == null) {
             subs = new ArrayList<>();
         }
+        Set<String> subordinates = new HashSet<>(subs);
+
+        // Pick the smallest candidate set: an indexed one, or the subordinates
+        Collection<Developer> candidates = null;
+        DeveloperIndex index = db.getDeveloperIndex();
 
-        for (String subName : subs) {
-            User u = db.findUserByUsername(subName);
-            Developer dev = null;
-            if ("DEVELOPER".equalsIgnoreCase(db.getUserRole(subName))) {
-                dev = (Developer) u;
-                // Apply filters
-                if (matchesDevFilters(dev, filters)) {
+        if (filters.containsKey("expertiseArea")) {
+            Expertise exp = parseEnum(Expertise.class, (String) filters.get("expertiseArea"));
+            candidates = smallest(candidates,
+                    exp != null ? index.withExpertise(exp) : List.of());
+        }
+        if (filters.containsKey("seniority")) {
+            Seniority sen = parseEnum(Seniority.class, (String) filters.get("seniority"));
+            candidates = smallest(candidates,
+                    sen != null ? index.withSeniority(sen) : List.of());
+        }
+        if (filters.containsKey("performanceScoreAbove")
+                || filters.containsKey("performanceScoreBelow")) {
+            // Jackson reads numbers as Integer or Double
+            Number above = (Number) filters.get("performanceScoreAbove");
+            Number below = (Number) filters.get("performanceScoreBelow");
+            candidates = smallest(candidates, index.withScoreBetween(
+                    above != null ? above.doubleValue() : null,
+                    below != null ? below.doubleValue() : null));
+        }
+
+        List<Developer> matches = new ArrayList<>();
+        if (candidates == null || subordinates.size() < candidates.size()) {
+            // No indexed filter, or the team is smaller: resolve the subordinates directly
+            for (String subName : subordinates) {
+                User u = db.findUserByUsername(subName);
+                if (u != null) {
+                    u.isDeveloper().filter(dev -> matchesDevFilters(dev, filters))
+                            .ifPresent(matches::add);
+                }
+            }
+        } else {
+            for (Developer dev : candidates) {
+                // Re-check the remaining filters on the (small) candidate set
+                if (subordinates.contains(dev.getUsername()) && matchesDevFilters(dev, filters)) {
                     matches.add(dev);
                 }
             }
-
         }
 
         // Sort: Username lexicographical
@@ -316,6 +462,25 @@ public class SearchCommand implements Command {
         }
     }
 
+    private static Collection<Developer> smallest(final Collection<Developer> current,
+                                                  final Collection<Developer> other) {
+        if (current == null || other.size() < current.size()) {
+            return other;
+        }
+        return current;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(final Class<E> type, final String val) {
+        if (val == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, val.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private boolean matchesDevFilters(final Developer d, final Map<String, Object> filters) {
         // Expertise
         if (filters.containsKey("expertiseArea")) {
@@ -3,7 +3,9 @@ package main.commands;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
+import main.database.UndoJournal;
 import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
 import main.utils.InputData;
 
 import java.util.List;
@@ -45,26 +47,23 @@ public class UndoAddCommentCommand implements Command {
             return;
         }
 
-        // Restriction 1 (Part B): If user has no comments, ignore.
-        // Search for the last comment by this user
-        List<Ticket.Comment> comments = ticket.getComments();
-        Ticket.Comment match = null;
-
-        // Iterate backwards to find the last added comment
-        for (int i = comments.size() - 1; i >= 0; i--) {
-            if (comments.get(i).getAuthor().equals(username)) {
-                match = comments.get(i);
-                break;
-            }
+        // The journal knows where the user's last comment is
+        TicketEvent.CommentRemoved removal = new TicketEvent.CommentRemoved(username, timestamp);
+        UndoJournal.RemoveComment inverse =
+                db.getUndoJournal().pop(ticketId, username, UndoJournal.RemoveComment.class);
+        if (inverse != null) {
+            ticket = db.getTicketForUpdate(ticketId);
+            ticket.removeComment(removal, inverse.commentOffset(), inverse.index());
+            return;
         }
 
-        if (match == null) {
-            // If no comment found, ignore command
+        // Restriction 1 (Part B): If user has no comments, ignore.
+        if (ticket.findLastComment(username) == null) {
             return;
         }
 
-        // Delete the comment
-        //System.out.println("Removing comment: " + match.getContent());
-        ticket.removeComment(match);
+        // Delete the last comment by this user
+        ticket = db.getTicketForUpdate(ticketId);
+        ticket.apply(removal);
     }
 }
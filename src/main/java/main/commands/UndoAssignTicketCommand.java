@@ -3,6 +3,7 @@ package main.commands;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
+import main.database.UndoJournal;
 import main.model.ticket.Ticket;
 import main.utils.InputData;
 
@@ -50,12 +51,15 @@ public class UndoAssignTicketCommand implements Command {
             return;
         }
 
-        //  Effective Undo
-        ticket.setAssignee("");
-        ticket.setStatus("OPEN");
-        ticket.setAssignedAt(""); // Reset assignment date
-
-        // 1. Log DE-ASSIGNED
-        ticket.addHistory(new Ticket.HistoryEntry("DE-ASSIGNED", username, timestamp));
+        //  Effective Undo: back to OPEN, unassigned. The journaled inverse applies while
+        //  the ticket is still under that assignment; otherwise the current one is taken
+        //  back (the entry is spent either way)
+        UndoJournal.Unassign inverse =
+                db.getUndoJournal().pop(ticketId, username, UndoJournal.Unassign.class);
+        if (inverse == null || !inverse.appliesTo(ticket)) {
+            inverse = new UndoJournal.Unassign(ticket.getAssignedAt());
+        }
+        ticket = db.getTicketForUpdate(ticketId);
+        ticket.apply(inverse.undo(username, timestamp));
     }
 }
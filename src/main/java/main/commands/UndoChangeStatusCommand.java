@@ -3,6 +3,7 @@ package main.commands;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import main.database.Database;
+import main.database.UndoJournal;
 import main.model.ticket.Ticket;
 import main.utils.InputData;
 
@@ -64,26 +65,27 @@ public class UndoChangeStatusCommand implements Command {
             return; // Ignore
         }
 
-        String oldStatus = ticket.getStatus();
-
-        // Reverse transition logic
-        switch (currentStatus) {
-            case "CLOSED":
-                ticket.setStatus("RESOLVED");
-                break;
-            case "RESOLVED":
-                ticket.setStatus("IN_PROGRESS");
-                // If returning to work, clear resolved date (if field exists)
-                // ticket.setSolvedAt("");
-                break;
-            default:
-                break;
+        // Revert the journaled change if the ticket is still where it left it
+        UndoJournal.RevertStatus inverse =
+                db.getUndoJournal().pop(ticketId, username, UndoJournal.RevertStatus.class);
+        if (inverse == null || !inverse.appliesTo(ticket)) {
+            inverse = inferInverse(currentStatus);
         }
 
-        String newStatus = ticket.getStatus();
-        if (!oldStatus.equals(newStatus)) {
-            ticket.addHistory(new Ticket.HistoryEntry("STATUS_CHANGED", username, timestamp)
-                    .setFromTo(oldStatus, newStatus));
+        if (inverse != null) {
+            ticket = db.getTicketForUpdate(ticketId);
+            ticket.apply(inverse.undo(username, timestamp));
         }
     }
+
+    // Works out the last forward step from the current status, for a change the
+    // journal does not have (dropped, or made before a restore)
+    private static UndoJournal.RevertStatus inferInverse(final String currentStatus) {
+        return switch (currentStatus) {
+            case "CLOSED" -> new UndoJournal.RevertStatus("RESOLVED", "CLOSED");
+            // Back to work: the resolution time no longer applies
+            case "RESOLVED" -> new UndoJournal.RevertStatus("IN_PROGRESS", "RESOLVED");
+            default -> null;
+        };
+    }
 }
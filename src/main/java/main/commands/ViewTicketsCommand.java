@@ -10,6 +10,7 @@ import main.model.user.User;
 import main.utils.InputData;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -18,6 +19,7 @@ import java.util.stream.Collectors;
  * Command to view all tickets visible to a user.
  */
 public final class ViewTicketsCommand implements Command {
+    private final Database db;
     private final InputData data;
 
     /**
@@ -26,12 +28,22 @@ public final class ViewTicketsCommand implements Command {
      * @param data The input data containing command parameters.
      */
     public ViewTicketsCommand(final InputData data) {
+        this(Database.getInstance(), data);
+    }
+
+    /**
+     * Constructor for ViewTicketsCommand on a given database, such as a fork.
+     *
+     * @param db   The database.
+     * @param data The input data containing command parameters.
+     */
+    public ViewTicketsCommand(final Database db, final InputData data) {
+        this.db = db;
         this.data = data;
     }
 
     @Override
     public void execute(final List<ObjectNode> outputs) {
-        Database db = Database.getInstance();
         ObjectMapper mapper = new ObjectMapper();
 
         LocalDate currentDay = LocalDate.parse(data.getTimestamp());
@@ -48,8 +60,12 @@ public final class ViewTicketsCommand implements Command {
         }
 
         // 2. Filter tickets based on visibility rules
-        List<Ticket> visibleTickets = db.getTickets().stream()
-                .filter(t -> isVisible(user, t, db))
+        // (developers only see OPEN tickets, so cold ones are never read for them)
+        String role = String.valueOf(user.getRole()).toUpperCase();
+        Collection<Ticket> source = "DEVELOPER".equals(role) || "EMPLOYEE".equals(role)
+                ? db.getHotTickets() : db.getTickets();
+        List<Ticket> visibleTickets = source.stream()
+                .filter(t -> isVisible(user, t))
                 .sorted(Comparator.comparingInt(Ticket::getId))
                 .collect(Collectors.toList());
 
@@ -104,10 +120,9 @@ public final class ViewTicketsCommand implements Command {
      *
      * @param user The user attempting to view the ticket.
      * @param t    The ticket.
-     * @param db   The database instance (needed to check milestones).
      * @return True if the ticket is visible to the user, false otherwise.
      */
-    private boolean isVisible(final User user, final Ticket t, final Database db) {
+    private boolean isVisible(final User user, final Ticket t) {
         String role = String.valueOf(user.getRole()).toUpperCase();
 
         if ("MANAGER".equals(role)) {
@@ -0,0 +1,150 @@
+package main.database;
+
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketListener;
+import main.model.ticket.enums.TicketType;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Base for running aggregates over the active (OPEN or IN_PROGRESS) tickets.
+ * A ticket is added when it becomes active and subtracted when it is closed
+ * or resolved, so reports read the totals instead of revisiting every ticket.
+ * The ticket counts per type and per effective priority are kept here.
+ */
+public abstract class ActiveTicketAggregate implements TicketListener {
+    private final int[] countByType = new int[TicketType.COUNT];
+    private final Map<Priority, Integer> countByPriority = new EnumMap<>(Priority.class);
+    private int total;
+
+    protected ActiveTicketAggregate() {
+        resetCounts();
+    }
+
+    /**
+     * Checks if a status counts as active for the reports.
+     *
+     * @param status The ticket status.
+     * @return True for OPEN and IN_PROGRESS.
+     */
+    public static boolean isActive(final String status) {
+        return "OPEN".equals(status) || "IN_PROGRESS".equals(status);
+    }
+
+    /**
+     * Adds or subtracts the contribution of one active ticket.
+     *
+     * @param ticket   The ticket.
+     * @param priority The effective priority to account it under.
+     * @param sign     +1 to add, -1 to subtract.
+     */
+    protected abstract void accumulate(Ticket ticket, Priority priority, int sign);
+
+    /**
+     * Drops the totals kept by the subclass.
+     */
+    protected abstract void clearTotals();
+
+    /**
+     * Removes every ticket from the aggregate.
+     */
+    public final void clear() {
+        resetCounts();
+        clearTotals();
+    }
+
+    @Override
+    public final void onTicketAdded(final Ticket ticket) {
+        if (isActive(ticket.getStatus())) {
+            apply(ticket, ticket.getPriority(), 1);
+        }
+    }
+
+    @Override
+    public final void onStatusChanged(final Ticket ticket, final String oldStatus,
+                                      final String newStatus) {
+        boolean was = isActive(oldStatus);
+        boolean is = isActive(newStatus);
+        if (was != is) {
+            apply(ticket, ticket.getPriority(), is ? 1 : -1);
+        }
+    }
+
+    @Override
+    public final void onPriorityChanged(final Ticket ticket, final Priority oldPriority,
+                                        final Priority newPriority) {
+        if (isActive(ticket.getStatus())) {
+            apply(ticket, oldPriority, -1);
+            apply(ticket, newPriority, 1);
+        }
+    }
+
+    /**
+     * Adds a ticket as active whatever its current status and priority.
+     * Used to fill aggregates that are not registered for ticket events,
+     * such as point-in-time reports.
+     *
+     * @param ticket   The ticket.
+     * @param priority The effective priority to account it under.
+     */
+    public final void addActive(final Ticket ticket, final Priority priority) {
+        apply(ticket, priority, 1);
+    }
+
+    /**
+     * Gets the number of active tickets.
+     *
+     * @return The active ticket count.
+     */
+    public final int getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the number of active tickets of a type.
+     *
+     * @param type The ticket type key (BUG, FEATURE_REQUEST, UI_FEEDBACK).
+     * @return The count.
+     */
+    public final int getCount(final String type) {
+        return getCount(TicketType.valueOf(type));
+    }
+
+    /**
+     * Gets the number of active tickets of a type.
+     *
+     * @param type The ticket type.
+     * @return The count.
+     */
+    public final int getCount(final TicketType type) {
+        return countByType[type.ordinal()];
+    }
+
+    /**
+     * Gets the number of active tickets with an effective priority.
+     *
+     * @param priority The priority.
+     * @return The count.
+     */
+    public final int getCount(final Priority priority) {
+        return countByPriority.get(priority);
+    }
+
+    private void apply(final Ticket ticket, final Priority priority, final int sign) {
+        total += sign;
+        countByType[ticket.getTicketType().ordinal()] += sign;
+        countByPriority.merge(priority, sign, Integer::sum);
+        accumulate(ticket, priority, sign);
+    }
+
+    private void resetCounts() {
+        total = 0;
+        Arrays.fill(countByType, 0);
+        for (Priority p : Priority.values()) {
+            countByPriority.put(p, 0);
+        }
+    }
+}
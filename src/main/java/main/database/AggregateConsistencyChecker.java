@@ -0,0 +1,172 @@
+package main.database;
+
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.ticket.enums.TicketType;
+import main.visitor.CompositeVisitor;
+import main.visitor.CustomerImpactVisitor;
+import main.visitor.PerformanceStats;
+import main.visitor.PerformanceStatsVisitor;
+import main.visitor.PriorityCounter;
+import main.visitor.ResolutionEfficiencyVisitor;
+import main.visitor.TicketRiskVisitor;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the running aggregates and performance buckets of the database against
+ * a full visitor pass, and the columnar snapshot loops against the visitors.
+ * Used by tests; returns a description of every mismatch.
+ */
+public final class AggregateConsistencyChecker {
+    // The aggregates sum exact integer points while the visitors sum doubles
+    private static final double TOLERANCE = 1e-9;
+    // Averages reported rounded to 2 decimals may land one step apart at a tie
+    private static final double ROUNDED_TOLERANCE = 0.01 + TOLERANCE;
+
+    private AggregateConsistencyChecker() {
+    }
+
+    /**
+     * Recomputes the report totals from scratch and compares them with the aggregates.
+     *
+     * @param db The database to check.
+     * @return The mismatches found; empty if the aggregates are consistent.
+     */
+    public static List<String> check(final Database db) {
+        TicketRiskVisitor riskVisitor = new TicketRiskVisitor();
+        CustomerImpactVisitor impactVisitor = new CustomerImpactVisitor();
+        PriorityCounter byPriority = new PriorityCounter();
+        int total = new CompositeVisitor(t -> ActiveTicketAggregate.isActive(t.getStatus()))
+                .withVisitor(riskVisitor)
+                .withVisitor(impactVisitor)
+                .withAccumulator(byPriority)
+                .run(db.getTickets());
+
+        List<String> mismatches = new ArrayList<>();
+        TicketRiskAggregate risk = db.getTicketRisk();
+        CustomerImpactAggregate impact = db.getCustomerImpact();
+        for (ActiveTicketAggregate aggregate : List.of(risk, impact)) {
+            String name = aggregate.getClass().getSimpleName();
+            compare(mismatches, name + " total", total, aggregate.getTotal());
+            for (Priority p : Priority.values()) {
+                compare(mismatches, name + " count " + p, byPriority.getCount(p),
+                        aggregate.getCount(p));
+            }
+            for (TicketType type : TicketType.all()) {
+                compare(mismatches, name + " count " + type, riskVisitor.getCount(type.name()),
+                        aggregate.getCount(type));
+            }
+        }
+
+        for (TicketType type : TicketType.all()) {
+            String key = type.name();
+            compare(mismatches, "risk " + key, riskVisitor.getAverageRisk(key),
+                    risk.getAverageRisk(key), TOLERANCE);
+            compare(mismatches, "impact " + key, impactVisitor.getAverageImpact(key),
+                    impact.getAverageImpact(key), ROUNDED_TOLERANCE);
+        }
+
+        checkPerformanceBuckets(db, mismatches);
+        checkColumns(db, riskVisitor, impactVisitor, mismatches);
+        return mismatches;
+    }
+
+    // Reruns the reports over the columnar snapshot and compares them with the object pass
+    private static void checkColumns(final Database db, final TicketRiskVisitor riskVisitor,
+                                     final CustomerImpactVisitor impactVisitor,
+                                     final List<String> mismatches) {
+        TicketColumns columns = db.getTicketColumns();
+        compare(mismatches, "column rows", db.getTickets().size(), columns.size());
+
+        int active = TicketColumns.statusMask("OPEN", "IN_PROGRESS");
+        TicketRiskVisitor riskColumns = new TicketRiskVisitor();
+        riskColumns.visitColumns(columns, active);
+        CustomerImpactVisitor impactColumns = new CustomerImpactVisitor();
+        impactColumns.visitColumns(columns, active);
+
+        int completed = TicketColumns.statusMask("RESOLVED", "CLOSED");
+        ResolutionEfficiencyVisitor efficiency = new ResolutionEfficiencyVisitor();
+        PriorityCounter byPriority = new PriorityCounter();
+        new CompositeVisitor(t -> "RESOLVED".equals(t.getStatus())
+                || "CLOSED".equals(t.getStatus()))
+                .withVisitor(efficiency)
+                .withAccumulator(byPriority)
+                .run(db.getTickets());
+        ResolutionEfficiencyVisitor efficiencyColumns = new ResolutionEfficiencyVisitor();
+        efficiencyColumns.visitColumns(columns, completed);
+        PriorityCounter byPriorityColumns = new PriorityCounter();
+        byPriorityColumns.accumulateColumns(columns, completed);
+
+        for (TicketType type : TicketType.all()) {
+            String key = type.name();
+            compare(mismatches, "column risk count " + key, riskVisitor.getCount(key),
+                    riskColumns.getCount(key));
+            compare(mismatches, "column risk " + key, riskVisitor.getAverageRisk(key),
+                    riskColumns.getAverageRisk(key), TOLERANCE);
+            compare(mismatches, "column impact " + key, impactVisitor.getAverageImpact(key),
+                    impactColumns.getAverageImpact(key), TOLERANCE);
+            compare(mismatches, "column efficiency count " + key, efficiency.getCount(key),
+                    efficiencyColumns.getCount(key));
+            compare(mismatches, "column efficiency " + key, efficiency.getAverageEfficiency(key),
+                    efficiencyColumns.getAverageEfficiency(key), TOLERANCE);
+        }
+        for (Priority p : Priority.values()) {
+            compare(mismatches, "column priority " + p, byPriority.getCount(p),
+                    byPriorityColumns.getCount(p));
+        }
+    }
+
+    // Regroups the closed tickets by (assignee, solve month) and compares every bucket
+    private static void checkPerformanceBuckets(final Database db,
+                                                final List<String> mismatches) {
+        Map<String, Map<YearMonth, PerformanceStatsVisitor>> expected = new HashMap<>();
+        int closed = 0;
+        for (Ticket t : db.getTickets()) {
+            if ("CLOSED".equals(t.getStatus()) && !t.getAssignee().isEmpty()
+                    && !t.getSolvedAt().isEmpty()) {
+                t.accept(expected.computeIfAbsent(t.getAssignee(), k -> new HashMap<>())
+                        .computeIfAbsent(YearMonth.from(LocalDate.parse(t.getSolvedAt())),
+                                k -> new PerformanceStatsVisitor()));
+                closed++;
+            }
+        }
+
+        PerformanceBuckets buckets = db.getPerformanceBuckets();
+        compare(mismatches, "bucketed tickets", closed, buckets.size());
+        expected.forEach((dev, byMonth) -> byMonth.forEach((month, stats) -> {
+            PerformanceStats actual = buckets.get(dev, month);
+            String what = "bucket " + dev + " " + month;
+            compare(mismatches, what + " closed", stats.getClosedTicketsCount(),
+                    actual.getClosedTicketsCount());
+            compare(mismatches, what + " bugs", stats.getBugCount(), actual.getBugCount());
+            compare(mismatches, what + " features", stats.getFeatureCount(),
+                    actual.getFeatureCount());
+            compare(mismatches, what + " ui", stats.getUiCount(), actual.getUiCount());
+            compare(mismatches, what + " high priority", stats.getHighPriorityCount(),
+                    actual.getHighPriorityCount());
+            compare(mismatches, what + " resolution time", stats.getAverageResolutionTime(),
+                    actual.getAverageResolutionTime(), TOLERANCE);
+        }));
+    }
+
+    private static void compare(final List<String> mismatches, final String what,
+                                final int expected, final int actual) {
+        if (expected != actual) {
+            mismatches.add(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static void compare(final List<String> mismatches, final String what,
+                                final double expected, final double actual,
+                                final double tolerance) {
+        if (Math.abs(expected - actual) > tolerance) {
+            mismatches.add(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+}
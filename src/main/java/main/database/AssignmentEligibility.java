@@ -0,0 +1,200 @@
+package main.database;
+
+import main.model.Milestone;
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketListener;
+import main.model.user.Developer;
+import main.model.user.enums.Seniority;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Cached developer-ticket eligibility matrix ("availableForAssignment").
+ * For each developer it keeps the set of ticket ids they could take right now,
+ * together with the blocked state of every milestone. Entries are computed on
+ * first use and kept up to date (or dropped) by ticket and milestone events.
+ */
+public final class AssignmentEligibility implements TicketListener {
+    private final Database db;
+
+    // username -> ids of the tickets the developer may be assigned (sorted by id)
+    private final Map<String, NavigableSet<Integer>> assignable = new HashMap<>();
+    private final Map<Developer, Boolean> cachedDevs = new IdentityHashMap<>();
+    private final Map<Milestone, Boolean> blocked = new IdentityHashMap<>();
+
+    /**
+     * Constructor for AssignmentEligibility.
+     *
+     * @param db The database the matrix is built from.
+     */
+    public AssignmentEligibility(final Database db) {
+        this.db = db;
+    }
+
+    /**
+     * Gets the ids of the tickets a developer could be assigned right now.
+     *
+     * @param dev The developer.
+     * @return The sorted, read-only set of assignable ticket ids.
+     */
+    public NavigableSet<Integer> getAssignableTickets(final Developer dev) {
+        NavigableSet<Integer> ids = assignable.get(dev.getUsername());
+        if (ids == null) {
+            ids = computeAssignable(dev);
+            assignable.put(dev.getUsername(), ids);
+            cachedDevs.put(dev, Boolean.TRUE);
+        }
+        return Collections.unmodifiableNavigableSet(ids);
+    }
+
+    /**
+     * Checks if a milestone is blocked by another milestone with active tickets.
+     *
+     * @param m The milestone.
+     * @return True if the milestone is blocked.
+     */
+    public boolean isMilestoneBlocked(final Milestone m) {
+        Boolean cached = blocked.get(m);
+        if (cached == null) {
+            cached = computeBlocked(m);
+            blocked.put(m, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Drops every cached entry.
+     */
+    public void clear() {
+        assignable.clear();
+        cachedDevs.clear();
+        blocked.clear();
+    }
+
+    // --- EVENTS ---
+
+    @Override
+    public void onTicketAdded(final Ticket ticket) {
+        // A milestone may already list this id, which changes membership and blocking
+        if (db.findMilestoneByTicketId(ticket.getId()) != null) {
+            clear();
+        }
+    }
+
+    @Override
+    public void onStatusChanged(final Ticket ticket, final String oldStatus,
+                                final String newStatus) {
+        Milestone m = db.findMilestoneByTicketId(ticket.getId());
+        if (m == null) {
+            return;
+        }
+        boolean closingChanged = "CLOSED".equals(oldStatus) || "CLOSED".equals(newStatus);
+        if (closingChanged && m.getBlockingFor() != null && !m.getBlockingFor().isEmpty()) {
+            // Milestones blocked by m may have been blocked/unblocked
+            clear();
+            return;
+        }
+        refresh(ticket, m);
+    }
+
+    @Override
+    public void onPriorityChanged(final Ticket ticket, final Priority oldPriority,
+                                  final Priority newPriority) {
+        Milestone m = db.findMilestoneByTicketId(ticket.getId());
+        if (m != null) {
+            refresh(ticket, m);
+        }
+    }
+
+    @Override
+    public void onMilestoneAdded(final Milestone milestone) {
+        clear();
+    }
+
+    // Re-evaluates one ticket for the cached developers of its milestone
+    private void refresh(final Ticket t, final Milestone m) {
+        for (Developer dev : cachedDevs.keySet()) {
+            NavigableSet<Integer> ids = assignable.get(dev.getUsername());
+            if (isAssignable(t, dev, m)) {
+                ids.add(t.getId());
+            } else {
+                ids.remove(t.getId());
+            }
+        }
+    }
+
+    // --- RULES ---
+
+    private NavigableSet<Integer> computeAssignable(final Developer dev) {
+        NavigableSet<Integer> ids = new TreeSet<>();
+        for (Milestone m : db.getMilestones()) {
+            if (!m.getAssignedDevs().contains(dev.getUsername())) {
+                continue;
+            }
+            for (Integer tid : m.getTicketIds()) {
+                Ticket t = db.getTicket(tid);
+                // The ticket must belong to m (first milestone listing it wins)
+                if (t != null && db.findMilestoneByTicketId(tid) == m
+                        && isAssignable(t, dev, m)) {
+                    ids.add(tid);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private boolean isAssignable(final Ticket t, final Developer dev, final Milestone m) {
+        // 1. Status
+        if (!"OPEN".equals(t.getStatus())) {
+            return false;
+        }
+
+        // 2. Milestone Access & Blocked
+        if (!m.getAssignedDevs().contains(dev.getUsername()) || isMilestoneBlocked(m)) {
+            return false;
+        }
+
+        // 3. Expertise
+        String ticketArea = t.getExpertiseArea();
+        String userExpertise = (dev.getExpertise() != null) ? dev.getExpertise().name() : "";
+
+        boolean expMatch = "FULLSTACK".equals(userExpertise) || userExpertise.equals(ticketArea);
+        if ("DB".equals(ticketArea) && "BACKEND".equals(userExpertise)) {
+            expMatch = true;
+        }
+        if ("BACKEND".equals(ticketArea) && "DB".equals(userExpertise)) {
+            expMatch = true;
+        }
+        if (!expMatch) {
+            return false;
+        }
+
+        // 4. Seniority
+        Priority p = t.getPriority();
+        return !((p == Priority.CRITICAL || p == Priority.HIGH)
+                && dev.getSeniority() == Seniority.JUNIOR);
+    }
+
+    private boolean computeBlocked(final Milestone m) {
+        for (Milestone other : db.getMilestones()) {
+            if (other == m) {
+                continue;
+            }
+            if (other.getBlockingFor() != null && other.getBlockingFor().contains(m.getName())) {
+                boolean otherIsActive = other.getTicketIds().stream()
+                        .map(db::getTicket)
+                        .anyMatch(t -> t != null && !"CLOSED".equals(t.getStatus()));
+                if (otherIsActive) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,398 @@
+package main.database;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Takes periodic snapshots of the database next to the write-ahead log, so a
+ * crashed or resumed run restores the latest snapshot and replays only the log
+ * tail after it.
+ * Every "bugtracker.wal.checkpointEvery" logged commands (1000 by default, 0 to
+ * turn checkpoints off) the command thread encodes the snapshot in memory, which
+ * is the only pause it sees; a background thread then writes and renames the
+ * file, deletes the older snapshots and truncates the log segments it covers.
+ * A checkpoint due while the previous one is still being written is skipped.
+ * <p>
+ * Before each snapshot the writer appends the outputs produced since the previous
+ * one to an output journal, so recovery gets back every output up to the snapshot.
+ * A journal block is: int length, long sequence, long input offset (right after the
+ * command at that sequence), int CRC32 of the block, then the outputs as a compact
+ * JSON array.
+ */
+public final class Checkpointer implements Closeable {
+    /** System property that makes a run print {@link #describe()} to stderr at the end. */
+    public static final String STATS_PROPERTY = "bugtracker.wal.stats";
+
+    private static final int DEFAULT_CHECKPOINT_EVERY = 1000;
+    private static final String FILE_PREFIX = "checkpoint-";
+    private static final String FILE_SUFFIX = ".snap";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String OUTPUTS_PREFIX = "outputs-";
+    private static final String OUTPUTS_SUFFIX = ".log";
+    private static final int BLOCK_HEADER_BYTES =
+            Integer.BYTES + 2 * Long.BYTES + Integer.BYTES;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final Path dir;
+    private final long inputFingerprint;
+    private final WriteAheadLog wal;
+    private final int every;
+    private final ExecutorService writer;
+
+    private int sinceLast = 0;
+    private int outputsJournaled = 0; // Outputs already handed to the journal
+    private Future<?> pending;
+
+    // Statistics, all in nanoseconds
+    private int checkpoints = 0;
+    private int skipped = 0;
+    private long totalPause = 0;
+    private long maxPause = 0;
+    private volatile long totalBackground = 0;
+
+    /**
+     * The state a run got back from the latest checkpoint.
+     *
+     * @param sequence    The input position of the last command the checkpoint
+     *                    covers, or -1 if there was none.
+     * @param inputOffset The byte offset in the input right after that command,
+     *                    or 0 if there was none.
+     * @param outputs     The outputs produced up to and including that command.
+     */
+    public record Restored(long sequence, long inputOffset, List<ObjectNode> outputs) {
+    }
+
+    /**
+     * Creates a checkpointer writing next to a write-ahead log.
+     *
+     * @param dir              The log directory.
+     * @param inputFingerprint Identifies the input being run.
+     * @param wal              The log to truncate after each checkpoint.
+     * @param every            The number of logged commands between checkpoints;
+     *                         0 or less turns checkpoints off.
+     */
+    public Checkpointer(final Path dir, final long inputFingerprint, final WriteAheadLog wal,
+                        final int every) {
+        this.dir = dir;
+        this.inputFingerprint = inputFingerprint;
+        this.wal = wal;
+        this.every = every;
+        this.writer = every > 0 ? Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "checkpoint-writer");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    /**
+     * Creates a checkpointer configured by the system properties.
+     *
+     * @param inputFingerprint Identifies the input being run.
+     * @param wal              The open log, from {@link WriteAheadLog#openFromProperties};
+     *                         the checkpoints go in its directory.
+     * @return The checkpointer.
+     */
+    public static Checkpointer fromProperties(final long inputFingerprint,
+                                              final WriteAheadLog wal) {
+        return new Checkpointer(wal.getDir(), inputFingerprint, wal,
+                Integer.getInteger("bugtracker.wal.checkpointEvery", DEFAULT_CHECKPOINT_EVERY));
+    }
+
+    /**
+     * Finds the latest snapshot taken for this input. Snapshots left by another
+     * input are deleted.
+     *
+     * @return The snapshot file, or null if there is none.
+     * @throws IOException If the directory cannot be listed.
+     */
+    public Path latest() throws IOException {
+        String own = String.format("%s%016x-", FILE_PREFIX, inputFingerprint);
+        Path latest = null;
+        for (Path p : snapshots()) {
+            if (!p.getFileName().toString().startsWith(own)) {
+                Files.deleteIfExists(p);
+            } else if (latest == null || sequenceOf(p) > sequenceOf(latest)) {
+                latest = p;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Gets the position of the last command a snapshot includes.
+     *
+     * @param snapshot A snapshot file, from {@link #latest()}.
+     * @return The input position.
+     */
+    public static long sequenceOf(final Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf('-') + 1,
+                name.length() - FILE_SUFFIX.length()));
+    }
+
+    /**
+     * Restores the latest snapshot taken for this input, with the outputs journaled
+     * up to it, and cuts off the journal after them (blocks written for a snapshot
+     * that never made it to disk). Journals left by another input are deleted.
+     *
+     * @param db The database, holding the users only.
+     * @return What was restored.
+     * @throws IOException If the snapshot or the journal cannot be read.
+     */
+    public Restored restore(final Database db) throws IOException {
+        Path own = outputsFile();
+        for (Path p : files(OUTPUTS_PREFIX, OUTPUTS_SUFFIX)) {
+            if (!p.equals(own)) {
+                Files.deleteIfExists(p);
+            }
+        }
+        Path snapshot = latest();
+        if (snapshot == null || !Files.exists(own)) {
+            Files.deleteIfExists(own);
+            return new Restored(-1, 0, List.of());
+        }
+        long sequence = sequenceOf(snapshot);
+
+        List<ObjectNode> outputs = new ArrayList<>();
+        long inputOffset = 0;
+        long reached = -1;
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(own));
+        int end = 0;
+        while (buf.remaining() >= BLOCK_HEADER_BYTES) {
+            int length = buf.getInt();
+            long blockSequence = buf.getLong();
+            long blockOffset = buf.getLong();
+            int crc = buf.getInt();
+            if (length < 0 || length > buf.remaining() || blockSequence > sequence) {
+                break;
+            }
+            byte[] json = new byte[length];
+            buf.get(json);
+            if (crc != blockCrc(blockSequence, blockOffset, json)) {
+                break;
+            }
+            for (JsonNode node : MAPPER.readTree(json)) {
+                outputs.add((ObjectNode) node);
+            }
+            reached = blockSequence;
+            inputOffset = blockOffset;
+            end = buf.position();
+        }
+        if (reached != sequence) {
+            // The journal is written first, so this only happens to damaged files
+            Files.deleteIfExists(own);
+            return new Restored(-1, 0, List.of());
+        }
+        try (FileChannel ch = FileChannel.open(own, StandardOpenOption.WRITE)) {
+            ch.truncate(end);
+            ch.force(true);
+        }
+        DatabaseSnapshot.restore(db, snapshot);
+        outputsJournaled = outputs.size();
+        return new Restored(sequence, inputOffset, outputs);
+    }
+
+    /**
+     * Notes that a command was applied, taking a checkpoint when one is due.
+     *
+     * @param db          The database.
+     * @param sequence    The input position of the command.
+     * @param inputOffset The byte offset in the input right after the command.
+     * @param logged      True if the command was written to the log.
+     * @param outputs     Every output of the run so far; they are only appended to.
+     */
+    public void onCommand(final Database db, final long sequence, final long inputOffset,
+                          final boolean logged, final List<ObjectNode> outputs) {
+        if (writer == null || !logged || ++sinceLast < every) {
+            return;
+        }
+        if (pending != null && !pending.isDone()) {
+            // Still writing the previous one; try again after the next command
+            skipped++;
+            return;
+        }
+        sinceLast = 0;
+
+        long start = System.nanoTime();
+        ByteBuffer image = DatabaseSnapshot.encode(db);
+        List<ObjectNode> newOutputs = List.copyOf(outputs.subList(outputsJournaled,
+                outputs.size()));
+        outputsJournaled = outputs.size();
+        long pause = System.nanoTime() - start;
+        checkpoints++;
+        totalPause += pause;
+        maxPause = Math.max(maxPause, pause);
+
+        Future<?> previous = pending;
+        pending = writer.submit(() -> {
+            rethrow(previous);
+            persist(image, sequence, inputOffset, newOutputs);
+            return null;
+        });
+    }
+
+    // Runs on the writer thread
+    private void persist(final ByteBuffer image, final long sequence, final long inputOffset,
+                         final List<ObjectNode> newOutputs) throws IOException {
+        long start = System.nanoTime();
+        byte[] json = MAPPER.writeValueAsBytes(newOutputs);
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + json.length);
+        block.putInt(json.length).putLong(sequence).putLong(inputOffset)
+                .putInt(blockCrc(sequence, inputOffset, json)).put(json).flip();
+        try (FileChannel ch = FileChannel.open(outputsFile(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (block.hasRemaining()) {
+                ch.write(block);
+            }
+            // The snapshot below must never be on disk without its outputs
+            ch.force(false);
+        }
+
+        Path file = dir.resolve(String.format("%s%016x-%020d%s", FILE_PREFIX,
+                inputFingerprint, sequence, FILE_SUFFIX));
+        Path tmp = dir.resolve(file.getFileName() + TMP_SUFFIX);
+        DatabaseSnapshot.write(image, tmp);
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        // The new snapshot is durable: everything before it can go
+        for (Path p : snapshots()) {
+            if (!p.equals(file)) {
+                Files.deleteIfExists(p);
+            }
+        }
+        wal.truncateBefore(sequence + 1);
+        totalBackground += System.nanoTime() - start;
+    }
+
+    /**
+     * Waits for the checkpoint being written, if any.
+     *
+     * @throws IOException If the last checkpoint failed.
+     */
+    public void awaitPending() throws IOException {
+        Future<?> last = pending;
+        pending = null;
+        rethrow(last);
+    }
+
+    private static void rethrow(final Future<?> future) throws IOException {
+        if (future == null) {
+            return;
+        }
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing a checkpoint", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Checkpoint failed", e.getCause());
+        }
+    }
+
+    /**
+     * Summarizes the checkpoints taken so far.
+     *
+     * @return A one-line summary with the pause times in milliseconds.
+     */
+    public String describe() {
+        double mean = checkpoints == 0 ? 0 : totalPause / NANOS_PER_MILLI / checkpoints;
+        return String.format("checkpoints: %d taken, %d skipped, pause max %.2f ms"
+                        + " mean %.2f ms, background %.1f ms", checkpoints, skipped,
+                maxPause / NANOS_PER_MILLI, mean, totalBackground / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Gets the number of checkpoints taken.
+     *
+     * @return The checkpoint count.
+     */
+    public int getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Gets the longest time the command thread spent encoding a snapshot.
+     *
+     * @return The pause in nanoseconds.
+     */
+    public long getMaxPauseNanos() {
+        return maxPause;
+    }
+
+    /**
+     * Deletes every snapshot, after a run finished cleanly. Half-written ones left
+     * by a killed run go too.
+     *
+     * @throws IOException If a snapshot cannot be deleted.
+     */
+    public void deleteAll() throws IOException {
+        awaitPending();
+        for (Path p : snapshots()) {
+            Files.deleteIfExists(p);
+        }
+        for (Path p : files(FILE_PREFIX, FILE_SUFFIX + TMP_SUFFIX)) {
+            Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(outputsFile());
+    }
+
+    /**
+     * Stops the writer thread once the pending checkpoint is written.
+     */
+    @Override
+    public void close() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        return files(FILE_PREFIX, FILE_SUFFIX);
+    }
+
+    private List<Path> files(final String prefix, final String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }).sorted().toList();
+        }
+    }
+
+    private Path outputsFile() {
+        return dir.resolve(String.format("%s%016x%s", OUTPUTS_PREFIX, inputFingerprint,
+                OUTPUTS_SUFFIX));
+    }
+
+    private static int blockCrc(final long sequence, final long inputOffset,
+                                final byte[] json) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Integer.BYTES + 2 * Long.BYTES).putInt(json.length)
+                .putLong(sequence).putLong(inputOffset).array());
+        crc.update(json);
+        return (int) crc.getValue();
+    }
+}
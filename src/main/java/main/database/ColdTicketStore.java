@@ -0,0 +1,363 @@
+package main.database;
+
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.FeatureRequest;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketListener;
+import main.model.ticket.UIFeedback;
+import main.model.ticket.enums.TicketType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact on-disk store for tickets that have been CLOSED for a while.
+ * A cold ticket is one record in an append-only file: its fixed fields and the
+ * offsets of its events in the {@link main.model.ticket.TicketEventStore}.
+ * Reading a cold ticket rehydrates it into a small LRU cache; a cached ticket that
+ * was changed without firing an event is written back when it leaves the cache,
+ * and one that fires an event is taken out of the store by the database.
+ * Off unless "bugtracker.cold.afterDays" is set; the file lives in
+ * "bugtracker.cold.dir" (the temp dir by default) and is deleted on exit.
+ * <p>
+ * Every method takes the store's lock, since parallel searches rehydrate tickets
+ * from their worker threads.
+ */
+public final class ColdTicketStore {
+    private static final int DEFAULT_CACHE_SIZE = 128;
+    private static final int NULL = -1;
+
+    private static final TicketType[] TYPES = TicketType.all();
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final int afterDays;
+    private final int cacheSize;
+    private final FileChannel file;
+    private long fileSize = 0;
+
+    // Where each cold ticket's latest record is, with its CRC to detect silent changes
+    private final Map<Integer, Location> locations = new HashMap<>();
+    private final LinkedHashMap<Integer, Ticket> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Integer, Ticket> eldest) {
+            if (size() <= cacheSize) {
+                return false;
+            }
+            writeBack(eldest.getValue());
+            return true;
+        }
+    };
+
+    private int loads = 0;
+    private int hits = 0;
+
+    private record Location(long offset, int length, int crc) {
+    }
+
+    private ColdTicketStore(final Path dir, final int afterDays, final int cacheSize)
+            throws IOException {
+        this.afterDays = afterDays;
+        this.cacheSize = Math.max(1, cacheSize);
+        Files.createDirectories(dir);
+        Path path = Files.createTempFile(dir, "cold-tickets-", ".seg");
+        path.toFile().deleteOnExit();
+        this.file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Opens the store configured by the system properties, if any.
+     *
+     * @return The store, or null if "bugtracker.cold.afterDays" is not a positive number.
+     */
+    public static ColdTicketStore openFromProperties() {
+        int afterDays = Integer.getInteger("bugtracker.cold.afterDays", 0);
+        if (afterDays <= 0) {
+            return null;
+        }
+        String dir = System.getProperty("bugtracker.cold.dir",
+                System.getProperty("java.io.tmpdir"));
+        try {
+            return new ColdTicketStore(Path.of(dir), afterDays,
+                    Integer.getInteger("bugtracker.cold.cacheSize", DEFAULT_CACHE_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the cold ticket store in " + dir, e);
+        }
+    }
+
+    /**
+     * Gets the number of days a ticket stays CLOSED before it is moved here.
+     *
+     * @return The number of days.
+     */
+    public int getAfterDays() {
+        return afterDays;
+    }
+
+    /**
+     * Checks if a ticket is cold.
+     *
+     * @param id The ticket id.
+     * @return True if the ticket is in the store.
+     */
+    public synchronized boolean contains(final int id) {
+        return locations.containsKey(id);
+    }
+
+    /**
+     * Gets the number of cold tickets.
+     *
+     * @return The ticket count.
+     */
+    public synchronized int size() {
+        return locations.size();
+    }
+
+    /**
+     * Summarizes the store.
+     *
+     * @return A one-line summary.
+     */
+    public synchronized String describe() {
+        return String.format("cold tickets: %d in %d bytes, %d cached, %d loads, %d cache hits",
+                locations.size(), fileSize, cache.size(), loads, hits);
+    }
+
+    /**
+     * Moves a ticket into the store. The caller drops its own reference to it.
+     *
+     * @param ticket The ticket, detached from any listener.
+     */
+    public synchronized void put(final Ticket ticket) {
+        append(ticket.getId(), encode(ticket));
+    }
+
+    /**
+     * Gets a cold ticket, rehydrating it if it is not cached.
+     *
+     * @param id       The ticket id.
+     * @param listener The listener to attach to a rehydrated ticket.
+     * @return The ticket, or null if it is not cold.
+     */
+    public synchronized Ticket get(final int id, final TicketListener listener) {
+        Ticket cached = cache.get(id);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+        Location loc = locations.get(id);
+        if (loc == null) {
+            return null;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(loc.length());
+        try {
+            while (buf.hasRemaining()) {
+                if (file.read(buf, loc.offset() + buf.position()) < 0) {
+                    throw new IOException("Cold ticket record " + id + " is cut short");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        loads++;
+        Ticket t = decode(buf.array());
+        t.setListener(listener);
+        cache.put(id, t);
+        return t;
+    }
+
+    /**
+     * Takes a ticket out of the store, after it changed and became hot again.
+     * Its old record stays in the file until the store is cleared.
+     *
+     * @param id The ticket id.
+     */
+    public synchronized void remove(final int id) {
+        locations.remove(id);
+        cache.remove(id);
+    }
+
+    /**
+     * Drops every cold ticket and empties the file.
+     */
+    public synchronized void clear() {
+        locations.clear();
+        cache.clear();
+        fileSize = 0;
+        loads = 0;
+        hits = 0;
+        try {
+            file.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A ticket leaving the cache may have been changed without an event
+    private void writeBack(final Ticket ticket) {
+        Location loc = locations.get(ticket.getId());
+        if (loc == null) {
+            return;
+        }
+        byte[] record = encode(ticket);
+        if (crc(record) != loc.crc()) {
+            append(ticket.getId(), record);
+        }
+    }
+
+    private void append(final int id, final byte[] record) {
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(record);
+            while (buf.hasRemaining()) {
+                file.write(buf, fileSize + buf.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        locations.put(id, new Location(fileSize, record.length, crc(record)));
+        fileSize += record.length;
+    }
+
+    private static int crc(final byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    // --- RECORDS ---
+
+    private static byte[] encode(final Ticket t) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(t.getTicketType().ordinal());
+            out.writeInt(t.getId());
+            writeString(out, t.getType());
+            writeString(out, t.getTitle());
+            writeString(out, t.getDescription());
+            writeOrdinal(out, t.getBasePriority());
+            writeOrdinal(out, t.getInitialPriority());
+            writeString(out, t.getExpertiseArea());
+            if (t instanceof Bug bug) {
+                writeString(out, bug.getSeverity());
+                writeString(out, bug.getFrequency());
+            } else if (t instanceof FeatureRequest fr) {
+                writeString(out, fr.getBusinessValue());
+                writeString(out, fr.getCustomerDemand());
+            } else if (t instanceof UIFeedback ui) {
+                writeString(out, ui.getBusinessValue());
+                writeString(out, ui.getUiElementId());
+                out.writeInt(ui.getUsabilityScore());
+            }
+            long[] offsets = t.getEventOffsets();
+            out.writeInt(offsets.length);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Ticket decode(final byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            TicketType kind = TYPES[in.readByte()];
+            int id = in.readInt();
+            String type = readString(in);
+            String title = readString(in);
+            String description = readString(in);
+            Priority priority = readOrdinal(in);
+            Priority initial = readOrdinal(in);
+            String expertiseArea = readString(in);
+
+            Ticket t;
+            switch (kind) {
+                case BUG -> {
+                    String severity = readString(in);
+                    String frequency = readString(in);
+                    Bug bug = new Bug(id, type, title, description, priority, readOffsets(in));
+                    bug.setSeverity(severity);
+                    bug.setFrequency(frequency);
+                    t = bug;
+                }
+                case FEATURE_REQUEST -> {
+                    String businessValue = readString(in);
+                    String customerDemand = readString(in);
+                    FeatureRequest fr = new FeatureRequest(id, type, title, description,
+                            priority, readOffsets(in));
+                    fr.setBusinessValue(businessValue);
+                    fr.setCustomerDemand(customerDemand);
+                    t = fr;
+                }
+                default -> {
+                    String businessValue = readString(in);
+                    String uiElementId = readString(in);
+                    int usabilityScore = in.readInt();
+                    UIFeedback ui = new UIFeedback(id, type, title, description, priority,
+                            readOffsets(in));
+                    ui.setBusinessValue(businessValue);
+                    ui.setUiElementId(uiElementId);
+                    ui.setUsabilityScore(usabilityScore);
+                    t = ui;
+                }
+            }
+            t.rebuild();
+            t.setExpertiseArea(expertiseArea);
+            t.restoreInitialPriority(initial);
+            return t;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long[] readOffsets(final DataInputStream in) throws IOException {
+        long[] offsets = new long[in.readInt()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = in.readLong();
+        }
+        return offsets;
+    }
+
+    private static void writeString(final DataOutputStream out, final String s)
+            throws IOException {
+        if (s == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeOrdinal(final DataOutputStream out, final Priority p)
+            throws IOException {
+        out.writeByte(p != null ? p.ordinal() : NULL);
+    }
+
+    private static Priority readOrdinal(final DataInputStream in) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal != NULL ? PRIORITIES[ordinal] : null;
+    }
+}
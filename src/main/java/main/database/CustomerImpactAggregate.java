@@ -0,0 +1,54 @@
+package main.database;
+
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.FeatureRequest;
+import main.model.ticket.Ticket;
+import main.model.ticket.UIFeedback;
+import main.visitor.CustomerImpactVisitor;
+
+/**
+ * Running customer impact totals over the active tickets.
+ * Uses the {@link CustomerImpactVisitor} scoring functions; bug impact is summed
+ * as raw integer points and scaled once, so the sums stay exact under
+ * repeated add/subtract.
+ */
+public final class CustomerImpactAggregate extends ActiveTicketAggregate {
+    private long bugPoints;
+    private long featureImpact;
+    private long uiImpact;
+
+    @Override
+    protected void accumulate(final Ticket ticket, final Priority priority, final int sign) {
+        if (ticket instanceof Bug bug) {
+            bugPoints += sign * CustomerImpactVisitor.bugImpactPoints(bug, priority);
+        } else if (ticket instanceof FeatureRequest fr) {
+            featureImpact += sign * CustomerImpactVisitor.featureImpact(fr);
+        } else if (ticket instanceof UIFeedback ui) {
+            uiImpact += sign * CustomerImpactVisitor.uiImpact(ui);
+        }
+    }
+
+    @Override
+    protected void clearTotals() {
+        bugPoints = 0;
+        featureImpact = 0;
+        uiImpact = 0;
+    }
+
+    /**
+     * Calculates the average impact for a given ticket type.
+     *
+     * @param type The type of the ticket.
+     * @return The average impact, rounded to 2 decimal places.
+     */
+    public double getAverageImpact(final String type) {
+        double totalImpact = switch (type) {
+            case "BUG" -> CustomerImpactVisitor.bugImpact(bugPoints);
+            case "FEATURE_REQUEST" -> featureImpact;
+            case "UI_FEEDBACK" -> uiImpact;
+            default -> 0.0;
+        };
+        return CustomerImpactVisitor.averageImpact(totalImpact, getCount(type));
+    }
+}
@@ -1,7 +1,10 @@
 package main.database;
 
 import main.model.Milestone;
+import main.model.Priority;
 import main.model.ticket.Ticket;
+import main.model.ticket.TicketEventStore;
+import main.model.ticket.TicketListener;
 import main.model.user.Developer;
 import main.model.user.Manager;
 import main.model.user.Reporter;
@@ -10,27 +13,91 @@ import main.utils.InputData;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Singleton class representing the database of the application.
  * Stores users, tickets, and milestones.
+ * <p>
+ * {@link #fork} gives a what-if copy that commands can run against and then throw
+ * away. Tickets live in persistent lists shared with the forks: a database copies
+ * a shared ticket the first time it hands it out through {@link #getTicketForUpdate},
+ * the accessor every change goes through; {@link #getTicket} and the ticket lists
+ * only read. Users and milestones, which are few, are
+ * copied when forking. {@link #openSnapshot} gives read views the same way.
  */
 public final class Database {
     // 1. Single Instance
     private static Database instance = null;
 
     // 2. Data Lists
-    private List<User> users;
-    private List<Ticket> tickets;
-    private List<Milestone> milestones;
+    private final List<User> users;
+    private final PersistentVector<Ticket> tickets;
+    private final List<Milestone> milestones;
+
+    // Indexes
+    private final Map<String, User> usersByName = new HashMap<>();
+    private final DeveloperIndex developerIndex = new DeveloperIndex();
+    private final PersistentIntMap<Integer> milestoneByTicket; // Ticket id -> milestone index
+
+    // Ticket events and the structures derived from them. Tickets holding another
+    // bus are shared with a fork (or its parent) and copied before they change.
+    private TicketEventBus ticketEvents = new TicketEventBus();
+    private final AssignmentEligibility eligibility = new AssignmentEligibility(this);
+    private final CustomerImpactAggregate customerImpact = new CustomerImpactAggregate();
+    private final TicketRiskAggregate ticketRisk = new TicketRiskAggregate();
+    private final PerformanceBuckets performanceBuckets = new PerformanceBuckets();
+    private final TicketColumns ticketColumns = new TicketColumns();
+    private final TicketTimeline ticketTimeline = new TicketTimeline();
+    // The structures above that are kept up to date; a fork builds each on first use
+    private final Set<TicketListener> builtIndexes =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Optional cold tier: long-CLOSED tickets leave their slot in 'tickets' (set to null)
+    private final ColdTicketStore coldTickets;
+    private final ArrayDeque<Integer> closedQueue = new ArrayDeque<>(); // In closing order
+    private final NavigableSet<Integer> hotIds = new TreeSet<>(); // Only kept with a cold tier
+
+    // Each fork or snapshot moves this database to a new event bus, so the bus a
+    // ticket holds tells who may share it: every fork, and every snapshot opened
+    // at the bus generation or later
+    private final Map<TicketEventBus, Integer> retiredBuses = new IdentityHashMap<>();
+    private final ArrayDeque<ReadSnapshot.Token> openSnapshots = new ArrayDeque<>(); // Oldest first
+    private int busGeneration = 0;
+    private int forkedGeneration = -1; // Forks are never closed
+
+    // Bumped on every write, so cached query results never outlive the state they saw
+    private long writeVersion = 0;
+    private final QueryResultCache queryCache = new QueryResultCache();
+
+    // How to take back the latest changes, for the undo commands
+    private final UndoJournal undoJournal = UndoJournal.fromProperties();
 
     // Project phase flags
     private boolean testingPhaseActive;
     private boolean stopTestingPhase = false;
     private LocalDate projectStartDate = null;
 
+    private final boolean fork;
+
+    // Where the events of the tickets live; forks and snapshots hold on to the one
+    // they were made from, so a reset gives this database a new one
+    private TicketEventStore eventStore;
+    private boolean discarded = false;
+
     private static final int TESTING_PHASE_DAYS = 12;
 
     /**
@@ -39,18 +106,259 @@ public final class Database {
      */
     private Database() {
         users = new ArrayList<>();
-        tickets = new ArrayList<>();
+        tickets = new PersistentVector<>();
         milestones = new ArrayList<>();
+        milestoneByTicket = new PersistentIntMap<>();
+        coldTickets = ColdTicketStore.openFromProperties();
+        fork = false;
+        eventStore = TicketEventStore.getInstance();
         testingPhaseActive = true; // Default starts with testing
+        registerIndexes();
+        registerWriteListener();
+    }
+
+    // Fork constructor: shares the tickets, copies the rest
+    private Database(final Database parent) {
+        users = new ArrayList<>(parent.users.size());
+        for (User u : parent.users) {
+            users.add(u.copy());
+        }
+        tickets = parent.tickets.fork();
+        milestones = new ArrayList<>(parent.milestones.size());
+        for (Milestone m : parent.milestones) {
+            milestones.add(m.copy());
+        }
+        milestoneByTicket = parent.milestoneByTicket.fork();
+        coldTickets = null;
+        fork = true;
+        eventStore = parent.eventStore.retain();
+        testingPhaseActive = parent.testingPhaseActive;
+        stopTestingPhase = parent.stopTestingPhase;
+        projectStartDate = parent.projectStartDate;
+        writeVersion = parent.writeVersion;
+        indexUsers();
+        registerWriteListener();
+    }
+
+    private TicketListener[] indexes() {
+        return new TicketListener[] {
+            eligibility, customerImpact, ticketRisk, performanceBuckets, ticketColumns,
+            ticketTimeline,
+        };
+    }
+
+    private void registerIndexes() {
+        for (TicketListener index : indexes()) {
+            ticketEvents.register(index);
+            builtIndexes.add(index);
+        }
+    }
+
+    // Builds a ticket index of a fork from its current state, the first time it is
+    // needed; until then the fork's changes have nothing to update
+    private <T extends TicketListener> T built(final T index) {
+        if (builtIndexes.add(index)) {
+            ticketEvents.register(index);
+            for (Ticket t : tickets) {
+                index.onTicketAdded(t);
+            }
+            for (Milestone m : milestones) {
+                index.onMilestoneAdded(m);
+            }
+        }
+        return index;
+    }
+
+    private void registerWriteListener() {
+        ticketEvents.register(new TicketListener() {
+            @Override
+            public void onTicketAdded(final Ticket ticket) {
+                bumpWriteVersion();
+            }
+
+            @Override
+            public void onStatusChanged(final Ticket ticket, final String oldStatus,
+                                        final String newStatus) {
+                bumpWriteVersion();
+                promote(ticket);
+                if (coldTickets != null && "CLOSED".equals(newStatus)) {
+                    closedQueue.add(ticket.getId());
+                }
+            }
+
+            @Override
+            public void onPriorityChanged(final Ticket ticket, final Priority oldPriority,
+                                          final Priority newPriority) {
+                bumpWriteVersion();
+                promote(ticket);
+            }
+
+            @Override
+            public void onTicketUpdated(final Ticket ticket) {
+                bumpWriteVersion();
+                promote(ticket);
+            }
+
+            @Override
+            public void onMilestoneAdded(final Milestone milestone) {
+                bumpWriteVersion();
+            }
+        });
+    }
+
+    /**
+     * Forks the database, for what-if runs. The fork starts with the same state
+     * and from then on changes on its own: commands run against it (see
+     * {@link main.commands.CommandFactory#createCommand(InputData, Database)})
+     * leave this database alone, and the other way round. Forking costs O(1) in
+     * the number of tickets; each side then pays for the tickets it changes. The
+     * ticket indexes of the fork are built the first time it needs them.
+     * Forks hold on to the ticket event store they were made from until they are
+     * discarded, see {@link #discard}.
+     *
+     * @return The fork.
+     * @throws IllegalStateException If the cold tier is on.
+     */
+    public Database fork() {
+        Database child = share();
+        forkedGeneration = retireBus();
+        return child;
+    }
+
+    /**
+     * Discards a fork: gives back its hold on the ticket event store. The fork
+     * must not be used after. Discarding it again does nothing.
+     *
+     * @throws IllegalStateException If this is not a fork.
+     */
+    public void discard() {
+        if (!fork) {
+            throw new IllegalStateException("Only a fork can be discarded; reset it instead");
+        }
+        if (!discarded) {
+            discarded = true;
+            eventStore.release();
+        }
+    }
+
+    /**
+     * Opens a read snapshot of the current state, see {@link ReadSnapshot}.
+     * Close it once read.
+     *
+     * @return The snapshot.
+     * @throws IllegalStateException If the cold tier is on.
+     */
+    public ReadSnapshot openSnapshot() {
+        Database view = share();
+        ReadSnapshot.Token token = new ReadSnapshot.Token(retireBus());
+        openSnapshots.removeIf(ReadSnapshot.Token::isClosed);
+        openSnapshots.add(token);
+        return new ReadSnapshot(view, writeVersion, token);
+    }
+
+    /**
+     * Gets the number of read snapshots still open.
+     *
+     * @return The open snapshot count.
+     */
+    public int getOpenSnapshots() {
+        openSnapshots.removeIf(ReadSnapshot.Token::isClosed);
+        return openSnapshots.size();
+    }
+
+    private Database share() {
+        if (coldTickets != null) {
+            throw new IllegalStateException("Cannot share the tickets of a database with a"
+                    + " cold ticket tier");
+        }
+        return new Database(this);
+    }
+
+    // The tickets are shared from now on: hand this side's future copies a new bus,
+    // so the tickets still holding the old one are known to be shared
+    private int retireBus() {
+        retiredBuses.put(ticketEvents, busGeneration);
+        ticketEvents = ticketEvents.copy();
+        return busGeneration++;
+    }
+
+    // The latest bus generation something open may share tickets of, or -1
+    private int sharedGeneration() {
+        while (!openSnapshots.isEmpty() && openSnapshots.peekLast().isClosed()) {
+            openSnapshots.pollLast();
+        }
+        int snapshot = openSnapshots.isEmpty() ? -1 : openSnapshots.peekLast().getGeneration();
+        return Math.max(snapshot, forkedGeneration);
+    }
+
+    /**
+     * Checks whether this database is a fork.
+     *
+     * @return True for a fork.
+     */
+    public boolean isFork() {
+        return fork;
     }
 
     /**
      * Resets the database state (clears all lists).
+     *
+     * @throws IllegalStateException If this is a fork, which shares the ticket
+     *                               event store with its parent.
      */
     public void reset() {
+        if (fork) {
+            throw new IllegalStateException("Cannot reset a fork; discard it instead");
+        }
         milestones.clear();
         tickets.clear();
         users.clear();
+        usersByName.clear();
+        developerIndex.clear();
+        milestoneByTicket.clear();
+        clearTicketIndexes();
+        eventStore = TicketEventStore.renew();
+        closedQueue.clear();
+        hotIds.clear();
+        if (coldTickets != null) {
+            coldTickets.clear();
+        }
+        undoJournal.clear();
+        retiredBuses.clear();
+        openSnapshots.clear();
+        forkedGeneration = -1;
+        bumpWriteVersion();
+    }
+
+    /**
+     * Rebuilds every ticket from its event stream, then every index derived from the
+     * tickets, as if they had just been added. Used after the way a ticket or an
+     * index is derived has changed.
+     */
+    public void rebuildIndexes() {
+        clearTicketIndexes();
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket t = writable(i, ticketAt(i)); // Snapshots may be reading it
+            t.rebuild();
+            ticketEvents.onTicketAdded(t);
+            if (tickets.get(i) == null) {
+                ticketEvents.onTicketMovedCold(t);
+            }
+        }
+        for (Milestone m : milestones) {
+            ticketEvents.onMilestoneAdded(m);
+        }
+        bumpWriteVersion();
+    }
+
+    private void clearTicketIndexes() {
+        eligibility.clear();
+        customerImpact.clear();
+        ticketRisk.clear();
+        performanceBuckets.clear();
+        ticketColumns.clear();
+        ticketTimeline.clear();
+        queryCache.clear();
     }
 
     /**
@@ -70,6 +378,8 @@ public final class Database {
      */
     public void loadUsers(final List<InputData> inputs) {
         users.clear();
+        usersByName.clear();
+        developerIndex.clear();
         for (InputData data : inputs) {
             // Check role
             String roleStr = data.getRole();
@@ -113,39 +423,191 @@ public final class Database {
                     break;
             }
         }
+        indexUsers();
     }
 
     /**
-     * Finds a user by their username.
+     * Replaces the users with already built ones (from a snapshot) and indexes them.
+     *
+     * @param restored The users.
      */
-    public User findUserByUsername(final String username) {
+    void restoreUsers(final List<User> restored) {
+        users.clear();
+        usersByName.clear();
+        developerIndex.clear();
+        users.addAll(restored);
+        indexUsers();
+    }
+
+    private void indexUsers() {
         for (User u : users) {
-            if (u.getUsername().equals(username)) {
-                return u;
-            }
+            // First user with a given name wins, as with a linear search
+            usersByName.putIfAbsent(u.getUsername(), u);
+            u.isDeveloper().ifPresent(developerIndex::add);
+            u.setScoreListener((user, oldScore, newScore) -> {
+                developerIndex.onPerformanceScoreChanged(user, oldScore, newScore);
+                bumpWriteVersion();
+            });
         }
-        return null;
+        bumpWriteVersion();
+    }
+
+    /**
+     * Retrieves the list of all users, in load order.
+     */
+    public List<User> getUsers() {
+        return users;
+    }
+
+    /**
+     * Finds a user by their username.
+     */
+    public User findUserByUsername(final String username) {
+        return usersByName.get(username);
+    }
+
+    /**
+     * Gets the developer index (by expertise, seniority and performance score).
+     */
+    public DeveloperIndex getDeveloperIndex() {
+        return developerIndex;
     }
 
     /**
      * Adds a ticket to the database.
      */
     public void addTicket(final Ticket ticket) {
+        ticket.moveEvents(eventStore);
         tickets.add(ticket);
+        if (coldTickets != null) {
+            hotIds.add(ticket.getId());
+        }
+        ticket.setListener(ticketEvents);
+        ticketEvents.onTicketAdded(ticket);
     }
 
     /**
      * Retrieves the list of all tickets.
+     * Cold tickets in it are rehydrated as they are read.
      */
     public List<Ticket> getTickets() {
-        return tickets;
+        if (coldTickets == null) {
+            return tickets;
+        }
+        return new AbstractList<>() {
+            @Override
+            public Ticket get(final int index) {
+                return ticketAt(index);
+            }
+
+            @Override
+            public int size() {
+                return tickets.size();
+            }
+        };
+    }
+
+    /**
+     * Retrieves the tickets that are not in cold storage, for commands that never
+     * look at long-CLOSED tickets. With a cold tier this is a view over the hot ids,
+     * so walking it costs O(hot tickets).
+     *
+     * @return The hot tickets, in id order.
+     */
+    public Collection<Ticket> getHotTickets() {
+        if (coldTickets == null || coldTickets.size() == 0) {
+            return tickets;
+        }
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Ticket> iterator() {
+                Iterator<Integer> ids = hotIds.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return ids.hasNext();
+                    }
+
+                    @Override
+                    public Ticket next() {
+                        return tickets.get(ids.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return hotIds.size();
+            }
+        };
+    }
+
+    /**
+     * Gets the cold ticket store.
+     *
+     * @return The store, or null if the cold tier is off.
+     */
+    public ColdTicketStore getColdTickets() {
+        return coldTickets;
+    }
+
+    /**
+     * Moves the tickets that have been CLOSED for the configured number of days
+     * to the cold store. Only tickets closed since the last call are looked at.
+     *
+     * @param timestamp The date of the current command.
+     */
+    public void moveColdTickets(final String timestamp) {
+        if (coldTickets == null || timestamp == null || closedQueue.isEmpty()) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.parse(timestamp).minusDays(coldTickets.getAfterDays());
+        while (!closedQueue.isEmpty()) {
+            int id = closedQueue.peek();
+            Ticket t = tickets.get(id);
+            if (t == null || !"CLOSED".equals(t.getStatus())) {
+                // Already cold, or reopened (it is queued again when it closes again)
+                closedQueue.poll();
+                continue;
+            }
+            if (LocalDate.parse(t.getSolvedAt()).isAfter(cutoff)) {
+                break;
+            }
+            closedQueue.poll();
+            ticketEvents.onTicketMovedCold(t);
+            t.setListener(null);
+            coldTickets.put(t);
+            tickets.set(id, null);
+            hotIds.remove(id);
+        }
+    }
+
+    private Ticket ticketAt(final int index) {
+        Ticket t = tickets.get(index);
+        return t != null ? t : coldTickets.get(index, ticketEvents);
+    }
+
+    // A cold ticket that changed is hot again
+    private void promote(final Ticket ticket) {
+        int id = ticket.getId();
+        if (coldTickets != null && id < tickets.size() && tickets.get(id) == null) {
+            coldTickets.remove(id);
+            tickets.set(id, ticket);
+            hotIds.add(id);
+        }
     }
 
     /**
      * Adds a milestone to the database.
      */
     public void addMilestone(final Milestone milestone) {
+        int index = milestones.size();
         milestones.add(milestone);
+        for (Integer id : milestone.getTicketIds()) {
+            // First milestone listing a ticket owns it
+            milestoneByTicket.putIfAbsent(id, index);
+        }
+        ticketEvents.onMilestoneAdded(milestone);
     }
 
     /**
@@ -182,27 +644,90 @@ public final class Database {
         return daysBetween <= TESTING_PHASE_DAYS;
     }
 
+    // Project phase flags, for snapshots
+
+    boolean isTestingPhaseFlagSet() {
+        return testingPhaseActive;
+    }
+
+    boolean isStopTestingPhase() {
+        return stopTestingPhase;
+    }
+
+    LocalDate getProjectStartDate() {
+        return projectStartDate;
+    }
+
+    void restorePhaseFlags(final boolean testingActive, final boolean stopTesting,
+                           final LocalDate startDate) {
+        this.testingPhaseActive = testingActive;
+        this.stopTestingPhase = stopTesting;
+        this.projectStartDate = startDate;
+        bumpWriteVersion();
+    }
+
     /**
-     * Retrieves a ticket by its ID.
+     * Retrieves a ticket by its ID, to read it. It may be shared with a fork or
+     * a snapshot, so it must not be changed; see {@link #getTicketForUpdate}.
      */
     public Ticket getTicket(final int id) {
-        for (Ticket t : tickets) {
+        return findTicket(id, false);
+    }
+
+    /**
+     * Retrieves a ticket by its ID, to change it. A ticket shared with a fork or a
+     * snapshot is copied first, so call this only right before the change.
+     *
+     * @param id The ticket id.
+     * @return The ticket, or null if there is none.
+     */
+    public Ticket getTicketForUpdate(final int id) {
+        return findTicket(id, true);
+    }
+
+    private Ticket findTicket(final int id, final boolean forUpdate) {
+        // Ids are handed out as list positions, so try the direct slot first
+        if (id >= 0 && id < tickets.size()) {
+            Ticket t = ticketAt(id);
+            if (t.getId() == id) {
+                return forUpdate ? writable(id, t) : t;
+            }
+        }
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket t = ticketAt(i);
             if (t.getId() == id) {
-                return t;
+                return forUpdate ? writable(i, t) : t;
             }
         }
         return null;
     }
 
+    // A ticket shared with a fork, a snapshot or the parent is copied before it can change
+    private Ticket writable(final int index, final Ticket ticket) {
+        TicketListener holder = ticket.getListener();
+        if (holder == ticketEvents) {
+            return ticket;
+        }
+        Integer generation = retiredBuses.get(holder);
+        if (generation != null && generation > sharedGeneration()) {
+            // Every snapshot that shared it is closed: take it back as it is
+            ticket.setListener(ticketEvents);
+            return ticket;
+        }
+        Ticket copy = ticket.copy();
+        copy.setListener(ticketEvents);
+        tickets.set(index, copy);
+        return copy;
+    }
+
     /**
      * Retrieves the role of a user by username.
      */
     public String getUserRole(final String username) {
-        for (User u : users) {
-            if (u.getUsername().equals(username)) {
-                // Assuming User has getRole() returning Object/String
-                return String.valueOf(u.getRole());
-            }
+        User u = usersByName.get(username);
+        if (u != null) {
+            // Assuming User has getRole() returning Object/String
+            return String.valueOf(u.getRole());
         }
         // Fallback if user does not exist (or return "Developer" by default)
         return "Developer";
@@ -212,12 +737,60 @@ public final class Database {
      * Finds a milestone that contains a specific ticket ID.
      */
     public Milestone findMilestoneByTicketId(final int ticketId) {
-        for (Milestone m : milestones) {
-            if (m.getTicketIds().contains(ticketId)) {
-                return m;
-            }
-        }
-        return null;
+        Integer index = milestoneByTicket.get(ticketId);
+        return index != null ? milestones.get(index) : null;
+    }
+
+    /**
+     * Gets the cached developer-ticket eligibility matrix.
+     */
+    public AssignmentEligibility getAssignmentEligibility() {
+        return built(eligibility);
+    }
+
+    /**
+     * Gets the running customer impact totals over the active tickets.
+     *
+     * @return The customer impact aggregate.
+     */
+    public CustomerImpactAggregate getCustomerImpact() {
+        return built(customerImpact);
+    }
+
+    /**
+     * Gets the running per-type risk totals over the active tickets.
+     *
+     * @return The ticket risk aggregate.
+     */
+    public TicketRiskAggregate getTicketRisk() {
+        return built(ticketRisk);
+    }
+
+    /**
+     * Gets the closed-ticket stats bucketed by developer and month.
+     *
+     * @return The performance buckets.
+     */
+    public PerformanceBuckets getPerformanceBuckets() {
+        return built(performanceBuckets);
+    }
+
+    /**
+     * Gets the columnar snapshot of the ticket table used by analytics.
+     *
+     * @return The ticket columns.
+     */
+    public TicketColumns getTicketColumns() {
+        return built(ticketColumns);
+    }
+
+    /**
+     * Gets the per-ticket status and priority time index used by point-in-time reports.
+     *
+     * @return The ticket timeline.
+     */
+    public TicketTimeline getTicketTimeline() {
+        return built(ticketTimeline);
     }
 
     /**
@@ -225,5 +798,36 @@ public final class Database {
      */
     public void stopExec() {
         this.stopTestingPhase = true;
+        bumpWriteVersion();
+    }
+
+    /**
+     * Gets the write version, incremented on every change to the stored data.
+     */
+    public long getWriteVersion() {
+        return writeVersion;
+    }
+
+    /**
+     * Marks the data as changed, invalidating every cached query result.
+     */
+    public void bumpWriteVersion() {
+        writeVersion++;
+    }
+
+    /**
+     * Gets the cache of read command results.
+     */
+    public QueryResultCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Gets the journal of the inverse operations the undo commands apply.
+     *
+     * @return The undo journal.
+     */
+    public UndoJournal getUndoJournal() {
+        return undoJournal;
     }
 }
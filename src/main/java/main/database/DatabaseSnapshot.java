@@ -0,0 +1,561 @@
+package main.database;
+
+import main.model.Milestone;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.FeatureRequest;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import main.model.ticket.UIFeedback;
+import main.model.ticket.enums.TicketType;
+import main.model.user.Developer;
+import main.model.user.Manager;
+import main.model.user.Reporter;
+import main.model.user.User;
+import main.model.user.enums.Expertise;
+import main.model.user.enums.Seniority;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the full database: users, tickets (their fixed fields,
+ * priorities and event stream), milestones (with notification flags) and the
+ * project phase flags. Derived state is not stored: a ticket's assignee, status,
+ * dates, comments and history are materialized from its events, and the indexes
+ * are rebuilt from the ticket events fired while the snapshot is restored.
+ * <pre>
+ *   header:     int magic, short version, short reserved,
+ *               long body length, long string table offset, int CRC32 of the rest
+ *   body:       phase flags, users, tickets, milestones
+ *   strings:    int count, then (int length, UTF-8 bytes) per string
+ * </pre>
+ * Strings in the body are indexes into the string table, so repeated usernames,
+ * dates and statuses are stored once.
+ */
+public final class DatabaseSnapshot {
+    private static final int MAGIC = 0x4254534E; // "BTSN"
+    private static final short VERSION = 3;
+    private static final int HEADER_BYTES =
+            Integer.BYTES + 2 * Short.BYTES + 2 * Long.BYTES + Integer.BYTES;
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+    private static final int NULL = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final byte REPORTER = 0;
+    private static final byte DEVELOPER = 1;
+    private static final byte MANAGER = 2;
+
+    private static final byte ASSIGNED = 0;
+    private static final byte DEASSIGNED = 1;
+    private static final byte STATUS_CHANGED = 2;
+    private static final byte ADDED_TO_MILESTONE = 3;
+    private static final byte COMMENT_ADDED = 4;
+    private static final byte COMMENT_REMOVED = 5;
+    private static final byte PRIORITY_FORCED = 6;
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Expertise[] EXPERTISES = Expertise.values();
+    private static final Seniority[] SENIORITIES = Seniority.values();
+
+    private DatabaseSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the database to a file, replacing it.
+     *
+     * @param db   The database.
+     * @param file The snapshot file.
+     * @return The size of the snapshot in bytes.
+     * @throws IOException If the file cannot be written.
+     */
+    public static long write(final Database db, final Path file) throws IOException {
+        return write(encode(db), file);
+    }
+
+    /**
+     * Writes an encoded snapshot to a file, replacing it, and forces it to disk.
+     *
+     * @param image The snapshot, from {@link #encode}.
+     * @param file  The snapshot file.
+     * @return The size of the snapshot in bytes.
+     * @throws IOException If the file cannot be written.
+     */
+    public static long write(final ByteBuffer image, final Path file) throws IOException {
+        ByteBuffer out = image.duplicate();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                ch.write(out);
+            }
+            ch.force(true);
+        }
+        return image.remaining();
+    }
+
+    /**
+     * Encodes a snapshot of the database in memory. This is the only step that reads
+     * the database, so it is all a caller must keep writes away from; the image can
+     * then be written to disk on another thread.
+     *
+     * @param db The database.
+     * @return The encoded snapshot, ready to be read from position 0.
+     */
+    public static ByteBuffer encode(final Database db) {
+        Writer w = new Writer();
+        w.buf.position(HEADER_BYTES);
+        writeFlags(w, db);
+        writeUsers(w, db.getUsers());
+        writeTickets(w, db.getTickets());
+        writeMilestones(w, db.getMilestones());
+
+        long stringsOffset = w.buf.position();
+        w.ensure(Integer.BYTES);
+        w.buf.putInt(w.strings.size());
+        for (byte[] s : w.strings) {
+            w.ensure(Integer.BYTES + s.length);
+            w.buf.putInt(s.length);
+            w.buf.put(s);
+        }
+
+        ByteBuffer out = w.buf.flip();
+        CRC32 crc = new CRC32();
+        crc.update(out.duplicate().position(HEADER_BYTES));
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putShort((short) 0);
+        out.putLong(stringsOffset - HEADER_BYTES);
+        out.putLong(stringsOffset);
+        out.putInt((int) crc.getValue());
+        return out.position(0);
+    }
+
+    /**
+     * Replaces the contents of the database with a snapshot.
+     *
+     * @param db   The database to restore into.
+     * @param file The snapshot file.
+     * @throws IOException If the file cannot be read, or is not a valid snapshot.
+     */
+    public static void restore(final Database db, final Path file) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES || ch.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a database snapshot: " + file);
+            }
+            buf = ByteBuffer.allocate((int) ch.size());
+            while (buf.hasRemaining() && ch.read(buf) >= 0) {
+                continue;
+            }
+            buf.flip();
+        }
+        restore(db, buf, file.toString());
+    }
+
+    /**
+     * Replaces the contents of the database with a snapshot held in memory.
+     *
+     * @param db    The database to restore into.
+     * @param image The snapshot, as returned by {@link #encode}.
+     * @throws IOException If the image is not a valid snapshot.
+     */
+    public static void restore(final Database db, final ByteBuffer image) throws IOException {
+        if (image.remaining() < HEADER_BYTES) {
+            throw new IOException("Not a database snapshot: image");
+        }
+        restore(db, image.slice(), "image");
+    }
+
+    private static void restore(final Database db, final ByteBuffer buf, final String source)
+            throws IOException {
+        if (buf.getInt() != MAGIC) {
+            throw new IOException("Not a database snapshot: " + source);
+        }
+        short version = buf.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + source);
+        }
+        buf.getShort();
+        long bodyBytes = buf.getLong();
+        long stringsOffset = buf.getLong();
+        int expectedCrc = buf.getInt();
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate());
+        if ((int) crc.getValue() != expectedCrc || stringsOffset != HEADER_BYTES + bodyBytes) {
+            throw new IOException("Corrupt database snapshot: " + source);
+        }
+
+        Reader r = new Reader(buf, readStrings(buf.duplicate().position((int) stringsOffset)));
+        buf.position(HEADER_BYTES);
+
+        boolean testingActive = buf.get() != 0;
+        boolean stopTesting = buf.get() != 0;
+        LocalDate startDate = r.date();
+
+        db.reset();
+        db.restoreUsers(readUsers(r));
+        int ticketCount = buf.getInt();
+        for (int i = 0; i < ticketCount; i++) {
+            db.addTicket(readTicket(r));
+        }
+        int milestoneCount = buf.getInt();
+        for (int i = 0; i < milestoneCount; i++) {
+            db.addMilestone(readMilestone(r));
+        }
+        db.restorePhaseFlags(testingActive, stopTesting, startDate);
+    }
+
+    // --- WRITING ---
+
+    private static void writeFlags(final Writer w, final Database db) {
+        w.ensure(2 + Integer.BYTES);
+        w.buf.put((byte) (db.isTestingPhaseFlagSet() ? 1 : 0));
+        w.buf.put((byte) (db.isStopTestingPhase() ? 1 : 0));
+        w.date(db.getProjectStartDate());
+    }
+
+    private static void writeUsers(final Writer w, final List<User> users) {
+        w.integer(users.size());
+        for (User u : users) {
+            byte kind = u instanceof Developer ? DEVELOPER : u instanceof Manager ? MANAGER
+                    : REPORTER;
+            w.ensure(1 + Double.BYTES);
+            w.buf.put(kind);
+            w.buf.putDouble(u.getPerformanceScore());
+            w.string(u.getUsername());
+            w.string(u.getEmail());
+            if (u instanceof Developer dev) {
+                w.date(dev.getHireDate());
+                w.ordinal(dev.getExpertise());
+                w.ordinal(dev.getSeniority());
+                w.strings(dev.getNotifications());
+            } else if (u instanceof Manager manager) {
+                w.date(manager.getHireDate());
+                w.strings(manager.getSubordinates());
+            }
+        }
+    }
+
+    private static void writeTickets(final Writer w, final List<Ticket> tickets) {
+        w.integer(tickets.size());
+        for (Ticket t : tickets) {
+            w.ensure(1 + Integer.BYTES);
+            w.buf.put((byte) t.getTicketType().ordinal());
+            w.buf.putInt(t.getId());
+            w.string(t.getType());
+            w.string(t.getTitle());
+            w.string(t.getDescription());
+            w.ordinal(t.getBasePriority());
+            w.ordinal(t.getInitialPriority());
+            List<TicketEvent> events = t.getEvents();
+            w.string(((TicketEvent.Reported) events.get(0)).status());
+            w.string(t.getReportedBy());
+            w.string(t.getCreatedAt());
+            w.string(t.getExpertiseArea());
+
+            if (t instanceof Bug bug) {
+                w.string(bug.getSeverity());
+                w.string(bug.getFrequency());
+            } else if (t instanceof FeatureRequest fr) {
+                w.string(fr.getBusinessValue());
+                w.string(fr.getCustomerDemand());
+            } else if (t instanceof UIFeedback ui) {
+                w.string(ui.getBusinessValue());
+                w.string(ui.getUiElementId());
+                w.integer(ui.getUsabilityScore());
+            }
+
+            // The report is rebuilt from the fields above
+            w.integer(events.size() - 1);
+            for (TicketEvent e : events.subList(1, events.size())) {
+                writeEvent(w, e);
+            }
+        }
+    }
+
+    private static void writeEvent(final Writer w, final TicketEvent event) {
+        w.ensure(1);
+        switch (event) {
+            case TicketEvent.Assigned e -> w.buf.put(ASSIGNED);
+            case TicketEvent.Deassigned e -> w.buf.put(DEASSIGNED);
+            case TicketEvent.StatusChanged e -> w.buf.put(STATUS_CHANGED);
+            case TicketEvent.AddedToMilestone e -> w.buf.put(ADDED_TO_MILESTONE);
+            case TicketEvent.CommentAdded e -> w.buf.put(COMMENT_ADDED);
+            case TicketEvent.CommentRemoved e -> w.buf.put(COMMENT_REMOVED);
+            case TicketEvent.PriorityForced e -> w.buf.put(PRIORITY_FORCED);
+            case TicketEvent.Reported e -> throw new IllegalStateException("Report after event 0");
+        }
+        w.string(event.by());
+        w.string(event.timestamp());
+        switch (event) {
+            case TicketEvent.StatusChanged e -> {
+                w.string(e.from());
+                w.string(e.to());
+            }
+            case TicketEvent.AddedToMilestone e -> w.string(e.milestone());
+            case TicketEvent.CommentAdded e -> w.string(e.content());
+            case TicketEvent.PriorityForced e -> w.ordinal(e.priority());
+            default -> {
+                // No other fields
+            }
+        }
+    }
+
+    private static void writeMilestones(final Writer w, final List<Milestone> milestones) {
+        w.integer(milestones.size());
+        for (Milestone m : milestones) {
+            w.string(m.getName());
+            w.string(m.getCreatedBy());
+            w.date(m.getCreatedAt());
+            w.date(m.getDueDate());
+            w.strings(m.getBlockingFor());
+            List<Integer> ids = m.getTicketIds();
+            w.integer(ids == null ? NULL : ids.size());
+            if (ids != null) {
+                for (Integer id : ids) {
+                    w.integer(id);
+                }
+            }
+            w.strings(m.getAssignedDevs());
+            w.date(m.getCompletionDate());
+            w.ensure(2);
+            w.buf.put((byte) (m.isNotifiedDueTomorrow() ? 1 : 0));
+            w.buf.put((byte) (m.isNotifiedUnblockedAfterDue() ? 1 : 0));
+        }
+    }
+
+    // --- READING ---
+
+    private static String[] readStrings(final ByteBuffer buf) {
+        String[] strings = new String[buf.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buf.getInt();
+            strings[i] = new String(buf.array(), buf.arrayOffset() + buf.position(), length,
+                    StandardCharsets.UTF_8);
+            buf.position(buf.position() + length);
+        }
+        return strings;
+    }
+
+    private static List<User> readUsers(final Reader r) {
+        int count = r.buf.getInt();
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = r.buf.get();
+            double score = r.buf.getDouble();
+            String username = r.string();
+            String email = r.string();
+            User u;
+            if (kind == DEVELOPER) {
+                LocalDate hireDate = r.date();
+                Expertise expertise = r.ordinal(EXPERTISES);
+                Seniority seniority = r.ordinal(SENIORITIES);
+                Developer dev = new Developer(username, email, hireDate, expertise, seniority);
+                for (String n : r.strings()) {
+                    dev.addNotification(n);
+                }
+                u = dev;
+            } else if (kind == MANAGER) {
+                LocalDate hireDate = r.date();
+                u = new Manager(username, email, hireDate, r.strings());
+            } else {
+                u = new Reporter(username, email);
+            }
+            // No listener is attached yet, so this only sets the field
+            u.setPerformanceScore(score);
+            users.add(u);
+        }
+        return users;
+    }
+
+    private static Ticket readTicket(final Reader r) {
+        TicketType kind = TicketType.all()[r.buf.get()];
+        int id = r.buf.getInt();
+        String type = r.string();
+        String title = r.string();
+        String description = r.string();
+        Priority priority = r.ordinal(PRIORITIES);
+        Priority initial = r.ordinal(PRIORITIES);
+        String status = r.string();
+        String reportedBy = r.string();
+        String createdAt = r.string();
+
+        Ticket t = switch (kind) {
+            case BUG -> new Bug(id, type, title, description, priority, status, reportedBy,
+                    createdAt);
+            case FEATURE_REQUEST -> new FeatureRequest(id, type, title, description, priority,
+                    status, reportedBy, createdAt);
+            case UI_FEEDBACK -> new UIFeedback(id, type, title, description, priority, status,
+                    reportedBy, createdAt);
+        };
+        t.setExpertiseArea(r.string());
+        t.restoreInitialPriority(initial);
+
+        if (t instanceof Bug bug) {
+            bug.setSeverity(r.string());
+            bug.setFrequency(r.string());
+        } else if (t instanceof FeatureRequest fr) {
+            fr.setBusinessValue(r.string());
+            fr.setCustomerDemand(r.string());
+        } else if (t instanceof UIFeedback ui) {
+            ui.setBusinessValue(r.string());
+            ui.setUiElementId(r.string());
+            ui.setUsabilityScore(r.buf.getInt());
+        }
+
+        // No listener is attached yet, so replaying the events only sets the fields
+        int events = r.buf.getInt();
+        for (int i = 0; i < events; i++) {
+            t.apply(readEvent(r));
+        }
+        return t;
+    }
+
+    private static TicketEvent readEvent(final Reader r) {
+        byte kind = r.buf.get();
+        String by = r.string();
+        String timestamp = r.string();
+        return switch (kind) {
+            case ASSIGNED -> new TicketEvent.Assigned(by, timestamp);
+            case DEASSIGNED -> new TicketEvent.Deassigned(by, timestamp);
+            case STATUS_CHANGED -> new TicketEvent.StatusChanged(by, timestamp, r.string(),
+                    r.string());
+            case ADDED_TO_MILESTONE -> new TicketEvent.AddedToMilestone(by, timestamp,
+                    r.string());
+            case COMMENT_ADDED -> new TicketEvent.CommentAdded(by, timestamp, r.string());
+            case COMMENT_REMOVED -> new TicketEvent.CommentRemoved(by, timestamp);
+            case PRIORITY_FORCED -> new TicketEvent.PriorityForced(by, timestamp,
+                    r.ordinal(PRIORITIES));
+            default -> throw new IllegalStateException("Unknown ticket event " + kind);
+        };
+    }
+
+    private static Milestone readMilestone(final Reader r) {
+        String name = r.string();
+        String createdBy = r.string();
+        LocalDate createdAt = r.date();
+        LocalDate dueDate = r.date();
+        List<String> blockingFor = r.strings();
+        int idCount = r.buf.getInt();
+        List<Integer> ids = null;
+        if (idCount != NULL) {
+            ids = new ArrayList<>(idCount);
+            for (int i = 0; i < idCount; i++) {
+                ids.add(r.buf.getInt());
+            }
+        }
+        List<String> assignedDevs = r.strings();
+        Milestone m = new Milestone(name, createdBy, createdAt, dueDate, blockingFor, ids,
+                assignedDevs);
+        LocalDate completion = r.date();
+        boolean dueTomorrowSent = r.buf.get() != 0;
+        m.restoreState(completion, dueTomorrowSent, r.buf.get() != 0);
+        return m;
+    }
+
+    /**
+     * Growable output buffer with the string table being built.
+     */
+    private static final class Writer {
+        private ByteBuffer buf = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+
+        void ensure(final int bytes) {
+            if (buf.remaining() < bytes) {
+                int capacity = Math.max(buf.capacity() * 2, buf.position() + bytes);
+                buf = ByteBuffer.allocate(capacity).put(buf.flip());
+            }
+        }
+
+        void integer(final int value) {
+            ensure(Integer.BYTES);
+            buf.putInt(value);
+        }
+
+        void string(final String s) {
+            if (s == null) {
+                integer(NULL);
+                return;
+            }
+            integer(stringIds.computeIfAbsent(s, k -> {
+                strings.add(k.getBytes(StandardCharsets.UTF_8));
+                return strings.size() - 1;
+            }));
+        }
+
+        void strings(final List<String> list) {
+            integer(list == null ? NULL : list.size());
+            if (list != null) {
+                for (String s : list) {
+                    string(s);
+                }
+            }
+        }
+
+        void date(final LocalDate date) {
+            integer(date == null ? NO_DATE : (int) date.toEpochDay());
+        }
+
+        void ordinal(final Enum<?> value) {
+            ensure(1);
+            buf.put((byte) (value == null ? NULL : value.ordinal()));
+        }
+    }
+
+    /**
+     * Input buffer with the string table already decoded.
+     */
+    private static final class Reader {
+        private final ByteBuffer buf;
+        private final String[] strings;
+
+        Reader(final ByteBuffer buf, final String[] strings) {
+            this.buf = buf;
+            this.strings = strings;
+        }
+
+        String string() {
+            int id = buf.getInt();
+            return id == NULL ? null : strings[id];
+        }
+
+        List<String> strings() {
+            int count = buf.getInt();
+            if (count == NULL) {
+                return null;
+            }
+            return new ArrayList<>(Arrays.asList(readN(count)));
+        }
+
+        private String[] readN(final int count) {
+            String[] out = new String[count];
+            for (int i = 0; i < count; i++) {
+                out[i] = string();
+            }
+            return out;
+        }
+
+        LocalDate date() {
+            int day = buf.getInt();
+            return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+        }
+
+        <E> E ordinal(final E[] values) {
+            byte ordinal = buf.get();
+            return ordinal == NULL ? null : values[ordinal];
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package main.database;
+
+import main.model.user.Developer;
+import main.model.user.PerformanceScoreListener;
+import main.model.user.User;
+import main.model.user.enums.Expertise;
+import main.model.user.enums.Seniority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes over the developers of the database.
+ * Developers are grouped by expertise and seniority, and kept ordered by
+ * performance score so score filters become range scans.
+ */
+public final class DeveloperIndex implements PerformanceScoreListener {
+    private final Map<Expertise, Set<Developer>> byExpertise = new EnumMap<>(Expertise.class);
+    private final Map<Seniority, Set<Developer>> bySeniority = new EnumMap<>(Seniority.class);
+    private final NavigableMap<Double, Set<Developer>> byScore = new TreeMap<>();
+
+    /**
+     * Adds a developer to all indexes. Score changes must be forwarded to
+     * {@link #onPerformanceScoreChanged} by the owner of the index.
+     *
+     * @param dev The developer to index.
+     */
+    public void add(final Developer dev) {
+        if (dev.getExpertise() != null) {
+            byExpertise.computeIfAbsent(dev.getExpertise(), k -> new LinkedHashSet<>()).add(dev);
+        }
+        if (dev.getSeniority() != null) {
+            bySeniority.computeIfAbsent(dev.getSeniority(), k -> new LinkedHashSet<>()).add(dev);
+        }
+        byScore.computeIfAbsent(dev.getPerformanceScore(), k -> new LinkedHashSet<>()).add(dev);
+    }
+
+    /**
+     * Removes every developer from the indexes.
+     */
+    public void clear() {
+        byExpertise.clear();
+        bySeniority.clear();
+        byScore.clear();
+    }
+
+    /**
+     * Gets the developers with a given expertise area.
+     *
+     * @param expertise The expertise area.
+     * @return The matching developers (read-only).
+     */
+    public Set<Developer> withExpertise(final Expertise expertise) {
+        return Collections.unmodifiableSet(byExpertise.getOrDefault(expertise, Set.of()));
+    }
+
+    /**
+     * Gets the developers with a given seniority.
+     *
+     * @param seniority The seniority level.
+     * @return The matching developers (read-only).
+     */
+    public Set<Developer> withSeniority(final Seniority seniority) {
+        return Collections.unmodifiableSet(bySeniority.getOrDefault(seniority, Set.of()));
+    }
+
+    /**
+     * Range scan on the performance score. Both bounds are exclusive.
+     *
+     * @param above Lower bound, or null for no lower bound.
+     * @param below Upper bound, or null for no upper bound.
+     * @return The developers whose score lies strictly between the bounds.
+     */
+    public List<Developer> withScoreBetween(final Double above, final Double below) {
+        NavigableMap<Double, Set<Developer>> range = byScore;
+        if (above != null && below != null) {
+            if (above >= below) {
+                return List.of();
+            }
+            range = byScore.subMap(above, false, below, false);
+        } else if (above != null) {
+            range = byScore.tailMap(above, false);
+        } else if (below != null) {
+            range = byScore.headMap(below, false);
+        }
+
+        List<Developer> result = new ArrayList<>();
+        for (Set<Developer> devs : range.values()) {
+            result.addAll(devs);
+        }
+        return result;
+    }
+
+    @Override
+    public void onPerformanceScoreChanged(final User user, final double oldScore,
+                                          final double newScore) {
+        Developer dev = user.isDeveloper().orElse(null);
+        if (dev == null) {
+            return;
+        }
+        Set<Developer> old = byScore.get(oldScore);
+        if (old != null) {
+            old.remove(dev);
+            if (old.isEmpty()) {
+                byScore.remove(oldScore);
+            }
+        }
+        byScore.computeIfAbsent(newScore, k -> new LinkedHashSet<>()).add(dev);
+    }
+}
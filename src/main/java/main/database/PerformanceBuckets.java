@@ -0,0 +1,189 @@
+package main.database;
+
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketListener;
+import main.model.ticket.enums.TicketType;
+import main.visitor.PerformanceStats;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Closed-ticket statistics bucketed by (developer, month the ticket was solved).
+ * Every ticket event re-derives the ticket's bucket entry, so closing, reopening,
+ * undoing and priority changes move or adjust the entry instead of rescanning.
+ */
+public final class PerformanceBuckets implements TicketListener {
+    private static final Bucket EMPTY = new Bucket();
+
+    private final Map<String, Map<YearMonth, Bucket>> buckets = new HashMap<>();
+    // What each ticket currently contributes, so it can be taken back out
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    /**
+     * Gets the stats of the tickets a developer closed in a month.
+     *
+     * @param developer The developer username.
+     * @param month     The month the tickets were solved in.
+     * @return The bucket (empty if the developer closed nothing that month).
+     */
+    public Bucket get(final String developer, final YearMonth month) {
+        Map<YearMonth, Bucket> byMonth = buckets.get(developer);
+        if (byMonth == null) {
+            return EMPTY;
+        }
+        return byMonth.getOrDefault(month, EMPTY);
+    }
+
+    /**
+     * Gets the number of tickets currently counted in some bucket.
+     *
+     * @return The bucketed ticket count.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every ticket from the buckets.
+     */
+    public void clear() {
+        buckets.clear();
+        entries.clear();
+    }
+
+    @Override
+    public void onTicketAdded(final Ticket ticket) {
+        refresh(ticket);
+    }
+
+    @Override
+    public void onStatusChanged(final Ticket ticket, final String oldStatus,
+                                final String newStatus) {
+        refresh(ticket);
+    }
+
+    @Override
+    public void onPriorityChanged(final Ticket ticket, final Priority oldPriority,
+                                  final Priority newPriority) {
+        refresh(ticket);
+    }
+
+    @Override
+    public void onTicketUpdated(final Ticket ticket) {
+        refresh(ticket);
+    }
+
+    // Replaces the ticket's old contribution with its current one
+    private void refresh(final Ticket ticket) {
+        Entry current = entryOf(ticket);
+        Entry previous = current == null
+                ? entries.remove(ticket.getId())
+                : entries.put(ticket.getId(), current);
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        if (previous != null) {
+            bucketOf(previous).apply(previous, ticket, -1);
+        }
+        if (current != null) {
+            bucketOf(current).apply(current, ticket, 1);
+        }
+    }
+
+    private Bucket bucketOf(final Entry e) {
+        return buckets.computeIfAbsent(e.developer(), k -> new HashMap<>())
+                .computeIfAbsent(e.month(), k -> new Bucket());
+    }
+
+    private static Entry entryOf(final Ticket t) {
+        if (!"CLOSED".equals(t.getStatus()) || t.getAssignee().isEmpty()
+                || t.getSolvedAt().isEmpty()) {
+            return null;
+        }
+        Priority p = t.getPriority();
+        return new Entry(t.getAssignee(), YearMonth.from(LocalDate.parse(t.getSolvedAt())),
+                t.getTicketType(), p == Priority.HIGH || p == Priority.CRITICAL,
+                t.getDaysToResolve());
+    }
+
+    /**
+     * One ticket's contribution to a bucket.
+     */
+    private record Entry(String developer, YearMonth month, TicketType type,
+                         boolean highPriority, int days) {
+    }
+
+    /**
+     * The closed tickets of one developer in one month, with their running stats.
+     */
+    public static final class Bucket implements PerformanceStats {
+        private final int[] countByType = new int[TicketType.COUNT];
+        private int highPriorityCount;
+        private int closedTicketsCount;
+        private long totalResolutionDays;
+        // Ids only: closed tickets are the ones moved to cold storage
+        private final SortedSet<Integer> ticketIds = new TreeSet<>();
+
+        private void apply(final Entry e, final Ticket t, final int sign) {
+            countByType[e.type().ordinal()] += sign;
+            highPriorityCount += e.highPriority() ? sign : 0;
+            closedTicketsCount += sign;
+            totalResolutionDays += sign * e.days();
+            if (sign > 0) {
+                ticketIds.add(t.getId());
+            } else {
+                ticketIds.remove(t.getId());
+            }
+        }
+
+        /**
+         * Gets the ids of the tickets in the bucket, in order.
+         *
+         * @return The ticket ids (read-only).
+         */
+        public SortedSet<Integer> getTicketIds() {
+            return Collections.unmodifiableSortedSet(ticketIds);
+        }
+
+        @Override
+        public int getBugCount() {
+            return countByType[TicketType.BUG.ordinal()];
+        }
+
+        @Override
+        public int getFeatureCount() {
+            return countByType[TicketType.FEATURE_REQUEST.ordinal()];
+        }
+
+        @Override
+        public int getUiCount() {
+            return countByType[TicketType.UI_FEEDBACK.ordinal()];
+        }
+
+        @Override
+        public int getHighPriorityCount() {
+            return highPriorityCount;
+        }
+
+        @Override
+        public int getClosedTicketsCount() {
+            return closedTicketsCount;
+        }
+
+        @Override
+        public double getAverageResolutionTime() {
+            if (closedTicketsCount == 0) {
+                return 0.0;
+            }
+            return (double) totalResolutionDays / closedTicketsCount;
+        }
+    }
+}
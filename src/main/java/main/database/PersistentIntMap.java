@@ -0,0 +1,151 @@
+package main.database;
+
+/**
+ * Map from int keys to values, as a 32-way trie whose nodes are shared between
+ * the forks of a map. A map writes in place the nodes it created since its last
+ * fork and copies the path to any other node first, so forking costs O(1) and a
+ * fork pays only for the paths it changes. Keys are taken as unsigned.
+ *
+ * @param <V> The value type. A null value is the same as no entry.
+ */
+final class PersistentIntMap<V> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final int MAX_SHIFT = 30; // A root at this level covers every int
+
+    private static final class Node {
+        private final Object owner;
+        private final Object[] slots;
+
+        Node(final Object owner, final Object[] slots) {
+            this.owner = owner;
+            this.slots = slots;
+        }
+    }
+
+    private Object owner = new Object(); // Marks the nodes this map may write in place
+    private Node root;
+    private int shift;
+    private int size;
+
+    /**
+     * Creates an empty map.
+     */
+    PersistentIntMap() {
+    }
+
+    private PersistentIntMap(final Node root, final int shift, final int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    V get(final int key) {
+        Node n = root;
+        if (n == null || !fits(key)) {
+            return null;
+        }
+        for (int s = shift; s > 0; s -= BITS) {
+            n = (Node) n.slots[(key >>> s) & MASK];
+            if (n == null) {
+                return null;
+            }
+        }
+        return (V) n.slots[key & MASK];
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key   The key.
+     * @param value The value, or null to remove the entry.
+     * @return The previous value, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    V put(final int key, final V value) {
+        if (root == null) {
+            root = new Node(owner, new Object[WIDTH]);
+            shift = 0;
+        }
+        while (!fits(key)) {
+            Node up = new Node(owner, new Object[WIDTH]);
+            up.slots[0] = root;
+            root = up;
+            shift += BITS;
+        }
+        root = editable(root);
+        Node n = root;
+        for (int s = shift; s > 0; s -= BITS) {
+            int i = (key >>> s) & MASK;
+            Node child = (Node) n.slots[i];
+            child = child == null ? new Node(owner, new Object[WIDTH]) : editable(child);
+            n.slots[i] = child;
+            n = child;
+        }
+        Object previous = n.slots[key & MASK];
+        n.slots[key & MASK] = value;
+        if (previous == null && value != null) {
+            size++;
+        } else if (previous != null && value == null) {
+            size--;
+        }
+        return (V) previous;
+    }
+
+    /**
+     * Sets the value of a key that has none.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    void putIfAbsent(final int key, final V value) {
+        if (get(key) == null) {
+            put(key, value);
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return The entry count.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes every entry. Forks keep theirs.
+     */
+    void clear() {
+        root = null;
+        shift = 0;
+        size = 0;
+    }
+
+    /**
+     * Forks the map. Both maps start out sharing every node and copy a node before
+     * their first write to it, so neither sees the other's changes.
+     *
+     * @return The fork.
+     */
+    PersistentIntMap<V> fork() {
+        owner = new Object();
+        return new PersistentIntMap<>(root, shift, size);
+    }
+
+    private boolean fits(final int key) {
+        return shift >= MAX_SHIFT || (key >>> (shift + BITS)) == 0;
+    }
+
+    private Node editable(final Node node) {
+        return node.owner == owner ? node : new Node(owner, node.slots.clone());
+    }
+}
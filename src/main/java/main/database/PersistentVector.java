@@ -0,0 +1,66 @@
+package main.database;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Growable list over a {@link PersistentIntMap}, so it can be forked in O(1) and
+ * each fork then changes on its own.
+ *
+ * @param <E> The element type.
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private final PersistentIntMap<E> items;
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    PersistentVector() {
+        this(new PersistentIntMap<>(), 0);
+    }
+
+    private PersistentVector(final PersistentIntMap<E> items, final int size) {
+        this.items = items;
+        this.size = size;
+    }
+
+    @Override
+    public E get(final int index) {
+        return items.get(Objects.checkIndex(index, size));
+    }
+
+    @Override
+    public E set(final int index, final E element) {
+        return items.put(Objects.checkIndex(index, size), element);
+    }
+
+    @Override
+    public boolean add(final E element) {
+        items.put(size++, element);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        items.clear();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Forks the list, see {@link PersistentIntMap#fork}.
+     *
+     * @return The fork.
+     */
+    PersistentVector<E> fork() {
+        return new PersistentVector<>(items.fork(), size);
+    }
+}
@@ -0,0 +1,178 @@
+package main.database;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache for the outputs of read commands.
+ * Keys embed the Database write version, so any write makes older entries
+ * unreachable; they are then evicted by the LRU order or the memory cap.
+ */
+public final class QueryResultCache {
+    private static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+    // Rough per-entry cost of the key, map entry and node objects
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+    // Rough cost of one JSON node, and of one object field or array slot on top of it
+    private static final long NODE_BYTES = 24;
+    private static final long SLOT_BYTES = 40;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    private static final class Entry {
+        private final List<ObjectNode> outputs;
+        private final long bytes;
+
+        private Entry(final List<ObjectNode> outputs, final long bytes) {
+            this.outputs = outputs;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Creates a cache bounded by the "bugtracker.queryCache.maxBytes" system property
+     * (16 MB by default, 0 disables caching).
+     */
+    public QueryResultCache() {
+        this(Long.getLong("bugtracker.queryCache.maxBytes", DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * Creates a cache with an explicit memory cap.
+     *
+     * @param maxBytes The approximate memory cap in bytes.
+     */
+    public QueryResultCache(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Builds a cache key.
+     *
+     * @param command The command name.
+     * @param user    The user running the command.
+     * @param filters The normalized filters (may be empty).
+     * @param day     The day the command runs on.
+     * @param version The Database write version.
+     * @return The key.
+     */
+    public static String key(final String command, final String user, final String filters,
+                             final String day, final long version) {
+        return command + '\u0000' + user + '\u0000' + filters + '\u0000' + day
+                + '\u0000' + version;
+    }
+
+    /**
+     * Looks up cached outputs and updates the hit/miss counters.
+     *
+     * @param key The cache key.
+     * @return The cached outputs, or null on a miss.
+     */
+    public List<ObjectNode> get(final String key) {
+        Entry e = entries.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.outputs;
+    }
+
+    /**
+     * Stores the outputs of a command, evicting least recently used entries
+     * until the memory cap holds.
+     *
+     * @param key     The cache key.
+     * @param outputs The outputs produced by the command.
+     */
+    public void put(final String key, final List<ObjectNode> outputs) {
+        long bytes = ENTRY_OVERHEAD_BYTES + 2L * key.length();
+        for (ObjectNode node : outputs) {
+            bytes += estimateBytes(node);
+        }
+        if (bytes > maxBytes) {
+            return;
+        }
+
+        Entry old = entries.put(key, new Entry(List.copyOf(outputs), bytes));
+        if (old != null) {
+            usedBytes -= old.bytes;
+        }
+        usedBytes += bytes;
+
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            usedBytes -= it.next().getValue().bytes;
+            it.remove();
+        }
+    }
+
+    // Counts nodes, fields and characters instead of serializing the tree
+    private static long estimateBytes(final JsonNode root) {
+        long bytes = 0;
+        Deque<JsonNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            JsonNode node = pending.pop();
+            bytes += NODE_BYTES;
+            if (node.isObject()) {
+                for (Map.Entry<String, JsonNode> field : node.properties()) {
+                    bytes += SLOT_BYTES + 2L * field.getKey().length();
+                    pending.push(field.getValue());
+                }
+            } else if (node.isArray()) {
+                bytes += SLOT_BYTES * node.size();
+                node.forEach(pending::push);
+            } else if (node.isTextual()) {
+                bytes += 2L * node.textValue().length();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Drops every entry (the counters are kept).
+     */
+    public void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to run the command.
+     *
+     * @return The miss count.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the approximate memory held by the cached outputs.
+     *
+     * @return The size in bytes.
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+}
@@ -0,0 +1,89 @@
+package main.database;
+
+/**
+ * Consistent read view of the database at one write version, for long reports
+ * that run while commands keep writing. The view is a fork (see
+ * {@link Database#fork}): opening it costs O(1) in the number of tickets, the
+ * database copies a ticket before its first change instead of waiting for
+ * readers, and the view never sees those changes. Once every snapshot sharing an
+ * old ticket version is closed, the database changes that version in place again
+ * and the garbage collector reclaims the rest.
+ * <p>
+ * The view may be read from another thread than the one writing the database.
+ * Changes made through it stay in it.
+ */
+public final class ReadSnapshot implements AutoCloseable {
+    private final Database database;
+    private final long version;
+    private final Token token;
+
+    /**
+     * What the database keeps of an open snapshot: not the view, so a snapshot
+     * that is dropped without being closed still frees its ticket versions.
+     */
+    static final class Token {
+        private final int generation;
+        private volatile boolean closed;
+
+        Token(final int generation) {
+            this.generation = generation;
+        }
+
+        int getGeneration() {
+            return generation;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+    }
+
+    ReadSnapshot(final Database database, final long version, final Token token) {
+        this.database = database;
+        this.version = version;
+        this.token = token;
+    }
+
+    /**
+     * Gets the read view, to run commands against.
+     *
+     * @return The view.
+     * @throws IllegalStateException If the snapshot is closed.
+     */
+    public Database getDatabase() {
+        if (token.closed) {
+            throw new IllegalStateException("Read snapshot is closed");
+        }
+        return database;
+    }
+
+    /**
+     * Gets the write version of the database the snapshot shows.
+     *
+     * @return The write version, see {@link Database#getWriteVersion}.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether the snapshot is closed.
+     *
+     * @return True once closed.
+     */
+    public boolean isClosed() {
+        return token.closed;
+    }
+
+    /**
+     * Closes the snapshot and gives back its hold on the ticket event store. The
+     * view must not be used after.
+     */
+    @Override
+    public synchronized void close() {
+        if (!token.closed) {
+            token.closed = true;
+            database.discard();
+        }
+    }
+}
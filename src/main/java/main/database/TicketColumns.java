@@ -0,0 +1,382 @@
+package main.database;
+
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.FeatureRequest;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketListener;
+import main.model.ticket.UIFeedback;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays snapshot of the ticket table for analytics.
+ * One row per ticket, in the order the tickets were added, with every field a
+ * report reads stored in a primitive column. Ticket events only mark a row dirty;
+ * dirty rows are re-read from their tickets the next time a column is requested,
+ * so a burst of writes costs one refresh per row.
+ */
+public final class TicketColumns implements TicketListener {
+    /** Status codes stored in the status column. */
+    public static final byte OPEN = 0;
+    public static final byte IN_PROGRESS = 1;
+    public static final byte RESOLVED = 2;
+    public static final byte CLOSED = 3;
+    /** Code of a status outside the ticket workflow; no status mask matches it. */
+    public static final byte UNKNOWN_STATUS = 31;
+
+    /** Marks a missing date in the epoch-day columns and a missing assignee or priority. */
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final String[] STATUS_NAMES = {"OPEN", "IN_PROGRESS", "RESOLVED", "CLOSED"};
+
+    private final List<Ticket> rowTickets = new ArrayList<>();
+    private final Map<Integer, Integer> rowById = new HashMap<>();
+    private final BitSet dirty = new BitSet();
+
+    // Assignees are interned to small ids
+    private final Map<String, Integer> assigneeIds = new HashMap<>();
+    private final List<String> assigneeNames = new ArrayList<>();
+
+    private int size = 0;
+    private byte[] type = new byte[INITIAL_CAPACITY];
+    private byte[] status = new byte[INITIAL_CAPACITY];
+    private byte[] priority = new byte[INITIAL_CAPACITY];
+    private byte[] severity = new byte[INITIAL_CAPACITY];
+    private byte[] frequency = new byte[INITIAL_CAPACITY];
+    private byte[] businessValue = new byte[INITIAL_CAPACITY];
+    private byte[] customerDemand = new byte[INITIAL_CAPACITY];
+    private byte[] usabilityScore = new byte[INITIAL_CAPACITY];
+    private int[] createdDay = new int[INITIAL_CAPACITY];
+    private int[] assignedDay = new int[INITIAL_CAPACITY];
+    private int[] solvedDay = new int[INITIAL_CAPACITY];
+    private int[] daysToResolve = new int[INITIAL_CAPACITY];
+    private int[] assignee = new int[INITIAL_CAPACITY];
+
+    /**
+     * Gets the status code stored for a status name.
+     *
+     * @param name The status name.
+     * @return The code, or {@link #UNKNOWN_STATUS} for any other status.
+     */
+    public static byte statusCode(final String name) {
+        for (byte code = 0; code < STATUS_NAMES.length; code++) {
+            if (STATUS_NAMES[code].equals(name)) {
+                return code;
+            }
+        }
+        return UNKNOWN_STATUS;
+    }
+
+    /**
+     * Builds a mask matching rows whose status is one of the given names.
+     * A row matches when {@code (mask & (1 << status[row])) != 0}.
+     *
+     * @param names The statuses to match.
+     * @return The status mask.
+     */
+    public static int statusMask(final String... names) {
+        int mask = 0;
+        for (String name : names) {
+            byte code = statusCode(name);
+            if (code != UNKNOWN_STATUS) {
+                mask |= 1 << code;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Drops every row.
+     */
+    public void clear() {
+        rowTickets.clear();
+        rowById.clear();
+        dirty.clear();
+        assigneeIds.clear();
+        assigneeNames.clear();
+        size = 0;
+    }
+
+    @Override
+    public void onTicketAdded(final Ticket ticket) {
+        if (size == type.length) {
+            grow();
+        }
+        rowById.put(ticket.getId(), size);
+        rowTickets.add(ticket);
+        dirty.set(size);
+        size++;
+    }
+
+    @Override
+    public void onStatusChanged(final Ticket ticket, final String oldStatus,
+                                final String newStatus) {
+        markDirty(ticket);
+    }
+
+    @Override
+    public void onPriorityChanged(final Ticket ticket, final Priority oldPriority,
+                                  final Priority newPriority) {
+        markDirty(ticket);
+    }
+
+    @Override
+    public void onTicketUpdated(final Ticket ticket) {
+        markDirty(ticket);
+    }
+
+    @Override
+    public void onTicketMovedCold(final Ticket ticket) {
+        Integer row = rowById.get(ticket.getId());
+        if (row != null) {
+            // Bring the row up to date, as it is not re-read until the ticket changes again
+            if (dirty.get(row)) {
+                load(row, ticket);
+                dirty.clear(row);
+            }
+            rowTickets.set(row, null);
+        }
+    }
+
+    private void markDirty(final Ticket ticket) {
+        Integer row = rowById.get(ticket.getId());
+        if (row != null) {
+            // A cold ticket comes back as a new instance
+            rowTickets.set(row, ticket);
+            dirty.set(row);
+        }
+    }
+
+    // Re-reads every dirty row from its ticket
+    private void refresh() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        for (int row = dirty.nextSetBit(0); row >= 0; row = dirty.nextSetBit(row + 1)) {
+            load(row, rowTickets.get(row));
+        }
+        dirty.clear();
+    }
+
+    private void load(final int row, final Ticket t) {
+        type[row] = (byte) t.getTicketType().ordinal();
+        status[row] = statusCode(t.getStatus());
+        Priority p = t.getPriority();
+        priority[row] = (byte) (p != null ? p.ordinal() : NONE);
+        severity[row] = 0;
+        frequency[row] = 0;
+        businessValue[row] = 0;
+        customerDemand[row] = 0;
+        usabilityScore[row] = 0;
+        if (t instanceof Bug bug) {
+            severity[row] = (byte) bug.getSeverityValue();
+            frequency[row] = (byte) bug.getFrequencyValue();
+        } else if (t instanceof FeatureRequest fr) {
+            businessValue[row] = (byte) fr.getBusinessValueValue();
+            customerDemand[row] = (byte) fr.getCustomerDemandValue();
+        } else if (t instanceof UIFeedback ui) {
+            businessValue[row] = (byte) ui.getBusinessValueValue();
+            usabilityScore[row] = (byte) ui.getUsabilityScore();
+        }
+        createdDay[row] = epochDay(t.getCreatedAt());
+        assignedDay[row] = epochDay(t.getAssignedAt());
+        solvedDay[row] = epochDay(t.getSolvedAt());
+        daysToResolve[row] = t.getDaysToResolve();
+        assignee[row] = assigneeId(t.getAssignee());
+    }
+
+    private static int epochDay(final String date) {
+        if (date == null || date.isEmpty()) {
+            return NONE;
+        }
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+
+    private int assigneeId(final String username) {
+        if (username.isEmpty()) {
+            return NONE;
+        }
+        return assigneeIds.computeIfAbsent(username, k -> {
+            assigneeNames.add(k);
+            return assigneeNames.size() - 1;
+        });
+    }
+
+    private void grow() {
+        int capacity = type.length * 2;
+        type = Arrays.copyOf(type, capacity);
+        status = Arrays.copyOf(status, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        severity = Arrays.copyOf(severity, capacity);
+        frequency = Arrays.copyOf(frequency, capacity);
+        businessValue = Arrays.copyOf(businessValue, capacity);
+        customerDemand = Arrays.copyOf(customerDemand, capacity);
+        usabilityScore = Arrays.copyOf(usabilityScore, capacity);
+        createdDay = Arrays.copyOf(createdDay, capacity);
+        assignedDay = Arrays.copyOf(assignedDay, capacity);
+        solvedDay = Arrays.copyOf(solvedDay, capacity);
+        daysToResolve = Arrays.copyOf(daysToResolve, capacity);
+        assignee = Arrays.copyOf(assignee, capacity);
+    }
+
+    // --- COLUMNS ---
+    // Each getter brings the dirty rows up to date and returns the live backing array,
+    // which may be longer than size() and must not be modified.
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return The row count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the ticket type column ({@code TicketType} ordinals).
+     *
+     * @return The column.
+     */
+    public byte[] types() {
+        refresh();
+        return type;
+    }
+
+    /**
+     * Gets the status column (status codes).
+     *
+     * @return The column.
+     */
+    public byte[] statuses() {
+        refresh();
+        return status;
+    }
+
+    /**
+     * Gets the effective priority column ({@code Priority} ordinals, {@link #NONE} if unset).
+     *
+     * @return The column.
+     */
+    public byte[] priorities() {
+        refresh();
+        return priority;
+    }
+
+    /**
+     * Gets the bug severity column (0 for other types).
+     *
+     * @return The column.
+     */
+    public byte[] severities() {
+        refresh();
+        return severity;
+    }
+
+    /**
+     * Gets the bug frequency column (0 for other types).
+     *
+     * @return The column.
+     */
+    public byte[] frequencies() {
+        refresh();
+        return frequency;
+    }
+
+    /**
+     * Gets the business value column (0 for bugs).
+     *
+     * @return The column.
+     */
+    public byte[] businessValues() {
+        refresh();
+        return businessValue;
+    }
+
+    /**
+     * Gets the feature request customer demand column (0 for other types).
+     *
+     * @return The column.
+     */
+    public byte[] customerDemands() {
+        refresh();
+        return customerDemand;
+    }
+
+    /**
+     * Gets the UI feedback usability score column (0 for other types).
+     *
+     * @return The column.
+     */
+    public byte[] usabilityScores() {
+        refresh();
+        return usabilityScore;
+    }
+
+    /**
+     * Gets the creation date column, in epoch days.
+     *
+     * @return The column.
+     */
+    public int[] createdDays() {
+        refresh();
+        return createdDay;
+    }
+
+    /**
+     * Gets the assignment date column, in epoch days ({@link #NONE} if unassigned).
+     *
+     * @return The column.
+     */
+    public int[] assignedDays() {
+        refresh();
+        return assignedDay;
+    }
+
+    /**
+     * Gets the solve date column, in epoch days ({@link #NONE} if unsolved).
+     *
+     * @return The column.
+     */
+    public int[] solvedDays() {
+        refresh();
+        return solvedDay;
+    }
+
+    /**
+     * Gets the recorded resolution time column (0 while unsolved).
+     *
+     * @return The column.
+     */
+    public int[] daysToResolve() {
+        refresh();
+        return daysToResolve;
+    }
+
+    /**
+     * Gets the assignee id column ({@link #NONE} if unassigned).
+     *
+     * @return The column.
+     */
+    public int[] assignees() {
+        refresh();
+        return assignee;
+    }
+
+    /**
+     * Gets the username behind an assignee id.
+     *
+     * @param id The assignee id from {@link #assignees()}.
+     * @return The username.
+     */
+    public String getAssigneeName(final int id) {
+        return assigneeNames.get(id);
+    }
+}
@@ -0,0 +1,82 @@
+package main.database;
+
+import main.model.Milestone;
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fans ticket events out to every listener registered on the database.
+ * Each ticket holds a single reference to the bus instead of a listener list.
+ */
+public final class TicketEventBus implements TicketListener {
+    private final List<TicketListener> listeners = new ArrayList<>();
+
+    /**
+     * Registers a listener. Listeners are notified in registration order.
+     *
+     * @param listener The listener to add.
+     */
+    public void register(final TicketListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Creates a bus notifying the same listeners. Tickets still holding this bus
+     * can then be told apart from the ones holding the new one.
+     *
+     * @return The new bus.
+     */
+    public TicketEventBus copy() {
+        TicketEventBus copy = new TicketEventBus();
+        copy.listeners.addAll(listeners);
+        return copy;
+    }
+
+    @Override
+    public void onTicketAdded(final Ticket ticket) {
+        for (TicketListener l : listeners) {
+            l.onTicketAdded(ticket);
+        }
+    }
+
+    @Override
+    public void onStatusChanged(final Ticket ticket, final String oldStatus,
+                                final String newStatus) {
+        for (TicketListener l : listeners) {
+            l.onStatusChanged(ticket, oldStatus, newStatus);
+        }
+    }
+
+    @Override
+    public void onPriorityChanged(final Ticket ticket, final Priority oldPriority,
+                                  final Priority newPriority) {
+        for (TicketListener l : listeners) {
+            l.onPriorityChanged(ticket, oldPriority, newPriority);
+        }
+    }
+
+    @Override
+    public void onTicketUpdated(final Ticket ticket) {
+        for (TicketListener l : listeners) {
+            l.onTicketUpdated(ticket);
+        }
+    }
+
+    @Override
+    public void onTicketMovedCold(final Ticket ticket) {
+        for (TicketListener l : listeners) {
+            l.onTicketMovedCold(ticket);
+        }
+    }
+
+    @Override
+    public void onMilestoneAdded(final Milestone milestone) {
+        for (TicketListener l : listeners) {
+            l.onMilestoneAdded(milestone);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package main.database;
+
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.FeatureRequest;
+import main.model.ticket.Ticket;
+import main.model.ticket.UIFeedback;
+import main.visitor.TicketRiskVisitor;
+
+/**
+ * Running per-type risk totals over the active tickets.
+ * Uses the {@link TicketRiskVisitor} scoring functions on raw integer points,
+ * so the risk qualifiers can be answered without revisiting any ticket.
+ */
+public final class TicketRiskAggregate extends ActiveTicketAggregate {
+    private long bugPoints;
+    private long featurePoints;
+    private long uiPoints;
+
+    @Override
+    protected void accumulate(final Ticket ticket, final Priority priority, final int sign) {
+        // Risk does not depend on priority, so priority changes cancel out here
+        if (ticket instanceof Bug bug) {
+            bugPoints += sign * TicketRiskVisitor.bugRiskPoints(bug);
+        } else if (ticket instanceof FeatureRequest fr) {
+            featurePoints += sign * TicketRiskVisitor.featureRiskPoints(fr);
+        } else if (ticket instanceof UIFeedback ui) {
+            uiPoints += sign * TicketRiskVisitor.uiRiskPoints(ui);
+        }
+    }
+
+    @Override
+    protected void clearTotals() {
+        bugPoints = 0;
+        featurePoints = 0;
+        uiPoints = 0;
+    }
+
+    /**
+     * Calculates the average risk for a given ticket type.
+     *
+     * @param type The type of the ticket.
+     * @return The average risk, 0 if there are no tickets of that type.
+     */
+    public double getAverageRisk(final String type) {
+        int count = getCount(type);
+        if (count == 0) {
+            return 0.0;
+        }
+        double totalRisk = switch (type) {
+            case "BUG" -> TicketRiskVisitor.bugRisk(bugPoints);
+            case "FEATURE_REQUEST" -> TicketRiskVisitor.featureRisk(featurePoints);
+            case "UI_FEEDBACK" -> TicketRiskVisitor.uiRisk(uiPoints);
+            default -> 0.0;
+        };
+        return totalRisk / count;
+    }
+
+    /**
+     * Gets the risk qualifier for a given ticket type.
+     *
+     * @param type The type of the ticket.
+     * @return The risk qualifier string (e.g., "NEGLIGIBLE", "MAJOR").
+     */
+    public String getRiskQualifier(final String type) {
+        return TicketRiskVisitor.riskQualifier(getAverageRisk(type));
+    }
+}
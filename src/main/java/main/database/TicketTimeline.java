@@ -0,0 +1,164 @@
+package main.database;
+
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import main.model.ticket.TicketListener;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-ticket time index of status and priority changes, built from the ticket
+ * event stream. Answers "what were the status and the effective priority of this
+ * ticket on date X" with a binary search, so point-in-time reports need neither a
+ * replay of the input nor any change to the live tickets. An index is rebuilt
+ * lazily after its ticket changes.
+ */
+public final class TicketTimeline implements TicketListener {
+    private final Map<Integer, StateIndex> indexes = new HashMap<>();
+
+    /**
+     * Drops every index.
+     */
+    public void clear() {
+        indexes.clear();
+    }
+
+    @Override
+    public void onStatusChanged(final Ticket ticket, final String oldStatus,
+                                final String newStatus) {
+        indexes.remove(ticket.getId());
+    }
+
+    @Override
+    public void onPriorityChanged(final Ticket ticket, final Priority oldPriority,
+                                  final Priority newPriority) {
+        indexes.remove(ticket.getId());
+    }
+
+    @Override
+    public void onTicketUpdated(final Ticket ticket) {
+        // Events are appended through updates
+        indexes.remove(ticket.getId());
+    }
+
+    @Override
+    public void onTicketMovedCold(final Ticket ticket) {
+        indexes.remove(ticket.getId());
+    }
+
+    /**
+     * Gets the status a ticket had at the end of a day.
+     *
+     * @param ticket The ticket.
+     * @param date   The day.
+     * @return The status, or null if the ticket had not been reported yet.
+     */
+    public String statusAt(final Ticket ticket, final LocalDate date) {
+        StateIndex index = index(ticket);
+        int i = index.at(date.toEpochDay());
+        return i >= 0 ? index.statuses()[i] : null;
+    }
+
+    /**
+     * Gets the effective priority a ticket had at the end of a day: the priority
+     * forced by then, if any, otherwise the base one.
+     *
+     * @param ticket The ticket.
+     * @param date   The day.
+     * @return The priority, or null if the ticket had not been reported yet.
+     */
+    public Priority priorityAt(final Ticket ticket, final LocalDate date) {
+        StateIndex index = index(ticket);
+        int i = index.at(date.toEpochDay());
+        return i >= 0 ? index.priorities()[i] : null;
+    }
+
+    /**
+     * Adds the tickets that were active (OPEN or IN_PROGRESS) at the end of a day
+     * to detached aggregates, under the effective priority they had on that day.
+     *
+     * @param tickets    The tickets to look at.
+     * @param date       The day.
+     * @param aggregates Aggregates that are not registered for ticket events.
+     */
+    public void collectActive(final List<Ticket> tickets, final LocalDate date,
+                              final ActiveTicketAggregate... aggregates) {
+        long day = date.toEpochDay();
+        for (Ticket t : tickets) {
+            StateIndex index = index(t);
+            int i = index.at(day);
+            if (i >= 0 && ActiveTicketAggregate.isActive(index.statuses()[i])) {
+                for (ActiveTicketAggregate aggregate : aggregates) {
+                    aggregate.addActive(t, index.priorities()[i]);
+                }
+            }
+        }
+    }
+
+    private StateIndex index(final Ticket ticket) {
+        return indexes.computeIfAbsent(ticket.getId(), k -> StateIndex.of(ticket));
+    }
+
+    /**
+     * Days on which a ticket's status or forced priority changed, with the status and
+     * the effective priority after each change. Entry 0 is the report itself.
+     */
+    private record StateIndex(long[] days, String[] statuses, Priority[] priorities) {
+
+        static StateIndex of(final Ticket t) {
+            List<TicketEvent> events = t.getEvents();
+            long[] days = new long[events.size()];
+            String[] statuses = new String[events.size()];
+            Priority[] priorities = new Priority[events.size()];
+
+            String status = null;
+            Priority priority = t.getBasePriority();
+            int n = 0;
+            for (TicketEvent e : events) {
+                switch (e) {
+                    case TicketEvent.Reported r -> status = r.status();
+                    case TicketEvent.Assigned a -> status = "IN_PROGRESS";
+                    case TicketEvent.Deassigned d -> status = "OPEN";
+                    case TicketEvent.StatusChanged s -> status = s.to();
+                    case TicketEvent.PriorityForced f -> priority = f.priority() != null
+                            ? f.priority() : t.getBasePriority();
+                    default -> {
+                        continue;
+                    }
+                }
+                if (n == 0) {
+                    days[0] = e.timestamp() != null
+                            ? LocalDate.parse(e.timestamp()).toEpochDay() : Long.MIN_VALUE;
+                } else if (e.timestamp() == null) {
+                    continue;
+                } else {
+                    // Events are appended in command order, which never goes back in time
+                    days[n] = Math.max(LocalDate.parse(e.timestamp()).toEpochDay(), days[n - 1]);
+                }
+                statuses[n] = status;
+                priorities[n] = priority;
+                n++;
+            }
+            return new StateIndex(Arrays.copyOf(days, n), Arrays.copyOf(statuses, n),
+                    Arrays.copyOf(priorities, n));
+        }
+
+        // The entry of the last change made on or before the day, or -1 if none
+        int at(final long day) {
+            int i = Arrays.binarySearch(days, day);
+            if (i >= 0) {
+                while (i + 1 < days.length && days[i + 1] == day) {
+                    i++;
+                }
+            } else {
+                i = -i - 2;
+            }
+            return i;
+        }
+    }
+}
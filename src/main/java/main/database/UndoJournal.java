@@ -0,0 +1,206 @@
+package main.database;
+
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Journal of the inverse of every undoable change, kept per ticket, user and kind
+ * of change. A forward command records how to take its change back, so an undo
+ * pops that inverse instead of working the previous state out again.
+ * Each stack keeps the latest "bugtracker.undo.depth" entries (16 by default, 0
+ * to turn the journal off), and the journal keeps the stacks of the latest
+ * "bugtracker.undo.maxKeys" ticket, user and kind triples to change (4096 by
+ * default). An undo that finds nothing, because the entry was dropped or the
+ * database was restored, falls back to working the inverse out from the ticket.
+ */
+public final class UndoJournal {
+    private static final int DEFAULT_DEPTH = 16;
+    private static final int DEFAULT_MAX_KEYS = 4096;
+
+    private final int depth;
+    private final int maxKeys;
+    // In the order the stacks were last recorded to, so the stalest goes first
+    private final Map<Key, ArrayDeque<Inverse>> stacks = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, ArrayDeque<Inverse>> eldest) {
+            return size() > maxKeys;
+        }
+    };
+
+    /**
+     * How to take back one change.
+     */
+    public sealed interface Inverse {
+    }
+
+    /**
+     * Takes back an assignment, while the ticket is still in progress under it.
+     *
+     * @param assignedAt The date of the assignment.
+     */
+    public record Unassign(String assignedAt) implements Inverse {
+        /**
+         * Checks that the ticket is still in progress under this assignment.
+         *
+         * @param ticket The ticket.
+         * @return True if the inverse can be applied.
+         */
+        public boolean appliesTo(final Ticket ticket) {
+            return "IN_PROGRESS".equals(ticket.getStatus())
+                    && assignedAt.equals(ticket.getAssignedAt());
+        }
+
+        /**
+         * Builds the event that takes the assignment back.
+         *
+         * @param by        The user undoing it.
+         * @param timestamp The date of the undo.
+         * @return The event.
+         */
+        public TicketEvent undo(final String by, final String timestamp) {
+            return new TicketEvent.Deassigned(by, timestamp);
+        }
+    }
+
+    /**
+     * Takes back a status change, while the ticket still has the status it moved to.
+     *
+     * @param from The status before the change, to go back to.
+     * @param to   The status after the change.
+     */
+    public record RevertStatus(String from, String to) implements Inverse {
+        /**
+         * Checks that the ticket still has the status it moved to.
+         *
+         * @param ticket The ticket.
+         * @return True if the inverse can be applied.
+         */
+        public boolean appliesTo(final Ticket ticket) {
+            return to.equals(ticket.getStatus());
+        }
+
+        /**
+         * Builds the event that moves the ticket back.
+         *
+         * @param by        The user undoing it.
+         * @param timestamp The date of the undo.
+         * @return The event.
+         */
+        public TicketEvent undo(final String by, final String timestamp) {
+            return new TicketEvent.StatusChanged(by, timestamp, to, from);
+        }
+    }
+
+    /**
+     * Takes back a comment.
+     *
+     * @param commentOffset The event store offset of the comment.
+     * @param index         The position of the comment when it was added.
+     */
+    public record RemoveComment(long commentOffset, int index) implements Inverse {
+    }
+
+    private record Key(int ticketId, String username, Class<? extends Inverse> kind) {
+    }
+
+    /**
+     * Creates a journal.
+     *
+     * @param depth   The number of entries kept per ticket, user and kind; 0 or less
+     *                keeps none.
+     * @param maxKeys The number of ticket, user and kind triples kept.
+     */
+    public UndoJournal(final int depth, final int maxKeys) {
+        this.depth = depth;
+        this.maxKeys = Math.max(1, maxKeys);
+    }
+
+    /**
+     * Creates a journal configured by the system properties.
+     *
+     * @return The journal.
+     */
+    public static UndoJournal fromProperties() {
+        return new UndoJournal(Integer.getInteger("bugtracker.undo.depth", DEFAULT_DEPTH),
+                Integer.getInteger("bugtracker.undo.maxKeys", DEFAULT_MAX_KEYS));
+    }
+
+    /**
+     * Records how to take back a change, dropping the oldest entry of a full stack
+     * and the stalest stack of a full journal.
+     *
+     * @param ticketId The ticket changed.
+     * @param username The user who made the change.
+     * @param inverse  How to take it back.
+     */
+    public void record(final int ticketId, final String username, final Inverse inverse) {
+        if (depth <= 0) {
+            return;
+        }
+        Key key = new Key(ticketId, username, inverse.getClass());
+        ArrayDeque<Inverse> stack = stacks.remove(key); // Put back as the latest
+        if (stack == null) {
+            stack = new ArrayDeque<>();
+        } else if (stack.size() == depth) {
+            stack.removeFirst();
+        }
+        stack.addLast(inverse);
+        stacks.put(key, stack);
+    }
+
+    /**
+     * Takes the latest change of a kind a user made to a ticket off the journal.
+     *
+     * @param ticketId The ticket.
+     * @param username The user.
+     * @param kind     The kind of change.
+     * @param <T>      The inverse type.
+     * @return How to take the change back, or null if the journal does not have it.
+     */
+    public <T extends Inverse> T pop(final int ticketId, final String username,
+                                     final Class<T> kind) {
+        Key key = new Key(ticketId, username, kind);
+        ArrayDeque<Inverse> stack = stacks.get(key);
+        if (stack == null) {
+            return null;
+        }
+        Inverse top = stack.pollLast();
+        if (stack.isEmpty()) {
+            stacks.remove(key);
+        }
+        return kind.cast(top);
+    }
+
+    /**
+     * Gets the number of entries in the journal.
+     *
+     * @return The entry count.
+     */
+    public int size() {
+        int size = 0;
+        for (ArrayDeque<Inverse> stack : stacks.values()) {
+            size += stack.size();
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of ticket, user and kind triples with entries.
+     *
+     * @return The stack count.
+     */
+    public int keys() {
+        return stacks.size();
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public void clear() {
+        stacks.clear();
+    }
+}
@@ -0,0 +1,602 @@
+package main.database;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of the commands that change the database.
+ * Each command is appended before it is applied, so a crashed run can rebuild its
+ * state by replaying the log alone, without running the input again up to the crash.
+ * Commands that only read are not logged; their outputs travel in the record of the
+ * next logged command, so the replay gives back every output up to the last record
+ * and the run only has to go on from the input after it.
+ * The log is split into segment files; every segment starts with a header naming
+ * the input it belongs to. A record is:
+ * <pre>
+ *   int  payload length
+ *   byte opcode (the command)
+ *   int  CRC32 of opcode, sequence, input offset and payload
+ *   long sequence (the position of the command in the input)
+ *   long input offset (the byte offset in the input right after the command)
+ *   payload (the command tree, then the array of outputs of the reads since the
+ *           previous record, see below)
+ * </pre>
+ * The payload holds tagged values: a tag byte, then a varint
+ * count for arrays and objects (each object field starts with its name), a
+ * zigzag varint for integers, 8 bytes for other numbers, and a string for
+ * strings. Field names and command names are written as their 1-based position
+ * in a fixed table; any other string is a 0, a varint length and UTF-8 bytes.
+ * Appends reach the OS at once (surviving a crash of the process), while the
+ * fsync that makes them survive a crash of the machine is batched over
+ * "bugtracker.wal.groupCommit" records (64 by default).
+ * Segments covered by a checkpoint can be truncated from another thread.
+ */
+public final class WriteAheadLog implements Closeable {
+    /** System property naming the log directory; the log is off when it is unset. */
+    public static final String DIR_PROPERTY = "bugtracker.wal.dir";
+
+    private static final int DEFAULT_SEGMENT_BYTES = 8 * 1024 * 1024;
+    private static final int DEFAULT_GROUP_COMMIT = 64;
+
+    private static final int MAGIC = 0x57414C31; // "WAL1"
+    private static final short VERSION = 4;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + 2 * Long.BYTES;
+    private static final int RECORD_HEADER_BYTES =
+            Integer.BYTES + 1 + Integer.BYTES + 2 * Long.BYTES;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String RESUME_SUFFIX = ".wal";
+
+    // Commands that can change the database; the opcode of a command is its position
+    // here. The views apply the milestone rules, the performance report publishes the
+    // scores and the stability report can stop the run, so they are logged too.
+    private static final List<String> LOGGED_COMMANDS = List.of(
+            "reportTicket", "assignTicket", "undoAssignTicket",
+            "changeStatus", "undoChangeStatus", "addComment", "undoAddComment",
+            "createMilestone", "viewTickets", "viewMilestones", "viewNotifications",
+            "generatePerformanceReport", "appStabilityReport");
+
+    // Strings written as a table position: input field names, then command names
+    private static final List<String> KNOWN_STRINGS = Stream.concat(Stream.of(
+            "command", "username", "timestamp", "ticketID", "params", "type", "title",
+            "businessPriority", "reportedBy", "expertiseArea", "businessValue",
+            "expectedBehavior", "actualBehavior", "frequency", "severity", "comment",
+            "usabilityScore", "description", "customerDemand", "name", "dueDate",
+            "blockingFor", "tickets", "assignedDevs", "uiElementId", "environment",
+            "errorCode", "screenshotUrl", "suggestedFix"), LOGGED_COMMANDS.stream()).toList();
+    private static final Map<String, Integer> KNOWN_STRING_IDS = new HashMap<>();
+
+    static {
+        for (int i = 0; i < KNOWN_STRINGS.size(); i++) {
+            KNOWN_STRING_IDS.put(KNOWN_STRINGS.get(i), i + 1);
+        }
+    }
+
+    // Payload tags
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_FALSE = 1;
+    private static final byte TAG_TRUE = 2;
+    private static final byte TAG_INTEGER = 3;
+    private static final byte TAG_NUMBER = 4;
+    private static final byte TAG_STRING = 5;
+    private static final byte TAG_ARRAY = 6;
+    private static final byte TAG_OBJECT = 7;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+
+    private final Path dir;
+    private final long inputFingerprint;
+    private final int segmentBytes;
+    private final int groupCommit;
+    private final List<Record> recovered;
+
+    private FileChannel segment;
+    private long segmentSize;
+    private int unsynced = 0;
+
+    /**
+     * One logged command.
+     *
+     * @param sequence    The position of the command in the input.
+     * @param inputOffset The byte offset in the input right after the command.
+     * @param opcode      The command opcode.
+     * @param payload     The encoded command tree and outputs.
+     */
+    public record Record(long sequence, long inputOffset, byte opcode, byte[] payload) {
+        /**
+         * Gets the name of the logged command.
+         *
+         * @return The command name.
+         */
+        public String command() {
+            return LOGGED_COMMANDS.get(opcode);
+        }
+
+        /**
+         * Decodes the logged command.
+         *
+         * @return The command tree, as it was in the input.
+         */
+        public JsonNode tree() {
+            return readValue(ByteBuffer.wrap(payload));
+        }
+
+        /**
+         * Decodes the outputs of the reads run since the previous record.
+         *
+         * @return The outputs, in the order they were produced.
+         */
+        public List<ObjectNode> outputsBefore() {
+            ByteBuffer buf = ByteBuffer.wrap(payload);
+            readValue(buf); // The command tree
+            List<ObjectNode> outputs = new ArrayList<>();
+            for (JsonNode output : readValue(buf)) {
+                outputs.add((ObjectNode) output);
+            }
+            return outputs;
+        }
+    }
+
+    private WriteAheadLog(final Path dir, final long inputFingerprint, final int segmentBytes,
+                          final int groupCommit) throws IOException {
+        this.dir = dir;
+        this.inputFingerprint = inputFingerprint;
+        this.segmentBytes = segmentBytes;
+        this.groupCommit = groupCommit;
+        Files.createDirectories(dir);
+        this.recovered = recover();
+    }
+
+    /**
+     * Gets the log directory a resumable run keeps next to its output, when
+     * "bugtracker.wal.dir" does not name one.
+     *
+     * @param outputPath The output file of the run.
+     * @return The log directory.
+     */
+    public static Path resumeDirFor(final String outputPath) {
+        return Path.of(outputPath + RESUME_SUFFIX);
+    }
+
+    /**
+     * Opens the log configured by the system properties, if any.
+     *
+     * @param inputFingerprint Identifies the input being run; a log left by
+     *                         another input is discarded.
+     * @param fallbackDir      The directory to use if "bugtracker.wal.dir" is not set,
+     *                         or null to leave the log off then.
+     * @return The open log, or null if it is off.
+     * @throws IOException If the log cannot be read or created.
+     */
+    public static WriteAheadLog openFromProperties(final long inputFingerprint,
+                                                   final Path fallbackDir) throws IOException {
+        String property = System.getProperty(DIR_PROPERTY);
+        Path dir = property == null || property.isEmpty() ? fallbackDir : Path.of(property);
+        if (dir == null) {
+            return null;
+        }
+        return open(dir, inputFingerprint,
+                Integer.getInteger("bugtracker.wal.segmentBytes", DEFAULT_SEGMENT_BYTES),
+                Integer.getInteger("bugtracker.wal.groupCommit", DEFAULT_GROUP_COMMIT));
+    }
+
+    /**
+     * Opens a log, recovering the records a previous run left in it.
+     *
+     * @param dir              The log directory.
+     * @param inputFingerprint Identifies the input being run.
+     * @param segmentBytes     The size at which a new segment is started.
+     * @param groupCommit      The number of records per fsync.
+     * @return The open log.
+     * @throws IOException If the log cannot be read or created.
+     */
+    public static WriteAheadLog open(final Path dir, final long inputFingerprint,
+                                     final int segmentBytes, final int groupCommit)
+            throws IOException {
+        return new WriteAheadLog(dir, inputFingerprint, segmentBytes, Math.max(1, groupCommit));
+    }
+
+    /**
+     * Checks if a command is written to the log.
+     *
+     * @param command The command name.
+     * @return True if replaying the command can change the database.
+     */
+    public static boolean isLogged(final String command) {
+        return LOGGED_COMMANDS.contains(command);
+    }
+
+    /**
+     * Computes the fingerprint identifying an input file.
+     *
+     * @param input The input file contents.
+     * @return The fingerprint.
+     */
+    public static long fingerprint(final byte[] input) {
+        CRC32 crc = new CRC32();
+        crc.update(input);
+        return ((long) input.length << Integer.SIZE) | crc.getValue();
+    }
+
+    /**
+     * Gets the log directory.
+     *
+     * @return The directory holding the segments.
+     */
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * Gets the records recovered when the log was opened, in sequence order.
+     * A torn or corrupt record ends the recovered tail and is cut off the log.
+     *
+     * @return The recovered records (empty after a clean run).
+     */
+    public List<Record> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Gets the sequence number of the last recovered record.
+     *
+     * @return The sequence number, or -1 if nothing was recovered.
+     */
+    public long getLastRecoveredSequence() {
+        return recovered.isEmpty() ? -1 : recovered.get(recovered.size() - 1).sequence();
+    }
+
+    /**
+     * Appends a command to the log before it is applied.
+     *
+     * @param sequence      The position of the command in the input.
+     * @param inputOffset   The byte offset in the input right after the command.
+     * @param command       The command name (must be logged, see {@link #isLogged}).
+     * @param tree          The command, as read from the input.
+     * @param outputsBefore The outputs of the reads run since the previous record.
+     * @throws IOException If the record cannot be written.
+     */
+    public synchronized void append(final long sequence, final long inputOffset,
+                                    final String command, final JsonNode tree,
+                                    final List<ObjectNode> outputsBefore) throws IOException {
+        byte opcode = (byte) LOGGED_COMMANDS.indexOf(command);
+        if (opcode < 0) {
+            throw new IllegalArgumentException("Command is not logged: " + command);
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        writeValue(encoded, tree);
+        writeValue(encoded, JsonNodeFactory.instance.arrayNode().addAll(outputsBefore));
+        byte[] payload = encoded.toByteArray();
+
+        int recordBytes = RECORD_HEADER_BYTES + payload.length;
+        if (segment == null
+                || (segmentSize > HEADER_BYTES && segmentSize + recordBytes > segmentBytes)) {
+            startSegment(sequence);
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(recordBytes);
+        buf.putInt(payload.length);
+        buf.put(opcode);
+        buf.putInt(crc(opcode, sequence, inputOffset, payload));
+        buf.putLong(sequence);
+        buf.putLong(inputOffset);
+        buf.put(payload);
+        buf.flip();
+        writeFully(segment, buf);
+        segmentSize += recordBytes;
+
+        if (++unsynced >= groupCommit) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces the appended records to disk.
+     *
+     * @throws IOException If the fsync fails.
+     */
+    public synchronized void sync() throws IOException {
+        if (segment != null && unsynced > 0) {
+            segment.force(false);
+        }
+        unsynced = 0;
+    }
+
+    /**
+     * Syncs and closes the current segment.
+     *
+     * @throws IOException If the segment cannot be synced or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            sync();
+            segment.close();
+            segment = null;
+        }
+    }
+
+    /**
+     * Closes the log and deletes its segments, after a run finished cleanly.
+     *
+     * @throws IOException If a segment cannot be deleted.
+     */
+    public synchronized void delete() throws IOException {
+        close();
+        for (Path p : segments()) {
+            Files.deleteIfExists(p);
+        }
+    }
+
+    /**
+     * Deletes the segments holding only records before a sequence number,
+     * once a checkpoint covers them. The segment being written is never deleted.
+     *
+     * @param sequence The first sequence number still needed.
+     * @return The number of segments deleted.
+     * @throws IOException If a segment cannot be deleted.
+     */
+    public synchronized int truncateBefore(final long sequence) throws IOException {
+        List<Path> files = segments();
+        int deleted = 0;
+        // A segment ends where the next one starts
+        for (int i = 0; i + 1 < files.size(); i++) {
+            if (firstSequenceOf(files.get(i + 1)) > sequence) {
+                break;
+            }
+            Files.deleteIfExists(files.get(i));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    // --- SEGMENTS ---
+
+    private static long firstSequenceOf(final Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void startSegment(final long firstSequence) throws IOException {
+        close();
+        Path path = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence,
+                SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putLong(inputFingerprint);
+        header.putLong(firstSequence);
+        header.flip();
+        writeFully(segment, header);
+        segmentSize = HEADER_BYTES;
+        // The new file name must survive a crash before records in it can
+        segment.force(true);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    // Reads every segment in order, stopping at the first torn or corrupt record
+    private List<Record> recover() throws IOException {
+        List<Record> records = new ArrayList<>();
+        List<Path> files = segments();
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC
+                    || buf.getShort() != VERSION || buf.getLong() != inputFingerprint) {
+                // Written for another input (or not a segment at all): start over
+                for (Path p : files) {
+                    Files.deleteIfExists(p);
+                }
+                return new ArrayList<>();
+            }
+            buf.getLong(); // First sequence, already in the file name
+
+            int end = readRecords(buf, records);
+            if (end < buf.limit()) {
+                // Torn tail: cut it off, along with anything written after it
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    ch.truncate(end);
+                    ch.force(true);
+                }
+                for (Path p : files.subList(i + 1, files.size())) {
+                    Files.deleteIfExists(p);
+                }
+                break;
+            }
+        }
+        return List.copyOf(records);
+    }
+
+    // Returns the offset just after the last intact record
+    private static int readRecords(final ByteBuffer buf, final List<Record> records) {
+        while (buf.remaining() >= RECORD_HEADER_BYTES) {
+            int start = buf.position();
+            int length = buf.getInt();
+            byte opcode = buf.get();
+            int crc = buf.getInt();
+            long sequence = buf.getLong();
+            long inputOffset = buf.getLong();
+            if (length < 0 || length > buf.remaining()
+                    || opcode < 0 || opcode >= LOGGED_COMMANDS.size()) {
+                return start;
+            }
+            byte[] payload = new byte[length];
+            buf.get(payload);
+            if (crc != crc(opcode, sequence, inputOffset, payload)) {
+                return start;
+            }
+            records.add(new Record(sequence, inputOffset, opcode, payload));
+        }
+        return buf.position();
+    }
+
+    private static int crc(final byte opcode, final long sequence, final long inputOffset,
+                           final byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(opcode);
+        crc.update(ByteBuffer.allocate(2 * Long.BYTES).putLong(sequence).putLong(inputOffset)
+                .array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    // --- PAYLOAD ---
+
+    private static void writeValue(final ByteArrayOutputStream out, final JsonNode node) {
+        switch (node.getNodeType()) {
+            case OBJECT -> {
+                out.write(TAG_OBJECT);
+                writeVarint(out, node.size());
+                for (Map.Entry<String, JsonNode> field : node.properties()) {
+                    writeString(out, field.getKey());
+                    writeValue(out, field.getValue());
+                }
+            }
+            case ARRAY -> {
+                out.write(TAG_ARRAY);
+                writeVarint(out, node.size());
+                for (JsonNode element : node) {
+                    writeValue(out, element);
+                }
+            }
+            case STRING -> {
+                out.write(TAG_STRING);
+                writeString(out, node.textValue());
+            }
+            case BOOLEAN -> out.write(node.booleanValue() ? TAG_TRUE : TAG_FALSE);
+            case NUMBER -> {
+                if (node.isIntegralNumber() && node.canConvertToLong()) {
+                    long v = node.longValue();
+                    out.write(TAG_INTEGER);
+                    writeVarint(out, (v << 1) ^ (v >> (Long.SIZE - 1)));
+                } else {
+                    out.write(TAG_NUMBER);
+                    long bits = Double.doubleToLongBits(node.doubleValue());
+                    for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                        out.write((int) (bits >>> shift));
+                    }
+                }
+            }
+            default -> out.write(TAG_NULL);
+        }
+    }
+
+    private static void writeString(final ByteArrayOutputStream out, final String s) {
+        Integer known = KNOWN_STRING_IDS.get(s);
+        if (known != null) {
+            writeVarint(out, known);
+            return;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, 0);
+        writeVarint(out, utf8.length);
+        out.writeBytes(utf8);
+    }
+
+    private static void writeVarint(final ByteArrayOutputStream out, final long value) {
+        long v = value;
+        while ((v & ~VARINT_MASK) != 0) {
+            out.write((int) (v & VARINT_MASK) | VARINT_MORE);
+            v >>>= VARINT_BITS;
+        }
+        out.write((int) v);
+    }
+
+    private static JsonNode readValue(final ByteBuffer buf) {
+        JsonNodeFactory nodes = JsonNodeFactory.instance;
+        byte tag = buf.get();
+        switch (tag) {
+            case TAG_OBJECT -> {
+                ObjectNode object = nodes.objectNode();
+                for (long n = readVarint(buf); n > 0; n--) {
+                    String name = readString(buf);
+                    object.set(name, readValue(buf));
+                }
+                return object;
+            }
+            case TAG_ARRAY -> {
+                ArrayNode array = nodes.arrayNode();
+                for (long n = readVarint(buf); n > 0; n--) {
+                    array.add(readValue(buf));
+                }
+                return array;
+            }
+            case TAG_STRING -> {
+                return nodes.textNode(readString(buf));
+            }
+            case TAG_TRUE, TAG_FALSE -> {
+                return nodes.booleanNode(tag == TAG_TRUE);
+            }
+            case TAG_INTEGER -> {
+                long zigzag = readVarint(buf);
+                long v = (zigzag >>> 1) ^ -(zigzag & 1);
+                return v == (int) v ? nodes.numberNode((int) v) : nodes.numberNode(v);
+            }
+            case TAG_NUMBER -> {
+                return nodes.numberNode(buf.getDouble());
+            }
+            default -> {
+                return nodes.nullNode();
+            }
+        }
+    }
+
+    private static String readString(final ByteBuffer buf) {
+        int known = (int) readVarint(buf);
+        if (known > 0) {
+            return KNOWN_STRINGS.get(known - 1);
+        }
+        byte[] utf8 = new byte[(int) readVarint(buf)];
+        buf.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarint(final ByteBuffer buf) {
+        long v = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buf.get();
+            v |= (long) (b & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+        } while ((b & VARINT_MORE) != 0);
+        return v;
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buf)
+            throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package main.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import main.database.Database;
 import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
 import main.model.user.Developer;
 import main.model.user.User;
 
@@ -82,6 +83,53 @@ public final class Milestone {
         return assignedDevs;
     }
 
+    /**
+     * Gets the day the milestone was first seen completed.
+     *
+     * @return The completion date, or null if not completed yet.
+     */
+    @JsonIgnore
+    public LocalDate getCompletionDate() {
+        return completionDate;
+    }
+
+    @JsonIgnore
+    public boolean isNotifiedDueTomorrow() {
+        return notifiedDueTomorrow;
+    }
+
+    @JsonIgnore
+    public boolean isNotifiedUnblockedAfterDue() {
+        return notifiedUnblockedAfterDue;
+    }
+
+    /**
+     * Restores the state a snapshot carries: completion date and notification flags.
+     *
+     * @param completion            The completion date, or null.
+     * @param dueTomorrowSent       Whether the "due tomorrow" notification was sent.
+     * @param unblockedAfterDueSent Whether the "unblocked after due" notification was sent.
+     */
+    public void restoreState(final LocalDate completion, final boolean dueTomorrowSent,
+                             final boolean unblockedAfterDueSent) {
+        this.completionDate = completion;
+        this.notifiedDueTomorrow = dueTomorrowSent;
+        this.notifiedUnblockedAfterDue = unblockedAfterDueSent;
+    }
+
+    /**
+     * Copies the milestone, for a database fork to change on its own. The name,
+     * dates and lists never change, so the copy shares them.
+     *
+     * @return The copy.
+     */
+    public Milestone copy() {
+        Milestone copy = new Milestone(name, createdBy, createdAt, dueDate, blockingFor,
+                ticketIds, assignedDevs);
+        copy.restoreState(completionDate, notifiedDueTomorrow, notifiedUnblockedAfterDue);
+        return copy;
+    }
+
 
     public String getStatus(final List<Ticket> allTickets) {
         if (ticketIds.isEmpty()) {
@@ -228,7 +276,7 @@ public final class Milestone {
             sendNotificationToDevs(db, msg);
             notifiedUnblockedAfterDue = true;
 
-            setAllTicketsCritical(db);
+            setAllTicketsCritical(db, currentDay);
         }
 
         // Calculate days until due
@@ -244,7 +292,7 @@ public final class Milestone {
                 notifiedDueTomorrow = true;
             }
 
-            setAllTicketsCritical(db);
+            setAllTicketsCritical(db, currentDay);
         } else {
             // 3 days or more until due - apply 3-day bump
             apply3DayBump(db, currentDay);
@@ -252,11 +300,13 @@ public final class Milestone {
     }
 
 
-    private void setAllTicketsCritical(final Database db) {
+    private void setAllTicketsCritical(final Database db, final LocalDate currentDay) {
         for (Integer id : this.ticketIds) {
             Ticket t = db.getTicket(id);
-            if (t != null && !"CLOSED".equals(t.getStatus())) {
-                t.setForcePriority(main.model.Priority.CRITICAL);
+            if (t != null && !"CLOSED".equals(t.getStatus())
+                    && t.getForcePriority() != main.model.Priority.CRITICAL) {
+                db.getTicketForUpdate(id).apply(new TicketEvent.PriorityForced(createdBy,
+                        currentDay.toString(), main.model.Priority.CRITICAL));
             }
         }
     }
@@ -293,7 +343,10 @@ public final class Milestone {
                         target = target.next();
                     }
 
-                    t.setForcePriority(target);
+                    if (t.getForcePriority() != target) {
+                        db.getTicketForUpdate(id).apply(new TicketEvent.PriorityForced(
+                                createdBy, currentDay.toString(), target));
+                    }
                 }
             }
         }
@@ -1,6 +1,10 @@
 package main.model.ticket;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import main.model.Priority;
+import main.model.ticket.enums.Frequency;
+import main.model.ticket.enums.Severity;
+import main.model.ticket.enums.TicketType;
 import main.visitor.Visitor;
 
 /**
@@ -9,6 +13,9 @@ import main.visitor.Visitor;
 public final class Bug extends Ticket {
     private String severity;
     private String frequency;
+    // Parsed once when set, so reports never map the strings again
+    private int severityValue = 1;
+    private int frequencyValue = 1;
 
     /**
      * Constructor for Bug.
@@ -28,6 +35,34 @@ public final class Bug extends Ticket {
         super(id, type, title, description, priority, status, reportedBy, createdAt);
     }
 
+    /**
+     * Constructor for a Bug rehydrated from storage, with an existing event stream.
+     *
+     * @param id           The unique ID of the ticket.
+     * @param type         The type of the ticket (BUG).
+     * @param title        The title of the ticket.
+     * @param description  The description of the ticket.
+     * @param priority     The priority of the ticket.
+     * @param eventOffsets The offsets of its events in the event store.
+     */
+    public Bug(final int id, final String type, final String title, final String description,
+               final Priority priority, final long[] eventOffsets) {
+        super(id, type, title, description, priority, eventOffsets);
+    }
+
+    private Bug(final Bug other) {
+        super(other);
+        this.severity = other.severity;
+        this.frequency = other.frequency;
+        this.severityValue = other.severityValue;
+        this.frequencyValue = other.frequencyValue;
+    }
+
+    @Override
+    public Bug copy() {
+        return new Bug(this);
+    }
+
     /**
      * Sets the severity of the bug.
      *
@@ -35,6 +70,7 @@ public final class Bug extends Ticket {
      */
     public void setSeverity(final String severity) {
         this.severity = severity;
+        this.severityValue = Severity.valueOfName(severity);
     }
 
     /**
@@ -53,8 +89,35 @@ public final class Bug extends Ticket {
      */
     public void setFrequency(final String frequency) {
         this.frequency = frequency;
+        this.frequencyValue = Frequency.valueOfName(frequency);
     }
 
+    /**
+     * Gets the numeric severity value (1 if missing or unknown).
+     *
+     * @return The severity value.
+     */
+    @JsonIgnore
+    public int getSeverityValue() {
+        return severityValue;
+    }
+
+    /**
+     * Gets the numeric frequency value (1 if missing or unknown).
+     *
+     * @return The frequency value.
+     */
+    @JsonIgnore
+    public int getFrequencyValue() {
+        return frequencyValue;
+    }
+
+    @Override
+    public TicketType getTicketType() {
+        return TicketType.BUG;
+    }
+
+
     /**
      * Gets the frequency of the bug.
      *
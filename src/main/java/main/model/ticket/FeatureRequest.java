@@ -1,6 +1,10 @@
 package main.model.ticket;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import main.model.Priority;
+import main.model.ticket.enums.BusinessValue;
+import main.model.ticket.enums.CustomerDemand;
+import main.model.ticket.enums.TicketType;
 import main.visitor.Visitor;
 
 /**
@@ -9,6 +13,9 @@ import main.visitor.Visitor;
 public final class FeatureRequest extends Ticket {
     private String customerDemand; // LOW, MEDIUM, HIGH, VERY_HIGH
     private String businessValue;  // S, M, L, XL
+    // Parsed once when set, so reports never map the strings again
+    private int customerDemandValue = 1;
+    private int businessValueValue = 1;
 
     /**
      * Constructor for FeatureRequest.
@@ -28,6 +35,35 @@ public final class FeatureRequest extends Ticket {
         super(id, type, title, description, priority, status, reportedBy, createdAt);
     }
 
+    /**
+     * Constructor for a FeatureRequest rehydrated from storage, with an existing event stream.
+     *
+     * @param id           The unique ID of the ticket.
+     * @param type         The type of the ticket (FEATURE_REQUEST).
+     * @param title        The title of the ticket.
+     * @param description  The description of the ticket.
+     * @param priority     The priority of the ticket.
+     * @param eventOffsets The offsets of its events in the event store.
+     */
+    public FeatureRequest(final int id, final String type, final String title,
+                          final String description, final Priority priority,
+                          final long[] eventOffsets) {
+        super(id, type, title, description, priority, eventOffsets);
+    }
+
+    private FeatureRequest(final FeatureRequest other) {
+        super(other);
+        this.customerDemand = other.customerDemand;
+        this.businessValue = other.businessValue;
+        this.customerDemandValue = other.customerDemandValue;
+        this.businessValueValue = other.businessValueValue;
+    }
+
+    @Override
+    public FeatureRequest copy() {
+        return new FeatureRequest(this);
+    }
+
     /**
      * Accepts a visitor for processing this ticket.
      *
@@ -54,6 +90,7 @@ public final class FeatureRequest extends Ticket {
      */
     public void setCustomerDemand(final String customerDemand) {
         this.customerDemand = customerDemand;
+        this.customerDemandValue = CustomerDemand.valueOfName(customerDemand);
     }
 
     /**
@@ -72,5 +109,32 @@ public final class FeatureRequest extends Ticket {
      */
     public void setBusinessValue(final String businessValue) {
         this.businessValue = businessValue;
+        this.businessValueValue = BusinessValue.valueOfName(businessValue);
+    }
+
+    /**
+     * Gets the numeric customer demand value (1 if missing or unknown).
+     *
+     * @return The customer demand value.
+     */
+    @JsonIgnore
+    public int getCustomerDemandValue() {
+        return customerDemandValue;
     }
+
+    /**
+     * Gets the numeric business value (1 if missing or unknown).
+     *
+     * @return The business value.
+     */
+    @JsonIgnore
+    public int getBusinessValueValue() {
+        return businessValueValue;
+    }
+
+    @Override
+    public TicketType getTicketType() {
+        return TicketType.FEATURE_REQUEST;
+    }
+
 }
@@ -3,14 +3,22 @@ package main.model.ticket;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import main.model.Priority;
+import main.model.ticket.enums.TicketType;
 import main.visitor.Visitable;
 import main.visitor.Visitor;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractList;
 import java.util.List;
 
 /**
  * Abstract base class for all ticket types.
+ * Everything that happens to a ticket after it is reported is appended to its
+ * event stream ({@link TicketEvent}); the assignee, status, forced priority, dates,
+ * comments and history are materialized from that stream and can be rebuilt from it.
+ * The events live off-heap in a {@link TicketEventStore}: the ticket keeps only
+ * their offsets, and its comments and history are views decoding them on read.
  */
 public abstract class Ticket implements Visitable {
     private final int id;
@@ -33,8 +41,22 @@ public abstract class Ticket implements Visitable {
     private String reportedBy = "";
     private String expertiseArea;
 
-    private List<Comment> comments = new ArrayList<>();
-    private List<HistoryEntry> history = new ArrayList<>();
+    // Resolution facts, recorded when the ticket is solved so reports skip the history
+    @JsonIgnore
+    private String firstClosedAt; // Never rolled back, like the CLOSED history entry
+    @JsonIgnore
+    private int daysToResolve = 0; // assignedAt -> solvedAt, inclusive; 0 while unsolved
+
+    // Offsets into the event store: every event, the comments still present, and
+    // the history entries (event offset << 1, plus 1 for the second entry of an event)
+    private final OffsetList events = new OffsetList();
+    private final OffsetList comments = new OffsetList();
+    private final OffsetList history = new OffsetList();
+
+    @JsonIgnore
+    private TicketListener listener; // Set by the Database when the ticket is added
+    @JsonIgnore
+    private TicketEventStore store; // Holds the events; copies share it
 
     /**
      * Inner class representing a comment on a ticket.
@@ -168,48 +190,329 @@ public abstract class Ticket implements Visitable {
         this.status = status;
         this.reportedBy = reportedBy;
         this.createdAt = createdAt;
+        this.store = TicketEventStore.getInstance();
+        this.events.add(store.append(new TicketEvent.Reported(reportedBy, createdAt, status)));
     }
 
-    // --- METHODS FOR COMMENTS ---
+    /**
+     * Constructor for a ticket rehydrated from storage, with its events in the current
+     * store. The reporter and creation date are read from the report; the status and
+     * everything else the events decide are set by a {@link #rebuild} after.
+     *
+     * @param id           The unique ID of the ticket.
+     * @param type         The type of the ticket.
+     * @param title        The title of the ticket.
+     * @param description  The description of the ticket.
+     * @param priority     The priority of the ticket.
+     * @param eventOffsets The offsets of its events in the event store, report first.
+     */
+    protected Ticket(final int id, final String type, final String title,
+                     final String description, final Priority priority,
+                     final long[] eventOffsets) {
+        this.id = id;
+        this.type = type;
+        this.title = title;
+        this.description = description;
+        this.priority = priority;
+        for (long offset : eventOffsets) {
+            this.events.add(offset);
+        }
+        this.store = TicketEventStore.getInstance();
+        TicketEvent.Reported report = (TicketEvent.Reported) store.read(eventOffsets[0]);
+        this.reportedBy = report.by();
+        this.createdAt = report.timestamp();
+    }
 
-    public final List<Comment> getComments() {
-        return comments;
+    /**
+     * Copy constructor, for {@link #copy}. The copy shares the events but has no
+     * listener until it is attached to a database.
+     *
+     * @param other The ticket to copy.
+     */
+    protected Ticket(final Ticket other) {
+        this.id = other.id;
+        this.type = other.type;
+        this.title = other.title;
+        this.description = other.description;
+        this.priority = other.priority;
+        this.initialPriority = other.initialPriority;
+        this.forcePriority = other.forcePriority;
+        this.status = other.status;
+        this.createdAt = other.createdAt;
+        this.assignedAt = other.assignedAt;
+        this.solvedAt = other.solvedAt;
+        this.assignedTo = other.assignedTo;
+        this.reportedBy = other.reportedBy;
+        this.expertiseArea = other.expertiseArea;
+        this.firstClosedAt = other.firstClosedAt;
+        this.daysToResolve = other.daysToResolve;
+        this.events.addAll(other.events);
+        this.comments.addAll(other.comments);
+        this.history.addAll(other.history);
+        this.store = other.store;
     }
 
     /**
-     * Adds a comment to the ticket.
+     * Copies the ticket, for a database fork to change instead of the ticket it
+     * shares with its parent.
      *
-     * @param author  The author of the comment.
-     * @param content The content of the comment.
-     * @param date    The creation timestamp.
+     * @return The copy, with no listener.
      */
-    public final void addComment(final String author, final String content,
-                                 final String date) {
-        this.comments.add(new Comment(author, content, date));
+    public abstract Ticket copy();
+
+    // --- EVENT STREAM ---
+
+    /**
+     * Gets the event stream of the ticket, starting with its report.
+     *
+     * @return The events, oldest first (read-only).
+     */
+    @JsonIgnore
+    public final List<TicketEvent> getEvents() {
+        return new AbstractList<>() {
+            @Override
+            public TicketEvent get(final int index) {
+                return store.read(events.get(index));
+            }
+
+            @Override
+            public int size() {
+                return events.size();
+            }
+        };
     }
 
     /**
-     * Removes a comment from the ticket.
+     * Gets the offsets of the events in the event store, to rehydrate the ticket later.
      *
-     * @param c The comment to remove.
+     * @return The offsets, report first.
      */
-    public final void removeComment(final Comment c) {
-        this.comments.remove(c);
+    @JsonIgnore
+    public final long[] getEventOffsets() {
+        return events.toArray();
     }
 
-    // --- METHODS FOR HISTORY ---
+    /**
+     * Appends an event to the stream and applies it to the ticket.
+     * The caller has already checked that the event is allowed.
+     *
+     * @param event The event.
+     * @return The offset of the event in the event store.
+     */
+    public final long apply(final TicketEvent event) {
+        if (event instanceof TicketEvent.Reported) {
+            throw new IllegalArgumentException("A ticket is reported only once");
+        }
+        long offset = store.append(event);
+        events.add(offset);
+        materialize(event, offset);
+        return offset;
+    }
 
-    public final List<HistoryEntry> getHistory() {
-        return history;
+    /**
+     * Removes the latest comment of a user, located when it was added. The stream gets
+     * the same event as through {@link #apply}; the comments are searched only if the
+     * comment is no longer at the position it was added at. Nothing happens if the
+     * user has no comment left.
+     *
+     * @param event         The removal.
+     * @param commentOffset The offset of the comment, as returned by {@link #apply}.
+     * @param index         The position of the comment when it was added.
+     */
+    public final void removeComment(final TicketEvent.CommentRemoved event,
+                                    final long commentOffset, final int index) {
+        boolean inPlace = index < comments.size() && comments.get(index) == commentOffset;
+        int at = inPlace ? index : lastCommentIndex(event.by());
+        if (at >= 0) {
+            events.add(store.append(event));
+            removeCommentAt(at);
+        }
+    }
+
+    /**
+     * Records the events of the ticket again in another store, for a database whose
+     * tickets live there, and rebuilds the ticket from them. Nothing happens if the
+     * events are already there.
+     *
+     * @param target The store.
+     */
+    public final void moveEvents(final TicketEventStore target) {
+        if (target == store) {
+            return;
+        }
+        long[] offsets = events.toArray();
+        events.truncate(0);
+        for (long offset : offsets) {
+            events.add(target.append(store.read(offset)));
+        }
+        store = target;
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the state of the ticket by replaying its event stream.
+     * No listener is notified; the caller rebuilds whatever it derived from the ticket.
+     */
+    public final void rebuild() {
+        TicketListener saved = listener;
+        listener = null;
+        TicketEvent.Reported report = (TicketEvent.Reported) store.read(events.get(0));
+        status = report.status();
+        assignedAt = "";
+        solvedAt = "";
+        assignedTo = "";
+        forcePriority = null;
+        firstClosedAt = null;
+        daysToResolve = 0;
+        comments.truncate(0);
+        history.truncate(0);
+        for (int i = 1; i < events.size(); i++) {
+            materialize(store.read(events.get(i)), events.get(i));
+        }
+        listener = saved;
+    }
+
+    // Applies one event, in the order the commands used to change the fields
+    private void materialize(final TicketEvent event, final long offset) {
+        switch (event) {
+            case TicketEvent.Assigned e -> {
+                setAssignee(e.by());
+                setStatus("IN_PROGRESS");
+                setAssignedAt(e.timestamp());
+                addHistory(offset << 1);
+                addHistory(offset << 1 | 1);
+            }
+            case TicketEvent.Deassigned e -> {
+                setAssignee("");
+                setStatus("OPEN");
+                setAssignedAt("");
+                addHistory(offset << 1);
+            }
+            case TicketEvent.StatusChanged e -> {
+                setStatus(e.to());
+                if (isForward(e.from(), e.to())) {
+                    setSolvedAt(e.timestamp());
+                    recordResolution();
+                } else if ("IN_PROGRESS".equals(e.to())) {
+                    // Back to work: the resolution time no longer applies
+                    // (solvedAt is kept, the next resolve overwrites it)
+                    clearResolution();
+                }
+                addHistory(offset << 1);
+            }
+            case TicketEvent.AddedToMilestone e -> addHistory(offset << 1);
+            case TicketEvent.PriorityForced e -> setForcePriority(e.priority());
+            case TicketEvent.CommentAdded e -> {
+                comments.add(offset);
+                fireUpdate();
+            }
+            case TicketEvent.CommentRemoved e -> removeCommentAt(lastCommentIndex(e.by()));
+            case TicketEvent.Reported e -> {
+                // Applied by the constructor
+            }
+        }
+    }
+
+    // Resolving and closing move forward; undoing a close or a resolve moves back
+    private static boolean isForward(final String from, final String to) {
+        return "IN_PROGRESS".equals(from) && "RESOLVED".equals(to)
+                || "RESOLVED".equals(from) && "CLOSED".equals(to);
+    }
+
+    // --- METHODS FOR COMMENTS ---
+
+    /**
+     * Gets the comments of the ticket, decoded from the event store as they are read.
+     *
+     * @return A read-only view of the comments, oldest first.
+     */
+    public final List<Comment> getComments() {
+        return new AbstractList<>() {
+            @Override
+            public Comment get(final int index) {
+                TicketEvent.CommentAdded e = (TicketEvent.CommentAdded)
+                        store.read(comments.get(index));
+                return new Comment(e.by(), e.content(), e.timestamp());
+            }
+
+            @Override
+            public int size() {
+                return comments.size();
+            }
+        };
+    }
+
+    /**
+     * Finds the latest comment written by a user.
+     *
+     * @param author The author.
+     * @return The comment, or null if the user has no comment on the ticket.
+     */
+    public final Comment findLastComment(final String author) {
+        int last = lastCommentIndex(author);
+        return last >= 0 ? getComments().get(last) : null;
+    }
+
+    private void removeCommentAt(final int index) {
+        if (index >= 0) {
+            comments.removeAt(index);
+            fireUpdate();
+        }
+    }
+
+    // Only the authors are decoded while searching
+    private int lastCommentIndex(final String author) {
+        for (int i = comments.size() - 1; i >= 0; i--) {
+            if (author.equals(store.readBy(comments.get(i)))) {
+                return i;
+            }
+        }
+        return -1;
     }
 
+    // --- METHODS FOR HISTORY ---
+
     /**
-     * Adds a history entry to the ticket.
+     * Gets the history of the ticket, decoded from the event store as it is read.
      *
-     * @param entry The history entry to add.
+     * @return A read-only view of the history entries, oldest first.
      */
-    public final void addHistory(final HistoryEntry entry) {
-        this.history.add(entry);
+    public final List<HistoryEntry> getHistory() {
+        return new AbstractList<>() {
+            @Override
+            public HistoryEntry get(final int index) {
+                long ref = history.get(index);
+                return historyEntry(store.read(ref >>> 1),
+                        (int) (ref & 1));
+            }
+
+            @Override
+            public int size() {
+                return history.size();
+            }
+        };
+    }
+
+    private void addHistory(final long ref) {
+        this.history.add(ref);
+        fireUpdate();
+    }
+
+    // An assignment shows as two entries: ASSIGNED, then the move to IN_PROGRESS
+    private static HistoryEntry historyEntry(final TicketEvent event, final int part) {
+        return switch (event) {
+            case TicketEvent.Assigned e -> part == 0
+                    ? new HistoryEntry("ASSIGNED", e.by(), e.timestamp())
+                    : new HistoryEntry("STATUS_CHANGED", e.by(), e.timestamp())
+                            .setFromTo("OPEN", "IN_PROGRESS");
+            case TicketEvent.Deassigned e -> new HistoryEntry("DE-ASSIGNED", e.by(),
+                    e.timestamp());
+            case TicketEvent.StatusChanged e -> new HistoryEntry("STATUS_CHANGED", e.by(),
+                    e.timestamp()).setFromTo(e.from(), e.to());
+            case TicketEvent.AddedToMilestone e -> new HistoryEntry("ADDED_TO_MILESTONE",
+                    e.by(), e.timestamp()).setMilestone(e.milestone());
+            default -> throw new IllegalStateException("No history entry for " + event);
+        };
     }
 
     /**
@@ -222,6 +525,14 @@ public abstract class Ticket implements Visitable {
         return this.reportedBy == null || this.reportedBy.trim().isEmpty();
     }
 
+    /**
+     * Gets the kind of the ticket, used to index per-type statistics.
+     *
+     * @return The ticket type.
+     */
+    @JsonIgnore
+    public abstract TicketType getTicketType();
+
     // --- GETTERS & SETTERS ---
 
     public final int getId() {
@@ -247,19 +558,32 @@ public abstract class Ticket implements Visitable {
      * @param priority The priority to set.
      */
     public final void setPriority(final Priority priority) {
+        Priority before = getPriority();
         this.priority = priority;
         if (this.initialPriority == null) {
             this.initialPriority = priority;
         }
+        firePriorityChange(before);
     }
 
-    /**
-     * Sets a forced priority (e.g., from Milestone logic).
-     *
-     * @param p The priority to force set.
-     */
-    public final void setForcePriority(final Priority p) {
+    // Sets the priority forced by milestone rules or reports
+    private void setForcePriority(final Priority p) {
+        Priority before = getPriority();
         this.forcePriority = p;
+        firePriorityChange(before);
+    }
+
+    private void fireUpdate() {
+        if (listener != null) {
+            listener.onTicketUpdated(this);
+        }
+    }
+
+    private void firePriorityChange(final Priority before) {
+        Priority after = getPriority();
+        if (listener != null && before != after) {
+            listener.onPriorityChanged(this, before, after);
+        }
     }
 
     /**
@@ -288,8 +612,13 @@ public abstract class Ticket implements Visitable {
         return status;
     }
 
-    public final void setStatus(final String status) {
+    // Sets the status and notifies the listener on a change
+    private void setStatus(final String status) {
+        String old = this.status;
         this.status = status;
+        if (listener != null && !status.equals(old)) {
+            listener.onStatusChanged(this, old, status);
+        }
     }
 
     public final String getCreatedAt() {
@@ -300,16 +629,90 @@ public abstract class Ticket implements Visitable {
         return assignedAt != null ? assignedAt : "";
     }
 
-    public final void setAssignedAt(final String assignedAt) {
+    private void setAssignedAt(final String assignedAt) {
         this.assignedAt = assignedAt;
+        fireUpdate();
     }
 
     public final String getSolvedAt() {
         return solvedAt != null ? solvedAt : "";
     }
 
-    public final void setSolvedAt(final String solvedAt) {
+    private void setSolvedAt(final String solvedAt) {
         this.solvedAt = solvedAt;
+        fireUpdate();
+    }
+
+    // Records the resolution facts after the ticket was resolved or closed
+    // (status and solve date already set)
+    private void recordResolution() {
+        if ("CLOSED".equals(status) && firstClosedAt == null) {
+            firstClosedAt = solvedAt;
+        }
+        if (getAssignedAt().isEmpty() || getSolvedAt().isEmpty()) {
+            daysToResolve = 0;
+        } else {
+            daysToResolve = (int) ChronoUnit.DAYS.between(LocalDate.parse(assignedAt),
+                    LocalDate.parse(solvedAt)) + 1;
+        }
+        fireUpdate();
+    }
+
+    // Rolls back the resolution when the ticket goes back to work.
+    // The first-closed date stays, as the history still records that close.
+    private void clearResolution() {
+        daysToResolve = 0;
+        fireUpdate();
+    }
+
+    /**
+     * Gets the date the ticket was closed for the first time.
+     *
+     * @return The first close timestamp, or null if it was never closed.
+     */
+    @JsonIgnore
+    public final String getFirstClosedAt() {
+        return firstClosedAt;
+    }
+
+    /**
+     * Gets the days from assignment to resolution, both days included.
+     *
+     * @return The resolution time in days, or 0 if the ticket is not solved.
+     */
+    @JsonIgnore
+    public final int getDaysToResolve() {
+        return daysToResolve;
+    }
+
+    /**
+     * Gets the priority the ticket was reported with, ignoring any forced priority.
+     *
+     * @return The base priority.
+     */
+    @JsonIgnore
+    public final Priority getBasePriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the priority forced by milestone rules or reports.
+     *
+     * @return The forced priority, or null if none.
+     */
+    @JsonIgnore
+    public final Priority getForcePriority() {
+        return forcePriority;
+    }
+
+    /**
+     * Restores the initial priority a snapshot carries, which is not part of the event
+     * stream. Meant for tickets not yet added to a database, so no event is fired.
+     *
+     * @param initial The initial priority.
+     */
+    public final void restoreInitialPriority(final Priority initial) {
+        this.initialPriority = initial;
     }
 
     /**
@@ -321,13 +724,9 @@ public abstract class Ticket implements Visitable {
         return assignedTo != null ? assignedTo : "";
     }
 
-    /**
-     * Sets the assignee of the ticket.
-     *
-     * @param assignee The assignee username.
-     */
-    public final void setAssignee(final String assignee) {
+    private void setAssignee(final String assignee) {
         this.assignedTo = assignee;
+        fireUpdate();
     }
 
     // This helps serialization if JSON uses 'assignedTo' key
@@ -347,6 +746,25 @@ public abstract class Ticket implements Visitable {
         this.expertiseArea = expertiseArea;
     }
 
+    /**
+     * Attaches the listener notified about status and priority changes.
+     *
+     * @param listener The listener, or null to detach.
+     */
+    public final void setListener(final TicketListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the listener notified about status and priority changes.
+     *
+     * @return The listener, or null if detached.
+     */
+    @JsonIgnore
+    public final TicketListener getListener() {
+        return listener;
+    }
+
     @Override
     public abstract void accept(Visitor v);
 }
@@ -0,0 +1,107 @@
+package main.model.ticket;
+
+import main.model.Priority;
+
+/**
+ * One entry in the append-only event stream of a ticket.
+ * The stream is the source of truth: the assignee, status, forced priority, dates,
+ * resolution facts, comments and the displayed history of a ticket are all
+ * materialized from it, and derived indexes can be rebuilt by replaying it.
+ */
+public sealed interface TicketEvent {
+    /**
+     * Gets the user who caused the event.
+     *
+     * @return The username.
+     */
+    String by();
+
+    /**
+     * Gets the date of the event.
+     *
+     * @return The timestamp.
+     */
+    String timestamp();
+
+    /**
+     * The ticket was reported; always the first event of a stream.
+     *
+     * @param by        The reporter (empty for anonymous tickets).
+     * @param timestamp The creation timestamp.
+     * @param status    The status the ticket was reported with.
+     */
+    record Reported(String by, String timestamp, String status) implements TicketEvent {
+    }
+
+    /**
+     * A developer took the ticket, which moves it from OPEN to IN_PROGRESS.
+     *
+     * @param by        The developer.
+     * @param timestamp The assignment timestamp.
+     */
+    record Assigned(String by, String timestamp) implements TicketEvent {
+    }
+
+    /**
+     * The assignment was undone, which moves the ticket back to OPEN.
+     *
+     * @param by        The developer.
+     * @param timestamp The timestamp.
+     */
+    record Deassigned(String by, String timestamp) implements TicketEvent {
+    }
+
+    /**
+     * The status moved along the workflow, either way.
+     *
+     * @param by        The developer.
+     * @param timestamp The timestamp.
+     * @param from      The previous status.
+     * @param to        The new status.
+     */
+    record StatusChanged(String by, String timestamp, String from, String to)
+            implements TicketEvent {
+    }
+
+    /**
+     * The ticket was listed in a new milestone.
+     *
+     * @param by        The manager who created the milestone.
+     * @param timestamp The timestamp.
+     * @param milestone The milestone name.
+     */
+    record AddedToMilestone(String by, String timestamp, String milestone)
+            implements TicketEvent {
+    }
+
+    /**
+     * Milestone rules or a performance report forced the priority of the ticket.
+     * It shows in no history entry.
+     *
+     * @param by        The manager behind the milestone or the report.
+     * @param timestamp The date the rules were applied on.
+     * @param priority  The forced priority, or null to go back to the base one.
+     */
+    record PriorityForced(String by, String timestamp, Priority priority)
+            implements TicketEvent {
+    }
+
+    /**
+     * A comment was added.
+     *
+     * @param by        The author.
+     * @param timestamp The timestamp.
+     * @param content   The comment text.
+     */
+    record CommentAdded(String by, String timestamp, String content) implements TicketEvent {
+    }
+
+    /**
+     * The latest comment of a user was undone.
+     *
+     * @param by        The author.
+     * @param timestamp The timestamp.
+     */
+    record CommentRemoved(String by, String timestamp) implements TicketEvent {
+    }
+}
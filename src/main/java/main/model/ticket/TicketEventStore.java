@@ -0,0 +1,300 @@
+package main.model.ticket;
+
+import main.model.Priority;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only, memory-mapped store for the ticket event streams.
+ * Events are encoded into mapped segments outside the Java heap, and tickets keep
+ * only the offsets of their events, so the heap does not grow with the history
+ * and comments of long-lived tickets.
+ * <p>
+ * New tickets are recorded in the current store ({@link #getInstance}); a ticket
+ * keeps reading the store it was recorded in. A store is reference-counted: the
+ * database holds the current one until it is reset ({@link #renew}), and its forks
+ * and read snapshots hold the one their tickets live in ({@link #retain}) until
+ * they are discarded. When the last holder lets go, the segment files are closed
+ * and deleted; they are opened delete-on-close, so they never outlive the process.
+ * <pre>
+ *   record: byte kind, then per string (int length or -1 for null, UTF-8 bytes):
+ *           by, timestamp, and the fields of the kind
+ * </pre>
+ * An offset is the segment index in the high 32 bits and the position in the low ones.
+ * Each read works on its own duplicate of the segment, and appends never touch
+ * bytes already written, so readers of events appended before (such as a read
+ * snapshot on another thread) may read while the command thread appends.
+ */
+public final class TicketEventStore {
+    /** System property naming the directory segments are mapped from (temp dir by default). */
+    public static final String DIR_PROPERTY = "bugtracker.events.dir";
+
+    private static final int DEFAULT_SEGMENT_BYTES = 1024 * 1024;
+    private static final int NULL = -1;
+
+    private static final byte REPORTED = 0;
+    private static final byte ASSIGNED = 1;
+    private static final byte DEASSIGNED = 2;
+    private static final byte STATUS_CHANGED = 3;
+    private static final byte ADDED_TO_MILESTONE = 4;
+    private static final byte COMMENT_ADDED = 5;
+    private static final byte COMMENT_REMOVED = 6;
+    private static final byte PRIORITY_FORCED = 7;
+
+    private static TicketEventStore instance;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private final List<FileChannel> files = new ArrayList<>(); // Deleted when closed
+    private final AtomicInteger holders = new AtomicInteger(1);
+    private int position = 0;
+
+    private TicketEventStore(final Path dir, final int segmentBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+    }
+
+    private static TicketEventStore open() {
+        String dir = System.getProperty(DIR_PROPERTY, System.getProperty("java.io.tmpdir"));
+        return new TicketEventStore(Path.of(dir),
+                Integer.getInteger("bugtracker.events.segmentBytes", DEFAULT_SEGMENT_BYTES));
+    }
+
+    /**
+     * Gets the current store, which new tickets are recorded in, configured by the
+     * system properties.
+     *
+     * @return The store.
+     */
+    public static TicketEventStore getInstance() {
+        if (instance == null) {
+            instance = open();
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the current store with an empty one. The old one is released, so it
+     * closes once nothing else holds it.
+     *
+     * @return The new current store.
+     */
+    public static TicketEventStore renew() {
+        if (instance != null) {
+            instance.release();
+        }
+        instance = open();
+        return instance;
+    }
+
+    /**
+     * Adds a holder, which must {@link #release} the store once done with its tickets.
+     *
+     * @return The store.
+     */
+    public TicketEventStore retain() {
+        holders.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Removes a holder. The last one closes the store and deletes its segment files;
+     * tickets recorded in it must not be read after.
+     */
+    public void release() {
+        if (holders.decrementAndGet() != 0) {
+            return;
+        }
+        segments.clear();
+        position = 0;
+        synchronized (files) {
+            for (FileChannel ch : files) {
+                try {
+                    ch.close();
+                } catch (IOException e) {
+                    // Deleted at exit at the latest
+                }
+            }
+            files.clear();
+        }
+    }
+
+    /**
+     * Checks whether the store is closed.
+     *
+     * @return True once the last holder released it.
+     */
+    public boolean isClosed() {
+        return holders.get() <= 0;
+    }
+
+    /**
+     * Gets the number of bytes mapped outside the heap.
+     *
+     * @return The mapped size.
+     */
+    public long getMappedBytes() {
+        long bytes = 0;
+        for (ByteBuffer s : segments) {
+            bytes += s.capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * Appends an event.
+     *
+     * @param event The event.
+     * @return The offset of the event.
+     */
+    public long append(final TicketEvent event) {
+        String[] fields = fieldsOf(event);
+        byte[][] encoded = new byte[fields.length][];
+        int size = 1;
+        for (int i = 0; i < fields.length; i++) {
+            encoded[i] = fields[i] != null ? fields[i].getBytes(StandardCharsets.UTF_8) : null;
+            size += Integer.BYTES + (encoded[i] != null ? encoded[i].length : 0);
+        }
+
+        if (segments.isEmpty()
+                || position + size > segments.get(segments.size() - 1).capacity()) {
+            segments.add(map(Math.max(segmentBytes, size)));
+            position = 0;
+        }
+        int segment = segments.size() - 1;
+        ByteBuffer buf = segments.get(segment);
+        long offset = ((long) segment << Integer.SIZE) | position;
+
+        int p = position;
+        buf.put(p++, kindOf(event));
+        for (byte[] bytes : encoded) {
+            buf.putInt(p, bytes != null ? bytes.length : NULL);
+            p += Integer.BYTES;
+            if (bytes != null) {
+                buf.put(p, bytes);
+                p += bytes.length;
+            }
+        }
+        position = p;
+        return offset;
+    }
+
+    /**
+     * Reads an event back.
+     *
+     * @param offset The offset returned by {@link #append}.
+     * @return The event.
+     */
+    public TicketEvent read(final long offset) {
+        ByteBuffer in = at(offset);
+        byte kind = in.get();
+        String by = string(in);
+        String timestamp = string(in);
+        return switch (kind) {
+            case REPORTED -> new TicketEvent.Reported(by, timestamp, string(in));
+            case ASSIGNED -> new TicketEvent.Assigned(by, timestamp);
+            case DEASSIGNED -> new TicketEvent.Deassigned(by, timestamp);
+            case STATUS_CHANGED -> new TicketEvent.StatusChanged(by, timestamp,
+                    string(in), string(in));
+            case ADDED_TO_MILESTONE -> new TicketEvent.AddedToMilestone(by, timestamp,
+                    string(in));
+            case COMMENT_ADDED -> new TicketEvent.CommentAdded(by, timestamp, string(in));
+            case COMMENT_REMOVED -> new TicketEvent.CommentRemoved(by, timestamp);
+            case PRIORITY_FORCED -> {
+                String priority = string(in);
+                yield new TicketEvent.PriorityForced(by, timestamp,
+                        priority != null ? Priority.valueOf(priority) : null);
+            }
+            default -> throw new IllegalStateException("Unknown ticket event " + kind);
+        };
+    }
+
+    /**
+     * Reads only the user of an event, without decoding the rest.
+     *
+     * @param offset The offset returned by {@link #append}.
+     * @return The user who caused the event.
+     */
+    public String readBy(final long offset) {
+        ByteBuffer in = at(offset);
+        in.get();
+        return string(in);
+    }
+
+    private ByteBuffer at(final long offset) {
+        if (isClosed()) {
+            throw new IllegalStateException("Ticket event store is closed");
+        }
+        return segments.get((int) (offset >>> Integer.SIZE)).duplicate().position((int) offset);
+    }
+
+    private static String string(final ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte kindOf(final TicketEvent event) {
+        return switch (event) {
+            case TicketEvent.Reported e -> REPORTED;
+            case TicketEvent.Assigned e -> ASSIGNED;
+            case TicketEvent.Deassigned e -> DEASSIGNED;
+            case TicketEvent.StatusChanged e -> STATUS_CHANGED;
+            case TicketEvent.AddedToMilestone e -> ADDED_TO_MILESTONE;
+            case TicketEvent.CommentAdded e -> COMMENT_ADDED;
+            case TicketEvent.CommentRemoved e -> COMMENT_REMOVED;
+            case TicketEvent.PriorityForced e -> PRIORITY_FORCED;
+        };
+    }
+
+    private static String[] fieldsOf(final TicketEvent event) {
+        return switch (event) {
+            case TicketEvent.Reported e -> new String[] {e.by(), e.timestamp(), e.status()};
+            case TicketEvent.StatusChanged e ->
+                    new String[] {e.by(), e.timestamp(), e.from(), e.to()};
+            case TicketEvent.AddedToMilestone e ->
+                    new String[] {e.by(), e.timestamp(), e.milestone()};
+            case TicketEvent.CommentAdded e -> new String[] {e.by(), e.timestamp(), e.content()};
+            case TicketEvent.PriorityForced e -> new String[] {e.by(), e.timestamp(),
+                    e.priority() != null ? e.priority().name() : null};
+            default -> new String[] {event.by(), event.timestamp()};
+        };
+    }
+
+    // Maps a new segment. The file stays open while it is mapped and is deleted when
+    // the store closes (or, where a mapped file cannot be deleted, once it is unmapped)
+    private MappedByteBuffer map(final int bytes) {
+        if (isClosed()) {
+            throw new IllegalStateException("Ticket event store is closed");
+        }
+        try {
+            Files.createDirectories(dir);
+            Path file = Files.createTempFile(dir, "ticket-events-", ".seg");
+            FileChannel ch = FileChannel.open(file, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            synchronized (files) {
+                files.add(ch);
+            }
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map a ticket event segment in " + dir, e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package main.model.ticket;
+
+import main.model.Milestone;
+import main.model.Priority;
+
+/**
+ * Observer for ticket lifecycle events.
+ * Derived structures (indexes, caches, aggregates) implement the callbacks
+ * they care about and are kept in step with the tickets without rescanning.
+ */
+public interface TicketListener {
+    /**
+     * Called after a ticket has been added to the database.
+     *
+     * @param ticket The new ticket.
+     */
+    default void onTicketAdded(final Ticket ticket) {
+    }
+
+    /**
+     * Called after the status of a ticket has changed.
+     *
+     * @param ticket    The ticket.
+     * @param oldStatus The previous status.
+     * @param newStatus The new status.
+     */
+    default void onStatusChanged(final Ticket ticket, final String oldStatus,
+                                 final String newStatus) {
+    }
+
+    /**
+     * Called after the effective priority of a ticket has changed.
+     *
+     * @param ticket      The ticket.
+     * @param oldPriority The previous effective priority.
+     * @param newPriority The new effective priority.
+     */
+    default void onPriorityChanged(final Ticket ticket, final Priority oldPriority,
+                                   final Priority newPriority) {
+    }
+
+    /**
+     * Called after any other field of a ticket has changed
+     * (assignee, dates, comments or history).
+     *
+     * @param ticket The ticket.
+     */
+    default void onTicketUpdated(final Ticket ticket) {
+    }
+
+    /**
+     * Called before an unchanging (long CLOSED) ticket is moved to cold storage.
+     * Listeners drop their references to this instance; if the ticket is read
+     * again, later events carry a rehydrated copy.
+     *
+     * @param ticket The ticket.
+     */
+    default void onTicketMovedCold(final Ticket ticket) {
+    }
+
+    /**
+     * Called after a milestone (and its ticket membership) has been added.
+     *
+     * @param milestone The new milestone.
+     */
+    default void onMilestoneAdded(final Milestone milestone) {
+    }
+}
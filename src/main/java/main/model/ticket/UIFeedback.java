@@ -1,6 +1,9 @@
 package main.model.ticket;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import main.model.Priority;
+import main.model.ticket.enums.BusinessValue;
+import main.model.ticket.enums.TicketType;
 import main.visitor.Visitor;
 
 /**
@@ -10,6 +13,8 @@ public final class UIFeedback extends Ticket {
     private int usabilityScore; // 1-10
     private String uiElementId;
     private String businessValue;
+    // Parsed once when set, so reports never map the string again
+    private int businessValueValue = 1;
 
     /**
      * Constructor for UIFeedback.
@@ -29,6 +34,34 @@ public final class UIFeedback extends Ticket {
         super(id, type, title, description, priority, status, reportedBy, createdAt);
     }
 
+    /**
+     * Constructor for a UIFeedback rehydrated from storage, with an existing event stream.
+     *
+     * @param id           The unique ID of the ticket.
+     * @param type         The type of the ticket (UI_FEEDBACK).
+     * @param title        The title of the ticket.
+     * @param description  The description of the ticket.
+     * @param priority     The priority of the ticket.
+     * @param eventOffsets The offsets of its events in the event store.
+     */
+    public UIFeedback(final int id, final String type, final String title, final String description,
+                      final Priority priority, final long[] eventOffsets) {
+        super(id, type, title, description, priority, eventOffsets);
+    }
+
+    private UIFeedback(final UIFeedback other) {
+        super(other);
+        this.usabilityScore = other.usabilityScore;
+        this.uiElementId = other.uiElementId;
+        this.businessValue = other.businessValue;
+        this.businessValueValue = other.businessValueValue;
+    }
+
+    @Override
+    public UIFeedback copy() {
+        return new UIFeedback(this);
+    }
+
     /**
      * Accepts a visitor for processing this ticket.
      *
@@ -59,7 +92,29 @@ public final class UIFeedback extends Ticket {
         return businessValue;
     }
 
+    /**
+     * Sets the business value.
+     *
+     * @param businessValue The business value.
+     */
     public void setBusinessValue(final String businessValue) {
         this.businessValue = businessValue;
+        this.businessValueValue = BusinessValue.valueOfName(businessValue);
     }
+
+    /**
+     * Gets the numeric business value (1 if missing or unknown).
+     *
+     * @return The business value.
+     */
+    @JsonIgnore
+    public int getBusinessValueValue() {
+        return businessValueValue;
+    }
+
+    @Override
+    public TicketType getTicketType() {
+        return TicketType.UI_FEEDBACK;
+    }
+
 }
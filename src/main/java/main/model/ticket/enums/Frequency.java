@@ -9,6 +9,8 @@ public enum Frequency {
     FREQUENT(3),
     ALWAYS(4);
 
+    private static final Frequency[] VALUES = values();
+
     private final int value;
 
     /**
@@ -28,4 +30,21 @@ public enum Frequency {
     public int getValue() {
         return value;
     }
+
+    /**
+     * Parses a level name (ignoring case) into its value.
+     *
+     * @param name The level name.
+     * @return The value, or 1 if the name is missing or unknown.
+     */
+    public static int valueOfName(final String name) {
+        if (name != null) {
+            for (Frequency level : VALUES) {
+                if (level.name().equalsIgnoreCase(name)) {
+                    return level.value;
+                }
+            }
+        }
+        return 1;
+    }
 }
@@ -8,6 +8,8 @@ public enum Severity {
     MODERATE(2),
     SEVERE(3);
 
+    private static final Severity[] VALUES = values();
+
     private final int value;
 
     /**
@@ -27,4 +29,21 @@ public enum Severity {
     public int getValue() {
         return value;
     }
+
+    /**
+     * Parses a level name (ignoring case) into its value.
+     *
+     * @param name The level name.
+     * @return The value, or 1 if the name is missing or unknown.
+     */
+    public static int valueOfName(final String name) {
+        if (name != null) {
+            for (Severity level : VALUES) {
+                if (level.name().equalsIgnoreCase(name)) {
+                    return level.value;
+                }
+            }
+        }
+        return 1;
+    }
 }
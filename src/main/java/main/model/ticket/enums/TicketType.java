@@ -0,0 +1,24 @@
+package main.model.ticket.enums;
+
+/**
+ * Enum representing the kind of a ticket, used to index per-type statistics.
+ */
+public enum TicketType {
+    BUG,
+    FEATURE_REQUEST,
+    UI_FEEDBACK;
+
+    /** Number of ticket types, the length of per-type arrays. */
+    public static final int COUNT = values().length;
+
+    private static final TicketType[] VALUES = values();
+
+    /**
+     * Gets all ticket types without allocating a new array.
+     *
+     * @return The shared array of types (must not be modified).
+     */
+    public static TicketType[] all() {
+        return VALUES;
+    }
+}
@@ -92,4 +92,11 @@ public final class Developer extends User {
     public Optional<Developer> isDeveloper() {
         return Optional.of(this);
     }
+
+    @Override
+    public Developer copy() {
+        Developer copy = new Developer(getUsername(), getEmail(), hireDate, expertise, seniority);
+        copy.notifications.addAll(notifications);
+        return copyStateTo(copy);
+    }
 }
@@ -40,4 +40,10 @@ public final class Manager extends User {
     public void setHireDate(final LocalDate hireDate) {
         this.hireDate = hireDate;
     }
+
+    @Override
+    public Manager copy() {
+        return copyStateTo(new Manager(getUsername(), getEmail(), hireDate,
+                new ArrayList<>(subordinates)));
+    }
 }
@@ -0,0 +1,16 @@
+package main.model.user;
+
+/**
+ * Callback notified whenever a user's performance score is updated.
+ * Lets indexes that are ordered by score stay in step with the users.
+ */
+public interface PerformanceScoreListener {
+    /**
+     * Called after the performance score of a user has changed.
+     *
+     * @param user     The user whose score changed.
+     * @param oldScore The previous score.
+     * @param newScore The new score.
+     */
+    void onPerformanceScoreChanged(User user, double oldScore, double newScore);
+}
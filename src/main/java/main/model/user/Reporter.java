@@ -16,4 +16,9 @@ public final class Reporter extends User {
     public Reporter(final String username, final String email) {
         super(username, email, String.valueOf(UserRoles.REPORTER));
     }
+
+    @Override
+    public Reporter copy() {
+        return copyStateTo(new Reporter(getUsername(), getEmail()));
+    }
 }
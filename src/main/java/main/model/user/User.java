@@ -15,6 +15,8 @@ public abstract class User {
 
     protected double performanceScore = 0.0;
 
+    private PerformanceScoreListener scoreListener;
+
     /**
      * Constructor for User.
      *
@@ -50,6 +52,10 @@ public abstract class User {
         this.username = username;
     }
 
+    public final String getEmail() {
+        return email;
+    }
+
     public final String getRole() {
         return role;
     }
@@ -62,11 +68,49 @@ public abstract class User {
         return performanceScore;
     }
 
+    /**
+     * Sets the performance score and notifies the score listener, if any.
+     *
+     * @param performanceScore The new score.
+     */
     public final void setPerformanceScore(final double performanceScore) {
+        double oldScore = this.performanceScore;
         this.performanceScore = performanceScore;
+        if (scoreListener != null && Double.compare(oldScore, performanceScore) != 0) {
+            scoreListener.onPerformanceScoreChanged(this, oldScore, performanceScore);
+        }
+    }
+
+    /**
+     * Registers the listener notified on performance score changes.
+     *
+     * @param listener The listener (e.g. a score index), or null to detach.
+     */
+    public final void setScoreListener(final PerformanceScoreListener listener) {
+        this.scoreListener = listener;
     }
 
     public Optional<Developer> isDeveloper() {
         return Optional.empty();
     }
+
+    /**
+     * Copies the user, for a database fork to change on its own.
+     *
+     * @return The copy, with no score listener.
+     */
+    public abstract User copy();
+
+    /**
+     * Copies the role and score, which every user has, onto a copy of this user.
+     *
+     * @param copy The copy.
+     * @param <U>  The user type.
+     * @return The copy.
+     */
+    protected final <U extends User> U copyStateTo(final U copy) {
+        copy.setRole(role);
+        copy.performanceScore = performanceScore;
+        return copy;
+    }
 }
@@ -0,0 +1,69 @@
+package main.report;
+
+import main.database.Database;
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import main.model.user.User;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of a performance report run.
+ * Computing it changes nothing; {@link #publish} writes the scores and the
+ * milestone priority bumps back to the database as a separate step.
+ *
+ * @param rows             One row per developer, in report order.
+ * @param bumpedPriorities The forced priority computed for each bumped ticket id.
+ */
+public record PerformanceReport(List<Row> rows, Map<Integer, Priority> bumpedPriorities) {
+
+    /**
+     * Creates a report, taking immutable copies of the rows and bumps.
+     *
+     * @param rows             The developer rows.
+     * @param bumpedPriorities The bumped ticket priorities.
+     */
+    public PerformanceReport {
+        rows = List.copyOf(rows);
+        bumpedPriorities = Map.copyOf(bumpedPriorities);
+    }
+
+    /**
+     * Applies the report to the database: forces the bumped ticket priorities and
+     * stores each developer's performance score (used later by developer search).
+     *
+     * @param db        The database to publish to.
+     * @param by        The manager who asked for the report.
+     * @param timestamp The date of the report, recorded with each bump.
+     */
+    public void publish(final Database db, final String by, final String timestamp) {
+        bumpedPriorities.forEach((id, priority) -> {
+            Ticket t = db.getTicket(id);
+            if (t != null && t.getForcePriority() != priority) {
+                db.getTicketForUpdate(id).apply(
+                        new TicketEvent.PriorityForced(by, timestamp, priority));
+            }
+        });
+        for (Row row : rows) {
+            User u = db.findUserByUsername(row.username());
+            if (u != null) {
+                u.setPerformanceScore(row.performanceScore());
+            }
+        }
+    }
+
+    /**
+     * One developer's line in the report.
+     *
+     * @param username              The developer.
+     * @param closedTickets         The tickets closed in the reported month.
+     * @param averageResolutionTime The average resolution time, rounded to 2 decimals.
+     * @param performanceScore      The performance score, rounded to 2 decimals.
+     * @param seniority             The developer's seniority.
+     */
+    public record Row(String username, int closedTickets, double averageResolutionTime,
+                      double performanceScore, String seniority) {
+    }
+}
@@ -0,0 +1,251 @@
+package main.report;
+
+import main.database.Database;
+import main.database.PerformanceBuckets;
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.user.Developer;
+import main.model.user.enums.Seniority;
+import main.visitor.PerformanceStats;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Read-only performance report computation. Milestone priority bumps are worked out
+ * locally instead of being forced on the tickets, so concurrent runs are safe;
+ * the returned {@link PerformanceReport} is published separately. The calculator
+ * sees the database only through already built buckets and lookups that read.
+ */
+public final class PerformanceReportCalculator {
+
+    // --- Constants for Calculations ---
+    private static final double JUNIOR_CLOSED_COEFF = 0.5;
+    private static final int JUNIOR_BONUS = 5;
+
+    private static final double MID_CLOSED_COEFF = 0.5;
+    private static final double MID_HIGH_PRIO_COEFF = 0.7;
+    private static final double MID_TIME_COEFF = 0.3;
+    private static final int MID_BONUS = 15;
+
+    private static final double SENIOR_CLOSED_COEFF = 0.5;
+    private static final double SENIOR_HIGH_PRIO_COEFF = 1.0;
+    private static final double SENIOR_TIME_COEFF = 0.5;
+    private static final int SENIOR_BONUS = 30;
+
+    private static final double ROUNDING_FACTOR = 100.0;
+    private static final double TICKET_TYPES_COUNT = 3.0;
+    private static final int BUMP_INTERVAL_DAYS = 3;
+
+    private final PerformanceBuckets buckets;
+    private final IntFunction<Ticket> tickets;
+    private final IntPredicate inMilestone;
+
+    /**
+     * Creates a calculator over read-only views.
+     *
+     * @param buckets     The closed-ticket buckets, already built.
+     * @param tickets     Looks a ticket up by id, without changing it.
+     * @param inMilestone Tells whether a ticket id belongs to a milestone.
+     */
+    public PerformanceReportCalculator(final PerformanceBuckets buckets,
+                                       final IntFunction<Ticket> tickets,
+                                       final IntPredicate inMilestone) {
+        this.buckets = buckets;
+        this.tickets = tickets;
+        this.inMilestone = inMilestone;
+    }
+
+    /**
+     * Creates a calculator reading a database. The buckets are built here, so
+     * {@link #calculate} only reads.
+     *
+     * @param db The database.
+     * @return The calculator.
+     */
+    public static PerformanceReportCalculator of(final Database db) {
+        return new PerformanceReportCalculator(db.getPerformanceBuckets(), db::getTicket,
+                id -> db.findMilestoneByTicketId(id) != null);
+    }
+
+    /**
+     * Computes the report for a team over the tickets they closed in a month.
+     *
+     * @param team  The developers, in report order.
+     * @param month The month the tickets were solved in.
+     * @return The report; nothing in the database is changed.
+     */
+    public PerformanceReport calculate(final List<Developer> team, final YearMonth month) {
+        List<PerformanceReport.Row> rows = new ArrayList<>();
+        Map<Integer, Priority> bumped = new HashMap<>();
+
+        for (Developer dev : team) {
+            PerformanceBuckets.Bucket bucket = buckets.get(dev.getUsername(), month);
+
+            // High-priority count under the bumped priorities, without forcing them
+            int highPrio = 0;
+            for (Integer id : bucket.getTicketIds()) {
+                Ticket t = tickets.apply(id);
+                Priority bump = milestoneBump(t);
+                Priority effective = t.getPriority();
+                if (bump != null) {
+                    bumped.put(t.getId(), bump);
+                    effective = bump;
+                }
+                if (effective == Priority.HIGH || effective == Priority.CRITICAL) {
+                    highPrio++;
+                }
+            }
+
+            PerformanceStats stats = new BumpedStats(bucket, highPrio);
+            rows.add(new PerformanceReport.Row(dev.getUsername(),
+                    stats.getClosedTicketsCount(), round(stats.getAverageResolutionTime()),
+                    calculateScore(dev, stats), dev.getSeniority().name()));
+        }
+        return new PerformanceReport(rows, bumped);
+    }
+
+    // Tickets in a milestone gain one priority level for every 3 days they were active
+    private Priority milestoneBump(final Ticket t) {
+        if (t.getInitialPriority() == Priority.LOW) {
+            return null;
+        }
+
+        // Determine active duration: CreatedAt -> SolvedAt
+        // Use first closed date for consistency with time calculation
+        String solvedStr = t.getFirstClosedAt();
+        if (solvedStr == null) {
+            solvedStr = t.getSolvedAt();
+        }
+
+        if (solvedStr != null && t.getCreatedAt() != null) {
+            LocalDate created = LocalDate.parse(t.getCreatedAt());
+            LocalDate solved = LocalDate.parse(solvedStr);
+            long daysActive = ChronoUnit.DAYS.between(created, solved);
+
+            // Check if ticket belonged to a milestone
+            if (inMilestone.test(t.getId())) {
+                // Apply bump: every 3 days
+                int bumps = (int) (daysActive / BUMP_INTERVAL_DAYS);
+                if (bumps > 0) {
+                    Priority effectivePriority = t.getInitialPriority();
+                    for (int i = 0; i < bumps; i++) {
+                        effectivePriority = effectivePriority.next();
+                    }
+                    return effectivePriority;
+                }
+            }
+        }
+        return null;
+    }
+
+    private double calculateScore(final Developer dev, final PerformanceStats stats) {
+        if (stats.getClosedTicketsCount() == 0) {
+            return 0.0;
+        }
+
+        Seniority seniority = dev.getSeniority();
+        double rawScore = 0.0;
+        int bonus = 0;
+
+        int closed = stats.getClosedTicketsCount();
+        int highPrio = stats.getHighPriorityCount();
+        double avgTime = stats.getAverageResolutionTime();
+
+        switch (seniority) {
+            case JUNIOR:
+                double diversity = ticketDiversityFactor(stats.getBugCount(),
+                        stats.getFeatureCount(), stats.getUiCount());
+                rawScore = Math.max(0, JUNIOR_CLOSED_COEFF * closed - diversity);
+                bonus = JUNIOR_BONUS;
+                break;
+            case MID:
+                rawScore = Math.max(0, MID_CLOSED_COEFF * closed
+                        + MID_HIGH_PRIO_COEFF * highPrio
+                        - MID_TIME_COEFF * avgTime);
+                bonus = MID_BONUS;
+                break;
+            case SENIOR:
+                rawScore = Math.max(0, SENIOR_CLOSED_COEFF * closed
+                        + SENIOR_HIGH_PRIO_COEFF * highPrio
+                        - SENIOR_TIME_COEFF * avgTime);
+                bonus = SENIOR_BONUS;
+                break;
+            default:
+                break;
+        }
+
+        double total = rawScore + bonus;
+        return round(total);
+    }
+
+    // MATHEMATICAL METHODS
+
+    private double round(final double value) {
+        return Math.round(value * ROUNDING_FACTOR) / ROUNDING_FACTOR;
+    }
+
+    private double averageResolvedTicketType(final int bug, final int feature, final int ui) {
+        return (bug + feature + ui) / TICKET_TYPES_COUNT;
+    }
+
+    private double standardDeviation(final int bug, final int feature, final int ui) {
+        double mean = averageResolvedTicketType(bug, feature, ui);
+        double variance = (Math.pow(bug - mean, 2)
+                + Math.pow(feature - mean, 2)
+                + Math.pow(ui - mean, 2)) / TICKET_TYPES_COUNT;
+        return Math.sqrt(variance);
+    }
+
+    private double ticketDiversityFactor(final int bug, final int feature, final int ui) {
+        double mean = averageResolvedTicketType(bug, feature, ui);
+        if (mean == 0.0) {
+            return 0.0;
+        }
+        double std = standardDeviation(bug, feature, ui);
+        return std / mean;
+    }
+
+    /**
+     * A bucket's stats with the high-priority count taken under the bumped priorities.
+     */
+    private record BumpedStats(PerformanceStats bucket, int highPriorityCount)
+            implements PerformanceStats {
+        @Override
+        public int getBugCount() {
+            return bucket.getBugCount();
+        }
+
+        @Override
+        public int getFeatureCount() {
+            return bucket.getFeatureCount();
+        }
+
+        @Override
+        public int getUiCount() {
+            return bucket.getUiCount();
+        }
+
+        @Override
+        public int getHighPriorityCount() {
+            return highPriorityCount;
+        }
+
+        @Override
+        public int getClosedTicketsCount() {
+            return bucket.getClosedTicketsCount();
+        }
+
+        @Override
+        public double getAverageResolutionTime() {
+            return bucket.getAverageResolutionTime();
+        }
+    }
+}
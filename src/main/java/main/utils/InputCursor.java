@@ -0,0 +1,91 @@
+package main.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.SequenceInputStream;
+
+/**
+ * Reads the commands of an input array one at a time, keeping the byte offset
+ * right after the last one read. A cursor can start at such an offset, so a
+ * resumed run parses only the commands it has not run yet.
+ */
+public final class InputCursor implements Closeable {
+    private static final byte[] ARRAY_START = {'['};
+
+    private final ObjectMapper mapper;
+    private final JsonParser parser;
+    // Input offset of the first byte the parser sees
+    private final long base;
+    private long offset;
+
+    /**
+     * Opens a cursor on an input.
+     *
+     * @param mapper The mapper to read commands with.
+     * @param input  The input file contents, a JSON array of commands.
+     * @param offset 0 to start at the first command, or an offset from
+     *               {@link #getOffset()} to start at the command after it.
+     * @throws IOException If the input is not a JSON array.
+     */
+    public InputCursor(final ObjectMapper mapper, final byte[] input, final long offset)
+            throws IOException {
+        this.mapper = mapper;
+        this.offset = offset;
+        if (offset == 0) {
+            this.base = 0;
+            this.parser = mapper.getFactory().createParser(input);
+        } else {
+            // Skip to the separator before the next command and reopen the array there
+            int from = (int) offset;
+            while (from < input.length && Character.isWhitespace(input[from])) {
+                from++;
+            }
+            if (from < input.length && input[from] == ',') {
+                from++;
+            }
+            this.base = from - ARRAY_START.length;
+            this.parser = mapper.getFactory().createParser(new SequenceInputStream(
+                    new ByteArrayInputStream(ARRAY_START),
+                    new ByteArrayInputStream(input, from, input.length - from)));
+        }
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("The input is not an array of commands");
+        }
+    }
+
+    /**
+     * Reads the next command.
+     *
+     * @return The command, or null after the last one.
+     * @throws IOException If the input is not valid JSON.
+     */
+    public JsonNode next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        JsonNode command = mapper.readTree(parser);
+        offset = base + parser.currentLocation().getByteOffset();
+        return command;
+    }
+
+    /**
+     * Gets the byte offset in the input right after the last command read.
+     *
+     * @return The offset.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -71,6 +71,9 @@ public final class InputData {
     //  Filters for Search Command
     private Map<String, Object> filters;
 
+    // Point-in-time date for the report commands
+    private String asOf;
+
     /**
      * Unpacks parameters from the "params" nested object in JSON.
      * This allows flat mapping of fields even if they are nested under "params".
@@ -141,6 +144,9 @@ public final class InputData {
         if (params.containsKey("uiElementId")) {
             this.uiElementId = (String) params.get("uiElementId");
         }
+        if (params.containsKey("asOf")) {
+            this.asOf = (String) params.get("asOf");
+        }
     }
 
     // GETTERS AND SETTERS
@@ -498,4 +504,14 @@ public final class InputData {
     public void setFilters(final Map<String, Object> filters) {
         this.filters = filters;
     }
+
+
+    public String getAsOf() {
+        return asOf;
+    }
+
+
+    public void setAsOf(final String asOf) {
+        this.asOf = asOf;
+    }
 }
@@ -0,0 +1,152 @@
+package main.visitor;
+
+import main.model.ticket.Bug;
+import main.model.ticket.FeatureRequest;
+import main.model.ticket.Ticket;
+import main.model.ticket.UIFeedback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Runs several visitors and per-ticket accumulators together in a single pass.
+ * Each ticket that passes the filter is handed to the accumulators first
+ * (in the order they were added), then dispatched once to every visitor.
+ * When every part is {@link Mergeable}, large ticket lists are split across
+ * cores by the {@link ParallelVisitorDriver}.
+ * The reports now read running aggregates and column snapshots instead, so this
+ * is the from-scratch pass the {@code AggregateConsistencyChecker} compares them with.
+ */
+public final class CompositeVisitor implements MergeableVisitor<CompositeVisitor> {
+    private final Predicate<Ticket> filter;
+    private final List<Visitor> visitors = new ArrayList<>();
+    private final List<TicketAccumulator> accumulators = new ArrayList<>();
+    private int visitedCount = 0;
+
+    /**
+     * Creates a composite visitor that only visits the tickets passing a filter.
+     *
+     * @param filter The filter applied before any visitor or accumulator.
+     */
+    public CompositeVisitor(final Predicate<Ticket> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Adds a visitor to the pass.
+     *
+     * @param visitor The visitor.
+     * @return This composite, for chaining.
+     */
+    public CompositeVisitor withVisitor(final Visitor visitor) {
+        visitors.add(visitor);
+        return this;
+    }
+
+    /**
+     * Adds a per-ticket accumulator to the pass.
+     *
+     * @param accumulator The accumulator.
+     * @return This composite, for chaining.
+     */
+    public CompositeVisitor withAccumulator(final TicketAccumulator accumulator) {
+        accumulators.add(accumulator);
+        return this;
+    }
+
+    /**
+     * Runs the pass over a ticket set.
+     *
+     * @param tickets The tickets.
+     * @return The number of tickets that passed the filter in this run.
+     */
+    public int run(final Iterable<? extends Ticket> tickets) {
+        int before = visitedCount;
+        if (tickets instanceof List<? extends Ticket> list && isMergeable()) {
+            ParallelVisitorDriver.run(this, list, filter);
+        } else {
+            for (Ticket t : tickets) {
+                if (filter.test(t)) {
+                    t.accept(this);
+                }
+            }
+        }
+        return visitedCount - before;
+    }
+
+    // True if every visitor and accumulator can be computed in parts and merged
+    private boolean isMergeable() {
+        for (Visitor v : visitors) {
+            if (!(v instanceof Mergeable)) {
+                return false;
+            }
+        }
+        for (TicketAccumulator a : accumulators) {
+            if (!(a instanceof Mergeable)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public CompositeVisitor create() {
+        CompositeVisitor copy = new CompositeVisitor(filter);
+        for (Visitor v : visitors) {
+            copy.visitors.add((Visitor) ((Mergeable<?>) v).create());
+        }
+        for (TicketAccumulator a : accumulators) {
+            copy.accumulators.add((TicketAccumulator) ((Mergeable<?>) a).create());
+        }
+        return copy;
+    }
+
+    @Override
+    public void combine(final CompositeVisitor other) {
+        for (int i = 0; i < visitors.size(); i++) {
+            combinePart(visitors.get(i), other.visitors.get(i));
+        }
+        for (int i = 0; i < accumulators.size(); i++) {
+            combinePart(accumulators.get(i), other.accumulators.get(i));
+        }
+        visitedCount += other.visitedCount;
+    }
+
+    // Parts at the same index were created from each other, so they have the same type
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void combinePart(final Object part, final Object other) {
+        ((Mergeable) part).combine((Mergeable) other);
+    }
+
+    private void accumulate(final Ticket t) {
+        for (TicketAccumulator a : accumulators) {
+            a.accumulate(t);
+        }
+        visitedCount++;
+    }
+
+    @Override
+    public void visit(final Bug bug) {
+        accumulate(bug);
+        for (Visitor v : visitors) {
+            v.visit(bug);
+        }
+    }
+
+    @Override
+    public void visit(final FeatureRequest featureRequest) {
+        accumulate(featureRequest);
+        for (Visitor v : visitors) {
+            v.visit(featureRequest);
+        }
+    }
+
+    @Override
+    public void visit(final UIFeedback uiFeedback) {
+        accumulate(uiFeedback);
+        for (Visitor v : visitors) {
+            v.visit(uiFeedback);
+        }
+    }
+}
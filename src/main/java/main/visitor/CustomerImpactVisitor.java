@@ -1,164 +1,145 @@
 package main.visitor;
 
+import main.database.TicketColumns;
+import main.model.Priority;
 import main.model.ticket.Bug;
 import main.model.ticket.FeatureRequest;
 import main.model.ticket.UIFeedback;
+import main.model.ticket.enums.TicketType;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Visitor implementation to calculate Customer Impact metrics.
  */
-public final class CustomerImpactVisitor implements Visitor {
+public final class CustomerImpactVisitor implements MergeableVisitor<CustomerImpactVisitor> {
     // --- Constants for Calculations ---
     private static final double PERCENTAGE_MULTIPLIER = 100.0;
     private static final double BUG_MAX_SCORE = 48.0;
-
-    // --- Constants for Values ---
-    private static final int VAL_1 = 1;
-    private static final int VAL_2 = 2;
-    private static final int VAL_3 = 3;
-    private static final int VAL_4 = 4;
-    private static final int VAL_6 = 6;
-    private static final int VAL_10 = 10;
+    // Priority values by ordinal, for the columnar loop
+    private static final int[] PRIORITY_VALUES =
+            Arrays.stream(Priority.values()).mapToInt(Priority::getValue).toArray();
 
     // Structures to store results
-    private final Map<String, Double> totalImpactByType = new HashMap<>();
-    private final Map<String, Integer> countByType = new HashMap<>();
+    private final TypeAccumulator impactByType = new TypeAccumulator();
 
-    /**
-     * Constructor for CustomerImpactVisitor.
-     * Initializes counters and totals.
-     */
-    public CustomerImpactVisitor() {
-        totalImpactByType.put("BUG", 0.0);
-        totalImpactByType.put("FEATURE_REQUEST", 0.0);
-        totalImpactByType.put("UI_FEEDBACK", 0.0);
-
-        countByType.put("BUG", 0);
-        countByType.put("FEATURE_REQUEST", 0);
-        countByType.put("UI_FEEDBACK", 0);
+    @Override
+    public CustomerImpactVisitor create() {
+        return new CustomerImpactVisitor();
+    }
+
+    @Override
+    public void combine(final CustomerImpactVisitor other) {
+        impactByType.merge(other.impactByType);
     }
 
     // VISIT BUG
     @Override
     public void visit(final Bug bug) {
-        double impact = calculateBugImpact(bug);
-        accumulate("BUG", impact);
+        impactByType.add(TicketType.BUG, bugImpact(bugImpactPoints(bug, bug.getPriority())));
     }
 
     // VISIT FEATURE REQUEST
     @Override
     public void visit(final FeatureRequest fr) {
-        double impact = calculateFeatureImpact(fr);
-        accumulate("FEATURE_REQUEST", impact);
+        impactByType.add(TicketType.FEATURE_REQUEST, featureImpact(fr));
     }
 
     // VISIT UI FEEDBACK
     @Override
     public void visit(final UIFeedback ui) {
-        double impact = calculateUiImpact(ui);
-        accumulate("UI_FEEDBACK", impact);
-    }
-
-    // CALCULATION LOGIC
-
-    private void accumulate(final String type, final double impact) {
-        totalImpactByType.put(type, totalImpactByType.get(type) + impact);
-        countByType.put(type, countByType.get(type) + 1);
-    }
-
-    private double calculateBugImpact(final Bug t) {
-        int frequency = getFrequencyValue(t.getFrequency());
-        int priority = getPriorityValue(t.getPriority().name());
-        int severity = getSeverityValue(t.getSeverity());
-        // Formula: (frequency * priority * severity * 100) / 48
-        return (frequency * priority * severity * PERCENTAGE_MULTIPLIER) / BUG_MAX_SCORE;
+        impactByType.add(TicketType.UI_FEEDBACK, uiImpact(ui));
     }
 
-    private double calculateFeatureImpact(final FeatureRequest t) {
-        int businessValue = getBusinessValue(t.getBusinessValue());
-        int demand = getCustomerDemandValue(t.getCustomerDemand());
-        // Formula: businessValue * customerDemand
-        return (double) (businessValue * demand);
-    }
-
-    private double calculateUiImpact(final UIFeedback t) {
-        int businessValue = getBusinessValue(t.getBusinessValue());
-        int usability = t.getUsabilityScore(); // This is already int
-        // Formula: businessValue * usabilityScore
-        return (double) (businessValue * usability);
+    /**
+     * Accumulates the rows of a columnar snapshot in one tight loop,
+     * with the same per-ticket math as the visit methods.
+     *
+     * @param columns    The ticket columns.
+     * @param statusMask The statuses to include (see {@link TicketColumns#statusMask}).
+     */
+    public void visitColumns(final TicketColumns columns, final int statusMask) {
+        byte[] types = columns.types();
+        byte[] statuses = columns.statuses();
+        byte[] priorities = columns.priorities();
+        byte[] severity = columns.severities();
+        byte[] frequency = columns.frequencies();
+        byte[] businessValue = columns.businessValues();
+        byte[] demand = columns.customerDemands();
+        byte[] usability = columns.usabilityScores();
+        TicketType[] typeOf = TicketType.all();
+        for (int row = 0, n = columns.size(); row < n; row++) {
+            if ((statusMask & (1 << statuses[row])) == 0) {
+                continue;
+            }
+            TicketType type = typeOf[types[row]];
+            double impact = switch (type) {
+                case BUG -> bugImpact(frequency[row] * PRIORITY_VALUES[priorities[row]]
+                        * severity[row]);
+                case FEATURE_REQUEST -> businessValue[row] * demand[row];
+                case UI_FEEDBACK -> businessValue[row] * usability[row];
+            };
+            impactByType.add(type, impact);
+        }
     }
 
+    // SCORING FUNCTIONS (shared with the running aggregate)
 
-    // 1. Priority
-    private int getPriorityValue(final String p) {
-        if (p == null) {
-            return 1; // Default
-        }
-        return switch (p.toUpperCase()) {
-            case "LOW" -> VAL_1;
-            case "MEDIUM" -> VAL_2;
-            case "HIGH" -> VAL_3;
-            case "CRITICAL" -> VAL_4;
-            default -> 1;
-        };
+    /**
+     * Raw bug impact: frequency * priority * severity, before scaling.
+     * Integer points can be summed exactly and scaled once.
+     *
+     * @param t        The bug.
+     * @param priority The priority to score the bug with.
+     * @return The raw impact points.
+     */
+    public static int bugImpactPoints(final Bug t, final Priority priority) {
+        return t.getFrequencyValue() * priority.getValue() * t.getSeverityValue();
     }
 
-    // 2. Severity
-    private int getSeverityValue(final String s) {
-        if (s == null) {
-            return 1;
-        }
-        return switch (s.toUpperCase()) {
-            case "MINOR" -> VAL_1;
-            case "MODERATE" -> VAL_2;
-            case "SEVERE" -> VAL_3;
-            default -> 1;
-        };
+    /**
+     * Scales raw bug impact points to a percentage.
+     *
+     * @param points The raw points (a single bug or a sum).
+     * @return The impact: (points * 100) / 48.
+     */
+    public static double bugImpact(final long points) {
+        return (points * PERCENTAGE_MULTIPLIER) / BUG_MAX_SCORE;
     }
 
-    // 3. Frequency
-    private int getFrequencyValue(final String f) {
-        if (f == null) {
-            return 1;
-        }
-        return switch (f.toUpperCase()) {
-            case "RARE" -> VAL_1;
-            case "OCCASIONAL" -> VAL_2;
-            case "FREQUENT" -> VAL_3;
-            case "ALWAYS" -> VAL_4;
-            default -> 1;
-        };
+    /**
+     * Feature request impact: businessValue * customerDemand.
+     *
+     * @param t The feature request.
+     * @return The impact.
+     */
+    public static int featureImpact(final FeatureRequest t) {
+        return t.getBusinessValueValue() * t.getCustomerDemandValue();
     }
 
-    // 4. Business Value
-    private int getBusinessValue(final String bv) {
-        if (bv == null) {
-            return 1;
-        }
-        return switch (bv.toUpperCase()) {
-            case "S" -> VAL_1;
-            case "M" -> VAL_3;
-            case "L" -> VAL_6;
-            case "XL" -> VAL_10;
-            default -> 1;
-        };
+    /**
+     * UI feedback impact: businessValue * usabilityScore.
+     *
+     * @param t The UI feedback.
+     * @return The impact.
+     */
+    public static int uiImpact(final UIFeedback t) {
+        return t.getBusinessValueValue() * t.getUsabilityScore();
     }
 
-    // 5. Customer Demand
-    private int getCustomerDemandValue(final String cd) {
-        if (cd == null) {
-            return 1;
+    /**
+     * Averages a total impact, rounded to 2 decimal places.
+     *
+     * @param total The summed impact.
+     * @param count The number of tickets.
+     * @return The rounded average, or 0 if there are no tickets.
+     */
+    public static double averageImpact(final double total, final int count) {
+        if (count == 0) {
+            return 0.0;
         }
-        return switch (cd.toUpperCase()) {
-            case "LOW" -> VAL_1;
-            case "MEDIUM" -> VAL_3;
-            case "HIGH" -> VAL_6;
-            case "VERY_HIGH" -> VAL_10;
-            default -> 1;
-        };
+        double avg = total / count;
+        return Math.round(avg * PERCENTAGE_MULTIPLIER) / PERCENTAGE_MULTIPLIER;
     }
 
     // --- GETTERS FOR COMMAND ---
@@ -170,14 +151,8 @@ public final class CustomerImpactVisitor implements Visitor {
      * @return The average impact, rounded to 2 decimal places.
      */
     public double getAverageImpact(final String type) {
-        int count = countByType.getOrDefault(type, 0);
-        if (count == 0) {
-            return 0.0;
-        }
-
-        double avg = totalImpactByType.get(type) / count;
-
-        return Math.round(avg * PERCENTAGE_MULTIPLIER) / PERCENTAGE_MULTIPLIER;
+        TicketType t = TicketType.valueOf(type);
+        return averageImpact(impactByType.getTotal(t), impactByType.getCount(t));
     }
 
     /**
@@ -187,6 +162,6 @@ public final class CustomerImpactVisitor implements Visitor {
      * @return The count of tickets.
      */
     public int getCount(final String type) {
-        return countByType.getOrDefault(type, 0);
+        return impactByType.getCount(TicketType.valueOf(type));
     }
 }
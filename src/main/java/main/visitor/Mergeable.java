@@ -0,0 +1,23 @@
+package main.visitor;
+
+/**
+ * Partial results that can be computed independently and merged afterwards.
+ *
+ * @param <T> The concrete type, so combine receives a partial of the same kind.
+ */
+public interface Mergeable<T extends Mergeable<T>> {
+    /**
+     * Creates an empty partial of the same kind and configuration.
+     *
+     * @return A new, empty partial.
+     */
+    T create();
+
+    /**
+     * Merges another partial into this one.
+     * Partials are combined in ticket order: {@code other} covers later tickets.
+     *
+     * @param other The partial to merge; it is not modified.
+     */
+    void combine(T other);
+}
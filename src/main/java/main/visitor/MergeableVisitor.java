@@ -0,0 +1,11 @@
+package main.visitor;
+
+/**
+ * A visitor whose results can be computed on parts of the ticket set in parallel
+ * and combined: {@link #create()} an empty copy per part, visit the part,
+ * then {@link #combine} the copies.
+ *
+ * @param <V> The concrete visitor type.
+ */
+public interface MergeableVisitor<V extends MergeableVisitor<V>> extends Visitor, Mergeable<V> {
+}
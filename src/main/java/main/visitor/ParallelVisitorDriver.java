@@ -0,0 +1,191 @@
+package main.visitor;
+
+import main.model.ticket.Ticket;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Runs a {@link MergeableVisitor} over a ticket list, splitting large lists across
+ * cores with fork/join. Each leaf visits its range into a fresh partial and the
+ * partials are combined left to right, so the split is the same on every run.
+ * Visitors must only read the tickets. {@link #runRows} does the same for loops
+ * over the rows of column arrays. The "bugtracker.visitor.parallelThreshold" and
+ * "bugtracker.visitor.leafSize" properties are read on each call.
+ */
+public final class ParallelVisitorDriver {
+    // Below this many tickets a sequential pass is cheaper than forking
+    private static final String THRESHOLD_PROPERTY = "bugtracker.visitor.parallelThreshold";
+    private static final int DEFAULT_THRESHOLD = 20_000;
+    // Size of the ranges a fork/join leaf visits sequentially
+    private static final String LEAF_SIZE_PROPERTY = "bugtracker.visitor.leafSize";
+    private static final int DEFAULT_LEAF_SIZE = 4_096;
+
+    private ParallelVisitorDriver() {
+    }
+
+    /**
+     * Accumulates a range of rows into a partial.
+     *
+     * @param <T> The partial type.
+     */
+    @FunctionalInterface
+    public interface RowRange<T> {
+        /**
+         * Accumulates rows {@code from} (inclusive) to {@code to} (exclusive).
+         *
+         * @param partial The partial to add to.
+         * @param from    The first row.
+         * @param to      The row after the last one.
+         */
+        void accumulate(T partial, int from, int to);
+    }
+
+    /**
+     * Visits every ticket passing the filter and merges the results into the visitor.
+     *
+     * @param visitor The visitor receiving the results.
+     * @param tickets The tickets.
+     * @param filter  The tickets to visit.
+     * @param <V>     The visitor type.
+     * @return The visitor, for chaining.
+     */
+    public static <V extends MergeableVisitor<V>> V run(final V visitor,
+                                                        final List<? extends Ticket> tickets,
+                                                        final Predicate<? super Ticket> filter) {
+        if (tickets.size() < threshold()) {
+            visitRange(visitor, tickets, filter);
+        } else {
+            visitor.combine(ForkJoinPool.commonPool().invoke(new VisitTask<>(visitor, tickets,
+                    filter, leafSize(), 0, tickets.size())));
+        }
+        return visitor;
+    }
+
+    /**
+     * Runs a loop over rows, splitting large row counts across cores like
+     * {@link #run}, and merges the results into the target. The loop must only
+     * read, and its input must be complete before the call (column getters that
+     * refresh rows are called up front, on this thread).
+     *
+     * @param target The partial receiving the results.
+     * @param rows   The number of rows.
+     * @param loop   The loop over a range of rows.
+     * @param <T>    The partial type.
+     * @return The target, for chaining.
+     */
+    public static <T extends Mergeable<T>> T runRows(final T target, final int rows,
+                                                     final RowRange<T> loop) {
+        if (rows < threshold()) {
+            loop.accumulate(target, 0, rows);
+        } else {
+            target.combine(ForkJoinPool.commonPool()
+                    .invoke(new RowTask<>(target, loop, leafSize(), 0, rows)));
+        }
+        return target;
+    }
+
+    private static int threshold() {
+        return Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+    }
+
+    private static int leafSize() {
+        return Math.max(1, Integer.getInteger(LEAF_SIZE_PROPERTY, DEFAULT_LEAF_SIZE));
+    }
+
+    private static void visitRange(final Visitor visitor, final List<? extends Ticket> tickets,
+                                   final Predicate<? super Ticket> filter) {
+        for (Ticket t : tickets) {
+            if (filter.test(t)) {
+                t.accept(visitor);
+            }
+        }
+    }
+
+    /**
+     * Visits a range of the ticket list, splitting it in halves until it is small enough.
+     */
+    private static final class VisitTask<V extends MergeableVisitor<V>> extends RecursiveTask<V> {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized
+        private final transient V prototype;
+        private final transient List<? extends Ticket> tickets;
+        private final transient Predicate<? super Ticket> filter;
+        private final int leafSize;
+        private final int from;
+        private final int to;
+
+        VisitTask(final V prototype, final List<? extends Ticket> tickets,
+                  final Predicate<? super Ticket> filter, final int leafSize, final int from,
+                  final int to) {
+            this.prototype = prototype;
+            this.tickets = tickets;
+            this.filter = filter;
+            this.leafSize = leafSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected V compute() {
+            if (to - from <= leafSize) {
+                V partial = prototype.create();
+                visitRange(partial, tickets.subList(from, to), filter);
+                return partial;
+            }
+
+            int mid = (from + to) >>> 1;
+            VisitTask<V> left = new VisitTask<>(prototype, tickets, filter, leafSize, from, mid);
+            VisitTask<V> right = new VisitTask<>(prototype, tickets, filter, leafSize, mid, to);
+            left.fork();
+            V later = right.compute();
+            V merged = left.join();
+            merged.combine(later);
+            return merged;
+        }
+    }
+
+    /**
+     * Runs a range of rows, splitting it in halves until it is small enough.
+     */
+    private static final class RowTask<T extends Mergeable<T>> extends RecursiveTask<T> {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized
+        private final transient T prototype;
+        private final transient RowRange<T> loop;
+        private final int leafSize;
+        private final int from;
+        private final int to;
+
+        RowTask(final T prototype, final RowRange<T> loop, final int leafSize, final int from,
+                final int to) {
+            this.prototype = prototype;
+            this.loop = loop;
+            this.leafSize = leafSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from <= leafSize) {
+                T partial = prototype.create();
+                loop.accumulate(partial, from, to);
+                return partial;
+            }
+
+            int mid = (from + to) >>> 1;
+            RowTask<T> left = new RowTask<>(prototype, loop, leafSize, from, mid);
+            RowTask<T> right = new RowTask<>(prototype, loop, leafSize, mid, to);
+            left.fork();
+            T later = right.compute();
+            T merged = left.join();
+            merged.combine(later);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package main.visitor;
+
+/**
+ * Closed-ticket statistics a developer's performance score is computed from.
+ */
+public interface PerformanceStats {
+    /**
+     * Gets the count of closed bug tickets.
+     *
+     * @return The number of bug tickets.
+     */
+    int getBugCount();
+
+    /**
+     * Gets the count of closed feature request tickets.
+     *
+     * @return The number of feature request tickets.
+     */
+    int getFeatureCount();
+
+    /**
+     * Gets the count of closed UI feedback tickets.
+     *
+     * @return The number of UI feedback tickets.
+     */
+    int getUiCount();
+
+    /**
+     * Gets the count of closed tickets with HIGH or CRITICAL priority.
+     *
+     * @return The high priority ticket count.
+     */
+    int getHighPriorityCount();
+
+    /**
+     * Gets the total number of closed tickets.
+     *
+     * @return The closed tickets count.
+     */
+    int getClosedTicketsCount();
+
+    /**
+     * Calculates the average resolution time in days.
+     *
+     * @return The average resolution time.
+     */
+    double getAverageResolutionTime();
+}
@@ -6,13 +6,11 @@ import main.model.ticket.FeatureRequest;
 import main.model.ticket.Ticket;
 import main.model.ticket.UIFeedback;
 
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-
 /**
  * Visitor implementation to collect performance statistics from tickets.
  */
-public final class PerformanceStatsVisitor implements Visitor {
+public final class PerformanceStatsVisitor
+        implements MergeableVisitor<PerformanceStatsVisitor>, PerformanceStats {
 
     private int bugCount = 0;
     private int featureCount = 0;
@@ -23,6 +21,21 @@ public final class PerformanceStatsVisitor implements Visitor {
     private int closedTicketsCount = 0;
     private long totalResolutionDays = 0;
 
+    @Override
+    public PerformanceStatsVisitor create() {
+        return new PerformanceStatsVisitor();
+    }
+
+    @Override
+    public void combine(final PerformanceStatsVisitor other) {
+        bugCount += other.bugCount;
+        featureCount += other.featureCount;
+        uiCount += other.uiCount;
+        highPriorityCount += other.highPriorityCount;
+        closedTicketsCount += other.closedTicketsCount;
+        totalResolutionDays += other.totalResolutionDays;
+    }
+
     // VISIT METHODS Implementation
 
     @Override
@@ -52,89 +65,38 @@ public final class PerformanceStatsVisitor implements Visitor {
             highPriorityCount++;
         }
 
-        // 2. Resolution days calculation
-        if (t.getAssignedAt() == null || t.getAssignedAt().isEmpty()) {
-            return;
-        }
-
-        LocalDate start = LocalDate.parse(t.getAssignedAt());
-        String solvedDateStr = t.getSolvedAt(); // Default to current solvedAt
-
-        if (t.getHistory() != null) {
-            for (Ticket.HistoryEntry entry : t.getHistory()) {
-                System.out.println("History Entry Action: " + entry.getAction() +
-                        ", From: " + entry.getFrom() + ", To: " + entry.getTo() +
-                        ", Timestamp: " + entry.getTimestamp());
-                if (entry.getTo() != null && "CLOSED".equalsIgnoreCase(entry.getTo())) {
-                    LocalDate entryDate = LocalDate.parse(entry.getTimestamp());
-
-                    if (!entryDate.isBefore(start)) {
-                        solvedDateStr = entry.getTimestamp();
-                    }
-                }
-            }
-        }
-
-        if (solvedDateStr != null && !solvedDateStr.isEmpty()) {
-            LocalDate end = LocalDate.parse(solvedDateStr);
-            // Formula: assignedAt - solvedAt + 1 (inclusive)
-            long days = Math.abs(ChronoUnit.DAYS.between(start, end)) + 1;
-            totalResolutionDays += days;
-        }
+        // 2. Resolution days (assignedAt -> close, inclusive), recorded on close
+        totalResolutionDays += t.getDaysToResolve();
     }
 
     // --- GETTERS ---
 
-    /**
-     * Gets the count of bug tickets visited.
-     *
-     * @return The number of bug tickets.
-     */
+    @Override
     public int getBugCount() {
         return bugCount;
     }
 
-    /**
-     * Gets the count of feature request tickets visited.
-     *
-     * @return The number of feature request tickets.
-     */
+    @Override
     public int getFeatureCount() {
         return featureCount;
     }
 
-    /**
-     * Gets the count of UI feedback tickets visited.
-     *
-     * @return The number of UI feedback tickets.
-     */
+    @Override
     public int getUiCount() {
         return uiCount;
     }
 
-    /**
-     * Gets the count of tickets with HIGH or CRITICAL priority.
-     *
-     * @return The high priority ticket count.
-     */
+    @Override
     public int getHighPriorityCount() {
         return highPriorityCount;
     }
 
-    /**
-     * Gets the total number of closed tickets processed.
-     *
-     * @return The closed tickets count.
-     */
+    @Override
     public int getClosedTicketsCount() {
         return closedTicketsCount;
     }
 
-    /**
-     * Calculates the average resolution time in days.
-     *
-     * @return The average resolution time.
-     */
+    @Override
     public double getAverageResolutionTime() {
         if (closedTicketsCount == 0) {
             return 0.0;
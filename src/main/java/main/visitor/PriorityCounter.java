@@ -0,0 +1,68 @@
+package main.visitor;
+
+import main.database.TicketColumns;
+import main.model.Priority;
+import main.model.ticket.Ticket;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts tickets by their effective priority.
+ */
+public final class PriorityCounter implements TicketAccumulator, Mergeable<PriorityCounter> {
+    private final Map<Priority, Integer> countByPriority = new EnumMap<>(Priority.class);
+
+    @Override
+    public void accumulate(final Ticket ticket) {
+        if (ticket.getPriority() != null) {
+            countByPriority.merge(ticket.getPriority(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Counts the rows of a columnar snapshot by priority, split across cores for
+     * large tables.
+     *
+     * @param columns    The ticket columns.
+     * @param statusMask The statuses to include (see {@link TicketColumns#statusMask}).
+     */
+    public void accumulateColumns(final TicketColumns columns, final int statusMask) {
+        byte[] statuses = columns.statuses();
+        byte[] priorities = columns.priorities();
+        ParallelVisitorDriver.runRows(this, columns.size(), (partial, from, to) -> {
+            int[] counts = new int[Priority.values().length];
+            for (int row = from; row < to; row++) {
+                if ((statusMask & (1 << statuses[row])) != 0
+                        && priorities[row] != TicketColumns.NONE) {
+                    counts[priorities[row]]++;
+                }
+            }
+            for (Priority p : Priority.values()) {
+                if (counts[p.ordinal()] > 0) {
+                    partial.countByPriority.merge(p, counts[p.ordinal()], Integer::sum);
+                }
+            }
+        });
+    }
+
+    @Override
+    public PriorityCounter create() {
+        return new PriorityCounter();
+    }
+
+    @Override
+    public void combine(final PriorityCounter other) {
+        other.countByPriority.forEach((p, n) -> countByPriority.merge(p, n, Integer::sum));
+    }
+
+    /**
+     * Gets the number of tickets with a priority.
+     *
+     * @param priority The priority.
+     * @return The count.
+     */
+    public int getCount(final Priority priority) {
+        return countByPriority.getOrDefault(priority, 0);
+    }
+}
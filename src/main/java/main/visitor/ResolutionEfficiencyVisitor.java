@@ -1,23 +1,17 @@
 package main.visitor;
 
+import main.database.TicketColumns;
 import main.model.ticket.Bug;
 import main.model.ticket.FeatureRequest;
 import main.model.ticket.Ticket;
 import main.model.ticket.UIFeedback;
-import main.model.ticket.enums.BusinessValue;
-import main.model.ticket.enums.CustomerDemand;
-import main.model.ticket.enums.Frequency;
-import main.model.ticket.enums.Severity;
-
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
-import java.util.Map;
+import main.model.ticket.enums.TicketType;
 
 /**
  * Visitor implementation to calculate Resolution Efficiency metrics.
  */
-public final class ResolutionEfficiencyVisitor implements Visitor {
+public final class ResolutionEfficiencyVisitor
+        implements MergeableVisitor<ResolutionEfficiencyVisitor> {
 
     private static final double BUG_SCORE_MULTIPLIER = 10.0;
     private static final double PERCENTAGE_MULTIPLIER = 100.0;
@@ -27,75 +21,98 @@ public final class ResolutionEfficiencyVisitor implements Visitor {
     private static final double FEATURE_MAX_SCORE = 20.0;
     private static final double UI_MAX_SCORE = 20.0;
 
-    private final Map<String, Double> totalEfficiency = new HashMap<>();
-    private final Map<String, Integer> countByType = new HashMap<>();
+    private final TypeAccumulator efficiencyByType = new TypeAccumulator();
 
-    /**
-     * Constructor for ResolutionEfficiencyVisitor.
-     */
-    public ResolutionEfficiencyVisitor() {
-        totalEfficiency.put("BUG", 0.0);
-        totalEfficiency.put("FEATURE_REQUEST", 0.0);
-        totalEfficiency.put("UI_FEEDBACK", 0.0);
-
-        countByType.put("BUG", 0);
-        countByType.put("FEATURE_REQUEST", 0);
-        countByType.put("UI_FEEDBACK", 0);
+    @Override
+    public ResolutionEfficiencyVisitor create() {
+        return new ResolutionEfficiencyVisitor();
     }
 
-    // Helper for calculating days
-    private long getDaysToResolve(final Ticket t) {
-        if (t.getAssignedAt() == null || t.getSolvedAt() == null) {
-            return 1; // Default safe
-        }
-        LocalDate start = LocalDate.parse(t.getAssignedAt());
-        LocalDate end = LocalDate.parse(t.getSolvedAt());
+    @Override
+    public void combine(final ResolutionEfficiencyVisitor other) {
+        efficiencyByType.merge(other.efficiencyByType);
+    }
 
-        return ChronoUnit.DAYS.between(start, end) + 1;
+    // Resolution time recorded when the ticket was solved
+    private long getDaysToResolve(final Ticket t) {
+        int days = t.getDaysToResolve();
+        return days != 0 ? days : 1; // Default safe
     }
 
     // BUG
     @Override
     public void visit(final Bug bug) {
         long days = getDaysToResolve(bug);
-        int freq = Frequency.valueOf(bug.getFrequency().toUpperCase()).getValue();
-        int sev = Severity.valueOf(bug.getSeverity().toUpperCase()).getValue();
+        int freq = bug.getFrequencyValue();
+        int sev = bug.getSeverityValue();
 
         double score = (double) (freq + sev) * BUG_SCORE_MULTIPLIER / days;
         double finalEff = (score * PERCENTAGE_MULTIPLIER) / BUG_MAX_SCORE;
 
-        accumulate("BUG", finalEff);
+        efficiencyByType.add(TicketType.BUG, finalEff);
     }
 
     // FEATURE REQUEST
     @Override
     public void visit(final FeatureRequest fr) {
         long days = getDaysToResolve(fr);
-        int bv = BusinessValue.valueOf(fr.getBusinessValue().toUpperCase()).getValue();
-        int demand = CustomerDemand.valueOf(fr.getCustomerDemand().toUpperCase()).getValue();
+        int bv = fr.getBusinessValueValue();
+        int demand = fr.getCustomerDemandValue();
 
         double score = (double) (bv + demand) / days;
         double finalEff = (score * PERCENTAGE_MULTIPLIER) / FEATURE_MAX_SCORE;
 
-        accumulate("FEATURE_REQUEST", finalEff);
+        efficiencyByType.add(TicketType.FEATURE_REQUEST, finalEff);
     }
 
     // UI FEEDBACK
     @Override
     public void visit(final UIFeedback ui) {
         long days = getDaysToResolve(ui);
-        int bv = BusinessValue.valueOf(ui.getBusinessValue().toUpperCase()).getValue();
+        int bv = ui.getBusinessValueValue();
         int usability = ui.getUsabilityScore();
 
         double score = (double) (usability + bv) / days;
         double finalEff = (score * PERCENTAGE_MULTIPLIER) / UI_MAX_SCORE;
 
-        accumulate("UI_FEEDBACK", finalEff);
+        efficiencyByType.add(TicketType.UI_FEEDBACK, finalEff);
     }
 
-    private void accumulate(final String type, final double value) {
-        totalEfficiency.put(type, totalEfficiency.get(type) + value);
-        countByType.put(type, countByType.get(type) + 1);
+    /**
+     * Accumulates the rows of a columnar snapshot in tight loops, split across
+     * cores for large tables, with the same per-ticket math as the visit methods.
+     *
+     * @param columns    The ticket columns.
+     * @param statusMask The statuses to include (see {@link TicketColumns#statusMask}).
+     */
+    public void visitColumns(final TicketColumns columns, final int statusMask) {
+        byte[] types = columns.types();
+        byte[] statuses = columns.statuses();
+        int[] daysToResolve = columns.daysToResolve();
+        byte[] severity = columns.severities();
+        byte[] frequency = columns.frequencies();
+        byte[] businessValue = columns.businessValues();
+        byte[] demand = columns.customerDemands();
+        byte[] usability = columns.usabilityScores();
+        TicketType[] typeOf = TicketType.all();
+        ParallelVisitorDriver.runRows(this, columns.size(), (partial, from, to) -> {
+            for (int row = from; row < to; row++) {
+                if ((statusMask & (1 << statuses[row])) == 0) {
+                    continue;
+                }
+                long days = daysToResolve[row] != 0 ? daysToResolve[row] : 1;
+                TicketType type = typeOf[types[row]];
+                double finalEff = switch (type) {
+                    case BUG -> ((double) (frequency[row] + severity[row]) * BUG_SCORE_MULTIPLIER
+                            / days * PERCENTAGE_MULTIPLIER) / BUG_MAX_SCORE;
+                    case FEATURE_REQUEST -> ((double) (businessValue[row] + demand[row]) / days
+                            * PERCENTAGE_MULTIPLIER) / FEATURE_MAX_SCORE;
+                    case UI_FEEDBACK -> ((double) (usability[row] + businessValue[row]) / days
+                            * PERCENTAGE_MULTIPLIER) / UI_MAX_SCORE;
+                };
+                partial.efficiencyByType.add(type, finalEff);
+            }
+        });
     }
 
     /**
@@ -105,12 +122,7 @@ public final class ResolutionEfficiencyVisitor implements Visitor {
      * @return The average efficiency score.
      */
     public double getAverageEfficiency(final String type) {
-        int count = countByType.getOrDefault(type, 0);
-        if (count == 0) {
-            return 0.0;
-        }
-
-        double avg = totalEfficiency.get(type) / count;
+        double avg = efficiencyByType.getAverage(TicketType.valueOf(type));
         // Round to 2 decimal places (example: 35.714 -> 35.71)
         return Math.round(avg * ROUNDING_FACTOR) / ROUNDING_FACTOR;
     }
@@ -122,6 +134,6 @@ public final class ResolutionEfficiencyVisitor implements Visitor {
      * @return The count of tickets.
      */
     public int getCount(final String type) {
-        return countByType.getOrDefault(type, 0);
+        return efficiencyByType.getCount(TicketType.valueOf(type));
     }
 }
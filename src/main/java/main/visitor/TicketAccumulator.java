@@ -0,0 +1,17 @@
+package main.visitor;
+
+import main.model.ticket.Ticket;
+
+/**
+ * Per-ticket accumulator run next to the visitors of a {@link CompositeVisitor},
+ * for statistics that do not depend on the ticket type.
+ */
+@FunctionalInterface
+public interface TicketAccumulator {
+    /**
+     * Accumulates one ticket.
+     *
+     * @param ticket The ticket.
+     */
+    void accumulate(Ticket ticket);
+}
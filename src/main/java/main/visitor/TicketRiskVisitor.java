@@ -1,16 +1,15 @@
 package main.visitor;
 
+import main.database.TicketColumns;
 import main.model.ticket.Bug;
 import main.model.ticket.FeatureRequest;
 import main.model.ticket.UIFeedback;
-
-import java.util.HashMap;
-import java.util.Map;
+import main.model.ticket.enums.TicketType;
 
 /**
  * Visitor implementation to calculate Ticket Risk metrics.
  */
-public final class TicketRiskVisitor implements Visitor {
+public final class TicketRiskVisitor implements MergeableVisitor<TicketRiskVisitor> {
     private static final double PERCENTAGE_MULTIPLIER = 100.0;
     private static final double BUG_MAX_SCORE = 12.0;
     private static final double FEATURE_MAX_SCORE = 20.0;
@@ -21,87 +20,137 @@ public final class TicketRiskVisitor implements Visitor {
     private static final double MODERATE_RISK_THRESHOLD = 50.0;
     private static final double SIGNIFICANT_RISK_THRESHOLD = 75.0;
 
-    // Constants for Values
-    private static final int VAL_1 = 1;
-    private static final int VAL_2 = 2;
-    private static final int VAL_3 = 3;
-    private static final int VAL_4 = 4;
-    private static final int VAL_6 = 6;
-    private static final int VAL_10 = 10;
-
     // Store sum of risks and count of tickets for average
-    private final Map<String, Double> totalRiskByType = new HashMap<>();
-    private final Map<String, Integer> countByType = new HashMap<>();
+    private final TypeAccumulator riskByType = new TypeAccumulator();
 
-    /**
-     * Constructor for TicketRiskVisitor.
-     */
-    public TicketRiskVisitor() {
-        totalRiskByType.put("BUG", 0.0);
-        totalRiskByType.put("FEATURE_REQUEST", 0.0);
-        totalRiskByType.put("UI_FEEDBACK", 0.0);
+    @Override
+    public TicketRiskVisitor create() {
+        return new TicketRiskVisitor();
+    }
 
-        countByType.put("BUG", 0);
-        countByType.put("FEATURE_REQUEST", 0);
-        countByType.put("UI_FEEDBACK", 0);
+    @Override
+    public void combine(final TicketRiskVisitor other) {
+        riskByType.merge(other.riskByType);
     }
 
     // BUG
     @Override
     public void visit(final Bug bug) {
-        // Use helper methods or enums if available
-        int frequency = getFrequencyValue(bug.getFrequency());
-        int severity = getSeverityValue(bug.getSeverity());
-
-        double rawRisk = frequency * severity;
-        double finalRisk = (rawRisk * PERCENTAGE_MULTIPLIER) / BUG_MAX_SCORE;
-
-        accumulate("BUG", finalRisk);
+        riskByType.add(TicketType.BUG, bugRisk(bugRiskPoints(bug)));
     }
 
     // FEATURE REQUEST
     @Override
     public void visit(final FeatureRequest fr) {
-        int businessValue = getBusinessValue(fr.getBusinessValue());
-        int demand = getCustomerDemandValue(fr.getCustomerDemand());
-
-        double rawRisk = businessValue + demand;
-        double finalRisk = (rawRisk * PERCENTAGE_MULTIPLIER) / FEATURE_MAX_SCORE;
-
-        accumulate("FEATURE_REQUEST", finalRisk);
+        riskByType.add(TicketType.FEATURE_REQUEST, featureRisk(featureRiskPoints(fr)));
     }
 
     // UI FEEDBACK
     @Override
     public void visit(final UIFeedback ui) {
-        int businessValue = getBusinessValue(ui.getBusinessValue());
-        int usability = ui.getUsabilityScore();
+        riskByType.add(TicketType.UI_FEEDBACK, uiRisk(uiRiskPoints(ui)));
+    }
+
+    /**
+     * Accumulates the rows of a columnar snapshot in one tight loop,
+     * with the same per-ticket math as the visit methods.
+     *
+     * @param columns    The ticket columns.
+     * @param statusMask The statuses to include (see {@link TicketColumns#statusMask}).
+     */
+    public void visitColumns(final TicketColumns columns, final int statusMask) {
+        byte[] types = columns.types();
+        byte[] statuses = columns.statuses();
+        byte[] severity = columns.severities();
+        byte[] frequency = columns.frequencies();
+        byte[] businessValue = columns.businessValues();
+        byte[] demand = columns.customerDemands();
+        byte[] usability = columns.usabilityScores();
+        TicketType[] typeOf = TicketType.all();
+        for (int row = 0, n = columns.size(); row < n; row++) {
+            if ((statusMask & (1 << statuses[row])) == 0) {
+                continue;
+            }
+            TicketType type = typeOf[types[row]];
+            double risk = switch (type) {
+                case BUG -> bugRisk(frequency[row] * severity[row]);
+                case FEATURE_REQUEST -> featureRisk(businessValue[row] + demand[row]);
+                case UI_FEEDBACK -> uiRisk((UI_BASE_FACTOR - usability[row]) * businessValue[row]);
+            };
+            riskByType.add(type, risk);
+        }
+    }
 
-        double rawRisk = (UI_BASE_FACTOR - usability) * businessValue;
-        double finalRisk = (rawRisk * PERCENTAGE_MULTIPLIER) / UI_MAX_SCORE;
+    // SCORING FUNCTIONS (shared with the running aggregate)
+    // Raw points are integers, so sums of them stay exact; scaling happens once.
 
-        accumulate("UI_FEEDBACK", finalRisk);
+    /**
+     * Raw bug risk: frequency * severity.
+     *
+     * @param bug The bug.
+     * @return The raw risk points.
+     */
+    public static int bugRiskPoints(final Bug bug) {
+        return bug.getFrequencyValue() * bug.getSeverityValue();
     }
 
-    private void accumulate(final String type, final double risk) {
-        totalRiskByType.put(type, totalRiskByType.get(type) + risk);
-        countByType.put(type, countByType.get(type) + 1);
+    /**
+     * Raw feature request risk: businessValue + customerDemand.
+     *
+     * @param fr The feature request.
+     * @return The raw risk points.
+     */
+    public static int featureRiskPoints(final FeatureRequest fr) {
+        return fr.getBusinessValueValue() + fr.getCustomerDemandValue();
     }
 
     /**
-     * Calculates the average risk and returns a qualitative descriptor.
+     * Raw UI feedback risk: (11 - usabilityScore) * businessValue.
      *
-     * @param type The type of the ticket.
-     * @return The risk qualifier string (e.g., "NEGLIGIBLE", "MAJOR").
+     * @param ui The UI feedback.
+     * @return The raw risk points.
      */
-    public String getRiskQualifier(final String type) {
-        int count = countByType.getOrDefault(type, 0);
-        if (count == 0) {
-            return "NEGLIGIBLE"; // 0 risk is Negligible
-        }
+    public static int uiRiskPoints(final UIFeedback ui) {
+        return (UI_BASE_FACTOR - ui.getUsabilityScore()) * ui.getBusinessValueValue();
+    }
+
+    /**
+     * Scales raw bug risk points to a percentage.
+     *
+     * @param points The raw points (a single bug or a sum).
+     * @return The risk: (points * 100) / 12.
+     */
+    public static double bugRisk(final long points) {
+        return (points * PERCENTAGE_MULTIPLIER) / BUG_MAX_SCORE;
+    }
 
-        double avgRisk = totalRiskByType.get(type) / count;
+    /**
+     * Scales raw feature request risk points to a percentage.
+     *
+     * @param points The raw points (a single ticket or a sum).
+     * @return The risk: (points * 100) / 20.
+     */
+    public static double featureRisk(final long points) {
+        return (points * PERCENTAGE_MULTIPLIER) / FEATURE_MAX_SCORE;
+    }
+
+    /**
+     * Scales raw UI feedback risk points to a percentage.
+     *
+     * @param points The raw points (a single ticket or a sum).
+     * @return The risk: (points * 100) / 100.
+     */
+    public static double uiRisk(final long points) {
+        return (points * PERCENTAGE_MULTIPLIER) / UI_MAX_SCORE;
+    }
 
+    /**
+     * Maps an average risk to its qualitative descriptor.
+     *
+     * @param avgRisk The average risk.
+     * @return The risk qualifier string (e.g., "NEGLIGIBLE", "MAJOR").
+     */
+    public static String riskQualifier(final double avgRisk) {
         if (avgRisk < LOW_RISK_THRESHOLD) {
             return "NEGLIGIBLE";
         }
@@ -115,65 +164,32 @@ public final class TicketRiskVisitor implements Visitor {
     }
 
     /**
-     * Gets the count of tickets for a given type.
+     * Calculates the average risk for a given ticket type.
      *
      * @param type The type of the ticket.
-     * @return The count of tickets.
+     * @return The average risk, 0 if there are no tickets of that type.
      */
-    public int getCount(final String type) {
-        return countByType.getOrDefault(type, 0);
+    public double getAverageRisk(final String type) {
+        return riskByType.getAverage(TicketType.valueOf(type));
     }
 
-    // HELPER METHODS FOR VALUES
-
-    private int getSeverityValue(final String s) {
-        if (s == null) {
-            return 1;
-        }
-        return switch (s.toUpperCase()) {
-            case "MINOR" -> VAL_1;
-            case "MODERATE" -> VAL_2;
-            case "SEVERE" -> VAL_3;
-            default -> 1;
-        };
+    /**
+     * Calculates the average risk and returns a qualitative descriptor.
+     *
+     * @param type The type of the ticket.
+     * @return The risk qualifier string (e.g., "NEGLIGIBLE", "MAJOR").
+     */
+    public String getRiskQualifier(final String type) {
+        return riskQualifier(getAverageRisk(type));
     }
 
-    private int getFrequencyValue(final String f) {
-        if (f == null) {
-            return 1;
-        }
-        return switch (f.toUpperCase()) {
-            case "RARE" -> VAL_1;
-            case "OCCASIONAL" -> VAL_2;
-            case "FREQUENT" -> VAL_3;
-            case "ALWAYS" -> VAL_4;
-            default -> 1;
-        };
-    }
-
-    private int getBusinessValue(final String bv) {
-        if (bv == null) {
-            return 1;
-        }
-        return switch (bv.toUpperCase()) {
-            case "S" -> VAL_1;
-            case "M" -> VAL_3;
-            case "L" -> VAL_6;
-            case "XL" -> VAL_10;
-            default -> 1;
-        };
-    }
-
-    private int getCustomerDemandValue(final String cd) {
-        if (cd == null) {
-            return 1;
-        }
-        return switch (cd.toUpperCase()) {
-            case "LOW" -> VAL_1;
-            case "MEDIUM" -> VAL_3;
-            case "HIGH" -> VAL_6;
-            case "VERY_HIGH" -> VAL_10;
-            default -> 1;
-        };
+    /**
+     * Gets the count of tickets for a given type.
+     *
+     * @param type The type of the ticket.
+     * @return The count of tickets.
+     */
+    public int getCount(final String type) {
+        return riskByType.getCount(TicketType.valueOf(type));
     }
 }
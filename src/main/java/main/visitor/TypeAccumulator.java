@@ -0,0 +1,66 @@
+package main.visitor;
+
+import main.model.ticket.enums.TicketType;
+
+/**
+ * Per-ticket-type running totals and counts kept in primitive arrays
+ * indexed by {@link TicketType}, so accumulating a ticket allocates nothing.
+ */
+public final class TypeAccumulator {
+    private final double[] totals = new double[TicketType.COUNT];
+    private final int[] counts = new int[TicketType.COUNT];
+
+    /**
+     * Adds one ticket's value to the totals of its type.
+     *
+     * @param type  The ticket type.
+     * @param value The value to add.
+     */
+    public void add(final TicketType type, final double value) {
+        totals[type.ordinal()] += value;
+        counts[type.ordinal()]++;
+    }
+
+    /**
+     * Adds the totals and counts of another accumulator to this one.
+     *
+     * @param other The accumulator to merge.
+     */
+    public void merge(final TypeAccumulator other) {
+        for (int i = 0; i < TicketType.COUNT; i++) {
+            totals[i] += other.totals[i];
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * Gets the summed value of a type.
+     *
+     * @param type The ticket type.
+     * @return The total.
+     */
+    public double getTotal(final TicketType type) {
+        return totals[type.ordinal()];
+    }
+
+    /**
+     * Gets the number of tickets accumulated for a type.
+     *
+     * @param type The ticket type.
+     * @return The count.
+     */
+    public int getCount(final TicketType type) {
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * Gets the average value of a type.
+     *
+     * @param type The ticket type.
+     * @return The average, 0 if no ticket of that type was accumulated.
+     */
+    public double getAverage(final TicketType type) {
+        int count = counts[type.ordinal()];
+        return count == 0 ? 0.0 : totals[type.ordinal()] / count;
+    }
+}
@@ -0,0 +1,75 @@
+import main.database.AggregateConsistencyChecker;
+import main.database.Database;
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the running report aggregates against a full visitor pass
+ * after every test input, and after moving tickets in and out of the active set.
+ */
+public class AggregateConsistencyTest {
+
+    @ParameterizedTest(name = "Aggregates after {0}")
+    @MethodSource("TestDatabases#inputs")
+    public void aggregatesMatchVisitors(final String inputPath, @TempDir final Path out)
+            throws IOException {
+        Database db = TestDatabases.run(inputPath, out);
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+
+        List<Integer> ids = new ArrayList<>();
+        List<String> statuses = new ArrayList<>();
+        for (Ticket t : db.getTickets()) {
+            ids.add(t.getId());
+            statuses.add(t.getStatus());
+        }
+
+        // Force priorities on the active tickets, then clear them again
+        for (int id : ids) {
+            TestDatabases.forcePriority(db.getTicketForUpdate(id), Priority.CRITICAL);
+        }
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+        for (int id : ids) {
+            TestDatabases.forcePriority(db.getTicketForUpdate(id), null);
+        }
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+
+        // Close every ticket, reopen them, then restore the original statuses
+        for (int id : ids) {
+            changeStatus(db, id, "CLOSED");
+        }
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+        assertThat(db.getTicketRisk().getTotal()).isZero();
+        assertThat(db.getCustomerImpact().getTotal()).isZero();
+
+        for (int id : ids) {
+            changeStatus(db, id, "IN_PROGRESS");
+        }
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+        assertThat(db.getTicketRisk().getTotal()).isEqualTo(ids.size());
+
+        for (int i = 0; i < ids.size(); i++) {
+            changeStatus(db, ids.get(i), statuses.get(i));
+        }
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+    }
+
+    // Moves a ticket straight to a status through its event stream
+    private static void changeStatus(final Database db, final int id, final String to) {
+        Ticket t = db.getTicketForUpdate(id);
+        if (!to.equals(t.getStatus())) {
+            t.apply(new TicketEvent.StatusChanged(TestDatabases.DEVELOPER, "2025-01-06",
+                    t.getStatus(), to));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import main.database.AssignmentEligibility;
+import main.database.Database;
+import main.model.Milestone;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import main.model.user.Developer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NavigableSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the cached eligibility matrix follows assignments, priority changes
+ * and milestones blocking each other, and always matches a fresh computation.
+ */
+public class AssignmentEligibilityTest {
+    private static final String SENIOR = "giulio_main_backend";
+    private static final String JUNIOR = "emilia_backend";
+
+    private Database db;
+    private AssignmentEligibility eligibility;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        db = TestDatabases.withUsers();
+        for (int id = 0; id < 3; id++) {
+            Bug bug = new Bug(id, "BUG", "Ticket " + id, "Eligibility fixture", Priority.LOW,
+                    "OPEN", TestDatabases.REPORTER, "2025-01-01");
+            bug.setExpertiseArea("BACKEND");
+            db.addTicket(bug);
+        }
+        eligibility = db.getAssignmentEligibility();
+    }
+
+    @Test
+    public void assignmentsAndPrioritiesUpdateTheCache() {
+        addMilestone("M1", List.of(), List.of(0, 1, 2));
+        assertThat(assignable(SENIOR)).containsExactly(0, 1, 2);
+        assertThat(assignable(JUNIOR)).containsExactly(0, 1, 2);
+
+        // An assigned ticket is no longer open, for anyone
+        db.getTicketForUpdate(0).apply(new TicketEvent.Assigned(SENIOR, "2025-01-02"));
+        assertThat(assignable(SENIOR)).containsExactly(1, 2);
+        assertThat(assignable(JUNIOR)).containsExactly(1, 2);
+
+        // A junior cannot take a CRITICAL ticket
+        TestDatabases.forcePriority(db.getTicketForUpdate(1), Priority.CRITICAL);
+        assertThat(assignable(SENIOR)).containsExactly(1, 2);
+        assertThat(assignable(JUNIOR)).containsExactly(2);
+
+        db.getTicketForUpdate(0).apply(new TicketEvent.Deassigned(SENIOR, "2025-01-03"));
+        assertThat(assignable(SENIOR)).containsExactly(0, 1, 2);
+        assertThat(assignable(JUNIOR)).containsExactly(0, 2);
+    }
+
+    @Test
+    public void closingTheBlockerUnblocksTheMilestone() {
+        Milestone blocker = addMilestone("M0", List.of("M1"), List.of(2));
+        Milestone blocked = addMilestone("M1", List.of(), List.of(0, 1));
+        assertThat(eligibility.isMilestoneBlocked(blocked)).isTrue();
+        assertThat(eligibility.isMilestoneBlocked(blocker)).isFalse();
+        assertThat(assignable(SENIOR)).containsExactly(2); // Only the blocker's ticket
+
+        Ticket t = db.getTicketForUpdate(2);
+        t.apply(new TicketEvent.Assigned(SENIOR, "2025-01-02"));
+        t.apply(new TicketEvent.StatusChanged(SENIOR, "2025-01-03", "IN_PROGRESS", "RESOLVED"));
+        assertThat(eligibility.isMilestoneBlocked(blocked)).isTrue();
+
+        db.getTicketForUpdate(2).apply(new TicketEvent.StatusChanged(SENIOR, "2025-01-04",
+                "RESOLVED", "CLOSED"));
+        assertThat(eligibility.isMilestoneBlocked(blocked)).isFalse();
+        assertThat(assignable(SENIOR)).containsExactly(0, 1);
+
+        // Reopening the blocker blocks the milestone again
+        db.getTicketForUpdate(2).apply(new TicketEvent.StatusChanged(SENIOR, "2025-01-05",
+                "CLOSED", "RESOLVED"));
+        assertThat(eligibility.isMilestoneBlocked(blocked)).isTrue();
+        assertThat(assignable(SENIOR)).isEmpty();
+    }
+
+    @Test
+    public void aNewMilestoneDropsTheCache() {
+        addMilestone("M1", List.of(), List.of(0));
+        assertThat(assignable(SENIOR)).containsExactly(0);
+
+        Milestone blocker = addMilestone("M0", List.of("M1"), List.of(1));
+        assertThat(eligibility.isMilestoneBlocked(blocker)).isFalse();
+        assertThat(assignable(SENIOR)).containsExactly(1);
+    }
+
+    private Milestone addMilestone(final String name, final List<String> blockingFor,
+                                   final List<Integer> ticketIds) {
+        Milestone m = new Milestone(name, TestDatabases.MANAGER, LocalDate.parse("2025-01-01"),
+                LocalDate.parse("2025-02-01"), blockingFor, ticketIds, List.of(SENIOR, JUNIOR));
+        db.addMilestone(m);
+        return m;
+    }
+
+    // The cached set, after checking it against the one a fork computes from scratch
+    private NavigableSet<Integer> assignable(final String username) {
+        NavigableSet<Integer> cached = eligibility.getAssignableTickets(developer(db, username));
+        Database fork = db.fork();
+        assertThat(fork.getAssignmentEligibility()
+                .getAssignableTickets(developer(fork, username))).isEqualTo(cached);
+        fork.discard();
+        return cached;
+    }
+
+    private static Developer developer(final Database db, final String username) {
+        return db.findUserByUsername(username).isDeveloper().orElseThrow();
+    }
+}
@@ -0,0 +1,104 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.Checkpointer;
+import main.database.Database;
+import main.database.WriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that checkpoints truncate the write-ahead log segments they cover, and
+ * never what comes after them.
+ */
+public class CheckpointerTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+    private static final long FINGERPRINT = 7;
+    private static final int SEGMENT_BYTES = 256; // A few records each
+    private static final int EVERY = 10;
+    private static final long OFFSET = 64; // Input bytes per command
+
+    @Test
+    public void checkpointsTruncateTheLogTheyCover(@TempDir final Path dir) throws IOException {
+        int commands = 100;
+        logAndCheckpoint(dir, commands);
+
+        try (WriteAheadLog wal = open(dir)) {
+            List<Long> sequences = sequences(wal);
+            assertThat(sequences.get(0)).isGreaterThan(commands - 2L * EVERY);
+            assertThat(sequences).isEqualTo(LongStream.range(sequences.get(0), commands)
+                    .boxed().toList());
+        }
+        // The last command was checkpointed: only the segment being written is left
+        assertThat(segments(dir)).hasSize(1);
+    }
+
+    @Test
+    public void theTailAfterTheLatestCheckpointSurvives(@TempDir final Path dir)
+            throws IOException {
+        int commands = 55; // The latest checkpoint covers 0..49
+        logAndCheckpoint(dir, commands);
+
+        try (WriteAheadLog wal = open(dir)) {
+            Checkpointer checkpointer = new Checkpointer(dir, FINGERPRINT, wal, EVERY);
+            Path latest = checkpointer.latest();
+            assertThat(Checkpointer.sequenceOf(latest)).isEqualTo(49);
+            assertThat(sequences(wal)).contains(50L, 51L, 52L, 53L, 54L)
+                    .doesNotContain(0L);
+
+            // The outputs journaled up to the snapshot come back, in order
+            Database db = TestDatabases.withUsers();
+            Checkpointer.Restored restored = checkpointer.restore(db);
+            assertThat(restored.sequence()).isEqualTo(49);
+            assertThat(restored.inputOffset()).isEqualTo(OFFSET * 50);
+            assertThat(restored.outputs()).hasSize(50);
+            assertThat(restored.outputs().get(49).get("sequence").asInt()).isEqualTo(49);
+            assertThat(db.getTickets()).hasSize(3);
+            checkpointer.close();
+        }
+    }
+
+    // Logs the commands with one output each, checkpointing every EVERY of them
+    private static void logAndCheckpoint(final Path dir, final int commands)
+            throws IOException {
+        Database db = TestDatabases.handBuilt();
+        JsonNode tree = MAPPER.readTree("{\"command\":\"addComment\",\"ticketID\":0,"
+                + "\"comment\":\"Checkpoint fixture\"}");
+        List<ObjectNode> outputs = new ArrayList<>();
+        try (WriteAheadLog wal = open(dir)) {
+            Checkpointer checkpointer = new Checkpointer(dir, FINGERPRINT, wal, EVERY);
+            for (int seq = 0; seq < commands; seq++) {
+                wal.append(seq, OFFSET * seq, "addComment", tree, List.of());
+                outputs.add(MAPPER.createObjectNode().put("sequence", seq));
+                checkpointer.onCommand(db, seq, OFFSET * (seq + 1), true, outputs);
+                checkpointer.awaitPending(); // One checkpoint per EVERY commands, none skipped
+            }
+            assertThat(checkpointer.getCheckpoints()).isEqualTo(commands / EVERY);
+            checkpointer.close();
+        }
+    }
+
+    private static WriteAheadLog open(final Path dir) throws IOException {
+        return WriteAheadLog.open(dir, FINGERPRINT, SEGMENT_BYTES, 1);
+    }
+
+    private static List<Long> sequences(final WriteAheadLog wal) {
+        return wal.getRecovered().stream().map(WriteAheadLog.Record::sequence).toList();
+    }
+
+    private static List<Path> segments(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("wal-")).toList();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.database.ColdTicketStore;
+import main.database.Database;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.Ticket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that cold tickets rehydrate as they were stored, that a silent change
+ * survives eviction, and that parallel readers all get the right ticket.
+ */
+public class ColdTicketStoreTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+
+    @AfterEach
+    public void clearProperties() {
+        System.clearProperty("bugtracker.cold.afterDays");
+        System.clearProperty("bugtracker.cold.cacheSize");
+    }
+
+    @Test
+    public void coldTicketsRehydrateAsStored() throws IOException {
+        ColdTicketStore store = open(2);
+        Database db = TestDatabases.handBuilt();
+        TestDatabases.forcePriority(db.getTicketForUpdate(2), Priority.CRITICAL);
+        for (Ticket t : db.getTickets()) {
+            store.put(t.copy());
+        }
+        assertThat(store.size()).isEqualTo(3);
+
+        for (Ticket t : db.getTickets()) {
+            Ticket cold = store.get(t.getId(), null);
+            assertThat(cold).isNotSameAs(t);
+            assertThat(MAPPER.writeValueAsString(cold)).isEqualTo(MAPPER.writeValueAsString(t));
+            assertThat(cold.getEvents()).isEqualTo(t.getEvents());
+        }
+        assertThat(store.get(0, null).getComments()).hasSize(2);
+        assertThat(store.get(2, null).getPriority()).isEqualTo(Priority.CRITICAL);
+
+        store.remove(1);
+        assertThat(store.contains(1)).isFalse();
+        assertThat(store.get(1, null)).isNull();
+    }
+
+    @Test
+    public void aSilentChangeIsWrittenBackOnEviction() throws IOException {
+        ColdTicketStore store = open(1);
+        Database db = TestDatabases.handBuilt();
+        store.put(db.getTicket(0).copy());
+        store.put(db.getTicket(2).copy());
+
+        store.get(0, null).setExpertiseArea("DB"); // No event is fired for this
+        store.get(2, null); // Evicts ticket 0
+        assertThat(store.describe()).contains("1 cached");
+
+        Ticket reloaded = store.get(0, null);
+        assertThat(reloaded.getExpertiseArea()).isEqualTo("DB");
+        assertThat(reloaded.getStatus()).isEqualTo("IN_PROGRESS");
+    }
+
+    @Test
+    public void parallelReadersGetTheirOwnTicket() throws IOException {
+        ColdTicketStore store = open(8);
+        TestDatabases.withUsers();
+        int tickets = 2_000;
+        for (int id = 0; id < tickets; id++) {
+            store.put(new Bug(id, "BUG", "Cold " + id, "Cold fixture", Priority.LOW, "CLOSED",
+                    "reporter_" + id, "2025-01-01"));
+        }
+
+        long wrong = IntStream.range(0, 50 * tickets).parallel()
+                .filter(i -> {
+                    int id = Math.floorMod(i * 7919, tickets);
+                    Ticket t = store.get(id, null);
+                    return t == null || t.getId() != id
+                            || !("reporter_" + id).equals(t.getReportedBy());
+                })
+                .count();
+        assertThat(wrong).isZero();
+        assertThat(store.describe()).contains("8 cached");
+    }
+
+    private static ColdTicketStore open(final int cacheSize) {
+        System.setProperty("bugtracker.cold.afterDays", "1");
+        System.setProperty("bugtracker.cold.cacheSize", String.valueOf(cacheSize));
+        return ColdTicketStore.openFromProperties();
+    }
+}
@@ -0,0 +1,109 @@
+import main.database.Database;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.FeatureRequest;
+import main.model.ticket.Ticket;
+import main.model.ticket.UIFeedback;
+import main.model.ticket.enums.TicketType;
+import main.visitor.CompositeVisitor;
+import main.visitor.CustomerImpactVisitor;
+import main.visitor.PriorityCounter;
+import main.visitor.TicketRiskVisitor;
+import main.visitor.Visitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that one composite pass gives every visitor and accumulator what a pass
+ * of its own would, and the order in which it hands them each ticket.
+ */
+public class CompositeVisitorTest {
+    private static final Predicate<Ticket> ACTIVE = t -> "OPEN".equals(t.getStatus())
+            || "IN_PROGRESS".equals(t.getStatus());
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        db = TestDatabases.handBuilt();
+    }
+
+    @Test
+    public void oneFilteredPassFeedsEveryPart() {
+        TicketRiskVisitor risk = new TicketRiskVisitor();
+        CustomerImpactVisitor impact = new CustomerImpactVisitor();
+        PriorityCounter byPriority = new PriorityCounter();
+        int visited = new CompositeVisitor(ACTIVE)
+                .withVisitor(risk)
+                .withVisitor(impact)
+                .withAccumulator(byPriority)
+                .run(db.getTickets());
+
+        // 0 is in progress and 2 is open; 1 was resolved
+        assertThat(visited).isEqualTo(2);
+        assertThat(byPriority.getCount(Priority.HIGH)).isEqualTo(1);
+        assertThat(byPriority.getCount(Priority.LOW)).isEqualTo(1);
+        assertThat(byPriority.getCount(Priority.MEDIUM)).isZero();
+
+        TicketRiskVisitor riskAlone = new TicketRiskVisitor();
+        CustomerImpactVisitor impactAlone = new CustomerImpactVisitor();
+        for (Ticket t : db.getTickets()) {
+            if (ACTIVE.test(t)) {
+                t.accept(riskAlone);
+                t.accept(impactAlone);
+            }
+        }
+        for (TicketType type : TicketType.all()) {
+            String key = type.name();
+            assertThat(risk.getCount(key)).isEqualTo(riskAlone.getCount(key));
+            assertThat(risk.getAverageRisk(key)).isEqualTo(riskAlone.getAverageRisk(key));
+            assertThat(impact.getCount(key)).isEqualTo(impactAlone.getCount(key));
+            assertThat(impact.getAverageImpact(key))
+                    .isEqualTo(impactAlone.getAverageImpact(key));
+        }
+        assertThat(risk.getCount("BUG")).isEqualTo(1);
+        assertThat(risk.getCount("UI_FEEDBACK")).isEqualTo(1);
+    }
+
+    @Test
+    public void accumulatorsSeeEachTicketBeforeTheVisitors() {
+        List<String> calls = new ArrayList<>();
+        // A visitor that cannot be merged keeps the pass on this thread
+        Visitor recorder = new Visitor() {
+            @Override
+            public void visit(final Bug bug) {
+                calls.add("visit bug " + bug.getId());
+            }
+
+            @Override
+            public void visit(final FeatureRequest featureRequest) {
+                calls.add("visit feature " + featureRequest.getId());
+            }
+
+            @Override
+            public void visit(final UIFeedback uiFeedback) {
+                calls.add("visit ui " + uiFeedback.getId());
+            }
+        };
+        CompositeVisitor pass = new CompositeVisitor(ACTIVE)
+                .withAccumulator(t -> calls.add("first " + t.getId()))
+                .withVisitor(recorder)
+                .withAccumulator(t -> calls.add("second " + t.getId()));
+
+        assertThat(pass.run(db.getTickets())).isEqualTo(2);
+        assertThat(calls).containsExactly("first 0", "second 0", "visit bug 0",
+                "first 2", "second 2", "visit ui 2");
+
+        // Each run reports its own count
+        calls.clear();
+        assertThat(pass.run(List.of(db.getTicket(1), db.getTicket(2)))).isEqualTo(1);
+        assertThat(calls).containsExactly("first 2", "second 2", "visit ui 2");
+    }
+}
@@ -0,0 +1,148 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.AggregateConsistencyChecker;
+import main.database.Database;
+import main.database.DatabaseSnapshot;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes to forks of a hand-built database and checks the other side never sees them.
+ * The fork benchmark runs only with -Dbugtracker.benchmark=true.
+ */
+public class DatabaseForkTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+
+    @Test
+    public void forkWritesStayInTheFork() throws IOException {
+        Database db = TestDatabases.handBuilt();
+        String tickets = MAPPER.writeValueAsString(db.getTickets());
+        String users = MAPPER.writeValueAsString(db.getUsers());
+        String milestones = MAPPER.writeValueAsString(db.getMilestones());
+
+        Database fork = db.fork();
+        assertThat(MAPPER.writeValueAsString(fork.getTickets())).isEqualTo(tickets);
+
+        // A command, direct changes to shared tickets and a new ticket, all on the fork
+        ObjectNode resolve = MAPPER.createObjectNode();
+        resolve.put("command", "changeStatus");
+        resolve.put("username", TestDatabases.DEVELOPER);
+        resolve.put("ticketID", 0);
+        resolve.put("timestamp", "2025-01-08");
+        TestDatabases.execute(fork, List.of(resolve), new ArrayList<>());
+        fork.getTicketForUpdate(1).apply(new TicketEvent.CommentAdded(
+                TestDatabases.REPORTER, "2025-01-08", "Thanks"));
+        TestDatabases.forcePriority(fork.getTicketForUpdate(2), Priority.CRITICAL);
+        fork.addTicket(new Bug(3, "BUG", "What-if", "Only in the fork", Priority.LOW, "OPEN",
+                TestDatabases.REPORTER, "2025-01-08"));
+
+        assertThat(fork.getTicket(0).getStatus()).isEqualTo("RESOLVED");
+        assertThat(fork.getTicket(1).getComments()).hasSize(1);
+        assertThat(fork.getTicket(2).getPriority()).isEqualTo(Priority.CRITICAL);
+        assertThat(fork.getTickets()).hasSize(4);
+
+        assertThat(MAPPER.writeValueAsString(db.getTickets())).isEqualTo(tickets);
+        assertThat(MAPPER.writeValueAsString(db.getUsers())).isEqualTo(users);
+        assertThat(MAPPER.writeValueAsString(db.getMilestones())).isEqualTo(milestones);
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+        assertThat(AggregateConsistencyChecker.check(fork)).isEmpty();
+        fork.discard();
+    }
+
+    @Test
+    public void parentWritesStayOutOfTheFork() throws IOException {
+        Database db = TestDatabases.handBuilt();
+        Database fork = db.fork();
+        String forked = MAPPER.writeValueAsString(fork.getTickets());
+
+        Ticket changed = db.getTicketForUpdate(0);
+        changed.apply(new TicketEvent.StatusChanged(TestDatabases.DEVELOPER, "2025-01-08",
+                "IN_PROGRESS", "RESOLVED"));
+        assertThat(changed).isNotSameAs(fork.getTicket(0));
+        assertThat(MAPPER.writeValueAsString(fork.getTickets())).isEqualTo(forked);
+
+        // The fork keeps its events after the parent starts over
+        db.reset();
+        assertThat(MAPPER.writeValueAsString(fork.getTickets())).isEqualTo(forked);
+        assertThat(AggregateConsistencyChecker.check(fork)).isEmpty();
+        fork.discard();
+        assertThatThrownBy(db::discard).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "bugtracker.benchmark", matches = "true")
+    public void forkCostDoesNotGrowWithTickets(@TempDir final Path dir) throws IOException {
+        Database db = Database.getInstance();
+        Path before = dir.resolve("before.snap");
+        DatabaseSnapshot.write(db, before);
+
+        int ticketCount = Integer.getInteger("bugtracker.benchmark.forkTickets", 1_000_000);
+        long emptyHeap = usedHeap();
+        for (int i = 0; i < ticketCount; i++) {
+            db.addTicket(new Bug(db.getTickets().size(), "BUG", "Benchmark ticket",
+                    "Generated for the fork benchmark", Priority.MEDIUM, "OPEN",
+                    "theodora_reporter", "2000-01-01"));
+        }
+        long ticketHeap = usedHeap() - emptyHeap;
+
+        // A pass over the tickets, to compare the fork with
+        long scanStart = System.nanoTime();
+        long idSum = 0;
+        for (Ticket t : db.getTickets()) {
+            idSum += t.getId();
+        }
+        long scanNanos = System.nanoTime() - scanStart;
+        assertThat(idSum).isPositive();
+
+        long forkNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long forkStart = System.nanoTime();
+            db.fork();
+            forkNanos = Math.min(forkNanos, System.nanoTime() - forkStart);
+        }
+
+        long heapBefore = usedHeap();
+        Database fork = db.fork();
+        long forkHeap = Math.max(0, usedHeap() - heapBefore); // Within GC noise
+
+        // Change 1% of the tickets in the fork: it pays for those alone
+        int touched = 0;
+        for (int id = 0; id < ticketCount; id += 100) {
+            TestDatabases.forcePriority(fork.getTicketForUpdate(id), Priority.CRITICAL);
+            touched++;
+        }
+        long touchedHeap = usedHeap() - heapBefore - forkHeap;
+        assertThat(db.getTicket(0).getPriority()).isEqualTo(Priority.MEDIUM);
+        assertThat(fork.getTicket(0).getPriority()).isEqualTo(Priority.CRITICAL);
+
+        System.out.printf("fork benchmark: %d tickets (%d MB), fork %.3f ms (scan %.1f ms),"
+                        + " fork overhead %d KB, %d changed tickets %d KB%n", ticketCount,
+                ticketHeap >> 20, forkNanos / 1e6, scanNanos / 1e6, forkHeap >> 10, touched,
+                touchedHeap >> 10);
+        assertThat(forkNanos).isLessThan(scanNanos);
+        assertThat(forkHeap).isLessThan(ticketHeap / 100);
+
+        DatabaseSnapshot.restore(db, before);
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
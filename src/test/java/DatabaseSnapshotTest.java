@@ -0,0 +1,137 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.App;
+import main.database.AggregateConsistencyChecker;
+import main.database.Database;
+import main.database.DatabaseSnapshot;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round-trips a hand-built database through a binary snapshot.
+ * The restore benchmark runs only with -Dbugtracker.benchmark=true.
+ */
+public class DatabaseSnapshotTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+
+    @Test
+    public void handBuiltDatabaseRoundTrips(@TempDir final Path dir) throws IOException {
+        Database db = TestDatabases.handBuilt();
+        String tickets = MAPPER.writeValueAsString(db.getTickets());
+        String milestones = MAPPER.writeValueAsString(db.getMilestones());
+        String users = MAPPER.writeValueAsString(db.getUsers());
+
+        Path first = dir.resolve("first.snap");
+        DatabaseSnapshot.write(db, first);
+        DatabaseSnapshot.restore(db, first);
+
+        assertThat(MAPPER.writeValueAsString(db.getTickets())).isEqualTo(tickets);
+        assertThat(MAPPER.writeValueAsString(db.getMilestones())).isEqualTo(milestones);
+        assertThat(MAPPER.writeValueAsString(db.getUsers())).isEqualTo(users);
+        assertThat(db.getTicket(0).getComments()).hasSize(2);
+        assertThat(db.getTicket(1).getStatus()).isEqualTo("RESOLVED");
+        assertThat(db.findMilestoneByTicketId(1).getName()).isEqualTo("M1");
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+
+        // Everything the snapshot holds came back: a second snapshot is identical
+        Path second = dir.resolve("second.snap");
+        DatabaseSnapshot.write(db, second);
+        assertThat(Files.readAllBytes(second)).isEqualTo(Files.readAllBytes(first));
+    }
+
+    @Test
+    public void restoreReplacesLaterChanges(@TempDir final Path dir) throws IOException {
+        Database db = TestDatabases.handBuilt();
+        String tickets = MAPPER.writeValueAsString(db.getTickets());
+        Path snapshot = dir.resolve("db.snap");
+        DatabaseSnapshot.write(db, snapshot);
+
+        TestDatabases.forcePriority(db.getTicketForUpdate(2), Priority.CRITICAL);
+        db.addTicket(new Bug(3, "BUG", "Later", "Added after the snapshot", Priority.LOW,
+                "OPEN", TestDatabases.REPORTER, "2025-01-08"));
+        DatabaseSnapshot.restore(db, snapshot);
+
+        assertThat(db.getTickets()).hasSize(3);
+        assertThat(MAPPER.writeValueAsString(db.getTickets())).isEqualTo(tickets);
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "bugtracker.benchmark", matches = "true")
+    public void restoreIsFasterThanReplay(@TempDir final Path dir) throws IOException {
+        Database db = Database.getInstance();
+        Path before = dir.resolve("before.snap");
+        DatabaseSnapshot.write(db, before);
+
+        int ticketCount = Integer.getInteger("bugtracker.benchmark.tickets", 20_000);
+        Path input = dir.resolve("in_benchmark.json");
+        MAPPER.writeValue(input.toFile(), benchmarkCommands(ticketCount));
+
+        long replayStart = System.nanoTime();
+        App.run(input.toString(), dir.resolve("out.json").toString());
+        long replayNanos = System.nanoTime() - replayStart;
+        assertThat(db.getTickets()).hasSize(ticketCount);
+
+        Path snapshot = dir.resolve("benchmark.snap");
+        long writeStart = System.nanoTime();
+        long bytes = DatabaseSnapshot.write(db, snapshot);
+        long writeNanos = System.nanoTime() - writeStart;
+
+        long restoreNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long restoreStart = System.nanoTime();
+            DatabaseSnapshot.restore(db, snapshot);
+            restoreNanos = Math.min(restoreNanos, System.nanoTime() - restoreStart);
+        }
+        assertThat(db.getTickets()).hasSize(ticketCount);
+
+        System.out.printf("snapshot benchmark: %d tickets, %d bytes, replay %.1f ms,"
+                        + " write %.1f ms, restore %.1f ms%n", ticketCount, bytes,
+                replayNanos / 1e6, writeNanos / 1e6, restoreNanos / 1e6);
+        assertThat(restoreNanos).isLessThan(replayNanos);
+
+        DatabaseSnapshot.restore(db, before);
+    }
+
+    // One commented ticket per reportTicket; an early date keeps the testing phase open
+    private static ArrayNode benchmarkCommands(final int ticketCount) {
+        String[] types = {"BUG", "FEATURE_REQUEST", "UI_FEEDBACK"};
+        ArrayNode commands = MAPPER.createArrayNode();
+        for (int i = 0; i < ticketCount; i++) {
+            ObjectNode report = commands.addObject();
+            report.put("command", "reportTicket");
+            report.put("username", "theodora_reporter");
+            report.put("timestamp", "2000-01-01");
+            ObjectNode params = report.putObject("params");
+            params.put("type", types[i % types.length]);
+            params.put("title", "Benchmark ticket " + i);
+            params.put("description", "Generated for the snapshot benchmark");
+            params.put("businessPriority", "MEDIUM");
+            params.put("reportedBy", "theodora_reporter");
+            params.put("expertiseArea", "BACKEND");
+            params.put("severity", "MODERATE");
+            params.put("frequency", "OCCASIONAL");
+            params.put("businessValue", "M");
+            params.put("customerDemand", "HIGH");
+            params.put("usabilityScore", i % 10 + 1);
+
+            ObjectNode comment = commands.addObject();
+            comment.put("command", "addComment");
+            comment.put("username", "theodora_reporter");
+            comment.put("ticketID", i);
+            comment.put("comment", "Still reproducible on the latest build.");
+            comment.put("timestamp", "2000-01-01");
+        }
+        return commands;
+    }
+}
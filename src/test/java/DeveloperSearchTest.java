@@ -0,0 +1,137 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.Database;
+import main.model.user.Developer;
+import main.model.user.Manager;
+import main.model.user.enums.Expertise;
+import main.report.PerformanceReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the developer search: the indexed candidates are cut down to the
+ * manager's team, each developer is listed once, and the score range follows the
+ * scores a performance report publishes.
+ */
+public class DeveloperSearchTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+    private static final String MANAGER = TestDatabases.MANAGER;
+    private static final String OTHER_MANAGER = "cleopatra_manager";
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        db = TestDatabases.withUsers();
+    }
+
+    @Test
+    public void indexedCandidatesAreCutToTheTeam() {
+        // mia_fullstack is in the index but on nobody's team
+        assertThat(names(db.getDeveloperIndex().withExpertise(Expertise.FULLSTACK)))
+                .contains("mia_fullstack").hasSize(4);
+        assertThat(usernames(search(MANAGER, filters().put("expertiseArea", "FULLSTACK"))))
+                .containsExactly("alexandra_main_fullstack", "isabella_fullstack",
+                        "marcus_fullstack");
+
+        // More seniors than team members: the team is the candidate set
+        assertThat(usernames(search(MANAGER, filters().put("seniority", "SENIOR"))))
+                .containsExactly("alexandra_main_fullstack", "giulio_main_backend",
+                        "isabella_fullstack", "marcus_fullstack");
+        assertThat(usernames(search(MANAGER, filters().put("expertiseArea", "FRONTEND")
+                .put("seniority", "JUNIOR"))))
+                .containsExactly("mateo_frontend", "sofia_frontend");
+
+        // Indexed, but all on the other team
+        assertThat(usernames(search(OTHER_MANAGER, filters().put("expertiseArea", "BACKEND"))))
+                .isEmpty();
+        assertThat(usernames(search(MANAGER, filters().put("expertiseArea", "QUANTUM"))))
+                .isEmpty();
+    }
+
+    @Test
+    public void eachDeveloperIsListedOnce() {
+        List<String> team = ((Manager) db.findUserByUsername(MANAGER)).getSubordinates();
+        team.add("giulio_main_backend");
+        team.add("giulio_main_backend");
+        publish(Map.of("giulio_main_backend", 70.0));
+        publish(Map.of("giulio_main_backend", 75.0));
+
+        // From the team (seniors outnumber it) and from the score index
+        assertThat(usernames(search(MANAGER, filters().put("seniority", "SENIOR"))))
+                .containsOnlyOnce("giulio_main_backend").hasSize(4);
+        assertThat(usernames(search(MANAGER, filters().put("performanceScoreAbove", 50))))
+                .containsExactly("giulio_main_backend");
+        assertThat(db.getDeveloperIndex().withScoreBetween(50.0, null)).hasSize(1);
+    }
+
+    @Test
+    public void theScoreRangeFollowsPublishedScores() {
+        publish(Map.of("giulio_main_backend", 80.0, "isabella_fullstack", 60.0,
+                "marcus_fullstack", 40.0, "jenny_devops", 90.0));
+        assertThat(usernames(search(MANAGER, filters().put("performanceScoreAbove", 50))))
+                .containsExactly("giulio_main_backend", "isabella_fullstack");
+        // Both bounds are exclusive
+        assertThat(usernames(search(MANAGER, filters().put("performanceScoreAbove", 40)
+                .put("performanceScoreBelow", 80))))
+                .containsExactly("isabella_fullstack");
+        assertThat(usernames(search(OTHER_MANAGER,
+                filters().put("performanceScoreAbove", 50.5))))
+                .containsExactly("jenny_devops");
+
+        publish(Map.of("giulio_main_backend", 30.0));
+        assertThat(usernames(search(MANAGER, filters().put("performanceScoreAbove", 50))))
+                .containsExactly("isabella_fullstack");
+        assertThat(usernames(search(MANAGER, filters().put("performanceScoreAbove", 0)
+                .put("performanceScoreBelow", 50))))
+                .containsExactly("giulio_main_backend", "marcus_fullstack");
+        assertThat(names(db.getDeveloperIndex().withScoreBetween(20.0, 70.0)))
+                .containsExactly("giulio_main_backend", "marcus_fullstack",
+                        "isabella_fullstack");
+        assertThat(db.getDeveloperIndex().withScoreBetween(70.0, 70.0)).isEmpty();
+    }
+
+    // Publishes a report that sets the given developers' scores
+    private void publish(final Map<String, Double> scores) {
+        List<PerformanceReport.Row> rows = new ArrayList<>();
+        scores.forEach((username, score) ->
+                rows.add(new PerformanceReport.Row(username, 1, 2.0, score, "SENIOR")));
+        new PerformanceReport(rows, Map.of()).publish(db, MANAGER, "2025-02-01");
+    }
+
+    private static ObjectNode filters() {
+        return MAPPER.createObjectNode().put("searchType", "DEVELOPER");
+    }
+
+    private JsonNode search(final String manager, final ObjectNode filters) {
+        ObjectNode command = MAPPER.createObjectNode();
+        command.put("command", "search");
+        command.put("username", manager);
+        command.put("timestamp", "2025-02-02");
+        command.set("filters", filters);
+        List<ObjectNode> outputs = new ArrayList<>();
+        TestDatabases.execute(db, List.of(command), outputs);
+        assertThat(outputs).hasSize(1);
+        return outputs.get(0);
+    }
+
+    private static List<String> usernames(final JsonNode result) {
+        List<String> names = new ArrayList<>();
+        result.get("results").forEach(r -> names.add(r.get("username").asText()));
+        return names;
+    }
+
+    private static List<String> names(final Iterable<Developer> developers) {
+        List<String> names = new ArrayList<>();
+        developers.forEach(d -> names.add(d.getUsername()));
+        return names;
+    }
+}
@@ -0,0 +1,245 @@
+import main.database.Database;
+import main.database.TicketColumns;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.FeatureRequest;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import main.model.ticket.UIFeedback;
+import main.model.ticket.enums.TicketType;
+import main.visitor.CustomerImpactVisitor;
+import main.visitor.MergeableVisitor;
+import main.visitor.ParallelVisitorDriver;
+import main.visitor.PerformanceStatsVisitor;
+import main.visitor.PriorityCounter;
+import main.visitor.ResolutionEfficiencyVisitor;
+import main.visitor.TicketRiskVisitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lowers the fork/join threshold and leaf size so a few hundred tickets are split
+ * across many leaves, and checks that every visitor gets the results of a plain
+ * sequential pass, run after run.
+ */
+public class ParallelVisitorDriverTest {
+    private static final String THRESHOLD = "bugtracker.visitor.parallelThreshold";
+    private static final String LEAF_SIZE = "bugtracker.visitor.leafSize";
+    private static final int TICKETS = 500;
+    private static final String DEV = TestDatabases.DEVELOPER;
+
+    private static final String[] SEVERITIES = {"MINOR", "MODERATE", "SEVERE"};
+    private static final String[] FREQUENCIES = {"RARE", "OCCASIONAL", "FREQUENT", "ALWAYS"};
+    private static final String[] VALUES = {"S", "M", "L", "XL"};
+    private static final String[] DEMANDS = {"LOW", "MEDIUM", "HIGH", "VERY_HIGH"};
+
+    private static final Predicate<Ticket> ACTIVE = t -> "OPEN".equals(t.getStatus())
+            || "IN_PROGRESS".equals(t.getStatus());
+    private static final Predicate<Ticket> COMPLETED = t -> "RESOLVED".equals(t.getStatus())
+            || "CLOSED".equals(t.getStatus());
+    private static final Predicate<Ticket> CLOSED = t -> "CLOSED".equals(t.getStatus());
+
+    private Database db;
+
+    /**
+     * Tickets of every type, priority and status: every other one is resolved after a
+     * few days, and every fourth one closed.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        System.setProperty(THRESHOLD, "2");
+        System.setProperty(LEAF_SIZE, "7");
+        db = TestDatabases.withUsers();
+        for (int id = 0; id < TICKETS; id++) {
+            Priority priority = Priority.values()[id % Priority.values().length];
+            String created = String.format("2025-01-%02d", id % 20 + 1);
+            Ticket t;
+            switch (id % 3) {
+                case 0 -> {
+                    Bug bug = new Bug(id, "BUG", "Bug " + id, "Fixture", priority, "OPEN",
+                            TestDatabases.REPORTER, created);
+                    bug.setSeverity(SEVERITIES[id % SEVERITIES.length]);
+                    bug.setFrequency(FREQUENCIES[id % FREQUENCIES.length]);
+                    bug.setExpertiseArea("BACKEND");
+                    t = bug;
+                }
+                case 1 -> {
+                    FeatureRequest feature = new FeatureRequest(id, "FEATURE_REQUEST",
+                            "Feature " + id, "Fixture", priority, "OPEN",
+                            TestDatabases.REPORTER, created);
+                    feature.setBusinessValue(VALUES[id % VALUES.length]);
+                    feature.setCustomerDemand(DEMANDS[id % DEMANDS.length]);
+                    feature.setExpertiseArea("BACKEND");
+                    t = feature;
+                }
+                default -> {
+                    UIFeedback ui = new UIFeedback(id, "UI_FEEDBACK", "UI " + id, "Fixture",
+                            priority, "OPEN", TestDatabases.REPORTER, created);
+                    ui.setBusinessValue(VALUES[id % VALUES.length]);
+                    ui.setUsabilityScore(id % 10 + 1);
+                    ui.setUiElementId("element" + id);
+                    ui.setExpertiseArea("DESIGN");
+                    t = ui;
+                }
+            }
+            db.addTicket(t);
+            if (id % 2 == 0) {
+                String solved = String.format("2025-01-%02d", 21 + id % 7);
+                Ticket worked = db.getTicketForUpdate(id);
+                worked.apply(new TicketEvent.Assigned(DEV, "2025-01-21"));
+                worked.apply(new TicketEvent.StatusChanged(DEV, solved, "IN_PROGRESS",
+                        "RESOLVED"));
+                if (id % 4 == 0) {
+                    worked.apply(new TicketEvent.StatusChanged(DEV, solved, "RESOLVED",
+                            "CLOSED"));
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    public void clearProperties() {
+        System.clearProperty(THRESHOLD);
+        System.clearProperty(LEAF_SIZE);
+    }
+
+    @Test
+    public void theListIsSplitAcrossLeaves() {
+        AtomicInteger partials = new AtomicInteger();
+        Counting counting = ParallelVisitorDriver.run(new Counting(partials), db.getTickets(),
+                t -> true);
+        assertThat(counting.visited).isEqualTo(TICKETS);
+        assertThat(partials.get()).isGreaterThanOrEqualTo(TICKETS / 7);
+    }
+
+    @Test
+    public void riskMatchesTheSequentialPass() {
+        assertSameAsSequential(TicketRiskVisitor::new, ACTIVE, v -> perType(type -> List.of(
+                v.getCount(type), v.getAverageRisk(type), v.getRiskQualifier(type))));
+    }
+
+    @Test
+    public void impactMatchesTheSequentialPass() {
+        assertSameAsSequential(CustomerImpactVisitor::new, ACTIVE, v -> perType(type ->
+                List.of(v.getCount(type), v.getAverageImpact(type))));
+    }
+
+    @Test
+    public void efficiencyMatchesTheSequentialPass() {
+        assertSameAsSequential(ResolutionEfficiencyVisitor::new, COMPLETED, v -> perType(type ->
+                List.of(v.getCount(type), v.getAverageEfficiency(type))));
+    }
+
+    @Test
+    public void performanceStatsMatchTheSequentialPass() {
+        assertSameAsSequential(PerformanceStatsVisitor::new, CLOSED, v -> List.of(
+                v.getClosedTicketsCount(), v.getBugCount(), v.getFeatureCount(),
+                v.getUiCount(), v.getHighPriorityCount(), v.getAverageResolutionTime()));
+    }
+
+    @Test
+    public void columnLoopsMatchTheSequentialPass() {
+        ResolutionEfficiencyVisitor sequential = new ResolutionEfficiencyVisitor();
+        PriorityCounter byPriority = new PriorityCounter();
+        for (Ticket t : db.getTickets()) {
+            if (COMPLETED.test(t)) {
+                t.accept(sequential);
+                byPriority.accumulate(t);
+            }
+        }
+
+        TicketColumns columns = db.getTicketColumns();
+        int completed = TicketColumns.statusMask("RESOLVED", "CLOSED");
+        ResolutionEfficiencyVisitor rows = new ResolutionEfficiencyVisitor();
+        rows.visitColumns(columns, completed);
+        PriorityCounter byPriorityRows = new PriorityCounter();
+        byPriorityRows.accumulateColumns(columns, completed);
+
+        for (TicketType type : TicketType.all()) {
+            String key = type.name();
+            assertThat(rows.getCount(key)).isEqualTo(sequential.getCount(key));
+            assertThat(rows.getAverageEfficiency(key))
+                    .isEqualTo(sequential.getAverageEfficiency(key));
+        }
+        for (Priority p : Priority.values()) {
+            assertThat(byPriorityRows.getCount(p)).isEqualTo(byPriority.getCount(p));
+        }
+    }
+
+    private <V extends MergeableVisitor<V>> void assertSameAsSequential(
+            final Supplier<V> visitor, final Predicate<Ticket> filter,
+            final Function<V, List<Object>> results) {
+        V sequential = visitor.get();
+        int visited = 0;
+        for (Ticket t : db.getTickets()) {
+            if (filter.test(t)) {
+                t.accept(sequential);
+                visited++;
+            }
+        }
+        assertThat(visited).isGreaterThan(TICKETS / 5);
+
+        List<Object> expected = results.apply(sequential);
+        for (int run = 0; run < 3; run++) {
+            V parallel = ParallelVisitorDriver.run(visitor.get(), db.getTickets(), filter);
+            assertThat(results.apply(parallel)).isEqualTo(expected);
+        }
+    }
+
+    private static List<Object> perType(final Function<String, List<Object>> results) {
+        List<Object> all = new ArrayList<>();
+        for (TicketType type : TicketType.all()) {
+            all.addAll(results.apply(type.name()));
+        }
+        return all;
+    }
+
+    /**
+     * Counts the tickets it visits and the partials created from it.
+     */
+    private static final class Counting implements MergeableVisitor<Counting> {
+        private final AtomicInteger partials;
+        private int visited = 0;
+
+        Counting(final AtomicInteger partials) {
+            this.partials = partials;
+        }
+
+        @Override
+        public Counting create() {
+            partials.incrementAndGet();
+            return new Counting(partials);
+        }
+
+        @Override
+        public void combine(final Counting other) {
+            visited += other.visited;
+        }
+
+        @Override
+        public void visit(final Bug bug) {
+            visited++;
+        }
+
+        @Override
+        public void visit(final FeatureRequest featureRequest) {
+            visited++;
+        }
+
+        @Override
+        public void visit(final UIFeedback uiFeedback) {
+            visited++;
+        }
+    }
+}
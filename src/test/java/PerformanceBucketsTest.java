@@ -0,0 +1,154 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.Database;
+import main.database.PerformanceBuckets;
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import main.visitor.PerformanceStatsVisitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the closed-ticket buckets follow the ticket: closing puts it in the
+ * bucket of the month it was solved in, undoing takes it out again, and closing it
+ * later moves it to the later month. A priority change adjusts the bucket it is in.
+ */
+public class PerformanceBucketsTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+    private static final String DEV = TestDatabases.DEVELOPER;
+    private static final YearMonth JANUARY = YearMonth.of(2025, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2025, 2);
+    private static final YearMonth MARCH = YearMonth.of(2025, 3);
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        db = TestDatabases.handBuilt();
+    }
+
+    @Test
+    public void closeUndoAndCloseAgainMoveTheTicket() {
+        PerformanceBuckets buckets = db.getPerformanceBuckets();
+        // 1 is resolved, not closed yet
+        assertThat(buckets.size()).isZero();
+
+        run(command("changeStatus", 1, "2025-01-09"));
+        Ticket closed = db.getTicket(1);
+        assertThat(closed.getStatus()).isEqualTo("CLOSED");
+        assertThat(closed.getFirstClosedAt()).isEqualTo("2025-01-09");
+        // Assigned on 01-05, closed on 01-09, both days counted
+        assertThat(closed.getDaysToResolve()).isEqualTo(5);
+        assertThat(buckets.get(DEV, JANUARY).getTicketIds()).containsExactly(1);
+        assertThat(buckets.get(DEV, JANUARY).getAverageResolutionTime()).isEqualTo(5.0);
+
+        run(command("undoChangeStatus", 1, "2025-01-10"));
+        assertThat(db.getTicket(1).getStatus()).isEqualTo("RESOLVED");
+        assertThat(buckets.size()).isZero();
+        assertThat(buckets.get(DEV, JANUARY).getTicketIds()).isEmpty();
+        assertThat(buckets.get(DEV, JANUARY).getClosedTicketsCount()).isZero();
+
+        run(command("changeStatus", 1, "2025-02-03"));
+        Ticket reclosed = db.getTicket(1);
+        assertThat(reclosed.getSolvedAt()).isEqualTo("2025-02-03");
+        assertThat(reclosed.getFirstClosedAt()).isEqualTo("2025-01-09");
+        assertThat(reclosed.getDaysToResolve()).isEqualTo(30);
+        assertThat(buckets.size()).isEqualTo(1);
+        assertThat(buckets.get(DEV, JANUARY).getClosedTicketsCount()).isZero();
+        assertThat(buckets.get(DEV, FEBRUARY).getTicketIds()).containsExactly(1);
+        assertThat(buckets.get(DEV, FEBRUARY).getFeatureCount()).isEqualTo(1);
+        assertThat(buckets.get(DEV, FEBRUARY).getAverageResolutionTime()).isEqualTo(30.0);
+    }
+
+    @Test
+    public void goingBackToWorkDropsTheResolution() {
+        PerformanceBuckets buckets = db.getPerformanceBuckets();
+        run(command("changeStatus", 1, "2025-01-09"));
+        run(command("undoChangeStatus", 1, "2025-01-10"));
+        run(command("undoChangeStatus", 1, "2025-01-11"));
+        assertThat(db.getTicket(1).getStatus()).isEqualTo("IN_PROGRESS");
+        assertThat(db.getTicket(1).getDaysToResolve()).isZero();
+        assertThat(buckets.size()).isZero();
+
+        run(command("changeStatus", 1, "2025-03-01"));
+        assertThat(buckets.size()).isZero();
+        run(command("changeStatus", 1, "2025-03-02"));
+        Ticket closed = db.getTicket(1);
+        assertThat(closed.getFirstClosedAt()).isEqualTo("2025-01-09");
+        assertThat(closed.getDaysToResolve()).isEqualTo(57);
+        assertThat(buckets.get(DEV, MARCH).getTicketIds()).containsExactly(1);
+        assertThat(buckets.get(DEV, JANUARY).getTicketIds()).isEmpty();
+    }
+
+    @Test
+    public void aPriorityChangeUpdatesTheHighPriorityCount() {
+        PerformanceBuckets buckets = db.getPerformanceBuckets();
+        Ticket bug = db.getTicketForUpdate(0);
+        bug.apply(new TicketEvent.StatusChanged(DEV, "2025-01-08", "IN_PROGRESS", "RESOLVED"));
+        bug.apply(new TicketEvent.StatusChanged(DEV, "2025-01-08", "RESOLVED", "CLOSED"));
+        run(command("changeStatus", 1, "2025-01-09"));
+        PerformanceBuckets.Bucket january = buckets.get(DEV, JANUARY);
+        // 0 is HIGH, 1 is MEDIUM
+        assertThat(january.getTicketIds()).containsExactly(0, 1);
+        assertThat(january.getHighPriorityCount()).isEqualTo(1);
+
+        TestDatabases.forcePriority(db.getTicketForUpdate(1), Priority.CRITICAL);
+        assertThat(january.getHighPriorityCount()).isEqualTo(2);
+        assertSameAsVisitor(january);
+
+        TestDatabases.forcePriority(db.getTicketForUpdate(0), Priority.LOW);
+        assertThat(january.getHighPriorityCount()).isEqualTo(1);
+        assertSameAsVisitor(january);
+
+        TestDatabases.forcePriority(db.getTicketForUpdate(1), null);
+        assertThat(january.getHighPriorityCount()).isZero();
+        assertThat(january.getClosedTicketsCount()).isEqualTo(2);
+        assertSameAsVisitor(january);
+
+        // Once the ticket is out of the bucket its priority no longer counts
+        run(command("undoChangeStatus", 0, "2025-01-10"));
+        TestDatabases.forcePriority(db.getTicketForUpdate(0), Priority.HIGH);
+        assertThat(january.getHighPriorityCount()).isZero();
+        assertThat(january.getTicketIds()).containsExactly(1);
+        assertSameAsVisitor(january);
+    }
+
+    // A pass over the closed tickets gives the same stats as the bucket
+    private void assertSameAsVisitor(final PerformanceBuckets.Bucket bucket) {
+        PerformanceStatsVisitor visitor = new PerformanceStatsVisitor();
+        for (Ticket t : db.getTickets()) {
+            if ("CLOSED".equals(t.getStatus())) {
+                t.accept(visitor);
+            }
+        }
+        assertThat(bucket.getClosedTicketsCount()).isEqualTo(visitor.getClosedTicketsCount());
+        assertThat(bucket.getHighPriorityCount()).isEqualTo(visitor.getHighPriorityCount());
+        assertThat(bucket.getAverageResolutionTime())
+                .isEqualTo(visitor.getAverageResolutionTime());
+    }
+
+    private void run(final JsonNode command) {
+        List<ObjectNode> outputs = new ArrayList<>();
+        TestDatabases.execute(db, List.of(command), outputs);
+        assertThat(outputs).isEmpty();
+    }
+
+    private static JsonNode command(final String name, final int ticketId,
+                                    final String timestamp) {
+        ObjectNode command = MAPPER.createObjectNode();
+        command.put("command", name);
+        command.put("username", DEV);
+        command.put("ticketID", ticketId);
+        command.put("timestamp", timestamp);
+        return command;
+    }
+}
@@ -0,0 +1,207 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.Database;
+import main.database.QueryResultCache;
+import main.model.Milestone;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.TicketEvent;
+import main.report.PerformanceReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the query result cache: a repeated read is served from it with its own
+ * timestamp, any write makes the next read run again, and the LRU order and the
+ * memory cap bound what it keeps.
+ */
+public class QueryResultCacheTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+    private static final String DEV = TestDatabases.DEVELOPER;
+    private static final String MANAGER = TestDatabases.MANAGER;
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        db = TestDatabases.handBuilt();
+    }
+
+    @Test
+    public void aRepeatedQueryIsAHit() {
+        QueryResultCache cache = db.getQueryCache();
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+
+        ObjectNode first = search("2025-01-11");
+        ObjectNode second = search("2025-01-11");
+        assertThat(second).isEqualTo(first);
+        assertThat(cache.getMisses()).isEqualTo(misses + 1);
+        assertThat(cache.getHits()).isEqualTo(hits + 1);
+
+        // Other filters are another query
+        ObjectNode filtered = search("2025-01-11", filters().put("businessPriority", "HIGH"));
+        assertThat(filtered.get("results")).hasSize(1);
+        assertThat(cache.getMisses()).isEqualTo(misses + 2);
+    }
+
+    @Test
+    public void aHitGetsTheTimestampOfItsCommand() {
+        QueryResultCache cache = db.getQueryCache();
+        ObjectNode morning = search("2025-01-11 09:00");
+        long hits = cache.getHits();
+
+        ObjectNode evening = search("2025-01-11 17:30");
+        assertThat(cache.getHits()).isEqualTo(hits + 1);
+        assertThat(evening.get("timestamp").asText()).isEqualTo("2025-01-11 17:30");
+        assertThat(evening.deepCopy().put("timestamp", "2025-01-11 09:00")).isEqualTo(morning);
+        // The cached result itself is not rewritten
+        assertThat(morning.get("timestamp").asText()).isEqualTo("2025-01-11 09:00");
+        assertThat(search("2025-01-11 09:00")).isEqualTo(morning);
+
+        // Another day is another query
+        long misses = cache.getMisses();
+        search("2025-01-12 09:00");
+        assertThat(cache.getMisses()).isEqualTo(misses + 1);
+    }
+
+    static Stream<Arguments> writes() {
+        return Stream.of(
+                write("ticket reported", db -> db.addTicket(new Bug(3, "BUG", "New",
+                        "Reported later", Priority.LOW, "OPEN", TestDatabases.REPORTER,
+                        "2025-01-08"))),
+                write("assigned", db -> db.getTicketForUpdate(2).apply(
+                        new TicketEvent.Assigned(DEV, "2025-01-08"))),
+                write("deassigned", db -> db.getTicketForUpdate(0).apply(
+                        new TicketEvent.Deassigned(DEV, "2025-01-08"))),
+                write("status changed", db -> db.getTicketForUpdate(0).apply(
+                        new TicketEvent.StatusChanged(DEV, "2025-01-08", "IN_PROGRESS",
+                                "RESOLVED"))),
+                write("comment added", db -> db.getTicketForUpdate(0).apply(
+                        new TicketEvent.CommentAdded(DEV, "2025-01-08", "Fixed on main"))),
+                write("comment removed", db -> db.getTicketForUpdate(0).apply(
+                        new TicketEvent.CommentRemoved(TestDatabases.REPORTER, "2025-01-08"))),
+                write("priority forced", db -> TestDatabases.forcePriority(
+                        db.getTicketForUpdate(2), Priority.HIGH)),
+                write("milestone created", db -> db.addMilestone(new Milestone("M2", MANAGER,
+                        LocalDate.parse("2025-01-08"), LocalDate.parse("2025-03-01"),
+                        List.of(), List.of(2), List.of(DEV)))),
+                write("scores published", db -> new PerformanceReport(List.of(
+                        new PerformanceReport.Row(DEV, 1, 2.0, 42.0, "SENIOR")), Map.of())
+                        .publish(db, MANAGER, "2025-01-08")),
+                write("run stopped", Database::stopExec));
+    }
+
+    @ParameterizedTest(name = "A query after: {0}")
+    @MethodSource("writes")
+    public void everyWriteMakesTheNextQueryMiss(final String name,
+                                                final Consumer<Database> write) {
+        QueryResultCache cache = db.getQueryCache();
+        search("2025-01-11");
+        search("2025-01-11");
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        long version = db.getWriteVersion();
+
+        write.accept(db);
+        assertThat(db.getWriteVersion()).isGreaterThan(version);
+        search("2025-01-11");
+        assertThat(cache.getMisses()).isEqualTo(misses + 1);
+        assertThat(cache.getHits()).isEqualTo(hits);
+    }
+
+    @Test
+    public void theLeastRecentlyUsedEntryGoesFirst() {
+        List<ObjectNode> outputs = List.of(result("ticket"));
+        QueryResultCache sizing = new QueryResultCache(Long.MAX_VALUE);
+        sizing.put("a", outputs);
+        long entryBytes = sizing.getUsedBytes();
+
+        // Room for two entries of the same size
+        QueryResultCache cache = new QueryResultCache(2 * entryBytes + entryBytes / 2);
+        cache.put("a", outputs);
+        cache.put("b", outputs);
+        assertThat(cache.get("a")).isEqualTo(outputs);
+        cache.put("c", outputs);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(outputs);
+        assertThat(cache.get("c")).isEqualTo(outputs);
+        assertThat(cache.getUsedBytes()).isEqualTo(2 * entryBytes);
+        assertThat(cache.getHits()).isEqualTo(3);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void theMemoryCapBoundsTheCache() {
+        List<ObjectNode> small = List.of(result("x"));
+        List<ObjectNode> large = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            large.add(result("ticket number " + i));
+        }
+
+        QueryResultCache cache = new QueryResultCache(4096);
+        for (int i = 0; i < 50; i++) {
+            cache.put("key" + i, small);
+            assertThat(cache.getUsedBytes()).isLessThanOrEqualTo(4096);
+        }
+        assertThat(cache.get("key49")).isEqualTo(small);
+        assertThat(cache.get("key0")).isNull();
+
+        // An entry bigger than the cap is not kept, and evicts nothing
+        long used = cache.getUsedBytes();
+        cache.put("large", large);
+        assertThat(cache.get("large")).isNull();
+        assertThat(cache.getUsedBytes()).isEqualTo(used);
+
+        // A cap of 0 turns the cache off
+        QueryResultCache off = new QueryResultCache(0);
+        off.put("key", small);
+        assertThat(off.get("key")).isNull();
+        assertThat(off.getUsedBytes()).isZero();
+    }
+
+    private static Arguments write(final String name, final Consumer<Database> write) {
+        return Arguments.of(name, write);
+    }
+
+    private static ObjectNode result(final String title) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("command", "search");
+        node.putArray("results").addObject().put("title", title);
+        return node;
+    }
+
+    private static ObjectNode filters() {
+        return MAPPER.createObjectNode().put("searchType", "TICKET");
+    }
+
+    private ObjectNode search(final String timestamp) {
+        return search(timestamp, filters());
+    }
+
+    private ObjectNode search(final String timestamp, final ObjectNode filters) {
+        ObjectNode command = MAPPER.createObjectNode();
+        command.put("command", "search");
+        command.put("username", MANAGER);
+        command.put("timestamp", timestamp);
+        command.set("filters", filters);
+        List<ObjectNode> outputs = new ArrayList<>();
+        TestDatabases.execute(db, List.of(command), outputs);
+        assertThat(outputs).hasSize(1);
+        return outputs.get(0);
+    }
+}
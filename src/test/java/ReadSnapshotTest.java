@@ -0,0 +1,124 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.AggregateConsistencyChecker;
+import main.database.Database;
+import main.database.ReadSnapshot;
+import main.model.Priority;
+import main.model.ticket.Ticket;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that read snapshots keep showing the state they were opened at while
+ * commands keep writing the database, from the same thread or another one.
+ */
+public class ReadSnapshotTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+    private static final String REPORT_INPUT = "input/in_18_test_complex.json";
+    private static final Set<String> REPORTS = Set.of("generatePerformanceReport",
+            "appStabilityReport", "generateCustomerImpactReport", "generateTicketRiskReport",
+            "generateResolutionEfficiencyReport");
+
+    @Test
+    public void snapshotIsUnchangedByLaterCommands() throws IOException {
+        Database db = TestDatabases.handBuilt();
+        String tickets = MAPPER.writeValueAsString(db.getTickets());
+
+        try (ReadSnapshot snapshot = db.openSnapshot()) {
+            List<JsonNode> commands = List.of(
+                    command("changeStatus", TestDatabases.DEVELOPER, 0),
+                    command("changeStatus", TestDatabases.DEVELOPER, 1),
+                    command("undoAssignTicket", TestDatabases.DEVELOPER, 0));
+            List<ObjectNode> outputs = new ArrayList<>();
+            TestDatabases.execute(db, commands, outputs);
+            TestDatabases.forcePriority(db.getTicketForUpdate(2), Priority.CRITICAL);
+
+            assertThat(db.getTicket(1).getStatus()).isEqualTo("CLOSED");
+            assertThat(db.getTicket(2).getPriority()).isEqualTo(Priority.CRITICAL);
+            Database view = snapshot.getDatabase();
+            assertThat(MAPPER.writeValueAsString(view.getTickets())).isEqualTo(tickets);
+            assertThat(AggregateConsistencyChecker.check(view)).isEmpty();
+        }
+        assertThat(AggregateConsistencyChecker.check(db)).isEmpty();
+    }
+
+    @Test
+    public void reportsSeeTheSnapshotWhileWritesGoOn() throws Exception {
+        List<JsonNode> commands = TestDatabases.commands(REPORT_INPUT);
+        List<JsonNode> reports = commands.stream()
+                .filter(c -> REPORTS.contains(c.get("command").asText())).toList();
+        assertThat(reports).isNotEmpty();
+
+        List<ObjectNode> serial = new ArrayList<>();
+        Database db = TestDatabases.withUsers();
+        TestDatabases.execute(db, commands, serial);
+        String serialTickets = MAPPER.writeValueAsString(db.getTickets());
+
+        // Halfway through, once on a fork and once on a snapshot during the second half
+        int half = commands.size() / 2;
+        List<ObjectNode> outputs = new ArrayList<>();
+        db = TestDatabases.withUsers();
+        TestDatabases.execute(db, commands.subList(0, half), outputs);
+        List<ObjectNode> expected = new ArrayList<>();
+        Database fork = db.fork();
+        TestDatabases.execute(fork, reports, expected);
+        fork.discard();
+
+        List<ObjectNode> seen = new ArrayList<>();
+        Database live = db;
+        try (ReadSnapshot snapshot = db.openSnapshot()) {
+            CompletableFuture<Void> reader = CompletableFuture.runAsync(
+                    () -> TestDatabases.execute(snapshot.getDatabase(), reports, seen));
+            TestDatabases.execute(live, commands.subList(half, commands.size()), outputs);
+            reader.get();
+        }
+
+        assertThat(seen).isEqualTo(expected);
+        assertThat(outputs).isEqualTo(serial);
+        assertThat(MAPPER.writeValueAsString(db.getTickets())).isEqualTo(serialTickets);
+        assertThat(db.getOpenSnapshots()).isZero();
+    }
+
+    @Test
+    public void closedSnapshotsGiveTheirTicketsBack() throws IOException {
+        Database db = TestDatabases.handBuilt();
+        Ticket shared = db.getTicket(0);
+        Priority priority = shared.getPriority();
+
+        // While a snapshot is open, a change goes to a copy and the snapshot keeps the old version
+        ReadSnapshot snapshot = db.openSnapshot();
+        Ticket changed = db.getTicketForUpdate(0);
+        TestDatabases.forcePriority(changed, Priority.CRITICAL);
+        assertThat(changed).isNotSameAs(shared);
+        assertThat(snapshot.getDatabase().getTickets().get(0).getPriority()).isEqualTo(priority);
+        assertThat(db.getOpenSnapshots()).isOne();
+
+        // Once it is closed, the next change is made in place
+        ReadSnapshot second = db.openSnapshot();
+        second.close();
+        snapshot.close();
+        snapshot.close();
+        assertThat(db.getOpenSnapshots()).isZero();
+        assertThat(db.getTicketForUpdate(0)).isSameAs(changed);
+        assertThatThrownBy(snapshot::getDatabase).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static JsonNode command(final String name, final String username,
+                                    final int ticketId) {
+        ObjectNode command = MAPPER.createObjectNode();
+        command.put("command", name);
+        command.put("username", username);
+        command.put("ticketID", ticketId);
+        command.put("timestamp", "2025-01-08");
+        return command;
+    }
+}
@@ -0,0 +1,120 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.App;
+import main.database.WriteAheadLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kills a resumable run partway through and checks that {@code --resume} finishes
+ * it with the output of an uninterrupted run.
+ */
+public class ResumeTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+    private static final String INPUT = "input/in_18_test_complex.json";
+    private static final String EVERY_PROPERTY = "bugtracker.wal.checkpointEvery";
+    private static final String EVERY = "3";
+    private static final int HALTED = 3;
+
+    /**
+     * Runs the app with {@code --resume} and halts the JVM, with no shutdown hooks,
+     * once the checkpoints have journaled a number of output bytes:
+     * {@code <input> <output> <bytes>}.
+     */
+    public static final class HaltingRun {
+        private HaltingRun() {
+        }
+
+        public static void main(final String[] args) throws IOException {
+            Path dir = WriteAheadLog.resumeDirFor(args[1]);
+            long haltAt = Long.parseLong(args[2]);
+            Thread watcher = new Thread(() -> {
+                while (true) {
+                    try {
+                        if (journaledBytes(dir) >= haltAt) {
+                            Runtime.getRuntime().halt(HALTED);
+                        }
+                    } catch (IOException | UncheckedIOException e) {
+                        // Not created yet, or a file went away; look again
+                    }
+                }
+            });
+            watcher.setDaemon(true);
+            watcher.start();
+            App.main(new String[] {"--resume", args[0], args[1]});
+        }
+    }
+
+    @AfterEach
+    public void clearProperties() {
+        System.clearProperty(EVERY_PROPERTY);
+    }
+
+    @ParameterizedTest(name = "Resume after {0}% of the output")
+    @ValueSource(ints = {20, 50, 80})
+    public void resumedRunMatchesAnUninterruptedOne(final int percent, @TempDir final Path dir)
+            throws Exception {
+        Path expected = dir.resolve("expected.json");
+        App.run(INPUT, expected.toString());
+        // The journal holds the outputs as compact JSON
+        long haltAt = MAPPER.writeValueAsBytes(MAPPER.readTree(expected.toFile())).length
+                * percent / 100;
+
+        Path output = dir.resolve("out.json");
+        Process run = new ProcessBuilder(ProcessHandle.current().info().command().orElse("java"),
+                "-D" + EVERY_PROPERTY + "=" + EVERY,
+                "-cp", System.getProperty("java.class.path"), HaltingRun.class.getName(),
+                INPUT, output.toString(), String.valueOf(haltAt))
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve("run.log").toFile())
+                .start();
+        assertThat(run.waitFor()).isEqualTo(HALTED);
+        Path log = WriteAheadLog.resumeDirFor(output.toString());
+        assertThat(output).doesNotExist();
+        assertThat(files(log, "checkpoint-")).isPositive();
+
+        System.setProperty(EVERY_PROPERTY, EVERY);
+        App.run(INPUT, output.toString(), true);
+        assertThat(Files.readAllBytes(output)).isEqualTo(Files.readAllBytes(expected));
+        assertThat(log).doesNotExist();
+    }
+
+    @Test
+    public void resumingWithoutACheckpointRunsFromTheStart(@TempDir final Path dir)
+            throws IOException {
+        Path expected = dir.resolve("expected.json");
+        App.run(INPUT, expected.toString());
+
+        Path output = dir.resolve("out.json");
+        App.run(INPUT, output.toString(), true);
+        assertThat(Files.readAllBytes(output)).isEqualTo(Files.readAllBytes(expected));
+        assertThat(WriteAheadLog.resumeDirFor(output.toString())).doesNotExist();
+    }
+
+    private static long journaledBytes(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            long bytes = 0;
+            for (Path p : files.filter(p -> p.getFileName().toString().startsWith("outputs-"))
+                    .toList()) {
+                bytes += Files.size(p);
+            }
+            return bytes;
+        }
+    }
+
+    private static long files(final Path dir, final String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.Database;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the paging and top-k options of the ticket search, on the sequential
+ * and the fork/join scan.
+ */
+public class SearchCommandTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+
+    private static final Priority[] PRIORITIES = {
+        Priority.LOW, Priority.HIGH, Priority.MEDIUM, Priority.CRITICAL, Priority.HIGH,
+        Priority.LOW, Priority.CRITICAL, Priority.MEDIUM, Priority.HIGH, Priority.LOW,
+    };
+    private static final String[] CREATED = {
+        "2025-01-10", "2025-01-06", "2025-01-08", "2025-01-07", "2025-01-06",
+        "2025-01-05", "2025-01-04", "2025-01-03", "2025-01-02", "2025-01-01",
+    };
+
+    // Above the default "bugtracker.search.parallelThreshold"
+    private static final int PARALLEL_TICKETS = 30_000;
+    // Candidates a fork/join leaf scans
+    private static final int SCAN_RANGE = 4_096;
+
+    private Database db;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        db = TestDatabases.withUsers();
+        for (int id = 0; id < PRIORITIES.length; id++) {
+            db.addTicket(new Bug(id, "BUG", "Ticket " + id, "Search fixture", PRIORITIES[id],
+                    "OPEN", TestDatabases.REPORTER, CREATED[id]));
+        }
+    }
+
+    @Test
+    public void pagesFollowTheCursor() {
+        JsonNode first = search(filters().put("limit", 4));
+        assertThat(ids(first)).containsExactly(0, 1, 2, 3);
+        assertThat(first.get("nextCursor").asInt()).isEqualTo(3);
+
+        JsonNode second = search(filters().put("limit", 4).put("cursor", 3));
+        assertThat(ids(second)).containsExactly(4, 5, 6, 7);
+        assertThat(second.get("nextCursor").asInt()).isEqualTo(7);
+
+        // The last page is short and has nowhere to continue from
+        JsonNode last = search(filters().put("limit", 4).put("cursor", 7));
+        assertThat(ids(last)).containsExactly(8, 9);
+        assertThat(last.has("nextCursor")).isFalse();
+    }
+
+    @Test
+    public void offsetSkipsMatchesAfterTheCursor() {
+        assertThat(ids(search(filters().put("offset", 3).put("limit", 2))))
+                .containsExactly(3, 4);
+        assertThat(ids(search(filters().put("cursor", 5).put("offset", 2))))
+                .containsExactly(8, 9);
+        assertThat(ids(search(filters().put("offset", 20)))).isEmpty();
+    }
+
+    @Test
+    public void pagesOnlyCountMatches() {
+        JsonNode page = search(filters().put("businessPriority", "HIGH").put("limit", 2));
+        assertThat(ids(page)).containsExactly(1, 4);
+        assertThat(page.get("nextCursor").asInt()).isEqualTo(4);
+
+        assertThat(ids(search(filters().put("businessPriority", "HIGH").put("cursor", 4))))
+                .containsExactly(8);
+    }
+
+    @Test
+    public void topKRanksByPriorityThenCreationThenId() {
+        // CRITICAL: 6 was created first; HIGH: 8 first, then 1 and 4 on the same day
+        assertThat(ids(search(filters().put("topK", 5)))).containsExactly(6, 3, 8, 1, 4);
+        assertThat(ids(search(filters().put("topK", 100)))).hasSize(PRIORITIES.length);
+        assertThat(ids(search(filters().put("topK", 2).put("businessPriority", "LOW"))))
+                .containsExactly(9, 5);
+    }
+
+    @Test
+    public void parallelScanMatchesTheSequentialOne() {
+        // Enough tickets for the fork/join scan, and a cursor whose tail is scanned in order
+        for (int id = PRIORITIES.length; id < PARALLEL_TICKETS; id++) {
+            db.addTicket(new Bug(id, "BUG", "Ticket " + id, "Search fixture",
+                    PRIORITIES[id % PRIORITIES.length], "OPEN", TestDatabases.REPORTER,
+                    String.format("2025-01-%02d", id % 28 + 1)));
+        }
+        int cursor = PARALLEL_TICKETS / 2;
+        List<Integer> high = IntStream.range(0, PARALLEL_TICKETS)
+                .filter(id -> db.getTicket(id).getPriority() == Priority.HIGH)
+                .boxed().toList();
+
+        List<Integer> parallel = ids(search(filters().put("businessPriority", "HIGH")));
+        List<Integer> sequential = ids(search(filters().put("businessPriority", "HIGH")
+                .put("cursor", cursor)));
+        assertThat(parallel).isEqualTo(high);
+        assertThat(sequential).isEqualTo(high.stream().filter(id -> id > cursor).toList());
+
+        JsonNode page = search(filters().put("businessPriority", "HIGH").put("offset", 10)
+                .put("limit", 5));
+        assertThat(ids(page)).isEqualTo(high.subList(10, 15));
+        assertThat(page.get("nextCursor").asInt()).isEqualTo(high.get(14));
+
+        List<Integer> top = IntStream.range(0, PARALLEL_TICKETS).boxed()
+                .sorted(Comparator.comparing((Integer id) -> db.getTicket(id).getPriority(),
+                                Comparator.reverseOrder())
+                        .thenComparing(id -> db.getTicket(id).getCreatedAt())
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(20).toList();
+        assertThat(ids(search(filters().put("topK", 20)))).isEqualTo(top);
+    }
+
+    @Test
+    public void aParallelPageStopsScanningOnceItIsFull() {
+        // Past the first window of ranges, a ticket whose creation date cannot be read
+        // fails any scan that gets to it
+        int window = SCAN_RANGE * ForkJoinPool.getCommonPoolParallelism();
+        int tickets = Math.max(PARALLEL_TICKETS, 3 * window);
+        for (int id = PRIORITIES.length; id < tickets - 1; id++) {
+            db.addTicket(new Bug(id, "BUG", "Ticket " + id, "Search fixture",
+                    PRIORITIES[id % PRIORITIES.length], "OPEN", TestDatabases.REPORTER,
+                    String.format("2025-01-%02d", id % 28 + 1)));
+        }
+        db.addTicket(new Bug(tickets - 1, "BUG", "Broken", "Search fixture", Priority.HIGH,
+                "OPEN", TestDatabases.REPORTER, "not a date"));
+        List<Integer> high = IntStream.range(0, tickets - 1)
+                .filter(id -> db.getTicket(id).getPriority() == Priority.HIGH)
+                .boxed().toList();
+
+        JsonNode page = search(filters().put("businessPriority", "HIGH").put("offset", 100)
+                .put("limit", 20));
+        assertThat(ids(page)).isEqualTo(high.subList(100, 120));
+        assertThat(page.get("nextCursor").asInt()).isEqualTo(high.get(119));
+
+        // A page that spans windows gets them in id order
+        int spanning = (int) high.stream().filter(id -> id < window).count() - 5;
+        page = search(filters().put("businessPriority", "HIGH").put("offset", spanning)
+                .put("limit", 10));
+        assertThat(ids(page)).isEqualTo(high.subList(spanning, spanning + 10));
+
+        // Without a limit every candidate is scanned
+        assertThatThrownBy(() -> search(filters().put("businessPriority", "HIGH")
+                .put("offset", 100))).isInstanceOf(RuntimeException.class);
+    }
+
+    private static ObjectNode filters() {
+        return MAPPER.createObjectNode().put("searchType", "TICKET");
+    }
+
+    private JsonNode search(final ObjectNode filters) {
+        ObjectNode command = MAPPER.createObjectNode();
+        command.put("command", "search");
+        command.put("username", TestDatabases.MANAGER);
+        command.put("timestamp", "2025-01-11");
+        command.set("filters", filters);
+        List<ObjectNode> outputs = new ArrayList<>();
+        TestDatabases.execute(db, List.of(command), outputs);
+        assertThat(outputs).hasSize(1);
+        return outputs.get(0);
+    }
+
+    private static List<Integer> ids(final JsonNode result) {
+        List<Integer> ids = new ArrayList<>();
+        result.get("results").forEach(r -> ids.add(r.get("id").asInt()));
+        return ids;
+    }
+}
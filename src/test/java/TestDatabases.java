@@ -0,0 +1,175 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import main.App;
+import main.commands.Command;
+import main.commands.CommandFactory;
+import main.database.Database;
+import main.model.Milestone;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.FeatureRequest;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import main.model.ticket.UIFeedback;
+import main.utils.InputData;
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shared fixtures for the database tests: the test inputs, and databases built
+ * from them or by hand.
+ */
+public final class TestDatabases {
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule());
+
+    public static final String REPORTER = "theodora_reporter";
+    public static final String MANAGER = "gabriel_manager";
+    public static final String DEVELOPER = "giulio_main_backend";
+
+    private TestDatabases() {
+    }
+
+    /**
+     * Lists the test inputs, for a parameterized test.
+     *
+     * @return One argument per input path, in name order.
+     */
+    public static Stream<Arguments> inputs() {
+        File[] files = new File("input").listFiles((dir, name) -> name.startsWith("in_"));
+        assertThat(files).isNotEmpty();
+        Arrays.sort(files);
+        return Arrays.stream(files).map(f -> Arguments.of(f.getPath()));
+    }
+
+    /**
+     * Runs a test input through the app.
+     *
+     * @param inputPath The input.
+     * @param dir       Where the output goes.
+     * @return The database the input left.
+     */
+    public static Database run(final String inputPath, final Path dir) throws IOException {
+        App.run(inputPath, dir.resolve("out.json").toString());
+        return Database.getInstance();
+    }
+
+    /**
+     * Reads the commands of a test input.
+     *
+     * @param inputPath The input.
+     * @return The commands, in order.
+     */
+    public static List<JsonNode> commands(final String inputPath) throws IOException {
+        List<JsonNode> commands = new ArrayList<>();
+        MAPPER.readTree(new File(inputPath)).forEach(commands::add);
+        return commands;
+    }
+
+    /**
+     * Resets the database and loads the test users, as App.run does.
+     *
+     * @return The database.
+     */
+    public static Database withUsers() throws IOException {
+        Database db = Database.getInstance();
+        db.reset();
+        db.loadUsers(Arrays.asList(MAPPER.readValue(new File("input/database/users.json"),
+                InputData[].class)));
+        return db;
+    }
+
+    /**
+     * Runs commands against a database, which may be a fork or a snapshot view.
+     *
+     * @param db       The database.
+     * @param commands The commands.
+     * @param outputs  Where their outputs go.
+     */
+    public static void execute(final Database db, final List<JsonNode> commands,
+                               final List<ObjectNode> outputs) {
+        for (JsonNode command : commands) {
+            try {
+                Command c = CommandFactory.createCommand(
+                        MAPPER.treeToValue(command, InputData.class), db);
+                if (c != null) {
+                    c.execute(outputs);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Forces the priority of a ticket through its event stream, as milestone rules do.
+     *
+     * @param ticket   The ticket, taken for update.
+     * @param priority The forced priority, or null to clear it.
+     */
+    public static void forcePriority(final Ticket ticket, final Priority priority) {
+        ticket.apply(new TicketEvent.PriorityForced(MANAGER, "2025-01-06", priority));
+    }
+
+    /**
+     * Builds a small database without going through the commands: a ticket of each
+     * type, one assigned and commented, one resolved, and a milestone holding two.
+     *
+     * @return The database.
+     */
+    public static Database handBuilt() throws IOException {
+        Database db = withUsers();
+        Bug bug = new Bug(0, "BUG", "Login fails", "500 on submit", Priority.HIGH, "OPEN",
+                REPORTER, "2025-01-01");
+        bug.setSeverity("SEVERE");
+        bug.setFrequency("FREQUENT");
+        bug.setExpertiseArea("BACKEND");
+        db.addTicket(bug);
+
+        FeatureRequest feature = new FeatureRequest(1, "FEATURE_REQUEST", "Export",
+                "CSV export", Priority.MEDIUM, "OPEN", REPORTER, "2025-01-02");
+        feature.setBusinessValue("L");
+        feature.setCustomerDemand("HIGH");
+        feature.setExpertiseArea("BACKEND");
+        db.addTicket(feature);
+
+        UIFeedback ui = new UIFeedback(2, "UI_FEEDBACK", "Contrast", "Low contrast",
+                Priority.LOW, "OPEN", REPORTER, "2025-01-03");
+        ui.setBusinessValue("S");
+        ui.setUiElementId("header");
+        ui.setUsabilityScore(4);
+        ui.setExpertiseArea("DESIGN");
+        db.addTicket(ui);
+
+        db.addMilestone(new Milestone("M1", MANAGER, LocalDate.parse("2025-01-04"),
+                LocalDate.parse("2025-02-01"), List.of(), List.of(0, 1), List.of(DEVELOPER)));
+        for (int id : List.of(0, 1)) {
+            db.getTicketForUpdate(id).apply(
+                    new TicketEvent.AddedToMilestone(MANAGER, "2025-01-04", "M1"));
+        }
+
+        Ticket assigned = db.getTicketForUpdate(0);
+        assigned.apply(new TicketEvent.Assigned(DEVELOPER, "2025-01-05"));
+        assigned.apply(new TicketEvent.CommentAdded(DEVELOPER, "2025-01-05", "Looking into it"));
+        assigned.apply(new TicketEvent.CommentAdded(REPORTER, "2025-01-06", "Still failing"));
+
+        Ticket resolved = db.getTicketForUpdate(1);
+        resolved.apply(new TicketEvent.Assigned(DEVELOPER, "2025-01-05"));
+        resolved.apply(new TicketEvent.StatusChanged(DEVELOPER, "2025-01-07",
+                "IN_PROGRESS", "RESOLVED"));
+        return db;
+    }
+}
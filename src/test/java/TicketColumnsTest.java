@@ -0,0 +1,152 @@
+import main.database.Database;
+import main.database.TicketColumns;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import main.model.ticket.enums.TicketType;
+import main.visitor.PriorityCounter;
+import main.visitor.ResolutionEfficiencyVisitor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the columns follow the tickets: a row changed by an event is read
+ * again before the next column is handed out, and the row of a ticket moved to
+ * cold storage keeps its values until the ticket comes back and changes.
+ */
+public class TicketColumnsTest {
+    private static final String DEV = TestDatabases.DEVELOPER;
+
+    @Test
+    public void dirtyRowsAreReadAgain() throws IOException {
+        Database db = TestDatabases.handBuilt();
+        TicketColumns columns = db.getTicketColumns();
+        assertMatchesTickets(columns, db.getTickets());
+        byte[] statuses = columns.statuses();
+        assertThat(statuses[1]).isEqualTo(TicketColumns.RESOLVED);
+
+        db.getTicketForUpdate(1).apply(new TicketEvent.StatusChanged(DEV, "2025-01-09",
+                "RESOLVED", "CLOSED"));
+        Ticket ui = db.getTicketForUpdate(2);
+        ui.apply(new TicketEvent.Assigned(DEV, "2025-01-08"));
+        ui.apply(new TicketEvent.StatusChanged(DEV, "2025-01-10", "IN_PROGRESS", "RESOLVED"));
+        TestDatabases.forcePriority(db.getTicketForUpdate(2), Priority.CRITICAL);
+        db.addTicket(new Bug(3, "BUG", "Crash", "On start", Priority.MEDIUM, "OPEN",
+                TestDatabases.REPORTER, "2025-01-11"));
+
+        assertThat(columns.size()).isEqualTo(4);
+        assertThat(columns.statuses()[1]).isEqualTo(TicketColumns.CLOSED);
+        assertThat(columns.statuses()[2]).isEqualTo(TicketColumns.RESOLVED);
+        assertThat(columns.priorities()[2]).isEqualTo((byte) Priority.CRITICAL.ordinal());
+        assertThat(columns.daysToResolve()[2]).isEqualTo(3);
+        assertMatchesTickets(columns, db.getTickets());
+
+        // The column loops see the same tickets as a pass over the objects
+        int completed = TicketColumns.statusMask("RESOLVED", "CLOSED");
+        ResolutionEfficiencyVisitor objects = new ResolutionEfficiencyVisitor();
+        PriorityCounter byPriority = new PriorityCounter();
+        for (Ticket t : db.getTickets()) {
+            if ("RESOLVED".equals(t.getStatus()) || "CLOSED".equals(t.getStatus())) {
+                t.accept(objects);
+                byPriority.accumulate(t);
+            }
+        }
+        ResolutionEfficiencyVisitor rows = new ResolutionEfficiencyVisitor();
+        rows.visitColumns(columns, completed);
+        PriorityCounter byPriorityRows = new PriorityCounter();
+        byPriorityRows.accumulateColumns(columns, completed);
+        for (TicketType type : TicketType.all()) {
+            assertThat(rows.getCount(type.name())).isEqualTo(objects.getCount(type.name()));
+            assertThat(rows.getAverageEfficiency(type.name()))
+                    .isEqualTo(objects.getAverageEfficiency(type.name()));
+        }
+        for (Priority p : Priority.values()) {
+            assertThat(byPriorityRows.getCount(p)).isEqualTo(byPriority.getCount(p));
+        }
+        assertThat(byPriorityRows.getCount(Priority.CRITICAL)).isEqualTo(1);
+    }
+
+    @Test
+    public void coldRowsKeepTheirValuesUntilTheTicketComesBack() throws IOException {
+        TestDatabases.withUsers();
+        TicketColumns columns = new TicketColumns();
+        Bug hot = bug(0);
+        Bug cold = bug(1);
+        for (Ticket t : List.of(hot, cold)) {
+            t.setListener(columns);
+            columns.onTicketAdded(t);
+            t.apply(new TicketEvent.Assigned(DEV, "2025-01-05"));
+            t.apply(new TicketEvent.StatusChanged(DEV, "2025-01-07", "IN_PROGRESS",
+                    "RESOLVED"));
+        }
+        assertMatchesTickets(columns, List.of(hot, cold));
+
+        // Closed and moved before any column is read: the row is brought up to date
+        cold.apply(new TicketEvent.StatusChanged(DEV, "2025-01-08", "RESOLVED", "CLOSED"));
+        columns.onTicketMovedCold(cold);
+        cold.setListener(null);
+        hot.apply(new TicketEvent.StatusChanged(DEV, "2025-01-08", "RESOLVED", "CLOSED"));
+        assertThat(columns.statuses()[1]).isEqualTo(TicketColumns.CLOSED);
+        assertMatchesTickets(columns, List.of(hot, cold));
+
+        // The stored ticket is no longer listened to
+        Ticket stored = cold.copy();
+        cold.apply(new TicketEvent.StatusChanged(DEV, "2025-01-09", "CLOSED", "RESOLVED"));
+        assertThat(columns.statuses()[1]).isEqualTo(TicketColumns.CLOSED);
+
+        // Rehydrated as a new instance, it changes and its row follows it
+        stored.setListener(columns);
+        stored.apply(new TicketEvent.StatusChanged(DEV, "2025-01-10", "CLOSED", "RESOLVED"));
+        assertThat(columns.statuses()[1]).isEqualTo(TicketColumns.RESOLVED);
+        assertThat(columns.solvedDays()[1])
+                .isEqualTo((int) LocalDate.parse("2025-01-08").toEpochDay());
+        assertMatchesTickets(columns, List.of(hot, stored));
+
+        // Moved again while its row is clean
+        stored.apply(new TicketEvent.StatusChanged(DEV, "2025-01-11", "RESOLVED", "CLOSED"));
+        columns.statuses();
+        columns.onTicketMovedCold(stored);
+        stored.setListener(null);
+        hot.apply(new TicketEvent.PriorityForced(TestDatabases.MANAGER, "2025-01-12",
+                Priority.CRITICAL));
+        assertMatchesTickets(columns, List.of(hot, stored));
+    }
+
+    private static Bug bug(final int id) {
+        Bug bug = new Bug(id, "BUG", "Bug " + id, "Fixture", Priority.LOW, "OPEN",
+                TestDatabases.REPORTER, "2025-01-01");
+        bug.setSeverity("MINOR");
+        bug.setFrequency("RARE");
+        bug.setExpertiseArea("BACKEND");
+        return bug;
+    }
+
+    // Every row holds what its ticket says
+    private static void assertMatchesTickets(final TicketColumns columns,
+                                             final List<? extends Ticket> tickets) {
+        assertThat(columns.size()).isEqualTo(tickets.size());
+        for (int row = 0; row < tickets.size(); row++) {
+            Ticket t = tickets.get(row);
+            assertThat(columns.types()[row]).isEqualTo((byte) t.getTicketType().ordinal());
+            assertThat(columns.statuses()[row])
+                    .isEqualTo(TicketColumns.statusCode(t.getStatus()));
+            assertThat(columns.priorities()[row]).isEqualTo((byte) t.getPriority().ordinal());
+            assertThat(columns.assignedDays()[row]).isEqualTo(epochDay(t.getAssignedAt()));
+            assertThat(columns.solvedDays()[row]).isEqualTo(epochDay(t.getSolvedAt()));
+            assertThat(columns.daysToResolve()[row]).isEqualTo(t.getDaysToResolve());
+            int assignee = columns.assignees()[row];
+            assertThat(assignee == TicketColumns.NONE ? ""
+                    : columns.getAssigneeName(assignee)).isEqualTo(t.getAssignee());
+        }
+    }
+
+    private static int epochDay(final String date) {
+        return date.isEmpty() ? TicketColumns.NONE : (int) LocalDate.parse(date).toEpochDay();
+    }
+}
@@ -0,0 +1,156 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.Database;
+import main.database.TicketRiskAggregate;
+import main.database.TicketTimeline;
+import main.model.Priority;
+import main.model.ticket.Bug;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the point-in-time reports: the status and priority each ticket had on
+ * the day asked for, and that looking at the past changes nothing.
+ */
+public class TicketTimelineTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+    private static final String DEV = TestDatabases.DEVELOPER;
+    private static final LocalDate AS_OF = LocalDate.parse("2025-01-06");
+
+    private Database db;
+
+    /**
+     * The hand-built tickets, then:
+     * <ul>
+     *   <li>0: resolved and put back to work on 01-06, resolved again on 01-08;</li>
+     *   <li>1: in progress on 01-06, closed on 01-09;</li>
+     *   <li>2: forced to HIGH on 01-08, back to LOW on 01-12;</li>
+     *   <li>3: reported on 01-10.</li>
+     * </ul>
+     */
+    @BeforeEach
+    public void buildHistory() throws IOException {
+        db = TestDatabases.handBuilt();
+        Ticket reopened = db.getTicketForUpdate(0);
+        reopened.apply(new TicketEvent.StatusChanged(DEV, "2025-01-06", "IN_PROGRESS",
+                "RESOLVED"));
+        reopened.apply(new TicketEvent.StatusChanged(DEV, "2025-01-06", "RESOLVED",
+                "IN_PROGRESS"));
+        reopened.apply(new TicketEvent.StatusChanged(DEV, "2025-01-08", "IN_PROGRESS",
+                "RESOLVED"));
+
+        db.getTicketForUpdate(1).apply(new TicketEvent.StatusChanged(DEV, "2025-01-09",
+                "RESOLVED", "CLOSED"));
+
+        Ticket bumped = db.getTicketForUpdate(2);
+        bumped.apply(new TicketEvent.PriorityForced(TestDatabases.MANAGER, "2025-01-08",
+                Priority.HIGH));
+        bumped.apply(new TicketEvent.PriorityForced(TestDatabases.MANAGER, "2025-01-12",
+                null));
+
+        db.addTicket(new Bug(3, "BUG", "Late", "Reported after the day", Priority.CRITICAL,
+                "OPEN", TestDatabases.REPORTER, "2025-01-10"));
+    }
+
+    @Test
+    public void statusesAreTheLastOnesOfTheDay() {
+        TicketTimeline timeline = db.getTicketTimeline();
+        assertThat(statusAt(timeline, 0, "2025-01-05")).isEqualTo("IN_PROGRESS");
+        assertThat(statusAt(timeline, 0, "2025-01-06")).isEqualTo("IN_PROGRESS");
+        assertThat(statusAt(timeline, 0, "2025-01-08")).isEqualTo("RESOLVED");
+
+        assertThat(statusAt(timeline, 1, "2025-01-01")).isNull();
+        assertThat(statusAt(timeline, 1, "2025-01-06")).isEqualTo("IN_PROGRESS");
+        assertThat(statusAt(timeline, 1, "2025-01-07")).isEqualTo("RESOLVED");
+        assertThat(statusAt(timeline, 1, "2099-01-01")).isEqualTo("CLOSED");
+
+        assertThat(statusAt(timeline, 3, "2025-01-09")).isNull();
+        assertThat(statusAt(timeline, 3, "2025-01-10")).isEqualTo("OPEN");
+
+        // A later change drops the index of the ticket
+        db.getTicketForUpdate(0).apply(new TicketEvent.StatusChanged(DEV, "2025-01-13",
+                "RESOLVED", "IN_PROGRESS"));
+        assertThat(statusAt(timeline, 0, "2025-01-13")).isEqualTo("IN_PROGRESS");
+        assertThat(statusAt(timeline, 0, "2025-01-12")).isEqualTo("RESOLVED");
+    }
+
+    @Test
+    public void prioritiesAreTheOnesForcedByThen() {
+        TicketTimeline timeline = db.getTicketTimeline();
+        Ticket bumped = db.getTicket(2);
+        assertThat(timeline.priorityAt(bumped, LocalDate.parse("2025-01-07")))
+                .isEqualTo(Priority.LOW);
+        assertThat(timeline.priorityAt(bumped, LocalDate.parse("2025-01-08")))
+                .isEqualTo(Priority.HIGH);
+        assertThat(timeline.priorityAt(bumped, LocalDate.parse("2025-01-12")))
+                .isEqualTo(Priority.LOW);
+
+        TestDatabases.forcePriority(db.getTicketForUpdate(2), Priority.CRITICAL);
+        assertThat(timeline.priorityAt(db.getTicket(2), LocalDate.parse("2025-01-07")))
+                .isEqualTo(Priority.LOW);
+        assertThat(timeline.priorityAt(db.getTicket(2), LocalDate.parse("2099-01-01")))
+                .isEqualTo(Priority.CRITICAL);
+    }
+
+    @Test
+    public void activeTicketsAreCountedAsTheyWere() {
+        TestDatabases.forcePriority(db.getTicketForUpdate(2), Priority.CRITICAL);
+        TicketRiskAggregate risk = new TicketRiskAggregate();
+        db.getTicketTimeline().collectActive(db.getTickets(), AS_OF, risk);
+
+        // 0 was put back to work the same day, 1 was closed later, 3 did not exist yet,
+        // and 2 was bumped only later
+        assertThat(risk.getTotal()).isEqualTo(3);
+        assertThat(risk.getCount(Priority.HIGH)).isEqualTo(1);
+        assertThat(risk.getCount(Priority.MEDIUM)).isEqualTo(1);
+        assertThat(risk.getCount(Priority.LOW)).isEqualTo(1);
+        assertThat(risk.getCount(Priority.CRITICAL)).isZero();
+
+        // The live aggregate does not move
+        assertThat(db.getTicketRisk().getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    public void reportsAsOfADayDoNotStopTheRun() {
+        TestDatabases.forcePriority(db.getTicketForUpdate(2), Priority.CRITICAL);
+        List<ObjectNode> outputs = new ArrayList<>();
+        long version = db.getWriteVersion();
+        TestDatabases.execute(db, List.of(report("appStabilityReport", "2024-12-31"),
+                report("generateTicketRiskReport", AS_OF.toString())), outputs);
+
+        assertThat(outputs).hasSize(2);
+        JsonNode stability = outputs.get(0);
+        assertThat(stability.get("asOf").asText()).isEqualTo("2024-12-31");
+        assertThat(stability.at("/report/totalOpenTickets").asInt()).isZero();
+        assertThat(stability.at("/report/appStability").asText()).isEqualTo("STABLE");
+        assertThat(db.getWriteVersion()).isEqualTo(version);
+
+        JsonNode risk = outputs.get(1);
+        assertThat(risk.at("/report/totalTickets").asInt()).isEqualTo(3);
+        assertThat(risk.at("/report/ticketsByPriority/LOW").asInt()).isEqualTo(1);
+        assertThat(risk.at("/report/ticketsByPriority/CRITICAL").asInt()).isZero();
+    }
+
+    private String statusAt(final TicketTimeline timeline, final int id, final String date) {
+        return timeline.statusAt(db.getTicket(id), LocalDate.parse(date));
+    }
+
+    private static JsonNode report(final String name, final String asOf) {
+        ObjectNode command = MAPPER.createObjectNode();
+        command.put("command", name);
+        command.put("username", TestDatabases.MANAGER);
+        command.put("timestamp", "2025-01-14");
+        command.putObject("params").put("asOf", asOf);
+        return command;
+    }
+}
@@ -0,0 +1,129 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.database.Database;
+import main.database.UndoJournal;
+import main.model.ticket.Ticket;
+import main.model.ticket.TicketEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the bounds of the undo journal, and that the undo commands apply the
+ * inverse entries the forward commands journaled.
+ */
+public class UndoJournalTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+    private static final String DEV = TestDatabases.DEVELOPER;
+
+    @Test
+    public void eachStackKeepsTheLatestDepthEntries() {
+        UndoJournal journal = new UndoJournal(3, 100);
+        for (int i = 0; i < 5; i++) {
+            journal.record(0, DEV, new UndoJournal.RevertStatus("S" + i, "S" + (i + 1)));
+        }
+        assertThat(journal.size()).isEqualTo(3);
+
+        for (int i = 4; i >= 2; i--) {
+            assertThat(journal.pop(0, DEV, UndoJournal.RevertStatus.class).from())
+                    .isEqualTo("S" + i);
+        }
+        assertThat(journal.pop(0, DEV, UndoJournal.RevertStatus.class)).isNull();
+        assertThat(journal.keys()).isZero();
+    }
+
+    @Test
+    public void ticketsUsersAndKindsHaveTheirOwnStacks() {
+        UndoJournal journal = new UndoJournal(3, 100);
+        journal.record(0, DEV, new UndoJournal.Unassign("2025-01-01"));
+        journal.record(0, DEV, new UndoJournal.RevertStatus("IN_PROGRESS", "RESOLVED"));
+        journal.record(0, TestDatabases.REPORTER, new UndoJournal.RemoveComment(7, 0));
+        journal.record(1, DEV, new UndoJournal.Unassign("2025-01-02"));
+        assertThat(journal.keys()).isEqualTo(4);
+
+        assertThat(journal.pop(0, DEV, UndoJournal.Unassign.class).assignedAt())
+                .isEqualTo("2025-01-01");
+        assertThat(journal.pop(0, DEV, UndoJournal.RemoveComment.class)).isNull();
+        assertThat(journal.pop(0, TestDatabases.REPORTER, UndoJournal.RemoveComment.class))
+                .isEqualTo(new UndoJournal.RemoveComment(7, 0));
+        assertThat(journal.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void theStalestStackGoesFirstOnceTheJournalIsFull() {
+        UndoJournal journal = new UndoJournal(3, 2);
+        journal.record(0, DEV, new UndoJournal.Unassign("2025-01-01"));
+        journal.record(1, DEV, new UndoJournal.Unassign("2025-01-01"));
+        journal.record(0, DEV, new UndoJournal.Unassign("2025-01-02")); // 0 is the latest again
+        journal.record(2, DEV, new UndoJournal.Unassign("2025-01-03"));
+
+        assertThat(journal.keys()).isEqualTo(2);
+        assertThat(journal.pop(1, DEV, UndoJournal.Unassign.class)).isNull();
+        assertThat(journal.pop(0, DEV, UndoJournal.Unassign.class)).isNotNull();
+        assertThat(journal.pop(2, DEV, UndoJournal.Unassign.class)).isNotNull();
+
+        UndoJournal off = new UndoJournal(0, 2);
+        off.record(0, DEV, new UndoJournal.Unassign("2025-01-01"));
+        assertThat(off.size()).isZero();
+    }
+
+    @Test
+    public void inversesApplyOnlyWhileTheTicketIsWhereTheChangeLeftIt() throws IOException {
+        Database db = TestDatabases.handBuilt();
+        Ticket assigned = db.getTicket(0); // IN_PROGRESS since 2025-01-05
+        UndoJournal.Unassign unassign = new UndoJournal.Unassign("2025-01-05");
+        assertThat(unassign.appliesTo(assigned)).isTrue();
+        assertThat(new UndoJournal.Unassign("2025-01-01").appliesTo(assigned)).isFalse();
+        assertThat(unassign.undo(DEV, "2025-01-09"))
+                .isEqualTo(new TicketEvent.Deassigned(DEV, "2025-01-09"));
+
+        UndoJournal.RevertStatus revert = new UndoJournal.RevertStatus("IN_PROGRESS", "RESOLVED");
+        assertThat(revert.appliesTo(db.getTicket(1))).isTrue();
+        assertThat(revert.appliesTo(assigned)).isFalse();
+        assertThat(revert.undo(DEV, "2025-01-09")).isEqualTo(
+                new TicketEvent.StatusChanged(DEV, "2025-01-09", "RESOLVED", "IN_PROGRESS"));
+    }
+
+    @Test
+    public void undoCommandsPopTheJournaledInverses() throws IOException {
+        Database db = TestDatabases.handBuilt();
+        UndoJournal journal = db.getUndoJournal();
+        List<ObjectNode> outputs = new ArrayList<>();
+
+        TestDatabases.execute(db, List.of(command("changeStatus", 0, "2025-01-08"),
+                command("changeStatus", 0, "2025-01-09")), outputs);
+        assertThat(db.getTicket(0).getStatus()).isEqualTo("CLOSED");
+        assertThat(journal.size()).isEqualTo(2);
+
+        TestDatabases.execute(db, List.of(command("undoChangeStatus", 0, "2025-01-10")), outputs);
+        assertThat(db.getTicket(0).getStatus()).isEqualTo("RESOLVED");
+        TestDatabases.execute(db, List.of(command("undoChangeStatus", 0, "2025-01-10")), outputs);
+        assertThat(db.getTicket(0).getStatus()).isEqualTo("IN_PROGRESS");
+        assertThat(journal.size()).isZero();
+
+        // The handmade assignment was never journaled: the undo works it out instead
+        TestDatabases.execute(db, List.of(command("undoAssignTicket", 0, "2025-01-11")),
+                outputs);
+        assertThat(db.getTicket(0).getStatus()).isEqualTo("OPEN");
+        assertThat(db.getTicket(0).getAssignee()).isEmpty();
+        assertThat(outputs).isEmpty();
+
+        db.reset();
+        assertThat(journal.size()).isZero();
+    }
+
+    private static JsonNode command(final String name, final int ticketId,
+                                    final String timestamp) {
+        ObjectNode command = MAPPER.createObjectNode();
+        command.put("command", name);
+        command.put("username", DEV);
+        command.put("ticketID", ticketId);
+        command.put("timestamp", timestamp);
+        return command;
+    }
+}
@@ -0,0 +1,193 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.App;
+import main.database.Database;
+import main.database.WriteAheadLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the write-ahead log gives back what was appended, drops a torn tail,
+ * and lets a run that died before writing its output produce the same output.
+ */
+public class WriteAheadLogTest {
+    private static final ObjectMapper MAPPER = TestDatabases.MAPPER;
+    private static final String INPUT = "input/in_18_test_complex.json";
+    private static final long FINGERPRINT = 42;
+
+    @AfterEach
+    public void clearProperties() {
+        System.clearProperty(WriteAheadLog.DIR_PROPERTY);
+        System.clearProperty("bugtracker.wal.checkpointEvery");
+    }
+
+    @Test
+    public void recordsComeBackAsAppended(@TempDir final Path dir) throws IOException {
+        List<JsonNode> trees = List.of(
+                MAPPER.readTree("{\"command\":\"reportTicket\",\"username\":\"ana\","
+                        + "\"timestamp\":\"2025-01-01\",\"params\":{\"type\":\"BUG\","
+                        + "\"title\":\"Crash \\u00een \\u0219ir\",\"usabilityScore\":-7,"
+                        + "\"ratio\":0.25,\"big\":12345678901,\"tags\":[true,false,null]}}"),
+                MAPPER.readTree("{\"command\":\"changeStatus\",\"ticketID\":3}"),
+                MAPPER.readTree("{\"command\":\"createMilestone\",\"tickets\":[],"
+                        + "\"blockingFor\":[\"M2\"],\"extra\":{}}"));
+        List<ObjectNode> reads = List.of(
+                (ObjectNode) MAPPER.readTree("{\"command\":\"search\",\"results\":[]}"),
+                (ObjectNode) MAPPER.readTree("{\"command\":\"viewTicketHistory\","
+                        + "\"ticketHistory\":[{\"id\":3,\"ratio\":0.5}]}"));
+        try (WriteAheadLog wal = WriteAheadLog.open(dir, FINGERPRINT, 1 << 16, 1)) {
+            assertThat(wal.getRecovered()).isEmpty();
+            for (int i = 0; i < trees.size(); i++) {
+                wal.append(i * 2L, 100L * i, trees.get(i).get("command").asText(),
+                        trees.get(i), reads.subList(0, i));
+            }
+        }
+
+        try (WriteAheadLog wal = WriteAheadLog.open(dir, FINGERPRINT, 1 << 16, 1)) {
+            List<WriteAheadLog.Record> records = wal.getRecovered();
+            assertThat(records).hasSize(trees.size());
+            for (int i = 0; i < trees.size(); i++) {
+                assertThat(records.get(i).sequence()).isEqualTo(i * 2L);
+                assertThat(records.get(i).inputOffset()).isEqualTo(100L * i);
+                assertThat(records.get(i).command())
+                        .isEqualTo(trees.get(i).get("command").asText());
+                assertThat(records.get(i).tree()).isEqualTo(trees.get(i));
+                assertThat(records.get(i).outputsBefore()).isEqualTo(reads.subList(0, i));
+            }
+            assertThat(wal.getLastRecoveredSequence()).isEqualTo(4);
+        }
+
+        // A log left by another input is dropped
+        try (WriteAheadLog wal = WriteAheadLog.open(dir, FINGERPRINT + 1, 1 << 16, 1)) {
+            assertThat(wal.getRecovered()).isEmpty();
+        }
+    }
+
+    @Test
+    public void aTornTailIsCutOff(@TempDir final Path dir) throws IOException {
+        JsonNode tree = MAPPER.readTree("{\"command\":\"addComment\",\"ticketID\":1,"
+                + "\"comment\":\"Reproduced on staging\"}");
+        try (WriteAheadLog wal = WriteAheadLog.open(dir, FINGERPRINT, 1 << 16, 1)) {
+            for (int i = 0; i < 3; i++) {
+                wal.append(i, i, "addComment", tree, List.of());
+            }
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 3); // Half-written last record
+        }
+
+        try (WriteAheadLog wal = WriteAheadLog.open(dir, FINGERPRINT, 1 << 16, 1)) {
+            assertThat(wal.getRecovered()).extracting(WriteAheadLog.Record::sequence)
+                    .containsExactly(0L, 1L);
+            wal.append(2, 2, "addComment", tree, List.of());
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(dir, FINGERPRINT, 1 << 16, 1)) {
+            assertThat(wal.getRecovered()).extracting(WriteAheadLog.Record::sequence)
+                    .containsExactly(0L, 1L, 2L);
+        }
+    }
+
+    @ParameterizedTest(name = "Recovered output with checkpoints every {0}")
+    @ValueSource(ints = {0, 3})
+    public void aCrashedRunRecoversItsOutput(final int checkpointEvery, @TempDir final Path dir)
+            throws IOException {
+        Path expected = dir.resolve("expected.json");
+        App.run(INPUT, expected.toString());
+
+        Path wal = dir.resolve("wal");
+        System.setProperty(WriteAheadLog.DIR_PROPERTY, wal.toString());
+        System.setProperty("bugtracker.wal.checkpointEvery", String.valueOf(checkpointEvery));
+
+        // The output cannot be written (its directory is a file), so the log stays behind
+        Path blocked = dir.resolve("blocked");
+        Files.createFile(blocked);
+        App.run(INPUT, blocked.resolve("out.json").toString());
+        assertThat(wal).isNotEmptyDirectory();
+
+        Path actual = dir.resolve("actual.json");
+        App.run(INPUT, actual.toString());
+        assertThat(MAPPER.readTree(actual.toFile())).isEqualTo(MAPPER.readTree(expected.toFile()));
+        assertThat(wal).isEmptyDirectory();
+    }
+
+    @Test
+    public void theLogAloneGivesBackTheRunUpToItsLastRecord(@TempDir final Path dir)
+            throws IOException {
+        Path expected = dir.resolve("expected.json");
+        App.run(INPUT, expected.toString());
+        List<JsonNode> expectedOutputs = new ArrayList<>();
+        MAPPER.readTree(expected.toFile()).forEach(expectedOutputs::add);
+
+        Path wal = dir.resolve("wal");
+        System.setProperty(WriteAheadLog.DIR_PROPERTY, wal.toString());
+        System.setProperty("bugtracker.wal.checkpointEvery", "0");
+        Path blocked = dir.resolve("blocked");
+        Files.createFile(blocked);
+        App.run(INPUT, blocked.resolve("out.json").toString());
+
+        // Replay the records on a fresh database, without looking at the input
+        Database db = TestDatabases.withUsers();
+        List<ObjectNode> outputs = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(wal, WriteAheadLog.fingerprint(
+                Files.readAllBytes(Path.of(INPUT))), 1 << 16, 1)) {
+            for (WriteAheadLog.Record record : log.getRecovered()) {
+                outputs.addAll(record.outputsBefore());
+                TestDatabases.execute(db, List.of(record.tree()), outputs);
+            }
+        }
+        // Compared as written, since numbers read back may have another node type
+        assertThat(outputs).isNotEmpty();
+        assertThat(MAPPER.readTree(MAPPER.writeValueAsBytes(outputs)))
+                .containsExactlyElementsOf(expectedOutputs.subList(0, outputs.size()));
+    }
+
+    @Test
+    public void aRunCutShortReplaysItsLogThenTheInput(@TempDir final Path dir)
+            throws IOException {
+        Path expected = dir.resolve("expected.json");
+        App.run(INPUT, expected.toString());
+
+        Path wal = dir.resolve("wal");
+        System.setProperty(WriteAheadLog.DIR_PROPERTY, wal.toString());
+        System.setProperty("bugtracker.wal.checkpointEvery", "0");
+        Path blocked = dir.resolve("blocked");
+        Files.createFile(blocked);
+        App.run(INPUT, blocked.resolve("out.json").toString());
+
+        // Keep the first half of the log, as if the run had died halfway
+        Path segment;
+        try (Stream<Path> files = Files.list(wal)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() / 2);
+        }
+        try (WriteAheadLog log = WriteAheadLog.open(wal, WriteAheadLog.fingerprint(
+                Files.readAllBytes(Path.of(INPUT))), 1 << 16, 1)) {
+            assertThat(log.getRecovered()).isNotEmpty();
+        }
+
+        Path actual = dir.resolve("actual.json");
+        App.run(INPUT, actual.toString());
+        assertThat(MAPPER.readTree(actual.toFile())).isEqualTo(MAPPER.readTree(expected.toFile()));
+    }
+}